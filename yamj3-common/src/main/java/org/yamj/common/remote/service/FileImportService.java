@@ -22,9 +22,38 @@
  */
 package org.yamj.common.remote.service;
 
+import java.util.List;
 import org.yamj.common.dto.ImportDTO;
 
 public interface FileImportService {
 
     void importScanned(ImportDTO importDTO);
+
+    /**
+     * Import a batch of scanned directories in one call.
+     *
+     * @param importDTOs the scanned directories
+     */
+    void importScannedBatch(List<ImportDTO> importDTOs);
+
+    /**
+     * Notify about directories which vanished from a library.
+     *
+     * @param client the client of the library
+     * @param baseDirectory the base directory of the library
+     * @param directoryPaths the paths of the vanished directories
+     */
+    void deleteScannedDirectories(String client, String baseDirectory, List<String> directoryPaths);
+
+    /**
+     * Get the id of the library in the core.
+     *
+     * The id changes if the library has been deleted and imported again,
+     * for example after a reset of the core database.
+     *
+     * @param client the client of the library
+     * @param baseDirectory the base directory of the library
+     * @return the id or null if the library is not known
+     */
+    Long getLibraryId(String client, String baseDirectory);
 }
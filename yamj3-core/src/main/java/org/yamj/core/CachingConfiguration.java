@@ -47,6 +47,7 @@ public class CachingConfiguration implements CachingConfigurer {
     private static final Logger LOG = LoggerFactory.getLogger(CachingConfiguration.class);
 
     private static final String ATTACHMENTS = "attachmentCache";
+    private static final int TTL_QUERY_RESULTS = 60;
     private static final int TTL_10_MINUTES = 600;
     private static final int TTL_ONE_DAY = 86400;
     private static final int TTL_ONE_WEEK = TTL_ONE_DAY * 7;
@@ -66,12 +67,26 @@ public class CachingConfiguration implements CachingConfigurer {
                 .cache(cacheConfigDatabase(DB_COUNTRY, 50, TTL_ONE_DAY))
                 .cache(cacheConfigDatabase(DB_CERTIFICATION, 100, TTL_ONE_DAY))
                 .cache(cacheConfigDatabase(DB_PERSON, 2000, TTL_ONE_DAY))
+                .cache(cacheConfigDatabase(DB_PERSON_ID, 20000, TTL_ONE_DAY))
                 .cache(cacheConfigDatabase(DB_BOXEDSET, 50, TTL_ONE_DAY))
                 .cache(cacheConfigDatabase(DB_AWARD, 50, TTL_ONE_DAY))
                 .cache(cacheConfigDatabase(DB_STAGEFILE, 100, 180))
                 .cache(cacheConfigDatabase(DB_ARTWORK_PROFILE, 30, TTL_ONE_DAY))
                 .cache(cacheConfigDatabase(DB_ARTWORK_IMAGE, 2000, TTL_ONE_DAY))
                 
+                // regions of the hibernate second-level cache; entities changed by
+                // other core nodes are seen at the latest when the entry expires
+                .cache(cacheConfigDatabase(HB_GENRE, 500, TTL_ONE_DAY))
+                .cache(cacheConfigDatabase(HB_STUDIO, 500, TTL_ONE_DAY))
+                .cache(cacheConfigDatabase(HB_LIBRARY, 50, TTL_ONE_DAY))
+                .cache(cacheConfigDatabase(HB_COUNTRY, 300, TTL_ONE_DAY))
+                .cache(cacheConfigDatabase(HB_CERTIFICATION, 500, TTL_ONE_DAY))
+                .cache(cacheConfigDatabase(HB_ARTWORK_PROFILE, 100, TTL_10_MINUTES))
+                .cache(cacheConfigDatabase(HB_ARTWORK_PROFILE_NATURALID, 100, TTL_10_MINUTES))
+                .cache(cacheConfigDatabase(HB_QUERY_RESULTS, 1000, TTL_QUERY_RESULTS))
+                // update timestamps must outlive the query results and may not be evicted
+                .cache(cacheConfig(HB_UPDATE_TIMESTAMPS, 0, 0).eternal(true))
+                
                 // caches for API objects
                 .cache(cacheConfig(API_GENRES, 5000, TTL_ONE_WEEK))
                 .cache(cacheConfig(API_STUDIOS, 5000, TTL_ONE_WEEK))
@@ -120,7 +135,7 @@ public class CachingConfiguration implements CachingConfigurer {
             .timeToLiveSeconds(timeToLiveSeconds)
             .persistence(new PersistenceConfiguration().strategy(PersistenceConfiguration.Strategy.NONE))
             .memoryStoreEvictionPolicy(MemoryStoreEvictionPolicy.LRU)
-            .statistics(false);
+            .statistics(true);
     }
 
     private static CacheConfiguration cacheConfigDatabase(String name, int maxEntries, long timeToLiveSeconds) {
@@ -132,11 +147,16 @@ public class CachingConfiguration implements CachingConfigurer {
             .timeToLiveSeconds(timeToLiveSeconds)
             .persistence(new PersistenceConfiguration().strategy(PersistenceConfiguration.Strategy.NONE))
             .memoryStoreEvictionPolicy(MemoryStoreEvictionPolicy.LFU)
-            .statistics(false);
+            .statistics(true);
     }
 
     @Bean
     public Cache attachmentCache() {
         return cacheManager().getCache(ATTACHMENTS);
     }
+
+    @Bean
+    public Cache personIdCache() {
+        return cacheManager().getCache(DB_PERSON_ID);
+    }
 }
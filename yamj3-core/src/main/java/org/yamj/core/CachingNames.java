@@ -30,12 +30,23 @@ public final class CachingNames {
     public static final String DB_COUNTRY = "db_country";
     public static final String DB_CERTIFICATION = "db_certification";
     public static final String DB_PERSON = "db_person";
+    public static final String DB_PERSON_ID = "db_person_id";
     public static final String DB_BOXEDSET = "db_boxed_set";
     public static final String DB_AWARD = "db_award";
     public static final String DB_STAGEFILE = "db_stagefile";
     public static final String DB_ARTWORK_PROFILE = "db_artwork_profile";
     public static final String DB_ARTWORK_IMAGE = "db_artwork_image";
 
+    public static final String HB_GENRE = "hb_genre";
+    public static final String HB_STUDIO = "hb_studio";
+    public static final String HB_LIBRARY = "hb_library";
+    public static final String HB_COUNTRY = "hb_country";
+    public static final String HB_CERTIFICATION = "hb_certification";
+    public static final String HB_ARTWORK_PROFILE = "hb_artwork_profile";
+    public static final String HB_ARTWORK_PROFILE_NATURALID = "hb_artwork_profile_naturalid";
+    public static final String HB_QUERY_RESULTS = "org.hibernate.cache.internal.StandardQueryCache";
+    public static final String HB_UPDATE_TIMESTAMPS = "org.hibernate.cache.spi.UpdateTimestampsCache";
+
     public static final String API_GENRES = "api_genres";
     public static final String API_STUDIOS = "api_studios";
 	public static final String API_LIBRARIES = "api_libraries";
@@ -22,6 +22,7 @@
  */
 package org.yamj.core;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.datatype.hibernate5.Hibernate5Module;
 import com.fasterxml.jackson.datatype.joda.JodaMapper;
 import java.io.File;
@@ -90,15 +91,19 @@ public class YamjConfiguration extends WebMvcConfigurationSupport {
 
     @Override
     public void configureMessageConverters(List<HttpMessageConverter<?>> converters) {
-        converters.add(new MappingJackson2HttpMessageConverter(
-           new JodaMapper().registerModule(
-               new Hibernate5Module().configure(Hibernate5Module.Feature.FORCE_LAZY_LOADING, true))));
+        converters.add(new MappingJackson2HttpMessageConverter(jsonObjectMapper()));
         
         ByteArrayHttpMessageConverter byteArrayHttpMessageConverter = new ByteArrayHttpMessageConverter();
         byteArrayHttpMessageConverter.setSupportedMediaTypes(Arrays.asList(new MediaType[]{MediaType.IMAGE_JPEG, MediaType.IMAGE_PNG}));
         converters.add(byteArrayHttpMessageConverter);
     }
 
+    @Bean
+    public ObjectMapper jsonObjectMapper() {
+        return new JodaMapper().registerModule(
+               new Hibernate5Module().configure(Hibernate5Module.Feature.FORCE_LAZY_LOADING, true));
+    }
+
     @Bean
     public InternalResourceViewResolver getInternalResourceViewResolver() {
         InternalResourceViewResolver resolver = new InternalResourceViewResolver();
@@ -22,17 +22,20 @@
  */
 package org.yamj.core.api.json;
 
-import java.io.FileInputStream;
+import java.io.File;
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Set;
-import org.apache.commons.io.IOUtils;
+import javax.servlet.http.HttpServletResponse;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.*;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.ServletWebRequest;
 import org.springframework.web.multipart.MultipartFile;
+import org.yamj.common.tools.PropertyTools;
 import org.yamj.common.type.MetaDataType;
 import org.yamj.core.api.model.ApiStatus;
 import org.yamj.core.api.model.dto.ApiArtworkDTO;
@@ -49,6 +52,7 @@ import org.yamj.core.service.artwork.ArtworkProcessorService;
 import org.yamj.core.service.artwork.ArtworkUploadService;
 import org.yamj.core.service.artwork.ImageDTO;
 import org.yamj.core.service.file.FileStorageService;
+import org.yamj.core.web.FileResponseWriter;
 import org.yamj.plugin.api.model.type.ArtworkType;
 
 @RestController
@@ -172,24 +176,31 @@ public class ArtworkController {
         return apiStatus;
     }
     
-    @RequestMapping(value = "/get/{profile}/{id}", method=RequestMethod.GET, produces = {MediaType.IMAGE_PNG_VALUE, MediaType.IMAGE_JPEG_VALUE})
-    public ResponseEntity<byte[]> getImage(@PathVariable("profile") String profile, @PathVariable("id") Long id) {
+    @RequestMapping(value = "/get/{profile}/{id}", method={RequestMethod.GET, RequestMethod.HEAD}, produces = {MediaType.IMAGE_PNG_VALUE, MediaType.IMAGE_JPEG_VALUE})
+    public void getImage(@PathVariable("profile") String profile, @PathVariable("id") Long id, ServletWebRequest webRequest, HttpServletResponse response) throws IOException {
         final long start = System.currentTimeMillis();
         try {
             ImageDTO image = this.artworkLocatedProcessorService.getImage(id, profile);
             if (image == null) {
-                return new ResponseEntity<>(HttpStatus.NOT_FOUND);
+                response.sendError(HttpServletResponse.SC_NOT_FOUND);
+                return;
             }
-            
-            try (FileInputStream fos = new FileInputStream(image.getResource())) {
-                HttpHeaders headers = new HttpHeaders();
-                headers.setContentType(image.getMediaType());
-                return new ResponseEntity<>(IOUtils.toByteArray(fos), headers, HttpStatus.OK);
+            if (image.isPending()) {
+                // image is being generated; the player should retry after another render timeout
+                final int retryAfter = Math.max(1, PropertyTools.getIntProperty("yamj3.artwork.render.timeout", 10));
+                response.setStatus(HttpServletResponse.SC_ACCEPTED);
+                response.setHeader("Retry-After", Integer.toString(retryAfter));
+                return;
             }
+            
+            final int maxAge = PropertyTools.getIntProperty("yamj3.api.artwork.maxAge", 86400);
+            FileResponseWriter.write(new File(image.getResource()), image.getMediaType().toString(), maxAge, webRequest, response);
         } catch (Exception ex) {
             LOG.warn("Failed to get image for ID {} and profile '{}': {}", id, profile, ex.getMessage());
             LOG.trace("Image retrieval error", ex);
-            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+            if (!response.isCommitted()) {
+                response.sendError(HttpServletResponse.SC_BAD_REQUEST);
+            }
         } finally {
             LOG.trace("Image generation took {} ms", System.currentTimeMillis()-start);
         }
@@ -22,18 +22,23 @@
  */
 package org.yamj.core.api.json;
 
+import static org.yamj.core.database.Literals.*;
 import static org.yamj.plugin.api.Constants.ALL;
 import static org.yamj.plugin.api.Constants.DEFAULT_SPLITTER;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import javax.servlet.http.HttpServletResponse;
 import org.apache.commons.lang3.StringUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.web.bind.annotation.*;
 import org.yamj.common.type.MetaDataType;
+import org.yamj.core.api.model.ApiStatus;
 import org.yamj.core.api.model.CountGeneric;
 import org.yamj.core.api.model.CountTimestamp;
 import org.yamj.core.api.model.dto.ApiPersonDTO;
@@ -41,6 +46,7 @@ import org.yamj.core.api.model.dto.ApiVideoDTO;
 import org.yamj.core.api.options.OptionsId;
 import org.yamj.core.api.options.OptionsIndexVideo;
 import org.yamj.core.api.wrapper.ApiWrapperList;
+import org.yamj.core.api.wrapper.ApiWrapperListStreamer;
 import org.yamj.core.database.service.JsonApiStorageService;
 
 @RestController
@@ -48,14 +54,23 @@ import org.yamj.core.database.service.JsonApiStorageService;
 public class IndexController {
 
     private static final Logger LOG = LoggerFactory.getLogger(IndexController.class);
+    private static final String[] VIDEO_KEYSET_FIELDS = {LITERAL_TITLE, LITERAL_SORT_TITLE, LITERAL_ID};
+    private static final String[] PERSON_KEYSET_FIELDS = {LITERAL_NAME, LITERAL_ID};
     @Autowired
     private JsonApiStorageService jsonApiStorageService;
+    @Autowired
+    private ObjectMapper jsonObjectMapper;
 
     @RequestMapping("/video")
     public ApiWrapperList<ApiVideoDTO> getVideoList(@ModelAttribute("options") OptionsIndexVideo options) {
         LOG.debug("Video index: {}", options);
 
         ApiWrapperList<ApiVideoDTO> wrapper = new ApiWrapperList<>(options);
+        if (!options.isValidCursor(VIDEO_KEYSET_FIELDS)) {
+            wrapper.setStatusCheck(ApiStatus.INVALID_CURSOR);
+            return wrapper;
+        }
+        
         wrapper.setResults(jsonApiStorageService.getVideoList(wrapper, options));
         LOG.debug("Got video index with {} entries: {}", wrapper.getCount(), wrapper.getQueryDuration());
         return wrapper;
@@ -66,11 +81,75 @@ public class IndexController {
         LOG.debug("Person index: {}", options);
 
         ApiWrapperList<ApiPersonDTO> wrapper = new ApiWrapperList<>(options);
+        if (!options.isValidCursor(PERSON_KEYSET_FIELDS)) {
+            wrapper.setStatusCheck(ApiStatus.INVALID_CURSOR);
+            return wrapper;
+        }
+        
         wrapper.setResults(jsonApiStorageService.getPersonList(wrapper, options));
         LOG.debug("Got person index with {} entries: {}", wrapper.getCount(), wrapper.getQueryDuration());
         return wrapper;
     }
 
+    /**
+     * Stream the video index directly to the response.
+     * 
+     * Meant for large results (i.e. without max), because the results are
+     * written in chunks while scrolling through the query results.
+     */
+    @RequestMapping("/video/stream")
+    public void streamVideoList(@ModelAttribute("options") OptionsIndexVideo options, HttpServletResponse response) throws IOException {
+        LOG.debug("Stream video index: {}", options);
+
+        ApiWrapperList<ApiVideoDTO> wrapper = new ApiWrapperList<>(options);
+        ApiWrapperListStreamer<ApiVideoDTO> streamer = startStreaming(wrapper, response);
+        if (options.isValidCursor(VIDEO_KEYSET_FIELDS)) {
+            try {
+                jsonApiStorageService.streamVideoList(wrapper, options, streamer);
+            } catch (RuntimeException ex) {
+                LOG.error("Failed to stream video index", ex);
+                streamer.abort(ex);
+                return;
+            }
+            streamer.finish();
+        } else {
+            streamer.finish(ApiStatus.INVALID_CURSOR);
+        }
+        LOG.debug("Streamed video index with {} entries: {}", streamer.getCount(), wrapper.getQueryDuration());
+    }
+
+    /**
+     * Stream the person index directly to the response.
+     * 
+     * Meant for large results (i.e. without max), because the results are
+     * written in chunks while scrolling through the query results.
+     */
+    @RequestMapping("/person/stream")
+    public void streamPersonList(@ModelAttribute("options") OptionsId options, HttpServletResponse response) throws IOException {
+        LOG.debug("Stream person index: {}", options);
+
+        ApiWrapperList<ApiPersonDTO> wrapper = new ApiWrapperList<>(options);
+        ApiWrapperListStreamer<ApiPersonDTO> streamer = startStreaming(wrapper, response);
+        if (options.isValidCursor(PERSON_KEYSET_FIELDS)) {
+            try {
+                jsonApiStorageService.streamPersonList(wrapper, options, streamer);
+            } catch (RuntimeException ex) {
+                LOG.error("Failed to stream person index", ex);
+                streamer.abort(ex);
+                return;
+            }
+            streamer.finish();
+        } else {
+            streamer.finish(ApiStatus.INVALID_CURSOR);
+        }
+        LOG.debug("Streamed person index with {} entries: {}", streamer.getCount(), wrapper.getQueryDuration());
+    }
+
+    private <T> ApiWrapperListStreamer<T> startStreaming(ApiWrapperList<T> wrapper, HttpServletResponse response) throws IOException {
+        response.setContentType("application/json; charset=utf-8");
+        return new ApiWrapperListStreamer<>(jsonObjectMapper, wrapper, response.getOutputStream());
+    }
+
     @RequestMapping("/count")
     public List<CountTimestamp> getCount(@RequestParam(required = false, defaultValue = ALL) String type) {
         List<CountTimestamp> results = new ArrayList<>();
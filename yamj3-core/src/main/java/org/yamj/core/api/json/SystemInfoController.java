@@ -22,6 +22,12 @@
  */
 package org.yamj.core.api.json;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import net.sf.ehcache.CacheManager;
+import net.sf.ehcache.Ehcache;
+import net.sf.ehcache.statistics.StatisticsGateway;
 import org.apache.commons.lang3.BooleanUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -30,6 +36,7 @@ import org.springframework.web.bind.annotation.*;
 import org.yamj.common.model.YamjInfo;
 import org.yamj.common.model.YamjInfoBuild;
 import org.yamj.common.type.MetaDataType;
+import org.yamj.core.api.model.CacheStatistics;
 import org.yamj.core.api.model.CountTimestamp;
 import org.yamj.core.database.service.JsonApiStorageService;
 
@@ -42,6 +49,8 @@ public class SystemInfoController {
     
     @Autowired
     private JsonApiStorageService jsonApiStorageService;
+    @Autowired
+    private CacheManager ehCacheManager;
 
     @RequestMapping("")
     public String getSystemUp() {
@@ -69,4 +78,35 @@ public class SystemInfoController {
         }
         return YAMJ_INFO;
     }
+
+    /**
+     * Get the usage of the caches, including the regions of the hibernate second-level cache
+     *
+     * @return
+     */
+    @RequestMapping("/cache")
+    public List<CacheStatistics> getCacheStatistics() {
+        final String[] cacheNames = ehCacheManager.getCacheNames();
+        Arrays.sort(cacheNames);
+        
+        List<CacheStatistics> result = new ArrayList<>(cacheNames.length);
+        for (String cacheName : cacheNames) {
+            final Ehcache cache = ehCacheManager.getEhcache(cacheName);
+            if (cache == null) {
+                continue;
+            }
+            
+            final StatisticsGateway statistics = cache.getStatistics();
+            CacheStatistics stats = new CacheStatistics();
+            stats.setName(cacheName);
+            stats.setSize(statistics.getSize());
+            stats.setHits(statistics.cacheHitCount());
+            stats.setMisses(statistics.cacheMissCount());
+            stats.setPuts(statistics.cachePutCount());
+            stats.setEvictions(statistics.cacheEvictedCount());
+            stats.setExpirations(statistics.cacheExpiredCount());
+            result.add(stats);
+        }
+        return result;
+    }
 }
@@ -30,6 +30,7 @@ public class ApiStatus {
     public static final ApiStatus OK = ApiStatus.ok("OK");
     public static final ApiStatus NO_RECORD = ApiStatus.notFound("No record found");
     public static final ApiStatus INVALID_ID = ApiStatus.badRequest("Not a valid ID");
+    public static final ApiStatus INVALID_CURSOR = ApiStatus.badRequest("Not a valid cursor");
     
     private final int status;
     private final String message;
@@ -27,8 +27,10 @@ import java.util.Map.Entry;
 import org.apache.commons.lang.math.NumberUtils;
 import org.apache.commons.lang3.StringUtils;
 import org.yamj.common.type.MetaDataType;
+import org.yamj.core.api.model.dto.ApiVideoDTO;
 import org.yamj.core.api.options.OptionsIndexVideo;
 import org.yamj.core.database.model.type.ResolutionType;
+import org.yamj.core.database.model.type.SearchType;
 
 /**
  * @author modmax
@@ -47,6 +49,9 @@ public class IndexParams {
     private static final String RATING = "rating";
     private static final String NEWEST = "newest";
     private static final String BOXSET = "boxset";
+    private static final String TITLE = "title";
+    private static final String SORT_TITLE = "sortTitle";
+    private static final String ID = "id";
 
     private final OptionsIndexVideo options;
     private final Map<String, String> includes;
@@ -84,8 +89,69 @@ public class IndexParams {
         return options.getSearchString(addWhere);
     }
 
+    public String getSearchString(boolean addWhere, SearchType searchType, String idColumn) {
+        return options.getSearchString(addWhere, searchType, idColumn);
+    }
+
     public String getSortString() {
-        return options.getSortString();
+        final String keysetField = getKeysetField();
+        if (keysetField == null) {
+            return options.getSortString();
+        }
+        
+        // add the video type and the id for a stable order
+        final String direction = options.isSortDescending() ? " DESC" : " ASC";
+        StringBuilder sb = new StringBuilder(options.getSortString());
+        sb.append(", videoType").append(direction);
+        if (!ID.equals(keysetField)) {
+            sb.append(", id").append(direction);
+        }
+        return sb.toString();
+    }
+
+    // keyset pagination
+    public String getKeysetField() {
+        return options.getKeysetSortField(TITLE, SORT_TITLE, ID);
+    }
+
+    public String getKeysetString(MetaDataType type, String tableAlias) {
+        final KeysetCursor cursor = options.getKeysetCursor();
+        final String keysetField = getKeysetField();
+        if (cursor == null || keysetField == null) {
+            return "";
+        }
+        
+        final String sortColumn;
+        if (TITLE.equals(keysetField)) {
+            sortColumn = tableAlias + ".title";
+        } else if (SORT_TITLE.equals(keysetField)) {
+            sortColumn = tableAlias + ".title_sort";
+        } else {
+            sortColumn = null;
+        }
+        
+        if (sortColumn != null) {
+            addParameter(KeysetCursor.PARAM_KEYSET_VALUE, cursor.getSortValue());
+        }
+        addParameter(KeysetCursor.PARAM_KEYSET_ID, cursor.getId());
+        return cursor.getCondition(sortColumn, tableAlias + ".id", type.toString(), options.isSortDescending());
+    }
+
+    public String getNextCursor(ApiVideoDTO lastVideo) {
+        final String keysetField = getKeysetField();
+        if (keysetField == null) {
+            return null;
+        }
+        
+        final String sortValue;
+        if (TITLE.equals(keysetField)) {
+            sortValue = lastVideo.getTitle();
+        } else if (SORT_TITLE.equals(keysetField)) {
+            sortValue = lastVideo.getSortTitle();
+        } else {
+            sortValue = null;
+        }
+        return new KeysetCursor(sortValue, lastVideo.getVideoType().toString(), lastVideo.getId()).encode();
     }
 
     public List<DataItem> getDataItems() {
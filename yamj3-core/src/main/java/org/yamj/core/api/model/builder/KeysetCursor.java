@@ -0,0 +1,168 @@
+/*
+ *      Copyright (c) 2004-2015 YAMJ Members
+ *      https://github.com/organizations/YAMJ/teams
+ *
+ *      This file is part of the Yet Another Media Jukebox (YAMJ).
+ *
+ *      YAMJ is free software: you can redistribute it and/or modify
+ *      it under the terms of the GNU General Public License as published by
+ *      the Free Software Foundation, either version 3 of the License, or
+ *      any later version.
+ *
+ *      YAMJ is distributed in the hope that it will be useful,
+ *      but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *      MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *      GNU General Public License for more details.
+ *
+ *      You should have received a copy of the GNU General Public License
+ *      along with YAMJ.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ *      Web: https://github.com/YAMJ/yamj-v3
+ *
+ */
+package org.yamj.core.api.model.builder;
+
+import java.io.UnsupportedEncodingException;
+import java.net.URLDecoder;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import org.apache.commons.codec.binary.Base64;
+import org.apache.commons.lang.math.NumberUtils;
+import org.apache.commons.lang3.StringUtils;
+
+/**
+ * Opaque continuation token for keyset pagination.
+ *
+ * The cursor holds the sort key of the last returned row, i.e. the sort value,
+ * the video type (if the result contains different types) and the id.
+ */
+public final class KeysetCursor {
+
+    public static final String PARAM_KEYSET_VALUE = "keysetValue";
+    public static final String PARAM_KEYSET_ID = "keysetId";
+    private static final String ENCODING = "UTF-8";
+    private static final char SEPARATOR = '|';
+    
+    private final String sortValue;
+    private final String videoType;
+    private final long id;
+
+    public KeysetCursor(String sortValue, String videoType, long id) {
+        this.sortValue = sortValue;
+        this.videoType = videoType;
+        this.id = id;
+    }
+
+    public String getSortValue() {
+        return sortValue;
+    }
+
+    public String getVideoType() {
+        return videoType;
+    }
+
+    public long getId() {
+        return id;
+    }
+
+    /**
+     * Encode the cursor to an opaque token.
+     * 
+     * @return the token
+     */
+    public String encode() {
+        StringBuilder sb = new StringBuilder();
+        sb.append(encodePart(sortValue)).append(SEPARATOR);
+        sb.append(encodePart(videoType)).append(SEPARATOR);
+        sb.append(id);
+        return Base64.encodeBase64URLSafeString(sb.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Decode the cursor from an opaque token.
+     * 
+     * @param token the token
+     * @return the cursor or null if the token is not valid
+     */
+    public static KeysetCursor decode(String token) {
+        if (StringUtils.isBlank(token) || !Base64.isBase64(token)) {
+            return null;
+        }
+        
+        String[] parts = StringUtils.splitPreserveAllTokens(new String(Base64.decodeBase64(token), StandardCharsets.UTF_8), SEPARATOR);
+        if (parts == null || parts.length != 3 || !NumberUtils.isDigits(parts[2])) {
+            return null;
+        }
+        try {
+            return new KeysetCursor(decodePart(parts[0]), decodePart(parts[1]), Long.parseLong(parts[2]));
+        } catch (IllegalArgumentException ex) { //NOSONAR
+            return null;
+        }
+    }
+
+    private static String encodePart(String part) {
+        if (part == null) {
+            return StringUtils.EMPTY;
+        }
+        try {
+            // prefix to distinguish an empty string from null
+            return "v" + URLEncoder.encode(part, ENCODING);
+        } catch (UnsupportedEncodingException ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+
+    private static String decodePart(String part) {
+        if (StringUtils.isEmpty(part)) {
+            return null;
+        }
+        if (part.charAt(0) != 'v') {
+            throw new IllegalArgumentException("Invalid cursor part");
+        }
+        try {
+            return URLDecoder.decode(part.substring(1), ENCODING);
+        } catch (UnsupportedEncodingException ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+
+    /**
+     * Get the condition which selects all rows after this cursor.
+     * 
+     * The rows must be ordered by sort column, video type and id; if no sort column
+     * is given, then the rows must be ordered by id and video type.
+     * 
+     * @param sortColumn the sort column, may be null if sorted by id
+     * @param idColumn the id column
+     * @param type the video type of the rows, may be null if there is only one type
+     * @param descending true if sorted descending
+     * @return the SQL condition starting with " AND"
+     */
+    public String getCondition(String sortColumn, String idColumn, String type, boolean descending) {
+        final String op = descending ? "<" : ">";
+        
+        // the video type is a constant for the selected rows, so the comparison can be done here
+        int typeCompare = 0;
+        if (type != null && videoType != null) {
+            typeCompare = descending ? videoType.compareTo(type) : type.compareTo(videoType);
+        }
+
+        StringBuilder sb = new StringBuilder(" AND ");
+        if (sortColumn == null) {
+            sb.append(idColumn).append(op);
+            if (typeCompare > 0) {
+                sb.append("=");
+            }
+            sb.append(":").append(PARAM_KEYSET_ID);
+        } else if (typeCompare > 0) {
+            sb.append(sortColumn).append(op).append("=:").append(PARAM_KEYSET_VALUE);
+        } else if (typeCompare < 0) {
+            sb.append(sortColumn).append(op).append(":").append(PARAM_KEYSET_VALUE);
+        } else {
+            sb.append("(").append(sortColumn).append(op).append(":").append(PARAM_KEYSET_VALUE);
+            sb.append(" OR (").append(sortColumn).append("=:").append(PARAM_KEYSET_VALUE);
+            sb.append(" AND ").append(idColumn).append(op).append(":").append(PARAM_KEYSET_ID).append("))");
+        }
+        return sb.toString();
+    }
+}
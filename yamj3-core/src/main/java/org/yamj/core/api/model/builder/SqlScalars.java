@@ -69,6 +69,26 @@ public final class SqlScalars {
         return StringUtils.normalizeSpace(sql.toString());
     }
 
+    /**
+     * Get a SQL which counts the rows returned by the SQL.
+     *
+     * A trailing ORDER BY is removed, cause it's not needed for counting
+     *
+     * @return
+     */
+    public String getCountSql() {
+        String countSql = getSql();
+        int pos = StringUtils.lastIndexOfIgnoreCase(countSql, " ORDER BY ");
+        if (pos > 0) {
+            // only strip the ORDER BY if it doesn't belong to a sub query
+            String tail = countSql.substring(pos);
+            if (StringUtils.countMatches(tail, "(") == StringUtils.countMatches(tail, ")")) {
+                countSql = countSql.substring(0, pos);
+            }
+        }
+        return "SELECT COUNT(*) FROM (" + countSql + ") countquery";
+    }
+
     /**
      * Get the parameters for the query
      *
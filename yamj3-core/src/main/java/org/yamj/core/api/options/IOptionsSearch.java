@@ -22,6 +22,9 @@ A *      Copyright (c) 2004-2015 YAMJ Members
  */
 package org.yamj.core.api.options;
 
+import java.util.Collection;
+import org.yamj.core.database.model.type.SearchType;
+
 /**
  * Interface to specify search option fields
  *
@@ -41,5 +44,9 @@ public interface IOptionsSearch {
 
     String getMode();
 
+    void setSearchIds(SearchType searchType, Collection<Long> ids);
+
     String getSearchString(boolean addWhere);
+
+    String getSearchString(boolean addWhere, SearchType searchType, String idColumn);
 }
@@ -50,6 +50,7 @@ public abstract class OptionsAbstract implements IOptions {
     @JsonIgnore
     private Integer perline = -1;
     private String language;
+    private Boolean skipcount = Boolean.FALSE;
 
     @Override
     public void setStart(Integer start) {
@@ -130,6 +131,16 @@ public abstract class OptionsAbstract implements IOptions {
         return language;
     }
 
+    @Override
+    public void setSkipcount(Boolean skipcount) {
+        this.skipcount = skipcount;
+    }
+
+    @Override
+    public Boolean getSkipcount() {
+        return skipcount;
+    }
+
     @Override
     public String toString() {
         return ToStringBuilder.reflectionToString(this, ToStringStyle.SHORT_PREFIX_STYLE);
@@ -29,12 +29,15 @@ import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonInclude;
 import com.fasterxml.jackson.annotation.JsonInclude.Include;
 import java.util.*;
+import java.util.regex.Pattern;
 import org.apache.commons.collections.CollectionUtils;
 import org.apache.commons.lang.StringEscapeUtils;
 import org.apache.commons.lang.math.NumberUtils;
 import org.apache.commons.lang3.StringUtils;
 import org.yamj.common.type.MetaDataType;
 import org.yamj.core.api.model.builder.DataItem;
+import org.yamj.core.api.model.builder.KeysetCursor;
+import org.yamj.core.database.model.type.SearchType;
 import org.yamj.plugin.api.model.type.JobType;
 /**
  * Abstract class for the query options
@@ -44,6 +47,11 @@ import org.yamj.plugin.api.model.type.JobType;
 @JsonInclude(Include.NON_DEFAULT)
 public abstract class OptionsAbstractSortSearch extends OptionsAbstract implements IOptionsSort, IOptionsSearch {
 
+    private static final Pattern PUNCTUATION = Pattern.compile("[\\p{Po}\\p{S}]");
+    private static final Pattern WORD_SEPARATOR = Pattern.compile("[^\\p{L}\\p{N}]+");
+    // the characters which separate words in the indexed columns
+    private static final String[] WORD_STARTS = {"", "% ", "%-", "%("};
+
     private String sortby;
     private String sortdir;
     private String artworksortdir;
@@ -51,6 +59,7 @@ public abstract class OptionsAbstractSortSearch extends OptionsAbstract implemen
     private String search;
     // TODO: Change this to MatchMode
     private String mode;
+    private String cursor;
 
     private List<String> dataitems;
     private List<String> jobs;
@@ -63,6 +72,10 @@ public abstract class OptionsAbstractSortSearch extends OptionsAbstract implemen
     private Set<MetaDataType> metaDataTypes;
     @JsonIgnore
     private boolean allJobTypes;
+    @JsonIgnore
+    private KeysetCursor keysetCursor;
+    @JsonIgnore
+    private Map<SearchType, Collection<Long>> searchIds;
 
     //<editor-fold defaultstate="collapsed" desc="Sort Setters/Getters">
     /**
@@ -223,6 +236,20 @@ public abstract class OptionsAbstractSortSearch extends OptionsAbstract implemen
         this.mode = mode;
     }
 
+    /**
+     * Set the ids found by the search index for the search
+     *
+     * @param searchType
+     * @param ids
+     */
+    @Override
+    public void setSearchIds(SearchType searchType, Collection<Long> ids) {
+        if (searchIds == null) {
+            searchIds = new EnumMap<>(SearchType.class);
+        }
+        searchIds.put(searchType, ids);
+    }
+
     /**
      * Get the search string to append to the SQL statement.
      *
@@ -255,6 +282,162 @@ public abstract class OptionsAbstractSortSearch extends OptionsAbstract implemen
         }
         return sb.toString();
     }
+
+    /**
+     * Get the search string to append to the SQL statement.
+     *
+     * Uses the ids found by the search index if available, else the search string is used.
+     * For columns covered by the search index, the search string matches the start of words
+     * like the index does.
+     *
+     * @param addWhere Add "WHERE" to the statement (true) or "AND" (false)
+     * @param searchType the searched type
+     * @param idColumn the id column of the searched type
+     * @return
+     */
+    @JsonIgnore
+    @Override
+    public String getSearchString(boolean addWhere, SearchType searchType, String idColumn) {
+        final Collection<Long> ids = (searchIds == null) ? null : searchIds.get(searchType);
+        if (ids == null) {
+            return getWordSearchString(addWhere, searchType);
+        }
+
+        StringBuilder sb = new StringBuilder();
+        sb.append(addWhere ? " WHERE " : " AND ");
+        if (ids.isEmpty()) {
+            sb.append("1=0");
+        } else {
+            sb.append(idColumn).append(" IN (").append(StringUtils.join(ids, ',')).append(")");
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Get the search string which matches every word of the search at the start of a word.
+     *
+     * Punctuation and accents are handled by the database, so the result may differ from the
+     * search index in these cases.
+     */
+    private String getWordSearchString(boolean addWhere, SearchType searchType) {
+        final boolean start = StringUtils.equalsIgnoreCase("START", mode);
+        if (searchType.getColumn(field) == null || (!start && StringUtils.isNotBlank(mode) && !StringUtils.equalsIgnoreCase("ANY", mode))) {
+            return getSearchString(addWhere);
+        }
+
+        List<String> words = new ArrayList<>();
+        if (StringUtils.isNotBlank(search)) {
+            final String cleaned = PUNCTUATION.matcher(search.toLowerCase()).replaceAll("");
+            for (String word : WORD_SEPARATOR.split(cleaned)) {
+                if (word.length() > 0) {
+                    words.add(StringEscapeUtils.escapeSql(word));
+                }
+            }
+        }
+        if (words.isEmpty()) {
+            return getSearchString(addWhere);
+        }
+
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < words.size(); i++) {
+            sb.append((addWhere && i == 0) ? " WHERE (" : " AND (");
+            final int wordStarts = (start && i == 0) ? 1 : WORD_STARTS.length;
+            for (int w = 0; w < wordStarts; w++) {
+                if (w > 0) {
+                    sb.append(" OR ");
+                }
+                sb.append("lower(").append(field).append(") LIKE '").append(WORD_STARTS[w]).append(words.get(i)).append("%'");
+            }
+            sb.append(")");
+        }
+        return sb.toString();
+    }
+    //</editor-fold>
+
+    //<editor-fold defaultstate="collapsed" desc="Keyset Setters/Getters">
+    /**
+     * Get the cursor of the last page
+     *
+     * @return
+     */
+    public String getCursor() {
+        return cursor;
+    }
+
+    /**
+     * Set the cursor of the last page
+     *
+     * @param cursor
+     */
+    public void setCursor(String cursor) {
+        this.cursor = cursor;
+        this.keysetCursor = null;
+    }
+
+    /**
+     * Get the decoded cursor
+     *
+     * @return the cursor or null if no or an invalid cursor is given
+     */
+    @JsonIgnore
+    public KeysetCursor getKeysetCursor() {
+        if (keysetCursor == null && StringUtils.isNotBlank(cursor)) {
+            keysetCursor = KeysetCursor.decode(cursor);
+        }
+        return keysetCursor;
+    }
+
+    /**
+     * Check if the cursor is valid
+     *
+     * A cursor can only be used if sorted by one of the keyset fields.
+     *
+     * @param keysetFields the fields which can be used for keyset pagination
+     * @return true if no cursor or a valid cursor is given
+     */
+    @JsonIgnore
+    public boolean isValidCursor(String... keysetFields) {
+        if (StringUtils.isBlank(cursor)) {
+            return true;
+        }
+        return getKeysetCursor() != null && getKeysetSortField(keysetFields) != null;
+    }
+
+    /**
+     * Get the sort field if it can be used for keyset pagination
+     *
+     * @param keysetFields the fields which can be used for keyset pagination
+     * @return the matching field or null if sorted by another field
+     */
+    @JsonIgnore
+    public String getKeysetSortField(String... keysetFields) {
+        for (String keysetField : keysetFields) {
+            if (keysetField.equalsIgnoreCase(StringUtils.trimToNull(sortby))) {
+                return keysetField;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Check if the sort is descending
+     *
+     * @return
+     */
+    @JsonIgnore
+    public boolean isSortDescending() {
+        return "DESC".equalsIgnoreCase(sortdir);
+    }
+
+    /**
+     * The total count can't be determined if paging with a cursor.
+     *
+     * @return
+     */
+    @Override
+    public Boolean getSkipcount() {
+        return Boolean.TRUE.equals(super.getSkipcount()) || StringUtils.isNotBlank(cursor);
+    }
     //</editor-fold>
 
     //<editor-fold defaultstate="collapsed" desc="DataItem Methods">
@@ -22,6 +22,8 @@
  */
 package org.yamj.core.api.wrapper;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonInclude.Include;
 import java.util.Collection;
 import java.util.Collections;
 import org.apache.commons.collections.CollectionUtils;
@@ -37,6 +39,7 @@ import org.yamj.core.api.options.IOptions;
 public final class ApiWrapperList<T> extends ApiWrapperAbstract {
 
     private Collection<T> results = Collections.emptyList();
+    private String nextCursor;
 
     public ApiWrapperList() {
         super(null);
@@ -50,19 +53,30 @@ public final class ApiWrapperList<T> extends ApiWrapperAbstract {
         return results;
     }
 
+    @JsonInclude(Include.NON_NULL)
+    public String getNextCursor() {
+        return nextCursor;
+    }
+
+    public void setNextCursor(String nextCursor) {
+        this.nextCursor = nextCursor;
+    }
+
     public ApiWrapperList<T> setResults(Collection<T> results) {
         this.results = results;
 
         // add the list's size
         if (CollectionUtils.isNotEmpty(results)) {
             setCount(results.size());
-            if (getCount() > getTotalCount()) {
+            if (getTotalCount() != UNKNOWN_TOTAL_COUNT && getCount() > getTotalCount()) {
                 setTotalCount(getCount());
             }
             setStatusCheck(ApiStatus.OK);
         } else {
             setCount(0);
-            setTotalCount(0);
+            if (getTotalCount() != UNKNOWN_TOTAL_COUNT) {
+                setTotalCount(0);
+            }
             setStatusCheck(ApiStatus.NO_RECORD);
         }
         
@@ -0,0 +1,143 @@
+/*
+ *      Copyright (c) 2004-2015 YAMJ Members
+ *      https://github.com/organizations/YAMJ/teams
+ *
+ *      This file is part of the Yet Another Media Jukebox (YAMJ).
+ *
+ *      YAMJ is free software: you can redistribute it and/or modify
+ *      it under the terms of the GNU General Public License as published by
+ *      the Free Software Foundation, either version 3 of the License, or
+ *      any later version.
+ *
+ *      YAMJ is distributed in the hope that it will be useful,
+ *      but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *      MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *      GNU General Public License for more details.
+ *
+ *      You should have received a copy of the GNU General Public License
+ *      along with YAMJ.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ *      Web: https://github.com/YAMJ/yamj-v3
+ *
+ */
+package org.yamj.core.api.wrapper;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map.Entry;
+import org.yamj.core.api.model.ApiStatus;
+import org.yamj.core.hibernate.IChunkHandler;
+
+/**
+ * Writes a list wrapper as JSON directly to an output stream
+ *
+ * The results are written as they are handed over in chunks, so they
+ * don't need to be held in memory; the other wrapper properties are
+ * written after the results, because count and status are only known
+ * at the end. If the results fail in between, the JSON is terminated
+ * with an error status by {@link #abort(RuntimeException)}.
+ *
+ * @param <T>
+ */
+public final class ApiWrapperListStreamer<T> implements IChunkHandler<T> {
+
+    private static final String RESULTS = "results";
+    
+    private final ObjectMapper objectMapper;
+    private final ApiWrapperList<T> wrapper;
+    private final JsonGenerator generator;
+    private int count = 0;
+    private boolean terminable = true;
+
+    public ApiWrapperListStreamer(ObjectMapper objectMapper, ApiWrapperList<T> wrapper, OutputStream outputStream) throws IOException {
+        this.objectMapper = objectMapper;
+        this.wrapper = wrapper;
+        this.generator = objectMapper.getFactory().createGenerator(outputStream, JsonEncoding.UTF8);
+        
+        generator.writeStartObject();
+        generator.writeArrayFieldStart(RESULTS);
+    }
+
+    @Override
+    public void handleChunk(List<T> chunk) throws IOException {
+        // a result which failed half-written can't be terminated
+        terminable = false;
+        for (T result : chunk) {
+            generator.writeObject(result);
+        }
+        count += chunk.size();
+        generator.flush();
+        terminable = true;
+    }
+
+    /**
+     * Finish the results and write the wrapper properties.
+     * 
+     * @throws IOException
+     */
+    public void finish() throws IOException {
+        finish(count > 0 ? ApiStatus.OK : ApiStatus.NO_RECORD);
+    }
+
+    /**
+     * Finish the results and write the wrapper properties with the given status.
+     * 
+     * @param status the status of the wrapper
+     * @throws IOException
+     */
+    public void finish(ApiStatus status) throws IOException {
+        generator.writeEndArray();
+
+        wrapper.setCount(count);
+        if (wrapper.getTotalCount() != IApiWrapper.UNKNOWN_TOTAL_COUNT && count > wrapper.getTotalCount()) {
+            wrapper.setTotalCount(count);
+        }
+        wrapper.setStatusCheck(status);
+        
+        // write the wrapper properties without the results
+        ObjectNode node = objectMapper.valueToTree(wrapper);
+        node.remove(RESULTS);
+        Iterator<Entry<String, JsonNode>> fields = node.fields();
+        while (fields.hasNext()) {
+            Entry<String, JsonNode> field = fields.next();
+            generator.writeFieldName(field.getKey());
+            generator.writeTree(field.getValue());
+        }
+        
+        generator.writeEndObject();
+        generator.close();
+    }
+
+    /**
+     * Terminate the results after an error with an internal error status,
+     * so that the client gets valid JSON which marks the results as incomplete.
+     * 
+     * If the error occurred while a result was written, the JSON can't be
+     * terminated anymore and the cause is rethrown to abort the response.
+     * 
+     * @param cause the error which stopped the results
+     * @throws IOException
+     */
+    public void abort(RuntimeException cause) throws IOException {
+        if (!terminable) {
+            throw cause;
+        }
+        finish(ApiStatus.internalError("Failed to retrieve all results"));
+    }
+
+    /**
+     * Get the number of written results.
+     * 
+     * @return the number of written results
+     */
+    public int getCount() {
+        return count;
+    }
+}
@@ -31,6 +31,11 @@ import org.yamj.core.api.options.IOptions;
  */
 public interface IApiWrapper {
 
+    /**
+     * Total count if the count has been skipped by the options.
+     */
+    int UNKNOWN_TOTAL_COUNT = -1;
+
     int getCount();
 
     String getQueryTime();
@@ -25,11 +25,13 @@ package org.yamj.core.database;
 import java.util.Properties;
 import javax.sql.DataSource;
 import org.hibernate.SessionFactory;
+import org.hibernate.cache.ehcache.SingletonEhCacheRegionFactory;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.FactoryBean;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.DependsOn;
 import org.springframework.core.io.ClassPathResource;
 import org.springframework.core.io.Resource;
 import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
@@ -49,6 +51,15 @@ public abstract class AbstractDatabaseConfiguration implements DatabaseConfigura
     @Value("${yamj3.database.statistics:false}")
     protected boolean generateStatistics;
 
+    @Value("${yamj3.database.cache.secondLevel:true}")
+    protected boolean secondLevelCache;
+
+    @Value("${yamj3.database.cache.queries:false}")
+    protected boolean queryCache;
+
+    @Value("${yamj3.database.jdbcBatchSize:50}")
+    protected int jdbcBatchSize;
+
     @Value("${yamj3.database.poolPreparedStatements:true}")
     protected boolean poolPreparedStatements;
 
@@ -95,12 +106,27 @@ public abstract class AbstractDatabaseConfiguration implements DatabaseConfigura
     
     @Override
     @Bean(destroyMethod="destroy")
+    @DependsOn("ehCacheManager")
     public FactoryBean<SessionFactory> sessionFactory() {
         LocalSessionFactoryBean sessionFactoryBean = new LocalSessionFactoryBean();
         sessionFactoryBean.setDataSource(dataSource());
         sessionFactoryBean.setEntityInterceptor(new AuditInterceptor());
         sessionFactoryBean.setPackagesToScan("org.yamj.core.database.model");
-        sessionFactoryBean.setHibernateProperties(hibernateProperties());
+        
+        Properties props = hibernateProperties();
+        // batch the statements of bulk operations; new entities use identity
+        // generation, so only updates and deletes will be batched
+        props.put("hibernate.jdbc.batch_size", Integer.valueOf(jdbcBatchSize));
+        props.put("hibernate.order_updates", Boolean.TRUE);
+        props.put("hibernate.jdbc.batch_versioned_data", Boolean.TRUE);
+        // the singleton region factory uses the ehcache manager of the caching
+        // configuration, so the regions of the second-level cache are configured there
+        props.put("hibernate.cache.use_second_level_cache", Boolean.valueOf(secondLevelCache));
+        props.put("hibernate.cache.use_query_cache", Boolean.valueOf(secondLevelCache && queryCache));
+        if (secondLevelCache) {
+            props.put("hibernate.cache.region.factory_class", SingletonEhCacheRegionFactory.class.getName());
+        }
+        sessionFactoryBean.setHibernateProperties(props);
         return sessionFactoryBean;
     }
         
@@ -56,8 +56,6 @@ public class InMemoryDatabaseConfiguration extends AbstractDatabaseConfiguration
         props.put("hibernate.hbm2ddl.auto", "update");
         props.put("hibernate.connection.isolation", Integer.valueOf(TRANSACTION_READ_COMMITTED));
         props.put("hibernate.use_sql_comments", Boolean.FALSE);
-        props.put("hibernate.cache.use_query_cache", Boolean.FALSE);
-        props.put("hibernate.cache.use_second_level_cache", Boolean.FALSE);
         props.put("hibernate.connection.CharSet", "utf8");
         props.put("hibernate.connection.characterEncoding", "utf8");
         props.put("hibernate.connection.useUnicode", Boolean.FALSE);
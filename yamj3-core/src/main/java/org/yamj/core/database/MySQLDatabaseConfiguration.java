@@ -100,8 +100,6 @@ public class MySQLDatabaseConfiguration extends AbstractDatabaseConfiguration {
         props.put("hibernate.hbm2ddl.auto", hbm2ddlAuto);
         props.put("hibernate.connection.isolation", Integer.valueOf(TRANSACTION_READ_COMMITTED));
         props.put("hibernate.use_sql_comments", Boolean.valueOf(useSqlComments));
-        props.put("hibernate.cache.use_query_cache", Boolean.FALSE);
-        props.put("hibernate.cache.use_second_level_cache", Boolean.FALSE);
         props.put("hibernate.connection.CharSet", "utf8");
         props.put("hibernate.connection.characterEncoding", "utf8");
         props.put("hibernate.connection.useUnicode", Boolean.FALSE);
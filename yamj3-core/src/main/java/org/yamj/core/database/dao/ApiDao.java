@@ -27,6 +27,7 @@ import static org.yamj.core.CachingNames.*;
 import static org.yamj.core.database.Literals.*;
 import static org.yamj.plugin.api.model.type.ArtworkType.*;
 
+import java.io.IOException;
 import java.util.*;
 import org.apache.commons.collections.CollectionUtils;
 import org.apache.commons.collections.MapUtils;
@@ -48,23 +49,64 @@ import org.yamj.core.api.wrapper.ApiWrapperList;
 import org.yamj.core.api.wrapper.ApiWrapperSingle;
 import org.yamj.core.database.model.*;
 import org.yamj.core.database.model.type.ResolutionType;
+import org.yamj.core.database.model.type.SearchType;
 import org.yamj.core.hibernate.HibernateDao;
+import org.yamj.core.hibernate.IChunkHandler;
 import org.yamj.plugin.api.model.type.ArtworkType;
 
 @Repository("apiDao")
 public class ApiDao extends HibernateDao {
 
     private static final Logger LOG = LoggerFactory.getLogger(ApiDao.class);
+    private static final int BATCH_SIZE = 500;
 
     /**
      * Generate the query and load the results into the wrapper
      *
      * @param wrapper
      */
-    @SuppressWarnings({"unchecked", "rawtypes"})
     public List<ApiVideoDTO> getVideoList(ApiWrapperList<ApiVideoDTO> wrapper, OptionsIndexVideo options) {
         IndexParams params = new IndexParams(options);
+        List<ApiVideoDTO> queryResults = executeQueryWithTransform(ApiVideoDTO.class, generateSqlScalarsForVideoList(params), wrapper);
+
+        // set the cursor for the next page if the page is full
+        if (options.getMax() > 0 && queryResults.size() >= options.getMax()) {
+            wrapper.setNextCursor(params.getNextCursor(queryResults.get(queryResults.size() - 1)));
+        }
+
+        addArtworksToVideoList(queryResults, options);
+        return queryResults;
+    }
+
+    /**
+     * Generate the query and pass the results in chunks to the handler
+     *
+     * @param wrapper
+     * @param options
+     * @param chunkSize
+     * @param handler
+     * @throws IOException if the handler failed
+     */
+    public void scrollVideoList(ApiWrapperList<ApiVideoDTO> wrapper, final OptionsIndexVideo options, int chunkSize, final IChunkHandler<ApiVideoDTO> handler) throws IOException {
+        IndexParams params = new IndexParams(options);
+        final ApiVideoDTO[] lastVideo = new ApiVideoDTO[1];
+        
+        int count = scrollQueryWithTransform(ApiVideoDTO.class, generateSqlScalarsForVideoList(params), wrapper, chunkSize, new IChunkHandler<ApiVideoDTO>() {
+            @Override
+            public void handleChunk(List<ApiVideoDTO> chunk) throws IOException {
+                addArtworksToVideoList(chunk, options);
+                lastVideo[0] = chunk.get(chunk.size() - 1);
+                handler.handleChunk(chunk);
+            }
+        });
+
+        // set the cursor for the next page if the page is full
+        if (options.getMax() > 0 && count >= options.getMax()) {
+            wrapper.setNextCursor(params.getNextCursor(lastVideo[0]));
+        }
+    }
 
+    private SqlScalars generateSqlScalarsForVideoList(IndexParams params) {
         SqlScalars sqlScalars = new SqlScalars(generateSqlForVideoList(params));
         sqlScalars.addScalar(LITERAL_ID, LongType.INSTANCE);
         sqlScalars.addScalar(LITERAL_VIDEO_TYPE, StringType.INSTANCE);                      
@@ -88,10 +130,12 @@ public class ApiDao extends HibernateDao {
         DataItemTools.addDataItemScalars(sqlScalars, params.getDataItems());
         // add additional parameters
         params.addScalarParameters(sqlScalars);
+        return sqlScalars;
+    }
 
-        List<ApiVideoDTO> queryResults = executeQueryWithTransform(ApiVideoDTO.class, sqlScalars, wrapper);
-
-        if (!queryResults.isEmpty() && CollectionUtils.isNotEmpty(options.getArtworkTypes())) {
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private void addArtworksToVideoList(List<ApiVideoDTO> videos, OptionsIndexVideo options) {
+        if (!videos.isEmpty() && CollectionUtils.isNotEmpty(options.getArtworkTypes())) {
             LOG.trace("Adding artwork to index videos");
 
             // build the meta data maps for faster retrieval
@@ -100,7 +144,7 @@ public class ApiDao extends HibernateDao {
                 metaDataIds.put(mdt, new ArrayList());
             }
             Map<String, ApiVideoDTO> metaDataResults = new HashMap<>();
-            for (ApiVideoDTO video : queryResults) {
+            for (ApiVideoDTO video : videos) {
                 // add the item to the map for further processing
                 metaDataResults.put(KeyMaker.makeKey(video), video);
                 // add the ID to the list
@@ -115,8 +159,6 @@ public class ApiDao extends HibernateDao {
 
             addArtworks(metaDataIds, metaDataResults, options);
         }
-        
-        return queryResults;
     }
 
     /**
@@ -290,8 +332,11 @@ public class ApiDao extends HibernateDao {
             }
         }
 
+        // add the keyset condition, this will be empty if there is no cursor given
+        sbSQL.append(params.getKeysetString(type, "vd"));
+
         // add the search string, this will be empty if there is no search required
-        return sbSQL.append(params.getSearchString(false));
+        return sbSQL.append(params.getSearchString(false, SearchType.VIDEODATA, "vd.id"));
     }
 
     /**
@@ -417,8 +462,11 @@ public class ApiDao extends HibernateDao {
             }
         }
 
+        // add the keyset condition, this will be empty if there is no cursor given
+        sbSQL.append(params.getKeysetString(SERIES, "ser"));
+
         // add the search string, this will be empty if there is no search required
-        return sbSQL.append(params.getSearchString(false));
+        return sbSQL.append(params.getSearchString(false, SearchType.SERIES, "ser.id"));
     }
 
     /**
@@ -546,8 +594,11 @@ public class ApiDao extends HibernateDao {
             }
         }
 
+        // add the keyset condition, this will be empty if there is no cursor given
+        sbSQL.append(params.getKeysetString(SEASON, "sea"));
+
         // add the search string, this will be empty if there is no search required
-        return sbSQL.append(params.getSearchString(false));
+        return sbSQL.append(params.getSearchString(false, SearchType.SEASON, "sea.id"));
     }
 
     private static void addExistsOrNot(boolean include, StringBuilder sb) {
@@ -995,6 +1046,51 @@ public class ApiDao extends HibernateDao {
         SqlScalars sqlScalars = generateSqlForPerson(options);
         List<ApiPersonDTO> results = executeQueryWithTransform(ApiPersonDTO.class, sqlScalars, wrapper);
         
+        // set the cursor for the next page if the page is full
+        if (options.getMax() > 0 && results.size() >= options.getMax()) {
+            setPersonCursor(wrapper, options, results.get(results.size() - 1));
+        }
+
+        addDetailsToPersonList(results, options);
+        return results;
+    }
+
+    /**
+     * Generate the query and pass the results in chunks to the handler
+     *
+     * @param wrapper
+     * @param options
+     * @param chunkSize
+     * @param handler
+     * @throws IOException if the handler failed
+     */
+    public void scrollPersonList(ApiWrapperList<ApiPersonDTO> wrapper, final OptionsId options, int chunkSize, final IChunkHandler<ApiPersonDTO> handler) throws IOException {
+        final ApiPersonDTO[] lastPerson = new ApiPersonDTO[1];
+        
+        int count = scrollQueryWithTransform(ApiPersonDTO.class, generateSqlForPerson(options), wrapper, chunkSize, new IChunkHandler<ApiPersonDTO>() {
+            @Override
+            public void handleChunk(List<ApiPersonDTO> chunk) throws IOException {
+                addDetailsToPersonList(chunk, options);
+                lastPerson[0] = chunk.get(chunk.size() - 1);
+                handler.handleChunk(chunk);
+            }
+        });
+
+        // set the cursor for the next page if the page is full
+        if (options.getMax() > 0 && count >= options.getMax()) {
+            setPersonCursor(wrapper, options, lastPerson[0]);
+        }
+    }
+
+    private static void setPersonCursor(ApiWrapperList<ApiPersonDTO> wrapper, OptionsId options, ApiPersonDTO last) {
+        final String keysetField = options.getKeysetSortField(LITERAL_NAME, LITERAL_ID);
+        if (keysetField != null) {
+            String sortValue = LITERAL_NAME.equals(keysetField) ? last.getName() : null;
+            wrapper.setNextCursor(new KeysetCursor(sortValue, null, last.getId()).encode());
+        }
+    }
+
+    private void addDetailsToPersonList(List<ApiPersonDTO> results, OptionsId options) {
         if (!results.isEmpty()) {
         	
         	if (options.hasDataItem(DataItem.ARTWORK)) {
@@ -1021,8 +1117,6 @@ public class ApiDao extends HibernateDao {
 	            }
             }
         }
-        
-        return results;
     }
 
     /**
@@ -1333,10 +1427,26 @@ public class ApiDao extends HibernateDao {
                 sqlScalars.addParameter("jobs", options.getJobTypes());
             }
 
-            // Add the search string
-            sqlScalars.addToSql(options.getSearchString(false));
+            // Add the keyset condition and the search string
+            final String keysetField = options.getKeysetSortField(LITERAL_NAME, LITERAL_ID);
+            if (keysetField != null && options.getKeysetCursor() != null) {
+                KeysetCursor cursor = options.getKeysetCursor();
+                if (LITERAL_NAME.equals(keysetField)) {
+                    sqlScalars.addToSql(cursor.getCondition("p.name", "p.id", null, options.isSortDescending()));
+                    sqlScalars.addParameter(KeysetCursor.PARAM_KEYSET_VALUE, cursor.getSortValue());
+                } else {
+                    sqlScalars.addToSql(cursor.getCondition(null, "p.id", null, options.isSortDescending()));
+                }
+                sqlScalars.addParameter(KeysetCursor.PARAM_KEYSET_ID, cursor.getId());
+            }
+            sqlScalars.addToSql(options.getSearchString(false, SearchType.PERSON, "p.id"));
+            
             // This will default to blank if there's no sort required
             sqlScalars.addToSql(options.getSortString());
+            if (LITERAL_NAME.equals(keysetField)) {
+                // add the id for a stable order
+                sqlScalars.addToSql(options.isSortDescending() ? ", id DESC" : ", id ASC");
+            }
         }
 
         sqlScalars.addScalar(LITERAL_ID, LongType.INSTANCE);
@@ -1793,6 +1903,217 @@ public class ApiDao extends HibernateDao {
         return currentSession().getNamedQuery("metadata.externalid."+fixedType.name().toLowerCase()).setParameter(LITERAL_ID, id).list();
     }
 
+    //<editor-fold defaultstate="collapsed" desc="Batch Loading Methods">
+    /**
+     * Get the genres for a list of metadata objects.
+     *
+     * @param type the metadata type
+     * @param ids the ids of the metadata objects
+     * @return the genres mapped by the id of the metadata object
+     */
+    public Map<Long, List<ApiGenreDTO>> getGenresForMetadata(MetaDataType type, Collection<Long> ids) {
+        StringBuilder sql = new StringBuilder("SELECT DISTINCT ");
+        sql.append(batchOwnerColumn(type, "data_id", "series_id")).append(" AS ownerId, ");
+        sql.append("CASE WHEN g.target_api is not null THEN g.target_api WHEN g.target_xml is not null THEN g.target_xml ELSE g.name END AS target ");
+        sql.append("FROM ").append(batchOwnerTables(type, "videodata_genres", "data_id", "series_genres", "series_id"));
+        sql.append(" JOIN genre g ON g.id=x.genre_id");
+        sql.append(" WHERE ").append(batchOwnerColumn(type, "data_id", "series_id")).append(" IN (:ids) ORDER BY target");
+
+        Map<Long, List<ApiGenreDTO>> results = new HashMap<>();
+        for (Object[] row : executeBatchQuery(sql, ids, new String[]{"ownerId", "target"}, new Type[]{LongType.INSTANCE, StringType.INSTANCE})) {
+            addBatchResult(results, (Long)row[0], new ApiGenreDTO((String)row[1]));
+        }
+        return results;
+    }
+
+    /**
+     * Get the studios for a list of metadata objects.
+     *
+     * @param type the metadata type
+     * @param ids the ids of the metadata objects
+     * @return the studios mapped by the id of the metadata object
+     */
+    public Map<Long, List<Studio>> getStudiosForMetadata(MetaDataType type, Collection<Long> ids) {
+        StringBuilder sql = new StringBuilder("SELECT ");
+        sql.append(batchOwnerColumn(type, "data_id", "series_id")).append(" AS ownerId, {s.*} ");
+        sql.append("FROM ").append(batchOwnerTables(type, "videodata_studios", "data_id", "series_studios", "series_id"));
+        sql.append(" JOIN studio s ON s.id=x.studio_id");
+        sql.append(" WHERE ").append(batchOwnerColumn(type, "data_id", "series_id")).append(" IN (:ids) ORDER BY s.name");
+
+        Map<Long, List<Studio>> results = new HashMap<>();
+        for (Object[] row : executeBatchQuery(sql, ids, new String[]{"ownerId"}, new Type[]{LongType.INSTANCE}, "s", Studio.class)) {
+            addBatchResult(results, (Long)row[0], (Studio)row[1]);
+        }
+        return results;
+    }
+
+    /**
+     * Get the countries for a list of metadata objects.
+     *
+     * @param type the metadata type
+     * @param ids the ids of the metadata objects
+     * @return the countries mapped by the id of the metadata object
+     */
+    public Map<Long, List<ApiCountryDTO>> getCountriesForMetadata(MetaDataType type, Collection<Long> ids) {
+        StringBuilder sql = new StringBuilder("SELECT ");
+        sql.append(batchOwnerColumn(type, "data_id", "series_id")).append(" AS ownerId, c.id, c.country_code ");
+        sql.append("FROM ").append(batchOwnerTables(type, "videodata_countries", "data_id", "series_countries", "series_id"));
+        sql.append(" JOIN country c ON c.id=x.country_id");
+        sql.append(" WHERE ").append(batchOwnerColumn(type, "data_id", "series_id")).append(" IN (:ids)");
+
+        Map<Long, List<ApiCountryDTO>> results = new HashMap<>();
+        for (Object[] row : executeBatchQuery(sql, ids, new String[]{"ownerId", LITERAL_ID, "country_code"}, new Type[]{LongType.INSTANCE, LongType.INSTANCE, StringType.INSTANCE})) {
+            addBatchResult(results, (Long)row[0], new ApiCountryDTO((Long)row[1], (String)row[2]));
+        }
+        return results;
+    }
+
+    /**
+     * Get the certifications for a list of metadata objects.
+     *
+     * @param type the metadata type
+     * @param ids the ids of the metadata objects
+     * @return the certifications mapped by the id of the metadata object
+     */
+    public Map<Long, List<ApiCertificationDTO>> getCertificationsForMetadata(MetaDataType type, Collection<Long> ids) {
+        StringBuilder sql = new StringBuilder("SELECT ");
+        sql.append(batchOwnerColumn(type, "data_id", "series_id")).append(" AS ownerId, c.id, c.country_code, c.certificate ");
+        sql.append("FROM ").append(batchOwnerTables(type, "videodata_certifications", "data_id", "series_certifications", "series_id"));
+        sql.append(" JOIN certification c ON c.id=x.cert_id");
+        sql.append(" WHERE ").append(batchOwnerColumn(type, "data_id", "series_id")).append(" IN (:ids) ORDER BY c.country_code, c.certificate");
+
+        Map<Long, List<ApiCertificationDTO>> results = new HashMap<>();
+        for (Object[] row : executeBatchQuery(sql, ids, new String[]{"ownerId", LITERAL_ID, "country_code", "certificate"},
+                        new Type[]{LongType.INSTANCE, LongType.INSTANCE, StringType.INSTANCE, StringType.INSTANCE}))
+        {
+            addBatchResult(results, (Long)row[0], new ApiCertificationDTO((Long)row[1], (String)row[2], (String)row[3]));
+        }
+        return results;
+    }
+
+    /**
+     * Get the awards for a list of metadata objects.
+     *
+     * @param type the metadata type
+     * @param ids the ids of the metadata objects
+     * @return the awards mapped by the id of the metadata object
+     */
+    public Map<Long, List<ApiAwardDTO>> getAwardsForMetadata(MetaDataType type, Collection<Long> ids) {
+        StringBuilder sql = new StringBuilder("SELECT ");
+        sql.append(batchOwnerColumn(type, "videodata_id", "series_id")).append(" AS ownerId, a.event, a.category, a.sourcedb, x.year, x.won, x.nominated ");
+        sql.append("FROM ").append(batchOwnerTables(type, "videodata_awards", "videodata_id", "series_awards", "series_id"));
+        sql.append(" JOIN award a ON a.id=x.award_id");
+        sql.append(" WHERE ").append(batchOwnerColumn(type, "videodata_id", "series_id")).append(" IN (:ids) ORDER BY x.year, a.event");
+
+        Map<Long, List<ApiAwardDTO>> results = new HashMap<>();
+        for (Object[] row : executeBatchQuery(sql, ids, new String[]{"ownerId", "event", "category", "sourcedb", "year", "won", "nominated"},
+                        new Type[]{LongType.INSTANCE, StringType.INSTANCE, StringType.INSTANCE, StringType.INSTANCE, IntegerType.INSTANCE, BooleanType.INSTANCE, BooleanType.INSTANCE}))
+        {
+            addBatchResult(results, (Long)row[0], new ApiAwardDTO((String)row[1], (String)row[2], (String)row[3], (Integer)row[4], (Boolean)row[5], (Boolean)row[6]));
+        }
+        return results;
+    }
+
+    /**
+     * Get the ratings for a list of metadata objects.
+     * 
+     * The combined rating is calculated as the average of all ratings.
+     *
+     * @param type the metadata type
+     * @param ids the ids of the metadata objects
+     * @return the ratings mapped by the id of the metadata object
+     */
+    public Map<Long, List<ApiRatingDTO>> getRatingsForMetadata(MetaDataType type, Collection<Long> ids) {
+        StringBuilder sql = new StringBuilder("SELECT ");
+        sql.append(batchOwnerColumn(type, "videodata_id", "series_id")).append(" AS ownerId, x.rating, x.sourcedb AS source ");
+        sql.append("FROM ").append(batchOwnerTables(type, "videodata_ratings", "videodata_id", "series_ratings", "series_id"));
+        sql.append(" WHERE ").append(batchOwnerColumn(type, "videodata_id", "series_id")).append(" IN (:ids) ORDER BY source");
+
+        Map<Long, List<ApiRatingDTO>> results = new HashMap<>();
+        for (Object[] row : executeBatchQuery(sql, ids, new String[]{"ownerId", "rating", "source"}, new Type[]{LongType.INSTANCE, IntegerType.INSTANCE, StringType.INSTANCE})) {
+            addBatchResult(results, (Long)row[0], new ApiRatingDTO((String)row[2], (Integer)row[1]));
+        }
+        
+        // add the combined rating in front of the ratings
+        for (List<ApiRatingDTO> ratings : results.values()) {
+            int sum = 0;
+            int count = 0;
+            for (ApiRatingDTO rating : ratings) {
+                if (rating.getRating() != null) {
+                    sum += rating.getRating().intValue();
+                    count++;
+                }
+            }
+            if (count > 0) {
+                ratings.add(0, new ApiRatingDTO("combined", Math.round((float)sum / count)));
+            }
+        }
+        return results;
+    }
+
+    /**
+     * Get the column holding the id of the metadata object for a batch query.
+     */
+    private static String batchOwnerColumn(MetaDataType type, String videoColumn, String seriesColumn) {
+        if (type == SERIES) {
+            return "x." + seriesColumn;
+        } else if (type == SEASON) {
+            return "sea.id";
+        }
+        return "x." + videoColumn;
+    }
+
+    /**
+     * Get the tables for a batch query; the relation table has the alias "x".
+     */
+    private static String batchOwnerTables(MetaDataType type, String videoTable, String videoColumn, String seriesTable, String seriesColumn) {
+        if (type == SERIES) {
+            return seriesTable + " x";
+        } else if (type == SEASON) {
+            return "season sea JOIN " + seriesTable + " x ON x." + seriesColumn + "=sea.series_id";
+        }
+        return videoTable + " x";
+    }
+
+    /**
+     * Execute a batch query for chunks of the given ids.
+     */
+    private List<Object[]> executeBatchQuery(CharSequence sql, Collection<Long> ids, String[] scalars, Type[] types) {
+        return executeBatchQuery(sql, ids, scalars, types, null, null);
+    }
+
+    /**
+     * Execute a batch query for chunks of the given ids; the entity is added after the scalars if given.
+     */
+    @SuppressWarnings("unchecked")
+    private List<Object[]> executeBatchQuery(CharSequence sql, Collection<Long> ids, String[] scalars, Type[] types, String entityAlias, Class<?> entityClass) {
+        List<Object[]> results = new ArrayList<>();
+        List<Long> idList = new ArrayList<>(ids);
+        for (int from = 0; from < idList.size(); from += BATCH_SIZE) {
+            SQLQuery query = currentSession().createSQLQuery(sql.toString());
+            query.setReadOnly(true);
+            for (int i = 0; i < scalars.length; i++) {
+                query.addScalar(scalars[i], types[i]);
+            }
+            if (entityClass != null) {
+                query.addEntity(entityAlias, entityClass);
+            }
+            query.setParameterList("ids", idList.subList(from, Math.min(from + BATCH_SIZE, idList.size())));
+            results.addAll(query.list());
+        }
+        return results;
+    }
+
+    private static <T> void addBatchResult(Map<Long, List<T>> results, Long ownerId, T value) {
+        List<T> values = results.get(ownerId);
+        if (values == null) {
+            values = new ArrayList<>();
+            results.put(ownerId, values);
+        }
+        values.add(value);
+    }
+    //</editor-fold>
+
     /**
      * Get a list of the cast for a metadata object.
      * 
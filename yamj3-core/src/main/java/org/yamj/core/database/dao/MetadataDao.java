@@ -32,19 +32,29 @@ import static org.yamj.core.database.Literals.LITERAL_ID;
 import static org.yamj.core.database.Literals.LITERAL_IDENTIFIER;
 import static org.yamj.plugin.api.model.type.ArtworkType.PHOTO;
 
-import java.util.ArrayList;
-import java.util.Collection;
-import java.util.List;
+import java.io.IOException;
+import java.util.*;
+import java.util.Map.Entry;
 import org.apache.commons.collections.CollectionUtils;
+import org.hibernate.type.LongType;
+import org.hibernate.type.StringType;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.cache.Cache;
 import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.cache.annotation.Cacheable;
 import org.springframework.stereotype.Repository;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.yamj.core.api.model.builder.SqlScalars;
 import org.yamj.core.database.model.*;
 import org.yamj.core.database.model.dto.CreditDTO;
 import org.yamj.core.database.model.dto.QueueDTO;
+import org.yamj.core.database.model.dto.SearchEntryDTO;
+import org.yamj.core.database.model.type.SearchType;
 import org.yamj.core.hibernate.HibernateDao;
+import org.yamj.core.hibernate.IChunkHandler;
 import org.yamj.core.tools.OverrideTools;
 import org.yamj.plugin.api.artwork.ArtworkDTO;
 
@@ -52,8 +62,13 @@ import org.yamj.plugin.api.artwork.ArtworkDTO;
 @Repository("metadataDao")
 public class MetadataDao extends HibernateDao {
 
+    private static final int BATCH_SIZE = 500;
+
     @Autowired
     private ArtworkDao artworkDao;
+    @Autowired
+    @Qualifier("personIdCache")
+    private Cache personIdCache;
 
     @SuppressWarnings("unchecked")
 	public List<QueueDTO> getMetadataQueue(final String queryName, final int maxResults) {
@@ -128,54 +143,174 @@ public class MetadataDao extends HibernateDao {
         this.updateEntity(doubletPerson);
     }
     
-    public void storeMovieCredit(CreditDTO dto) {
-        Person person = getByNaturalIdCaseInsensitive(Person.class, LITERAL_IDENTIFIER, dto.getIdentifier());
-        if (person == null) {
-            // create new person
-            person = new Person(dto.getIdentifier());
-            person.setSourceDbId(dto.getSource(), dto.getSourceId());
-            person.setName(dto.getName(), dto.getSource());
-            person.setFirstName(dto.getFirstName(), dto.getSource());
-            person.setLastName(dto.getLastName(), dto.getSource());
-            person.setBirthName(dto.getRealName(), dto.getSource());
-            person.setStatus(NEW);
-            person.setFilmographyStatus(NEW);
-            this.saveEntity(person);
-
-            // store artwork
-            Artwork photo = new Artwork();
-            photo.setArtworkType(PHOTO);
-            photo.setPerson(person);
-            photo.setStatus(NEW);
-            person.setPhoto(photo);
-            this.saveEntity(photo);
-        } else {
-            // just update person in database
-            if (OverrideTools.checkOverwriteFirstName(person, dto.getSource())) {
-                person.setFirstName(dto.getFirstName(), dto.getSource());
+    public List<Person> storeMovieCredit(CreditDTO dto) {
+        return storeMovieCredits(Collections.singletonList(dto));
+    }
+
+    /**
+     * Store the persons of the credits.
+     *
+     * All persons are resolved at once by their lower cased identifier; missing
+     * persons are created with their photo artwork in the same transaction.
+     *
+     * @param dtos the credits
+     * @return the created persons
+     */
+    public List<Person> storeMovieCredits(Collection<CreditDTO> dtos) {
+        // group the credits by person; lookups are case insensitive
+        Map<String, List<CreditDTO>> credits = new LinkedHashMap<>();
+        for (CreditDTO dto : dtos) {
+            final String identifier = dto.getIdentifier().toLowerCase();
+            List<CreditDTO> personCredits = credits.get(identifier);
+            if (personCredits == null) {
+                personCredits = new ArrayList<>(1);
+                credits.put(identifier, personCredits);
             }
-            if (OverrideTools.checkOverwriteLastName(person, dto.getSource())) {
-                person.setLastName(dto.getLastName(), dto.getSource());
+            personCredits.add(dto);
+        }
+        if (credits.isEmpty()) {
+            return Collections.emptyList();
+        }
+
+        final List<Person> created = new ArrayList<>();
+        Map<String, Person> persons = findPersons(credits.keySet());
+        for (Entry<String, List<CreditDTO>> entry : credits.entrySet()) {
+            Person person = persons.get(entry.getKey());
+            for (CreditDTO dto : entry.getValue()) {
+                if (person == null) {
+                    person = createPerson(dto);
+                    cachePersonId(entry.getKey(), person.getId());
+                    created.add(person);
+                } else {
+                    updatePerson(person, dto);
+                }
+
+                if (CollectionUtils.isNotEmpty(dto.getPhotoDTOS())) {
+                    this.updateLocatedArtwork(person.getPhoto(), dto.getPhotoDTOS());
+                }
+
+                // set person id for later use
+                dto.setPersonId(person.getId());
+            }
+        }
+        return created;
+    }
+
+    /**
+     * Find the persons by their lower cased identifiers.
+     *
+     * The ids of known identifiers are taken from the cache.
+     *
+     * @param identifiers the lower cased identifiers
+     * @return the persons by lower cased identifier
+     */
+    @SuppressWarnings("unchecked")
+    private Map<String, Person> findPersons(Collection<String> identifiers) {
+        final Map<String, Person> persons = new HashMap<>(identifiers.size());
+        final Map<Long, String> cachedIds = new HashMap<>();
+        final List<String> unknown = new ArrayList<>();
+        for (String identifier : identifiers) {
+            Long id = personIdCache.get(identifier, Long.class);
+            if (id == null) {
+                unknown.add(identifier);
+            } else {
+                cachedIds.put(id, identifier);
+            }
+        }
+
+        if (!cachedIds.isEmpty()) {
+            final List<Long> idList = new ArrayList<>(cachedIds.keySet());
+            for (int from = 0; from < idList.size(); from += BATCH_SIZE) {
+                List<Person> list = currentSession().getNamedQuery(Person.QUERY_BY_IDS)
+                        .setParameterList("idList", idList.subList(from, Math.min(from + BATCH_SIZE, idList.size())))
+                        .list();
+                for (Person person : list) {
+                    final String identifier = cachedIds.get(person.getId());
+                    if (identifier.equals(person.getIdentifierLower())) {
+                        persons.put(identifier, person);
+                    }
+                }
             }
-            if (OverrideTools.checkOverwriteBirthName(person, dto.getSource())) {
-                person.setBirthName(dto.getRealName(), dto.getSource());
+
+            // persons may have been deleted or their identifier changed in the meantime
+            for (String identifier : cachedIds.values()) {
+                if (!persons.containsKey(identifier)) {
+                    personIdCache.evict(identifier);
+                    unknown.add(identifier);
+                }
             }
+        }
 
-            if (person.setSourceDbId(dto.getSource(), dto.getSourceId())) {
-                // if IDs have changed then person update is needed
-                person.setStatus(UPDATED);
-            } else if (person.isDeleted()) {
-                // if previously deleted then set as updated now
-                person.setStatus(UPDATED);
+        for (int from = 0; from < unknown.size(); from += BATCH_SIZE) {
+            List<Person> list = currentSession().getNamedQuery(Person.QUERY_BY_IDENTIFIERS)
+                    .setParameterList("identifiers", unknown.subList(from, Math.min(from + BATCH_SIZE, unknown.size())))
+                    .list();
+            for (Person person : list) {
+                persons.put(person.getIdentifierLower(), person);
+                personIdCache.put(person.getIdentifierLower(), person.getId());
             }
         }
-        
-        if (CollectionUtils.isNotEmpty(dto.getPhotoDTOS())) {
-            this.updateLocatedArtwork(person.getPhoto(), dto.getPhotoDTOS());
+
+        return persons;
+    }
+
+    /**
+     * Cache the id of a new person after the current transaction has been committed,
+     * so that a rollback doesn't leave the id of a not existing person in the cache.
+     */
+    private void cachePersonId(final String identifier, final Long id) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter() {
+                @Override
+                public void afterCommit() {
+                    personIdCache.put(identifier, id);
+                }
+            });
+        } else {
+            personIdCache.put(identifier, id);
         }
+    }
 
-        // set person id for later use
-        dto.setPersonId(person.getId());
+    private Person createPerson(CreditDTO dto) {
+        Person person = new Person(dto.getIdentifier());
+        person.setSourceDbId(dto.getSource(), dto.getSourceId());
+        person.setName(dto.getName(), dto.getSource());
+        person.setFirstName(dto.getFirstName(), dto.getSource());
+        person.setLastName(dto.getLastName(), dto.getSource());
+        person.setBirthName(dto.getRealName(), dto.getSource());
+        person.setStatus(NEW);
+        person.setFilmographyStatus(NEW);
+        this.saveEntity(person);
+
+        // store artwork
+        Artwork photo = new Artwork();
+        photo.setArtworkType(PHOTO);
+        photo.setPerson(person);
+        photo.setStatus(NEW);
+        person.setPhoto(photo);
+        this.saveEntity(photo);
+        return person;
+    }
+
+    private static void updatePerson(Person person, CreditDTO dto) {
+        // just update person in database
+        if (OverrideTools.checkOverwriteFirstName(person, dto.getSource())) {
+            person.setFirstName(dto.getFirstName(), dto.getSource());
+        }
+        if (OverrideTools.checkOverwriteLastName(person, dto.getSource())) {
+            person.setLastName(dto.getLastName(), dto.getSource());
+        }
+        if (OverrideTools.checkOverwriteBirthName(person, dto.getSource())) {
+            person.setBirthName(dto.getRealName(), dto.getSource());
+        }
+
+        if (person.setSourceDbId(dto.getSource(), dto.getSourceId())) {
+            // if IDs have changed then person update is needed
+            person.setStatus(UPDATED);
+        } else if (person.isDeleted()) {
+            // if previously deleted then set as updated now
+            person.setStatus(UPDATED);
+        }
     }
 
     public void updateLocatedArtwork(Artwork artwork, Collection<ArtworkDTO> dtos) {
@@ -202,4 +337,27 @@ public class MetadataDao extends HibernateDao {
                 .setCacheMode(NORMAL)
                 .list();
     }
+
+    /**
+     * Pass the indexed values of all entries of the search type in chunks to the handler
+     *
+     * @param searchType
+     * @param chunkSize
+     * @param handler
+     * @throws IOException if the handler failed
+     */
+    @Transactional(readOnly = true)
+    public void scrollSearchEntries(SearchType searchType, int chunkSize, IChunkHandler<SearchEntryDTO> handler) throws IOException {
+        SqlScalars sqlScalars = new SqlScalars();
+        sqlScalars.addScalar(LITERAL_ID, LongType.INSTANCE);
+        sqlScalars.addScalar("title", StringType.INSTANCE);
+        if (SearchType.PERSON == searchType) {
+            sqlScalars.addToSql("SELECT id, name AS title FROM person");
+        } else {
+            sqlScalars.addToSql("SELECT id, title, title_original AS titleOriginal, title_sort AS titleSort FROM " + searchType.getTableName());
+            sqlScalars.addScalar("titleOriginal", StringType.INSTANCE);
+            sqlScalars.addScalar("titleSort", StringType.INSTANCE);
+        }
+        scrollQueryWithTransform(SearchEntryDTO.class, sqlScalars, null, chunkSize, handler);
+    }
 }
@@ -30,6 +30,7 @@ import java.util.*;
 import org.apache.commons.lang.StringEscapeUtils;
 import org.apache.commons.lang3.StringUtils;
 import org.hibernate.Query;
+import org.hibernate.criterion.Order;
 import org.hibernate.criterion.Projections;
 import org.hibernate.criterion.Restrictions;
 import org.springframework.cache.annotation.Cacheable;
@@ -38,6 +39,7 @@ import org.springframework.transaction.annotation.Transactional;
 import org.springframework.util.CollectionUtils;
 import org.yamj.common.type.StatusType;
 import org.yamj.core.database.model.*;
+import org.yamj.core.database.model.dto.QueueDTO;
 import org.yamj.core.database.model.type.FileType;
 import org.yamj.core.hibernate.HibernateDao;
 import org.yamj.core.service.file.FileTools;
@@ -76,16 +78,61 @@ public class StagingDao extends HibernateDao {
                 .load();
     }
 
-    public Long getNextStageFileId(FileType fileType) {
-        return (Long) currentSession().createCriteria(StageFile.class)
+    /**
+     * Get the stage files of the given type to import ordered by their id.
+     *
+     * @param fileType
+     * @param maxResults
+     * @return the queue of stage file ids
+     */
+    @SuppressWarnings("unchecked")
+    public List<QueueDTO> getStageFileQueueForImport(FileType fileType, int maxResults) {
+        List<Long> ids = currentSession().createCriteria(StageFile.class)
                 .add(Restrictions.eq(LITERAL_FILE_TYPE, fileType))    
                 .add(Restrictions.or(
                         Restrictions.eq(LITERAL_STATUS, StatusType.NEW),
                         Restrictions.eq(LITERAL_STATUS, StatusType.UPDATED)))
-                .setProjection(Projections.min(LITERAL_ID))
-                .setCacheable(true)
-                .setCacheMode(NORMAL)
-                .uniqueResult();
+                .setProjection(Projections.id())
+                .addOrder(Order.asc(LITERAL_ID))
+                .setMaxResults(maxResults)
+                .list();
+
+        final List<QueueDTO> queueElements = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            queueElements.add(new QueueDTO(id));
+        }
+        return queueElements;
+    }
+
+    /**
+     * Get the stage directories which contain stage files of the given type to import.
+     *
+     * @param fileType
+     * @param maxResults
+     * @return the queue of stage directory ids
+     */
+    @SuppressWarnings("unchecked")
+    public List<QueueDTO> getStageDirectoryQueueForImport(FileType fileType, int maxResults) {
+        List<Long> ids = currentSession().getNamedQuery(StageFile.QUERY_DIRECTORIES_FOR_IMPORT)
+                .setParameter(LITERAL_FILE_TYPE, fileType)
+                .setReadOnly(true)
+                .setMaxResults(maxResults)
+                .list();
+
+        final List<QueueDTO> queueElements = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            queueElements.add(new QueueDTO(id));
+        }
+        return queueElements;
+    }
+
+    @SuppressWarnings("unchecked")
+    public List<Long> getStageFileIdsForImport(FileType fileType, Long directoryId) {
+        return currentSession().getNamedQuery(StageFile.QUERY_FOR_IMPORT_BY_DIRECTORY)
+                .setParameter(LITERAL_FILE_TYPE, fileType)
+                .setLong("directoryId", directoryId)
+                .setReadOnly(true)
+                .list();
     }
 
     @SuppressWarnings("unchecked")
@@ -185,6 +185,12 @@ public class UpgradeDatabaseDao extends HibernateDao {
 		
 	  }
 	
+    public void patchPersonIdentifierLower() {
+        currentSession()
+        .createSQLQuery("UPDATE person SET identifier_lower=lower(identifier) WHERE identifier_lower IS NULL")
+        .executeUpdate();
+    }
+
     public void deleteOrphanConfigs() {
         currentSession()
         .createSQLQuery("DELETE FROM configuration WHERE config_key like '%.throwError.tempUnavailable'")
@@ -110,8 +110,7 @@ public abstract class AbstractScannable extends AbstractStateful implements ISca
         return identifier;
     }
 
-    @SuppressWarnings("unused")
-    private void setIdentifier(String identifier) {
+    protected void setIdentifier(String identifier) {
         this.identifier = identifier;
     }
 
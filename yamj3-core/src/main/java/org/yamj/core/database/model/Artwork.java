@@ -58,6 +58,10 @@ import org.yamj.plugin.api.model.type.ArtworkType;
     ),
     @NamedQuery(name = Artwork.UPDATE_STATUS,
         query = "UPDATE Artwork SET status=:status WHERE id=:id"
+    ),
+    @NamedQuery(name = Artwork.UPDATE_STATUS_WITHOUT_LOCATED,
+        query = "UPDATE Artwork art SET art.status=:status WHERE art.id in (:ids) "+
+                "AND NOT EXISTS (SELECT 1 FROM ArtworkLocated loc WHERE loc.artwork.id=art.id)"
     )
 })
 
@@ -93,6 +97,7 @@ public class Artwork extends AbstractStateful {
     public static final String QUERY_FIND_MATCHING_VIDEOIMAGES_BY_NAME_AND_DIRECTORY = "artwork.findMatchingVideoImages.byNameAndDirectory";
     public static final String UPDATE_RESCAN_ALL = "artwork.rescanAll";
     public static final String UPDATE_STATUS = "artwork.updateStatus";
+    public static final String UPDATE_STATUS_WITHOUT_LOCATED = "artwork.updateStatus.withoutLocated";
     public static final String QUERY_SCANNING_QUEUE = "artwork.scanning.queue";
     public static final String QUERY_PROCESSING_QUEUE = "artwork.processing.queue";
     
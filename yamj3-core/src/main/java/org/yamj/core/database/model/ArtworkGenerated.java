@@ -47,6 +47,9 @@ import org.hibernate.annotations.NaturalId;
     @NamedQuery(name = ArtworkGenerated.UPDATE_STATUS_FOR_PROFILE,
         query = "UPDATE ArtworkGenerated gen SET status='UPDATED' WHERE gen.artworkProfile.id=:id AND gen.status != 'UPDATED' "+
                 "AND ((gen.updateTimestamp is null and gen.createTimestamp<=:profileDate) OR (gen.updateTimestamp is not null and gen.updateTimestamp<=:profileDate))"
+    ),
+    @NamedQuery(name = ArtworkGenerated.DELETE_BY_LOCATED_IDS,
+        query = "DELETE FROM ArtworkGenerated WHERE artworkLocated.id in (:ids)"
     )
 })
 
@@ -62,6 +65,7 @@ public class ArtworkGenerated extends AbstractStateful {
     public static final String QUERY_REQUIRED = "artworkGenerated.required";
     public static final String UPDATE_STATUS = "artworkGenerated.updateStatus";
     public static final String UPDATE_STATUS_FOR_PROFILE = "artworkGenerated.updateStatus.forProfile";
+    public static final String DELETE_BY_LOCATED_IDS = "artworkGenerated.delete.byLocatedIds";
 
     @NaturalId(mutable = true)
     @ManyToOne(fetch = FetchType.LAZY)
@@ -50,6 +50,13 @@ import org.yamj.plugin.api.model.type.ImageType;
     ),
     @NamedQuery(name = ArtworkLocated.UPDATE_STATUS,
         query = "UPDATE ArtworkLocated SET status=:status WHERE id=:id"
+    ),
+    @NamedQuery(name = ArtworkLocated.QUERY_FOR_DELETION_BY_IDS,
+        query = "SELECT DISTINCT loc FROM ArtworkLocated loc JOIN FETCH loc.artwork LEFT OUTER JOIN FETCH loc.generatedArtworks "+
+                "WHERE loc.id in (:ids) AND loc.status='DELETED'"
+    ),
+    @NamedQuery(name = ArtworkLocated.DELETE_BY_IDS,
+        query = "DELETE FROM ArtworkLocated WHERE id in (:ids)"
     )
 })
 
@@ -64,6 +71,8 @@ public class ArtworkLocated extends AbstractCacheable {
     public static final String QUERY_REQUIRED = "artworkLocated.required";
     public static final String QUERY_FOR_DELETION = "artworkLocated.forDeletion";
     public static final String UPDATE_STATUS = "artworkLocated.updateStatus";
+    public static final String QUERY_FOR_DELETION_BY_IDS = "artworkLocated.forDeletion.byIds";
+    public static final String DELETE_BY_IDS = "artworkLocated.delete.byIds";
 
     @NaturalId(mutable = true)
     @ManyToOne(fetch = FetchType.LAZY)
@@ -22,11 +22,17 @@
  */
 package org.yamj.core.database.model;
 
+import static org.yamj.core.CachingNames.HB_ARTWORK_PROFILE;
+import static org.yamj.core.CachingNames.HB_ARTWORK_PROFILE_NATURALID;
+
 import java.io.Serializable;
 import javax.persistence.*;
 import org.apache.commons.lang3.builder.EqualsBuilder;
 import org.apache.commons.lang3.builder.HashCodeBuilder;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import org.hibernate.annotations.NaturalId;
+import org.hibernate.annotations.NaturalIdCache;
 import org.hibernate.annotations.Type;
 import org.yamj.common.type.MetaDataType;
 import org.yamj.core.database.model.type.ScalingType;
@@ -40,6 +46,8 @@ import org.yamj.plugin.api.model.type.ImageType;
 })
 
 @Entity
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = HB_ARTWORK_PROFILE)
+@NaturalIdCache(region = HB_ARTWORK_PROFILE_NATURALID)
 @Table(name = "artwork_profile",
     uniqueConstraints = @UniqueConstraint(name = "UIX_ARTWORKPROFILE_NATURALID", columnNames = {"profile_name", "metadata_type", "artwork_type"})
 )
@@ -22,10 +22,14 @@
  */
 package org.yamj.core.database.model;
 
+import static org.yamj.core.CachingNames.HB_CERTIFICATION;
+
 import java.io.Serializable;
 import javax.persistence.*;
 import org.apache.commons.lang3.builder.EqualsBuilder;
 import org.apache.commons.lang3.builder.HashCodeBuilder;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import org.hibernate.annotations.NaturalId;
 import org.yamj.core.api.model.dto.ApiCertificationDTO;
 
@@ -69,6 +73,7 @@ import org.yamj.core.api.model.dto.ApiCertificationDTO;
 )
 
 @Entity
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = HB_CERTIFICATION)
 @Table(name = "certification",
         uniqueConstraints = @UniqueConstraint(name = "UIX_CERTIFICATION_NATURALID", columnNames = {"country_code", "certificate"})
 )
@@ -0,0 +1,136 @@
+/*
+ *      Copyright (c) 2004-2015 YAMJ Members
+ *      https://github.com/organizations/YAMJ/teams
+ *
+ *      This file is part of the Yet Another Media Jukebox (YAMJ).
+ *
+ *      YAMJ is free software: you can redistribute it and/or modify
+ *      it under the terms of the GNU General Public License as published by
+ *      the Free Software Foundation, either version 3 of the License, or
+ *      any later version.
+ *
+ *      YAMJ is distributed in the hope that it will be useful,
+ *      but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *      MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *      GNU General Public License for more details.
+ *
+ *      You should have received a copy of the GNU General Public License
+ *      along with YAMJ.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ *      Web: https://github.com/YAMJ/yamj-v3
+ *
+ */
+package org.yamj.core.database.model;
+
+import java.io.Serializable;
+import java.util.Date;
+import javax.persistence.*;
+import org.apache.commons.lang3.builder.EqualsBuilder;
+import org.apache.commons.lang3.builder.HashCodeBuilder;
+
+/**
+ * A core instance working on the database.
+ * 
+ * The heartbeat is updated regularly by the node itself; nodes without
+ * heartbeat for some time are regarded as dead.
+ */
+@NamedQueries({
+    @NamedQuery(name = CoreNode.QUERY_ALIVE,
+        query = "FROM CoreNode cn WHERE cn.heartbeat>=:deadline ORDER BY cn.startTime"
+    ),
+    @NamedQuery(name = CoreNode.QUERY_DEAD,
+        query = "SELECT cn.nodeId FROM CoreNode cn WHERE cn.heartbeat<:deadline"
+    )
+})
+
+@Entity
+@Table(name = "core_node")
+public class CoreNode implements Serializable {
+
+    private static final long serialVersionUID = 8830467512230871385L;
+    public static final String QUERY_ALIVE = "coreNode.alive";
+    public static final String QUERY_DEAD = "coreNode.dead";
+
+    @Id
+    @Column(name = "node_id", nullable = false, length = 100)
+    private String nodeId;
+
+    @Column(name = "host_name", nullable = false, length = 255)
+    private String hostName;
+
+    @Temporal(TemporalType.TIMESTAMP)
+    @Column(name = "start_time", nullable = false)
+    private Date startTime;
+
+    @Temporal(TemporalType.TIMESTAMP)
+    @Column(name = "heartbeat", nullable = false)
+    private Date heartbeat;
+
+    // GETTER AND SETTER
+
+    public String getNodeId() {
+        return nodeId;
+    }
+
+    public void setNodeId(String nodeId) {
+        this.nodeId = nodeId;
+    }
+
+    public String getHostName() {
+        return hostName;
+    }
+
+    public void setHostName(String hostName) {
+        this.hostName = hostName;
+    }
+
+    public Date getStartTime() {
+        return startTime;
+    }
+
+    public void setStartTime(Date startTime) {
+        this.startTime = startTime;
+    }
+
+    public Date getHeartbeat() {
+        return heartbeat;
+    }
+
+    public void setHeartbeat(Date heartbeat) {
+        this.heartbeat = heartbeat;
+    }
+
+    // EQUALITY CHECKS
+
+    @Override
+    public int hashCode() {
+        return new HashCodeBuilder()
+                .append(getNodeId())
+                .toHashCode();
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (obj instanceof CoreNode) {
+            return new EqualsBuilder()
+                    .append(getNodeId(), ((CoreNode) obj).getNodeId())
+                    .isEquals();
+        }
+        return false;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        sb.append("CoreNode [nodeId=");
+        sb.append(getNodeId());
+        sb.append(", hostName=");
+        sb.append(getHostName());
+        sb.append(", startTime=");
+        sb.append(getStartTime());
+        sb.append(", heartbeat=");
+        sb.append(getHeartbeat());
+        sb.append("]");
+        return sb.toString();
+    }
+}
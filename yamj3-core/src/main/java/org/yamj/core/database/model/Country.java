@@ -22,9 +22,13 @@
  */
 package org.yamj.core.database.model;
 
+import static org.yamj.core.CachingNames.HB_COUNTRY;
+
 import java.io.Serializable;
 import javax.persistence.*;
 import org.apache.commons.lang3.StringUtils;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import org.hibernate.annotations.NaturalId;
 import org.yamj.core.api.model.dto.ApiCountryDTO;
 
@@ -62,6 +66,7 @@ import org.yamj.core.api.model.dto.ApiCountryDTO;
 )
 
 @Entity
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = HB_COUNTRY)
 @Table(name = "country",
         uniqueConstraints = @UniqueConstraint(name = "UIX_COUNTRY_NATURALID", columnNames = {"country_code"})
 )
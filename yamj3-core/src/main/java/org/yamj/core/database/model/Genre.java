@@ -22,10 +22,14 @@
  */
 package org.yamj.core.database.model;
 
+import static org.yamj.core.CachingNames.HB_GENRE;
+
 import java.io.Serializable;
 import javax.persistence.*;
 import org.apache.commons.lang3.builder.EqualsBuilder;
 import org.apache.commons.lang3.builder.HashCodeBuilder;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import org.hibernate.annotations.NaturalId;
 import org.yamj.core.api.model.dto.ApiGenreDTO;
 
@@ -86,6 +90,7 @@ import org.yamj.core.api.model.dto.ApiGenreDTO;
 
 
 @Entity
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = HB_GENRE)
 @Table(name = "genre",
         uniqueConstraints = @UniqueConstraint(name = "UIX_GENRE_NATURALID", columnNames = {"name"})
 )
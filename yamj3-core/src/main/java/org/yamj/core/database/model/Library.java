@@ -23,11 +23,15 @@
 
 package org.yamj.core.database.model;
 
+import static org.yamj.core.CachingNames.HB_LIBRARY;
+
 import java.io.Serializable;
 import java.util.Date;
 import javax.persistence.*;
 import org.apache.commons.lang3.builder.EqualsBuilder;
 import org.apache.commons.lang3.builder.HashCodeBuilder;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 @NamedNativeQueries({    
     @NamedNativeQuery(name = "metadata.library.series", resultClass = Library.class,
@@ -42,6 +46,7 @@ import org.apache.commons.lang3.builder.HashCodeBuilder;
 })
 
 @Entity
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = HB_LIBRARY)
 @Table(name = "library",
         uniqueConstraints = @UniqueConstraint(name = "UIX_LIBRARY_NATURALID", columnNames = {"base_directory"})
 )
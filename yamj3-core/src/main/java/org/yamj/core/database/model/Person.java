@@ -52,6 +52,14 @@ import org.yamj.core.tools.PersonName;
     @NamedQuery(name = Person.QUERY_IDS_RECHECK,
         query = "SELECT p.id FROM Person p WHERE p.status not in ('NEW','UPDATED') AND (p.lastScanned is null or p.lastScanned<=:compareDate) ORDER BY p.lastScanned"
     ),
+    @NamedQuery(name = Person.QUERY_BY_IDENTIFIERS,
+        query = "SELECT distinct p FROM Person p LEFT JOIN FETCH p.sourceDbIdMap LEFT JOIN FETCH p.overrideFlags LEFT JOIN FETCH p.photo "+
+                "WHERE p.identifierLower in (:identifiers)"
+    ),
+    @NamedQuery(name = Person.QUERY_BY_IDS,
+        query = "SELECT distinct p FROM Person p LEFT JOIN FETCH p.sourceDbIdMap LEFT JOIN FETCH p.overrideFlags LEFT JOIN FETCH p.photo "+
+                "WHERE p.id in (:idList)"
+    ),
     @NamedQuery(name = Person.UPDATE_RESCAN_ALL,
         query = "UPDATE Person SET status='UPDATED' WHERE status not in ('NEW','UPDATED')"
     ),
@@ -88,7 +96,8 @@ import org.yamj.core.tools.PersonName;
         indexes = {
             @Index(name = "IX_PERSON_STATUS", columnList = "status"),
             @Index(name = "IX_PERSON_FILMOGRAPHY_STATUS", columnList = "filmography_status"),
-            @Index(name = "IX_PERSON_NAME", columnList = "name")}
+            @Index(name = "IX_PERSON_NAME", columnList = "name"),
+            @Index(name = "IX_PERSON_IDENTIFIER_LOWER", columnList = "identifier_lower")}
 )
 @SuppressWarnings("unused")
 public class Person extends AbstractScannable {
@@ -96,6 +105,8 @@ public class Person extends AbstractScannable {
     private static final long serialVersionUID = 660066902996412843L;
     public static final String QUERY_ORPHANS = "person.orphans";
     public static final String QUERY_IDS_RECHECK = "person.ids.forRecheck";
+    public static final String QUERY_BY_IDENTIFIERS = "person.byIdentifiers";
+    public static final String QUERY_BY_IDS = "person.byIds";
     public static final String UPDATE_RESCAN_ALL = "person.rescanAll";
     public static final String UPDATE_STATUS = "person.updateStatus";
     public static final String UPDATE_STATUS_RECHECK = "person.updateStatus.forRecheck";
@@ -103,6 +114,10 @@ public class Person extends AbstractScannable {
     public static final String QUERY_SCANNING_QUEUE = "person.scanning.queue";
     public static final String QUERY_FILMOGRAPHY_QUEUE = "person.filmography.queue";
     
+    // lower cased identifier for indexed case insensitive lookups
+    @Column(name = "identifier_lower", length = 200)
+    private String identifierLower;
+
     @Column(name = "name", nullable = false, length = 255)
     private String name;
 
@@ -174,10 +189,25 @@ public class Person extends AbstractScannable {
 
     public Person(String identifier) {
         super(identifier);
+        this.identifierLower = StringUtils.lowerCase(identifier);
     }
 
     // GETTER and SETTER
 
+    @Override
+    protected void setIdentifier(String identifier) {
+        super.setIdentifier(identifier);
+        this.identifierLower = StringUtils.lowerCase(identifier);
+    }
+
+    public String getIdentifierLower() {
+        return identifierLower;
+    }
+
+    private void setIdentifierLower(String identifierLower) {
+        this.identifierLower = identifierLower;
+    }
+
     public String getName() {
         return name;
     }
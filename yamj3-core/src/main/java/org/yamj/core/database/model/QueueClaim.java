@@ -0,0 +1,182 @@
+/*
+ *      Copyright (c) 2004-2015 YAMJ Members
+ *      https://github.com/organizations/YAMJ/teams
+ *
+ *      This file is part of the Yet Another Media Jukebox (YAMJ).
+ *
+ *      YAMJ is free software: you can redistribute it and/or modify
+ *      it under the terms of the GNU General Public License as published by
+ *      the Free Software Foundation, either version 3 of the License, or
+ *      any later version.
+ *
+ *      YAMJ is distributed in the hope that it will be useful,
+ *      but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *      MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *      GNU General Public License for more details.
+ *
+ *      You should have received a copy of the GNU General Public License
+ *      along with YAMJ.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ *      Web: https://github.com/YAMJ/yamj-v3
+ *
+ */
+package org.yamj.core.database.model;
+
+import java.io.Serializable;
+import java.util.Date;
+import javax.persistence.*;
+import org.apache.commons.lang3.builder.EqualsBuilder;
+import org.apache.commons.lang3.builder.HashCodeBuilder;
+
+/**
+ * Claim of a queue element by a worker.
+ *
+ * A queue element can only be claimed once, so that workers of different threads or
+ * core instances process disjoint queue elements. The claim expires after the lease time,
+ * if the owner didn't renew it.
+ *
+ * A processed queue element stays claimed as completed until the lease expires, so that
+ * other workers which read the element from the queue before it has been processed
+ * don't process it again. The claim of a processed queue element which is still in the
+ * queue is released instead, so that the element doesn't block the queue.
+ */
+@NamedQueries({
+    @NamedQuery(name = QueueClaim.QUERY_CLAIMED,
+        query = "SELECT qc.queueClaimPK FROM QueueClaim qc WHERE qc.queueClaimPK.queueName=:queueName AND qc.queueClaimPK.itemId in (:ids)"
+    ),
+    @NamedQuery(name = QueueClaim.QUERY_OWNER,
+        query = "SELECT qc.owner FROM QueueClaim qc WHERE qc.queueClaimPK.queueName=:queueName AND qc.queueClaimPK.itemType=:itemType "+
+                "AND qc.queueClaimPK.itemId=:itemId AND qc.leaseUntil>=:actualDate"
+    ),
+    @NamedQuery(name = QueueClaim.QUERY_COUNT,
+        query = "SELECT count(*) FROM QueueClaim qc WHERE qc.queueClaimPK.queueName=:queueName AND qc.completed=false"
+    ),
+    @NamedQuery(name = QueueClaim.DELETE_EXPIRED,
+        query = "DELETE FROM QueueClaim WHERE leaseUntil<:actualDate"
+    ),
+    @NamedQuery(name = QueueClaim.DELETE_CLAIM,
+        query = "DELETE FROM QueueClaim WHERE queueClaimPK.queueName=:queueName AND queueClaimPK.itemType=:itemType "+
+                "AND queueClaimPK.itemId=:itemId AND owner=:owner"
+    ),
+    @NamedQuery(name = QueueClaim.DELETE_BY_OWNER,
+        query = "DELETE FROM QueueClaim WHERE owner=:owner AND completed=false"
+    ),
+    @NamedQuery(name = QueueClaim.UPDATE_LEASE,
+        query = "UPDATE QueueClaim SET leaseUntil=:leaseUntil WHERE owner=:owner AND completed=false"
+    ),
+    @NamedQuery(name = QueueClaim.UPDATE_COMPLETED,
+        query = "UPDATE QueueClaim SET completed=true WHERE queueClaimPK.queueName=:queueName "+
+                "AND queueClaimPK.itemType=:itemType AND queueClaimPK.itemId=:itemId AND owner=:owner"
+    )
+})
+
+@Entity
+@Table(name = "queue_claim",
+    indexes = {@Index(name = "IX_QUEUECLAIM_OWNER", columnList = "owner"),
+               @Index(name = "IX_QUEUECLAIM_LEASE", columnList = "lease_until")}
+)
+public class QueueClaim implements Serializable {
+
+    private static final long serialVersionUID = -5204420867381437410L;
+    public static final String QUERY_CLAIMED = "queueClaim.claimed";
+    public static final String QUERY_OWNER = "queueClaim.owner";
+    public static final String QUERY_COUNT = "queueClaim.count";
+    public static final String DELETE_EXPIRED = "queueClaim.delete.expired";
+    public static final String DELETE_CLAIM = "queueClaim.delete.claim";
+    public static final String DELETE_BY_OWNER = "queueClaim.delete.byOwner";
+    public static final String UPDATE_LEASE = "queueClaim.updateLease";
+    public static final String UPDATE_COMPLETED = "queueClaim.updateCompleted";
+
+    @EmbeddedId
+    private QueueClaimPK queueClaimPK;
+
+    @Column(name = "owner", nullable = false, length = 100)
+    private String owner;
+
+    @Temporal(TemporalType.TIMESTAMP)
+    @Column(name = "lease_until", nullable = false)
+    private Date leaseUntil;
+
+    @Column(name = "completed", nullable = false)
+    private boolean completed = false;
+
+    public QueueClaim() {
+        // empty constructor
+    }
+
+    public QueueClaim(QueueClaimPK queueClaimPK, String owner, Date leaseUntil) {
+        this.queueClaimPK = queueClaimPK;
+        this.owner = owner;
+        this.leaseUntil = leaseUntil;
+    }
+
+    // GETTER AND SETTER
+
+    public QueueClaimPK getQueueClaimPK() {
+        return queueClaimPK;
+    }
+
+    public void setQueueClaimPK(QueueClaimPK queueClaimPK) {
+        this.queueClaimPK = queueClaimPK;
+    }
+
+    public String getOwner() {
+        return owner;
+    }
+
+    public void setOwner(String owner) {
+        this.owner = owner;
+    }
+
+    public Date getLeaseUntil() {
+        return leaseUntil;
+    }
+
+    public void setLeaseUntil(Date leaseUntil) {
+        this.leaseUntil = leaseUntil;
+    }
+
+    public boolean isCompleted() {
+        return completed;
+    }
+
+    public void setCompleted(boolean completed) {
+        this.completed = completed;
+    }
+
+    // EQUALITY CHECKS
+
+    @Override
+    public int hashCode() {
+        return new HashCodeBuilder()
+                .append(getQueueClaimPK())
+                .toHashCode();
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (obj instanceof QueueClaim) {
+            return new EqualsBuilder()
+                    .append(getQueueClaimPK(), ((QueueClaim) obj).getQueueClaimPK())
+                    .isEquals();
+        }
+        return false;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        sb.append("QueueClaim [queueName=");
+        sb.append(getQueueClaimPK().getQueueName());
+        sb.append(", itemType=");
+        sb.append(getQueueClaimPK().getItemType());
+        sb.append(", itemId=");
+        sb.append(getQueueClaimPK().getItemId());
+        sb.append(", owner=");
+        sb.append(getOwner());
+        sb.append(", leaseUntil=");
+        sb.append(getLeaseUntil());
+        sb.append("]");
+        return sb.toString();
+    }
+}
@@ -0,0 +1,117 @@
+/*
+ *      Copyright (c) 2004-2015 YAMJ Members
+ *      https://github.com/organizations/YAMJ/teams
+ *
+ *      This file is part of the Yet Another Media Jukebox (YAMJ).
+ *
+ *      YAMJ is free software: you can redistribute it and/or modify
+ *      it under the terms of the GNU General Public License as published by
+ *      the Free Software Foundation, either version 3 of the License, or
+ *      any later version.
+ *
+ *      YAMJ is distributed in the hope that it will be useful,
+ *      but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *      MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *      GNU General Public License for more details.
+ *
+ *      You should have received a copy of the GNU General Public License
+ *      along with YAMJ.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ *      Web: https://github.com/YAMJ/yamj-v3
+ *
+ */
+package org.yamj.core.database.model;
+
+import java.io.Serializable;
+import javax.persistence.Column;
+import javax.persistence.Embeddable;
+import org.apache.commons.lang3.builder.EqualsBuilder;
+import org.apache.commons.lang3.builder.HashCodeBuilder;
+
+@Embeddable
+public class QueueClaimPK implements Serializable {
+
+    private static final long serialVersionUID = 4162361480617320523L;
+
+    @Column(name = "queue_name", nullable = false, length = 50)
+    private String queueName;
+
+    @Column(name = "item_type", nullable = false, length = 20)
+    private String itemType;
+
+    @Column(name = "item_id", nullable = false)
+    private long itemId;
+
+    public QueueClaimPK() {
+        // empty constructor
+    }
+
+    public QueueClaimPK(String queueName, String itemType, long itemId) {
+        this.queueName = queueName;
+        this.itemType = itemType;
+        this.itemId = itemId;
+    }
+
+    // GETTER AND SETTER
+
+    public String getQueueName() {
+        return queueName;
+    }
+
+    public void setQueueName(String queueName) {
+        this.queueName = queueName;
+    }
+
+    public String getItemType() {
+        return itemType;
+    }
+
+    public void setItemType(String itemType) {
+        this.itemType = itemType;
+    }
+
+    public long getItemId() {
+        return itemId;
+    }
+
+    public void setItemId(long itemId) {
+        this.itemId = itemId;
+    }
+
+    // EQUALITY CHECKS
+
+    @Override
+    public int hashCode() {
+        return new HashCodeBuilder()
+                .append(getQueueName())
+                .append(getItemType())
+                .append(getItemId())
+                .toHashCode();
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (obj instanceof QueueClaimPK) {
+            QueueClaimPK other = (QueueClaimPK) obj;
+            return new EqualsBuilder()
+                    .append(getQueueName(), other.getQueueName())
+                    .append(getItemType(), other.getItemType())
+                    .append(getItemId(), other.getItemId())
+                    .isEquals();
+        }
+        return false;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        sb.append("QueueClaimPK [queueName=");
+        sb.append(getQueueName());
+        sb.append(", itemType=");
+        sb.append(getItemType());
+        sb.append(", itemId=");
+        sb.append(getItemId());
+        sb.append("]");
+        return sb.toString();
+    }
+}
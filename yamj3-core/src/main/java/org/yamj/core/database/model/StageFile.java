@@ -70,11 +70,23 @@ import org.yamj.core.database.model.type.FileType;
     @NamedQuery(name = StageFile.QUERY_FOR_DELETION,
         query = "SELECT sf.id FROM StageFile sf WHERE sf.status = 'DELETED'"
     ),
+    @NamedQuery(name = StageFile.QUERY_DIRECTORIES_FOR_IMPORT,
+        query = "SELECT sf.stageDirectory.id FROM StageFile sf WHERE sf.fileType=:fileType AND sf.status in ('NEW','UPDATED') "+
+                "GROUP BY sf.stageDirectory.id ORDER BY min(sf.id)"
+    ),
+    @NamedQuery(name = StageFile.QUERY_FOR_IMPORT_BY_DIRECTORY,
+        query = "SELECT sf.id FROM StageFile sf WHERE sf.fileType=:fileType AND sf.stageDirectory.id=:directoryId "+
+                "AND sf.status in ('NEW','UPDATED') ORDER BY sf.id"
+    ),
     @NamedQuery(name = StageFile.UPDATE_STATUS,
         query = "UPDATE StageFile SET status=:status WHERE id=:id"
     ),
     @NamedQuery(name = StageFile.UPDATE_STATUS_BULK,
         query = "UPDATE StageFile SET status=:status WHERE id in :idList"
+    ),
+    @NamedQuery(name = StageFile.UPDATE_STATUS_DIRECTORIES,
+        query = "UPDATE StageFile SET status=:status WHERE status != :status AND stageDirectory in "+
+                "(SELECT sd FROM StageDirectory sd WHERE sd.library=:library AND sd.directoryPath in :directoryPaths)"
     )
 })
     
@@ -97,7 +109,10 @@ public class StageFile extends AbstractStateful {
     public static final String QUERY_VIDEOFILES_FOR_VIDEODATA = "stageFile.videoStageFiles.forVideoData";
     public static final String QUERY_ARTWORK_FILES = "stageFile.artworkStageFiles";
     public static final String QUERY_FOR_DELETION = "stageFile.forDeletion";
+    public static final String QUERY_DIRECTORIES_FOR_IMPORT = "stageFile.directoriesForImport";
+    public static final String QUERY_FOR_IMPORT_BY_DIRECTORY = "stageFile.forImport.byDirectory";
     public static final String UPDATE_STATUS = "stageFile.updateStatus";
+    public static final String UPDATE_STATUS_DIRECTORIES = "stageFile.updateStatus.directories";
     public static final String UPDATE_STATUS_BULK = "stageFile.updateStatus.bulk";
     
     @NaturalId(mutable = true)
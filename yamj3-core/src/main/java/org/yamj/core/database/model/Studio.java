@@ -22,10 +22,14 @@
  */
 package org.yamj.core.database.model;
 
+import static org.yamj.core.CachingNames.HB_STUDIO;
+
 import java.io.Serializable;
 import javax.persistence.*;
 import org.apache.commons.lang3.builder.EqualsBuilder;
 import org.apache.commons.lang3.builder.HashCodeBuilder;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import org.hibernate.annotations.NaturalId;
 
 @NamedNativeQueries({    
@@ -45,6 +49,7 @@ import org.hibernate.annotations.NaturalId;
 })
 
 @Entity
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = HB_STUDIO)
 @Table(name = "studio",
         uniqueConstraints = @UniqueConstraint(name = "UIX_STUDIO_NATURALID", columnNames = {"name"})
 )
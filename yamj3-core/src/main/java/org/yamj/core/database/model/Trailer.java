@@ -48,6 +48,12 @@ import org.yamj.plugin.api.model.type.ContainerType;
     ),
     @NamedQuery(name = Trailer.UPDATE_STATUS,
         query = "UPDATE Trailer SET status=:status WHERE id=:id"
+    ),
+    @NamedQuery(name = Trailer.QUERY_FOR_DELETION_BY_IDS,
+        query = "FROM Trailer t WHERE t.id in (:ids) AND t.status='DELETED'"
+    ),
+    @NamedQuery(name = Trailer.DELETE_BY_IDS,
+        query = "DELETE FROM Trailer WHERE id in (:ids)"
     )
 })
 
@@ -98,6 +104,8 @@ public class Trailer extends AbstractCacheable implements ITrailer {
     public static final String QUERY_REQUIRED = "trailer.required";
     public static final String QUERY_FOR_DELETION = "trailer.forDeletion";
     public static final String UPDATE_STATUS = "trailer.updateStatus";
+    public static final String QUERY_FOR_DELETION_BY_IDS = "trailer.forDeletion.byIds";
+    public static final String DELETE_BY_IDS = "trailer.delete.byIds";
     public static final String QUERY_SCANNING_QUEUE = "trailer.scanningQueue";
     public static final String QUERY_PROCESSING_QUEUE = "trailer.processingQueue";
                     
@@ -44,6 +44,10 @@ public final class QueueDTO {
         return id;
     }
 
+    public MetaDataType getMetadataType() {
+        return metadataType;
+    }
+
     public boolean isMetadataType(MetaDataType metadataType) {
         return this.metadataType == metadataType;
     }
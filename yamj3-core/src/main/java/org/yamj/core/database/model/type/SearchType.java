@@ -0,0 +1,69 @@
+/*
+ *      Copyright (c) 2004-2015 YAMJ Members
+ *      https://github.com/organizations/YAMJ/teams
+ *
+ *      This file is part of the Yet Another Media Jukebox (YAMJ).
+ *
+ *      YAMJ is free software: you can redistribute it and/or modify
+ *      it under the terms of the GNU General Public License as published by
+ *      the Free Software Foundation, either version 3 of the License, or
+ *      any later version.
+ *
+ *      YAMJ is distributed in the hope that it will be useful,
+ *      but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *      MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *      GNU General Public License for more details.
+ *
+ *      You should have received a copy of the GNU General Public License
+ *      along with YAMJ.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ *      Web: https://github.com/YAMJ/yamj-v3
+ *
+ */
+package org.yamj.core.database.model.type;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import org.apache.commons.lang3.StringUtils;
+
+/**
+ * The tables covered by the search index with their indexed columns
+ */
+public enum SearchType {
+
+    VIDEODATA("videodata", "title", "title_original", "title_sort"),
+    SEASON("season", "title", "title_original", "title_sort"),
+    SERIES("series", "title", "title_original", "title_sort"),
+    PERSON("person", "name");
+
+    private final String tableName;
+    private final List<String> columns;
+
+    private SearchType(String tableName, String... columns) {
+        this.tableName = tableName;
+        this.columns = Collections.unmodifiableList(Arrays.asList(columns));
+    }
+
+    public String getTableName() {
+        return tableName;
+    }
+
+    public List<String> getColumns() {
+        return columns;
+    }
+
+    /**
+     * Get the indexed column which is searched by the field.
+     *
+     * @param field the searched field, optionally with table alias
+     * @return the column or null if the field is not indexed
+     */
+    public String getColumn(String field) {
+        if (StringUtils.isBlank(field)) {
+            return null;
+        }
+        final String column = StringUtils.lowerCase(StringUtils.trim(field.contains(".") ? StringUtils.substringAfterLast(field, ".") : field));
+        return columns.contains(column) ? column : null;
+    }
+}
@@ -0,0 +1,109 @@
+/*
+ *      Copyright (c) 2004-2015 YAMJ Members
+ *      https://github.com/organizations/YAMJ/teams
+ *
+ *      This file is part of the Yet Another Media Jukebox (YAMJ).
+ *
+ *      YAMJ is free software: you can redistribute it and/or modify
+ *      it under the terms of the GNU General Public License as published by
+ *      the Free Software Foundation, either version 3 of the License, or
+ *      any later version.
+ *
+ *      YAMJ is distributed in the hope that it will be useful,
+ *      but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *      MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *      GNU General Public License for more details.
+ *
+ *      You should have received a copy of the GNU General Public License
+ *      along with YAMJ.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ *      Web: https://github.com/YAMJ/yamj-v3
+ *
+ */
+package org.yamj.core.database.service;
+
+import java.util.*;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.yamj.core.database.dao.CommonDao;
+import org.yamj.core.database.model.CoreNode;
+import org.yamj.core.database.model.QueueClaim;
+
+@Service("clusterStorageService")
+public class ClusterStorageService {
+
+    private static final String DEADLINE = "deadline";
+
+    @Autowired
+    private CommonDao commonDao;
+
+    /**
+     * Register the node or update its heartbeat.
+     *
+     * @param nodeId
+     * @param hostName
+     * @param startTime
+     */
+    @Transactional
+    public void heartbeat(String nodeId, String hostName, Date startTime) {
+        CoreNode node = this.commonDao.getById(CoreNode.class, nodeId);
+        if (node == null) {
+            node = new CoreNode();
+            node.setNodeId(nodeId);
+            node.setHostName(hostName);
+            node.setStartTime(startTime);
+            node.setHeartbeat(new Date());
+            this.commonDao.saveEntity(node);
+        } else {
+            node.setHeartbeat(new Date());
+            this.commonDao.updateEntity(node);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    @Transactional(readOnly = true)
+    public List<CoreNode> getAliveNodes(Date deadline) {
+        // heartbeats are written by other core instances, so don't use the query cache
+        return this.commonDao.currentSession().getNamedQuery(CoreNode.QUERY_ALIVE)
+                .setTimestamp(DEADLINE, deadline)
+                .list();
+    }
+
+    /**
+     * Remove the nodes without heartbeat since the deadline.
+     *
+     * The queue claims of the dead nodes are released, so that their
+     * queue elements can be claimed by other nodes.
+     *
+     * @param deadline
+     * @return the IDs of the removed nodes
+     */
+    @Transactional
+    public List<String> removeDeadNodes(Date deadline) {
+        @SuppressWarnings("unchecked")
+        List<String> nodeIds = this.commonDao.currentSession().getNamedQuery(CoreNode.QUERY_DEAD)
+                .setTimestamp(DEADLINE, deadline)
+                .list();
+
+        for (String nodeId : nodeIds) {
+            this.removeNode(nodeId);
+        }
+        return nodeIds;
+    }
+
+    @Transactional
+    public void unregister(String nodeId) {
+        this.removeNode(nodeId);
+    }
+
+    private void removeNode(String nodeId) {
+        Map<String, Object> params = Collections.singletonMap("owner", (Object) nodeId);
+        this.commonDao.executeUpdate(QueueClaim.DELETE_BY_OWNER, params);
+
+        CoreNode node = this.commonDao.getById(CoreNode.class, nodeId);
+        if (node != null) {
+            this.commonDao.deleteEntity(node);
+        }
+    }
+}
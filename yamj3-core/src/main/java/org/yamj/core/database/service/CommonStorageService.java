@@ -76,6 +76,26 @@ public class CommonStorageService {
     @Transactional
     @CacheEvict(value=DB_STAGEFILE, key="#id")
     public Set<String> deleteStageFile(Long id) {
+        return this.doDeleteStageFile(id);
+    }
+
+    /**
+     * Delete a chunk of stage files and all associated entities in one transaction.
+     *
+     * @param ids
+     * @return list of cached file names which must be deleted also
+     */
+    @Transactional
+    @CacheEvict(value=DB_STAGEFILE, allEntries=true)
+    public Set<String> deleteStageFiles(Collection<Long> ids) {
+        Set<String> filesToDelete = new HashSet<>();
+        for (Long id : ids) {
+            filesToDelete.addAll(this.doDeleteStageFile(id));
+        }
+        return filesToDelete;
+    }
+
+    private Set<String> doDeleteStageFile(Long id) {
         // get the stage file
         StageFile stageFile = this.stagingDao.getById(StageFile.class, id);
 
@@ -352,6 +372,54 @@ public class CommonStorageService {
         return new DeletionDTO(filesToDelete, updateTrigger);
     }
 
+    /**
+     * Delete a chunk of located artwork with set-based statements.
+     *
+     * @param ids
+     * @return the deletion DTO
+     */
+    @Transactional
+    public DeletionDTO deleteArtworkLocated(Collection<Long> ids) {
+        Map<String, Object> params = new HashMap<>();
+        params.put("ids", ids);
+        @SuppressWarnings("unchecked")
+        List<ArtworkLocated> locatedList = this.stagingDao.namedQueryByNamedParameters(ArtworkLocated.QUERY_FOR_DELETION_BY_IDS, params);
+        if (locatedList.isEmpty()) {
+            return new DeletionDTO(Collections.<String>emptySet(), false);
+        }
+
+        Set<String> filesToDelete = new HashSet<>();
+        Set<Long> locatedIds = new HashSet<>();
+        Set<Long> artworkIds = new HashSet<>();
+        for (ArtworkLocated located : locatedList) {
+            LOG.debug(DELETE_MESSAGE, located);
+            locatedIds.add(located.getId());
+            artworkIds.add(located.getArtwork().getId());
+
+            final StorageType storageType = ArtworkStorageTools.getStorageType(located);
+            for (ArtworkGenerated generated : located.getGeneratedArtworks()) {
+                String filename = FilenameUtils.concat(generated.getCacheDirectory(), generated.getCacheFilename());
+                filesToDelete.add(this.fileStorageService.getStorageDir(storageType, filename));
+            }
+            if (located.isCached()) {
+                String filename = FilenameUtils.concat(located.getCacheDirectory(), located.getCacheFilename());
+                filesToDelete.add(this.fileStorageService.getStorageDir(storageType, filename));
+            }
+        }
+
+        // delete generated and located artwork
+        params.put("ids", locatedIds);
+        this.stagingDao.executeUpdate(ArtworkGenerated.DELETE_BY_LOCATED_IDS, params);
+        this.stagingDao.executeUpdate(ArtworkLocated.DELETE_BY_IDS, params);
+
+        // if no located artwork exists anymore then set status of artwork to NEW
+        params.put("ids", artworkIds);
+        params.put("status", NEW);
+        boolean updateTrigger = this.stagingDao.executeUpdate(Artwork.UPDATE_STATUS_WITHOUT_LOCATED, params) > 0;
+
+        return new DeletionDTO(filesToDelete, updateTrigger);
+    }
+
     @SuppressWarnings("unchecked")
 	@Transactional(readOnly = true)
     public List<Long> getOrphanPersons() {
@@ -362,6 +430,27 @@ public class CommonStorageService {
     @CacheEvict(value=DB_PERSON, key="#id")
     public Set<String> deletePerson(Long id) {
         Set<String> filesToDelete = new HashSet<>();
+        this.doDeletePerson(id, filesToDelete);
+        return filesToDelete;
+    }
+
+    /**
+     * Delete a chunk of persons in one transaction.
+     *
+     * @param ids
+     * @return list of cached file names which must be deleted also
+     */
+    @Transactional
+    @CacheEvict(value=DB_PERSON, allEntries=true)
+    public Set<String> deletePersons(Collection<Long> ids) {
+        Set<String> filesToDelete = new HashSet<>();
+        for (Long id : ids) {
+            this.doDeletePerson(id, filesToDelete);
+        }
+        return filesToDelete;
+    }
+
+    private void doDeletePerson(Long id, Set<String> filesToDelete) {
         Person person = this.stagingDao.getById(Person.class, id);
 
         LOG.debug(DELETE_MESSAGE, person);
@@ -370,8 +459,6 @@ public class CommonStorageService {
             this.delete(person.getPhoto(), filesToDelete);
             this.stagingDao.deleteEntity(person);
         }
-
-        return filesToDelete;
     }
 
     @SuppressWarnings("unchecked")
@@ -384,6 +471,27 @@ public class CommonStorageService {
     @CacheEvict(value=DB_BOXEDSET, key="#id")
     public Set<String> deleteBoxedSet(Long id) {
         Set<String> filesToDelete = new HashSet<>();
+        this.doDeleteBoxedSet(id, filesToDelete);
+        return filesToDelete;
+    }
+
+    /**
+     * Delete a chunk of boxed sets in one transaction.
+     *
+     * @param ids
+     * @return list of cached file names which must be deleted also
+     */
+    @Transactional
+    @CacheEvict(value=DB_BOXEDSET, allEntries=true)
+    public Set<String> deleteBoxedSets(Collection<Long> ids) {
+        Set<String> filesToDelete = new HashSet<>();
+        for (Long id : ids) {
+            this.doDeleteBoxedSet(id, filesToDelete);
+        }
+        return filesToDelete;
+    }
+
+    private void doDeleteBoxedSet(Long id, Set<String> filesToDelete) {
         BoxedSet boxedSet = this.stagingDao.getById(BoxedSet.class, id);
 
         LOG.debug(DELETE_MESSAGE, boxedSet);
@@ -396,8 +504,6 @@ public class CommonStorageService {
 
             this.stagingDao.deleteEntity(boxedSet);
         }
-
-        return filesToDelete;
     }
 
     @Transactional
@@ -524,4 +630,35 @@ public class CommonStorageService {
         }
         return fileToDelete;
     }
+
+    /**
+     * Delete a chunk of trailers with a set-based statement.
+     *
+     * @param ids
+     * @return list of cached file names which must be deleted also
+     */
+    @Transactional
+    public Set<String> deleteTrailers(Collection<Long> ids) {
+        Map<String, Object> params = new HashMap<>();
+        params.put("ids", ids);
+        @SuppressWarnings("unchecked")
+        List<Trailer> trailers = this.stagingDao.namedQueryByNamedParameters(Trailer.QUERY_FOR_DELETION_BY_IDS, params);
+        if (trailers.isEmpty()) {
+            return Collections.emptySet();
+        }
+
+        Set<String> filesToDelete = new HashSet<>();
+        Set<Long> trailerIds = new HashSet<>();
+        for (Trailer trailer : trailers) {
+            LOG.debug(DELETE_MESSAGE, trailer);
+            trailerIds.add(trailer.getId());
+            if (StringUtils.isNotBlank(trailer.getCacheFilename())) {
+                filesToDelete.add(this.fileStorageService.getStorageDir(StorageType.TRAILER, trailer.getFullCacheFilename()));
+            }
+        }
+
+        params.put("ids", trailerIds);
+        this.stagingDao.executeUpdate(Trailer.DELETE_BY_IDS, params);
+        return filesToDelete;
+    }
 }
@@ -26,14 +26,17 @@ import static org.yamj.core.CachingNames.API_EXTERNAL_IDS;
 import static org.yamj.core.CachingNames.API_GENRES;
 import static org.yamj.core.database.Literals.LITERAL_NAME;
 
+import java.io.IOException;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Date;
+import java.util.EnumMap;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.Map.Entry;
 import java.util.Set;
 import org.apache.commons.collections.CollectionUtils;
 import org.apache.commons.collections.MapUtils;
@@ -98,7 +101,10 @@ import org.yamj.core.database.model.Trailer;
 import org.yamj.core.database.model.VideoData;
 import org.yamj.core.database.model.player.PlayerInfo;
 import org.yamj.core.database.model.player.PlayerPath;
+import org.yamj.core.database.model.type.SearchType;
+import org.yamj.core.hibernate.IChunkHandler;
 import org.yamj.core.service.metadata.online.OnlineScannerService;
+import org.yamj.core.service.search.SearchIndexService;
 import org.yamj.core.tools.OverrideTools;
 import org.yamj.plugin.api.model.type.JobType;
 
@@ -107,6 +113,7 @@ import org.yamj.plugin.api.model.type.JobType;
 public class JsonApiStorageService {
 
     private static final Logger LOG = LoggerFactory.getLogger(ApiDao.class);
+    private static final int STREAM_CHUNK_SIZE = 250;
     private static final String API_SOURCE = "api";
         
     @Autowired
@@ -125,73 +132,133 @@ public class JsonApiStorageService {
     private MetadataStorageService metadataStorageService;
     @Autowired
     private OnlineScannerService onlineScannerService;
+    @Autowired
+    private SearchIndexService searchIndexService;
 
     
     //<editor-fold defaultstate="collapsed" desc="Index Methods">
     public List<ApiVideoDTO> getVideoList(ApiWrapperList<ApiVideoDTO> wrapper, OptionsIndexVideo options) {
+        searchIndexService.resolve(options, SearchType.VIDEODATA, SearchType.SEASON, SearchType.SERIES);
         List<ApiVideoDTO> results = apiDao.getVideoList(wrapper, options);
-        
+        addDataItemsToVideoList(results, options);
+        return results;
+    }
+
+    public void streamVideoList(ApiWrapperList<ApiVideoDTO> wrapper, final OptionsIndexVideo options, final IChunkHandler<ApiVideoDTO> handler) throws IOException {
+        searchIndexService.resolve(options, SearchType.VIDEODATA, SearchType.SEASON, SearchType.SERIES);
+        apiDao.scrollVideoList(wrapper, options, STREAM_CHUNK_SIZE, new IChunkHandler<ApiVideoDTO>() {
+            @Override
+            public void handleChunk(List<ApiVideoDTO> chunk) throws IOException {
+                addDataItemsToVideoList(chunk, options);
+                handler.handleChunk(chunk);
+            }
+        });
+    }
+
+    private void addDataItemsToVideoList(List<ApiVideoDTO> results, OptionsIndexVideo options) {
+        if (results.isEmpty()) {
+            return;
+        }
+
+        // group the videos by type, so that the data items can be loaded in one query per type
+        Map<MetaDataType, Map<Long, ApiVideoDTO>> videosByType = new EnumMap<>(MetaDataType.class);
         for (ApiVideoDTO video : results) {
-            for (DataItem dataItem : options.splitDataItems()) {
+            Map<Long, ApiVideoDTO> videos = videosByType.get(video.getVideoType());
+            if (videos == null) {
+                videos = new HashMap<>();
+                videosByType.put(video.getVideoType(), videos);
+            }
+            videos.put(video.getId(), video);
+        }
+        
+        for (DataItem dataItem : options.splitDataItems()) {
+            for (Entry<MetaDataType, Map<Long, ApiVideoDTO>> entry : videosByType.entrySet()) {
+                final MetaDataType type = entry.getKey();
+                final Map<Long, ApiVideoDTO> videos = entry.getValue();
+                
                 switch (dataItem) {
                     case GENRE:
-                        if (MetaDataType.EPISODE != video.getVideoType()) {
-                            video.setGenres(apiDao.getGenresForMetadata(video.getVideoType(), video.getId()));
+                        if (MetaDataType.EPISODE != type) {
+                            Map<Long, List<ApiGenreDTO>> genres = apiDao.getGenresForMetadata(type, videos.keySet());
+                            for (Entry<Long, List<ApiGenreDTO>> item : genres.entrySet()) {
+                                videos.get(item.getKey()).setGenres(item.getValue());
+                            }
                         }
                         break;
                     case STUDIO:
-                        if (MetaDataType.EPISODE != video.getVideoType()) {
-                            video.setStudios(apiDao.getStudiosForMetadata(video.getVideoType(), video.getId()));
+                        if (MetaDataType.EPISODE != type) {
+                            Map<Long, List<Studio>> studios = apiDao.getStudiosForMetadata(type, videos.keySet());
+                            for (Entry<Long, List<Studio>> item : studios.entrySet()) {
+                                videos.get(item.getKey()).setStudios(item.getValue());
+                            }
                         }
                         break;
-					// case LIBRARY
-					case LIBRARY:
-                        if (MetaDataType.EPISODE != video.getVideoType()) {
-                            video.setLibraries(apiDao.getLibrariesForMetadata(video.getVideoType(), video.getId()));
+                    case LIBRARY:
+                        if (MetaDataType.EPISODE != type) {
+                            for (ApiVideoDTO video : videos.values()) {
+                                video.setLibraries(apiDao.getLibrariesForMetadata(type, video.getId()));
+                            }
                         }
                         break;
-					// end library
                     case COUNTRY:
-                        if (MetaDataType.EPISODE != video.getVideoType()) {
-                            video.setCountries(apiDao.getCountriesForMetadata(video.getVideoType(), video.getId()));
-                            localizeCountries(video.getCountries(), options.getLanguage());
+                        if (MetaDataType.EPISODE != type) {
+                            Map<Long, List<ApiCountryDTO>> countries = apiDao.getCountriesForMetadata(type, videos.keySet());
+                            for (Entry<Long, List<ApiCountryDTO>> item : countries.entrySet()) {
+                                localizeCountries(item.getValue(), options.getLanguage());
+                                videos.get(item.getKey()).setCountries(item.getValue());
+                            }
                         }
                         break;
                     case CERTIFICATION:
-                        if (MetaDataType.EPISODE != video.getVideoType()) {
-                            video.setCertifications(apiDao.getCertificationsForMetadata(video.getVideoType(), video.getId()));
-                            localizeCertifications(video.getCertifications(), options.getLanguage());
+                        if (MetaDataType.EPISODE != type) {
+                            Map<Long, List<ApiCertificationDTO>> certifications = apiDao.getCertificationsForMetadata(type, videos.keySet());
+                            for (Entry<Long, List<ApiCertificationDTO>> item : certifications.entrySet()) {
+                                localizeCertifications(item.getValue(), options.getLanguage());
+                                videos.get(item.getKey()).setCertifications(item.getValue());
+                            }
                         }
                         break;
                     case AWARD:
-                        if (MetaDataType.EPISODE != video.getVideoType()) {
-                            video.setAwards(apiDao.getAwardsForMetadata(video.getVideoType(), video.getId()));
+                        if (MetaDataType.EPISODE != type) {
+                            Map<Long, List<ApiAwardDTO>> awards = apiDao.getAwardsForMetadata(type, videos.keySet());
+                            for (Entry<Long, List<ApiAwardDTO>> item : awards.entrySet()) {
+                                videos.get(item.getKey()).setAwards(item.getValue());
+                            }
                         }
                         break;
                     case RATING:
-                        video.setRatings(apiDao.getRatingsForMetadata(video.getVideoType(), video.getId()));
+                        Map<Long, List<ApiRatingDTO>> ratings = apiDao.getRatingsForMetadata(type, videos.keySet());
+                        for (Entry<Long, List<ApiRatingDTO>> item : ratings.entrySet()) {
+                            videos.get(item.getKey()).setRatings(item.getValue());
+                        }
                         break;
                     case EXTERNALID:
-                        video.setExternalIds(apiDao.getExternalIdsForMetadata(video.getVideoType(), video.getId()));
+                        for (ApiVideoDTO video : videos.values()) {
+                            video.setExternalIds(apiDao.getExternalIdsForMetadata(type, video.getId()));
+                        }
                         break;
                     case BOXSET:
-                        video.setBoxedSets(apiDao.getBoxedSetsForMetadata(video.getVideoType(), video.getId()));
+                        for (ApiVideoDTO video : videos.values()) {
+                            video.setBoxedSets(apiDao.getBoxedSetsForMetadata(type, video.getId()));
+                        }
                         break;
                     case TRAILER:
-                        if (MetaDataType.SERIES == video.getVideoType() || MetaDataType.MOVIE.equals(video.getVideoType())) {
-                            video.setTrailers(apiDao.getTrailersForMetadata(video.getVideoType(), video.getId()));
+                        if (MetaDataType.SERIES == type || MetaDataType.MOVIE == type) {
+                            for (ApiVideoDTO video : videos.values()) {
+                                video.setTrailers(apiDao.getTrailersForMetadata(type, video.getId()));
+                            }
                         }
                         break;
                     case VIDEOSOURCE:
-                        video.setVideoSource(apiDao.getVideoSourceForMetadata(video.getVideoType(), video.getId()));
+                        for (ApiVideoDTO video : videos.values()) {
+                            video.setVideoSource(apiDao.getVideoSourceForMetadata(type, video.getId()));
+                        }
                         break;
                     default:
                         break;
                 }
             }
         }
-        
-        return results;
     }
 
     public CountTimestamp getCountTimestamp(MetaDataType type) {
@@ -223,6 +290,7 @@ public class JsonApiStorageService {
 
     //<editor-fold defaultstate="collapsed" desc="Person Methods">
     public List<ApiPersonDTO> getPersonList(ApiWrapperList<ApiPersonDTO> wrapper, OptionsId options) {
+        searchIndexService.resolve(options, SearchType.PERSON);
         List<ApiPersonDTO> personList = apiDao.getPersonList(wrapper, options);
         for (ApiPersonDTO person : personList) {
         	localizeFilmography(person, options.getLanguage());
@@ -230,6 +298,19 @@ public class JsonApiStorageService {
         return personList;
     }
 
+    public void streamPersonList(ApiWrapperList<ApiPersonDTO> wrapper, final OptionsId options, final IChunkHandler<ApiPersonDTO> handler) throws IOException {
+        searchIndexService.resolve(options, SearchType.PERSON);
+        apiDao.scrollPersonList(wrapper, options, STREAM_CHUNK_SIZE, new IChunkHandler<ApiPersonDTO>() {
+            @Override
+            public void handleChunk(List<ApiPersonDTO> chunk) throws IOException {
+                for (ApiPersonDTO person : chunk) {
+                    localizeFilmography(person, options.getLanguage());
+                }
+                handler.handleChunk(chunk);
+            }
+        });
+    }
+
     public ApiPersonDTO getPerson(ApiWrapperSingle<ApiPersonDTO> wrapper, OptionsId options) {
         ApiPersonDTO person = apiDao.getPerson(wrapper, options);
         if (person != null) {
@@ -285,6 +366,7 @@ public class JsonApiStorageService {
         }
 
         person.setLastScanned(new Date());
+        searchIndexService.update(person);
         return ApiStatus.ok("Updated person with ID "+id);
     }
     
@@ -585,43 +667,75 @@ public class JsonApiStorageService {
 
     public  List<ApiEpisodeDTO> getEpisodeList(ApiWrapperList<ApiEpisodeDTO> wrapper, OptionsEpisode options) {
         List<ApiEpisodeDTO> results = apiDao.getEpisodeList(wrapper, options);
-        
+        if (results.isEmpty()) {
+            return results;
+        }
+
+        // the data items of the series are loaded with one query for all series of the page
+        Set<Long> seriesIds = new HashSet<>();
+        Set<Long> episodeIds = new HashSet<>();
         for (ApiEpisodeDTO episode : results) {
-            for (DataItem dataItem : options.splitDataItems()) {
-                switch(dataItem) {
-                    case GENRE:
-                        episode.setGenres(apiDao.getGenresForMetadata(MetaDataType.SERIES, episode.getSeriesId()));
-                        break;
-                    case STUDIO:
-                        episode.setStudios(apiDao.getStudiosForMetadata(MetaDataType.SERIES, episode.getSeriesId()));
-                        break;
-					// add case LIBRARY
-					case LIBRARY:
-					//	LOG.debug("JsonApiStorageService episode.setLibraries case ");
+            seriesIds.add(episode.getSeriesId());
+            episodeIds.add(episode.getId());
+        }
+        
+        for (DataItem dataItem : options.splitDataItems()) {
+            switch(dataItem) {
+                case GENRE:
+                    Map<Long, List<ApiGenreDTO>> genres = apiDao.getGenresForMetadata(MetaDataType.SERIES, seriesIds);
+                    for (ApiEpisodeDTO episode : results) {
+                        episode.setGenres(getBatchResult(genres, episode.getSeriesId()));
+                    }
+                    break;
+                case STUDIO:
+                    Map<Long, List<Studio>> studios = apiDao.getStudiosForMetadata(MetaDataType.SERIES, seriesIds);
+                    for (ApiEpisodeDTO episode : results) {
+                        episode.setStudios(getBatchResult(studios, episode.getSeriesId()));
+                    }
+                    break;
+                case LIBRARY:
+                    for (ApiEpisodeDTO episode : results) {
                         episode.setLibraries(apiDao.getLibrariesForMetadata(MetaDataType.SERIES, episode.getSeriesId()));
-                        break;
-					// end library
-                    case COUNTRY:
-                        episode.setCountries(apiDao.getCountriesForMetadata(MetaDataType.SERIES, episode.getSeriesId()));
-                        localizeCountries(episode.getCountries(), options.getLanguage());
-                        break;
-                    case CERTIFICATION:
-                        episode.setCertifications(apiDao.getCertificationsForMetadata(MetaDataType.SERIES, episode.getSeriesId()));
-                        localizeCertifications(episode.getCertifications(), options.getLanguage());
-                        break;
-                    case RATING:
-                        episode.setRatings(apiDao.getRatingsForMetadata(MetaDataType.EPISODE, episode.getId()));
-                        break;
-                    case AWARD:
-                        episode.setAwards(apiDao.getAwardsForMetadata(MetaDataType.SERIES, episode.getSeriesId()));
-                        break;
-                    case FILES:
+                    }
+                    break;
+                case COUNTRY:
+                    Map<Long, List<ApiCountryDTO>> countries = apiDao.getCountriesForMetadata(MetaDataType.SERIES, seriesIds);
+                    for (List<ApiCountryDTO> items : countries.values()) {
+                        localizeCountries(items, options.getLanguage());
+                    }
+                    for (ApiEpisodeDTO episode : results) {
+                        episode.setCountries(getBatchResult(countries, episode.getSeriesId()));
+                    }
+                    break;
+                case CERTIFICATION:
+                    Map<Long, List<ApiCertificationDTO>> certifications = apiDao.getCertificationsForMetadata(MetaDataType.SERIES, seriesIds);
+                    for (List<ApiCertificationDTO> items : certifications.values()) {
+                        localizeCertifications(items, options.getLanguage());
+                    }
+                    for (ApiEpisodeDTO episode : results) {
+                        episode.setCertifications(getBatchResult(certifications, episode.getSeriesId()));
+                    }
+                    break;
+                case RATING:
+                    Map<Long, List<ApiRatingDTO>> ratings = apiDao.getRatingsForMetadata(MetaDataType.EPISODE, episodeIds);
+                    for (ApiEpisodeDTO episode : results) {
+                        episode.setRatings(getBatchResult(ratings, episode.getId()));
+                    }
+                    break;
+                case AWARD:
+                    Map<Long, List<ApiAwardDTO>> awards = apiDao.getAwardsForMetadata(MetaDataType.SERIES, seriesIds);
+                    for (ApiEpisodeDTO episode : results) {
+                        episode.setAwards(getBatchResult(awards, episode.getSeriesId()));
+                    }
+                    break;
+                case FILES:
+                    for (ApiEpisodeDTO episode : results) {
                         episode.setFiles(apiDao.getFilesForMetadata(MetaDataType.EPISODE, episode.getId()));
                         localizeFiles(episode.getFiles(), options.getLanguage());
-                        break;
-                    default:
-                        break;
-                }
+                    }
+                    break;
+                default:
+                    break;
             }
         }
         
@@ -653,6 +767,11 @@ public class JsonApiStorageService {
         return results;
     }
 
+    private static <T> List<T> getBatchResult(Map<Long, List<T>> batchResults, Long id) {
+        List<T> values = batchResults.get(id);
+        return values == null ? Collections.<T>emptyList() : values;
+    }
+
     public ApiVideoDTO getSingleVideo(ApiWrapperSingle<ApiVideoDTO> wrapper, OptionsIndexVideo options) {
         ApiVideoDTO video = apiDao.getSingleVideo(wrapper, options);
         
@@ -780,6 +899,7 @@ public class JsonApiStorageService {
        videoData.setTopRank(update.getTopRank());
 
         metadataDao.updateEntity(videoData);
+        searchIndexService.update(videoData);
         return ApiStatus.ok("Updated video with ID "+id);
     }
 
@@ -812,6 +932,7 @@ public class JsonApiStorageService {
         }
         
         metadataDao.updateEntity(series);
+        searchIndexService.update(series);
         return ApiStatus.ok("Updated series with ID "+id);
     }
     
@@ -843,6 +964,7 @@ public class JsonApiStorageService {
         }
         
         metadataDao.updateEntity(season);
+        searchIndexService.update(season);
         return ApiStatus.ok("Updated season with ID "+id);
     }
 
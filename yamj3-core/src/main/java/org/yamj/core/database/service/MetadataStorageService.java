@@ -28,7 +28,7 @@ import static org.yamj.core.tools.YamjTools.getEqualObject;
 
 import java.util.*;
 import java.util.Map.Entry;
-import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.Lock;
 import org.apache.commons.collections.CollectionUtils;
 import org.apache.commons.collections.MapUtils;
 import org.apache.commons.lang3.StringUtils;
@@ -52,20 +52,25 @@ import org.yamj.core.database.model.award.MovieAward;
 import org.yamj.core.database.model.award.SeriesAward;
 import org.yamj.core.database.model.dto.*;
 import org.yamj.core.database.model.type.OverrideFlag;
+import org.yamj.core.service.search.SearchIndexService;
 import org.yamj.core.tools.GenreXmlTools;
+import org.yamj.core.tools.StripedLock;
 import org.yamj.plugin.api.model.type.ArtworkType;
 
 @Service("metadataStorageService")
 public class MetadataStorageService {
 
     private static final Logger LOG = LoggerFactory.getLogger(MetadataStorageService.class);
-    private static final ReentrantLock COUNTRY_STORAGE_LOCK = new ReentrantLock(true);
-    private static final ReentrantLock STUDIO_STORAGE_LOCK = new ReentrantLock(true);
-    private static final ReentrantLock CERTIFICATION_STORAGE_LOCK = new ReentrantLock(true);
-    private static final ReentrantLock AWARD_STORAGE_LOCK = new ReentrantLock(true);
-    private static final ReentrantLock GENRE_STORAGE_LOCK = new ReentrantLock(true);
-    private static final ReentrantLock PERSON_STORAGE_LOCK = new ReentrantLock(true);
-    private static final ReentrantLock BOXSET_STORAGE_LOCK = new ReentrantLock(true);
+    // the storage of associated entities is locked per (normalised) key,
+    // so that only threads storing the same entity have to wait
+    private static final int LOCK_STRIPES = 64;
+    private static final StripedLock COUNTRY_STORAGE_LOCK = new StripedLock(LOCK_STRIPES);
+    private static final StripedLock STUDIO_STORAGE_LOCK = new StripedLock(LOCK_STRIPES);
+    private static final StripedLock CERTIFICATION_STORAGE_LOCK = new StripedLock(LOCK_STRIPES);
+    private static final StripedLock AWARD_STORAGE_LOCK = new StripedLock(LOCK_STRIPES);
+    private static final StripedLock GENRE_STORAGE_LOCK = new StripedLock(LOCK_STRIPES);
+    private static final StripedLock PERSON_STORAGE_LOCK = new StripedLock(LOCK_STRIPES);
+    private static final StripedLock BOXSET_STORAGE_LOCK = new StripedLock(LOCK_STRIPES);
     private static final String COMPARE_DATE = "compareDate";
     private static final String ID_LIST = "idList";
     
@@ -73,6 +78,8 @@ public class MetadataStorageService {
     private CommonDao commonDao;
     @Autowired
     private MetadataDao metadataDao;
+    @Autowired
+    private SearchIndexService searchIndexService;
 
     @Transactional(readOnly = true)
     public List<QueueDTO> getMetaDataQueueForScanning(final int maxResults) {
@@ -121,25 +128,8 @@ public class MetadataStorageService {
      * @param videoData
      */
     public void storeAssociatedEntities(VideoData videoData) {
-        this.storeCountries(videoData.getCountryCodes());
-        this.storeStudios(videoData.getStudioNames());
-        this.storeGenres(videoData.getGenreNames());
-        this.storeCertifications(videoData.getCertificationInfos());
-        this.storeAwards(videoData.getAwardDTOS());
-        this.storeBoxedSets(videoData.getBoxedSetDTOS());
-        
-        // store persons
-        for (CreditDTO creditDTO : videoData.getCreditDTOS()) {
-            PERSON_STORAGE_LOCK.lock();
-            try {
-                this.metadataDao.storeMovieCredit(creditDTO);
-            } catch (Exception ex) {
-                LOG.error("Failed to store person '{}', error: {}", creditDTO.getName(), ex.getMessage());
-                LOG.trace(STORAGE_ERROR, ex);
-            } finally {
-                PERSON_STORAGE_LOCK.unlock();
-            }
-        }
+        this.storeEntities(videoData);
+        this.storePersons(videoData.getCreditDTOS());
     }
     
     /**
@@ -155,11 +145,60 @@ public class MetadataStorageService {
         this.storeAwards(series.getAwardDTOS());
         this.storeBoxedSets(series.getBoxedSetDTOS());
 
+        // the persons of all episodes are stored at once
+        List<CreditDTO> creditDTOS = new ArrayList<>();
         for (Season season : series.getSeasons()) {
             for (VideoData videoData : season.getVideoDatas()) {
-                this.storeAssociatedEntities(videoData);
+                this.storeEntities(videoData);
+                creditDTOS.addAll(videoData.getCreditDTOS());
             }
         }
+        this.storePersons(creditDTOS);
+    }
+
+    private void storeEntities(VideoData videoData) {
+        this.storeCountries(videoData.getCountryCodes());
+        this.storeStudios(videoData.getStudioNames());
+        this.storeGenres(videoData.getGenreNames());
+        this.storeCertifications(videoData.getCertificationInfos());
+        this.storeAwards(videoData.getAwardDTOS());
+        this.storeBoxedSets(videoData.getBoxedSetDTOS());
+    }
+
+    private void storePersons(Collection<CreditDTO> creditDTOS) {
+        if (CollectionUtils.isEmpty(creditDTOS)) {
+            return;
+        }
+
+        // store all persons at once without locking; a person which has been created concurrently
+        // violates the unique identifier, so that the persons are stored one by one afterwards
+        try {
+            indexPersons(this.metadataDao.storeMovieCredits(creditDTOS));
+            return;
+        } catch (Exception ex) {
+            LOG.warn("Failed to store {} credits at once, storing them one by one: {}", creditDTOS.size(), ex.getMessage());
+            LOG.trace(STORAGE_ERROR, ex);
+        }
+
+        // store persons one by one, so that a failing person doesn't affect the others
+        for (CreditDTO creditDTO : creditDTOS) {
+            Lock lock = PERSON_STORAGE_LOCK.get(StringUtils.lowerCase(creditDTO.getIdentifier()));
+            lock.lock();
+            try {
+                indexPersons(this.metadataDao.storeMovieCredit(creditDTO));
+            } catch (Exception ex) {
+                LOG.error("Failed to store person '{}', error: {}", creditDTO.getName(), ex.getMessage());
+                LOG.trace(STORAGE_ERROR, ex);
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    private void indexPersons(List<Person> persons) {
+        for (Person person : persons) {
+            searchIndexService.update(person);
+        }
     }
 
     private void storeCountries(Collection<String> countryCodes) {
@@ -169,7 +208,8 @@ public class MetadataStorageService {
 
         // store new countries
         for (String countryCode: countryCodes) {
-            COUNTRY_STORAGE_LOCK.lock();
+            Lock lock = COUNTRY_STORAGE_LOCK.get(countryCode);
+            lock.lock();
             try {
                 if (this.commonDao.getCountry(countryCode) == null) {
                     this.commonDao.saveCountry(countryCode);
@@ -178,7 +218,7 @@ public class MetadataStorageService {
                 LOG.error("Failed to store country '{}', error: {}", countryCode, ex.getMessage());
                 LOG.trace(STORAGE_ERROR, ex);
             } finally {
-                COUNTRY_STORAGE_LOCK.unlock();
+                lock.unlock();
             }
         }
     }
@@ -190,7 +230,8 @@ public class MetadataStorageService {
         
         // store new studios
         for (String studioName : studioNames) {
-            STUDIO_STORAGE_LOCK.lock();
+            Lock lock = STUDIO_STORAGE_LOCK.get(StringUtils.lowerCase(studioName));
+            lock.lock();
             try {
                 if (this.commonDao.getStudio(studioName) == null) {
                     this.commonDao.saveStudio(studioName);
@@ -199,7 +240,7 @@ public class MetadataStorageService {
                 LOG.error("Failed to store studio '{}', error: {}", studioName, ex.getMessage());
                 LOG.trace(STORAGE_ERROR, ex);
             } finally {
-                STUDIO_STORAGE_LOCK.unlock();
+                lock.unlock();
             }
         }
     }
@@ -211,7 +252,8 @@ public class MetadataStorageService {
 
         // store new genres
         for (String genreName : genreNames) {
-            GENRE_STORAGE_LOCK.lock();
+            Lock lock = GENRE_STORAGE_LOCK.get(StringUtils.lowerCase(genreName));
+            lock.lock();
             try {
                 if (this.commonDao.getGenre(genreName) == null) {
                     final String targetXml = GenreXmlTools.getMasterGenre(genreName);
@@ -221,14 +263,15 @@ public class MetadataStorageService {
                 LOG.error("Failed to store genre '{}', error: {}", genreName, ex.getMessage());
                 LOG.trace(STORAGE_ERROR, ex);
             } finally {
-                GENRE_STORAGE_LOCK.unlock();
+                lock.unlock();
             }
         }
     }
 
     private void storeCertifications(Map<String,String> certificationInfos) {
         for (Entry<String,String> entry : certificationInfos.entrySet()) {
-            CERTIFICATION_STORAGE_LOCK.lock();
+            Lock lock = CERTIFICATION_STORAGE_LOCK.get(StringUtils.lowerCase(entry.getKey()));
+            lock.lock();
             try {
                 if (this.commonDao.getCertification(entry.getKey(), entry.getValue()) == null) {
                     this.commonDao.saveCertification(entry.getKey(), entry.getValue());
@@ -237,14 +280,15 @@ public class MetadataStorageService {
                 LOG.error("Failed to store certification '{}'-'{}', error: {}", entry.getKey(), entry.getValue(), ex.getMessage());
                 LOG.trace(STORAGE_ERROR, ex);
             } finally {
-                CERTIFICATION_STORAGE_LOCK.unlock();
+                lock.unlock();
             }
         }
     }
 
     private void storeAwards(Collection<AwardDTO> awards) {
         for (AwardDTO award : awards) {
-            AWARD_STORAGE_LOCK.lock();
+            Lock lock = AWARD_STORAGE_LOCK.get(StringUtils.lowerCase(award.getEvent()));
+            lock.lock();
             try {
                 if (this.commonDao.getAward(award.getEvent(), award.getCategory(), award.getSource()) == null) {
                     this.commonDao.saveAward(award.getEvent(), award.getCategory(), award.getSource());
@@ -253,21 +297,22 @@ public class MetadataStorageService {
                 LOG.error("Failed to store award '{}'-'{}', error: {}", award.getEvent(), award.getCategory(), ex.getMessage());
                 LOG.trace(STORAGE_ERROR, ex);
             } finally {
-                AWARD_STORAGE_LOCK.unlock();
+                lock.unlock();
             }
         }
     }
 
     private void storeBoxedSets(Collection<BoxedSetDTO> boxedSets) {
         for (BoxedSetDTO boxedSet : boxedSets) {
-            BOXSET_STORAGE_LOCK.lock();
+            Lock lock = BOXSET_STORAGE_LOCK.get(StringUtils.lowerCase(boxedSet.getIdentifier()));
+            lock.lock();
             try {
                 this.commonDao.storeNewBoxedSet(boxedSet);
             } catch (Exception ex) {
                 LOG.error("Failed to store boxed set '{}', error: {}", boxedSet.getName(), ex.getMessage());
                 LOG.trace(STORAGE_ERROR, ex);
             } finally {
-                BOXSET_STORAGE_LOCK.unlock();
+                lock.unlock();
             }
         }
     }
@@ -277,6 +322,7 @@ public class MetadataStorageService {
         // update entity
         person.setLastScanned(new Date());
         metadataDao.updateEntity(person);
+        searchIndexService.update(person);
 
         // update artwork
         this.updateLocatedArtwork(person);
@@ -321,6 +367,7 @@ public class MetadataStorageService {
         // update entity
         videoData.setLastScanned(new Date());
         metadataDao.updateEntity(videoData);
+        searchIndexService.update(videoData);
 
         // update genres
         updateGenres(videoData);
@@ -352,6 +399,7 @@ public class MetadataStorageService {
         // update entity
         series.setLastScanned(new Date());
         metadataDao.updateEntity(series);
+        searchIndexService.update(series);
 
         // update genres
         updateGenres(series);
@@ -384,6 +432,7 @@ public class MetadataStorageService {
                 season.setLastScanned(series.getLastScanned());
             }
             metadataDao.updateEntity(season);
+            searchIndexService.update(season);
 
             for (VideoData videoData : season.getVideoDatas()) {
                 if (!StatusType.DONE.equals(videoData.getStatus())) {
@@ -0,0 +1,183 @@
+/*
+ *      Copyright (c) 2004-2015 YAMJ Members
+ *      https://github.com/organizations/YAMJ/teams
+ *
+ *      This file is part of the Yet Another Media Jukebox (YAMJ).
+ *
+ *      YAMJ is free software: you can redistribute it and/or modify
+ *      it under the terms of the GNU General Public License as published by
+ *      the Free Software Foundation, either version 3 of the License, or
+ *      any later version.
+ *
+ *      YAMJ is distributed in the hope that it will be useful,
+ *      but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *      MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *      GNU General Public License for more details.
+ *
+ *      You should have received a copy of the GNU General Public License
+ *      along with YAMJ.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ *      Web: https://github.com/YAMJ/yamj-v3
+ *
+ */
+package org.yamj.core.database.service;
+
+import java.util.*;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.yamj.core.database.dao.CommonDao;
+import org.yamj.core.database.model.QueueClaim;
+import org.yamj.core.database.model.QueueClaimPK;
+import org.yamj.core.database.model.dto.QueueDTO;
+
+@Service("queueStorageService")
+public class QueueStorageService {
+
+    private static final Logger LOG = LoggerFactory.getLogger(QueueStorageService.class);
+    private static final String QUEUE_NAME = "queueName";
+    private static final String OWNER = "owner";
+    private static final String NO_TYPE = "NONE";
+
+    @Autowired
+    private CommonDao commonDao;
+
+    @Transactional(readOnly = true)
+    public int getClaimCount(String queueName) {
+        // claims may be changed by other core instances, so don't use the query cache
+        Number count = (Number) this.commonDao.currentSession().getNamedQuery(QueueClaim.QUERY_COUNT)
+                .setString(QUEUE_NAME, queueName)
+                .uniqueResult();
+        return count == null ? 0 : count.intValue();
+    }
+
+    /**
+     * Claim the queue elements which are not claimed yet.
+     *
+     * Expired claims are removed before, so that their queue elements can be claimed again.
+     * If another worker claimed one of the queue elements concurrently, then the
+     * transaction fails due to a constraint violation.
+     *
+     * @param queueName the name of the queue
+     * @param queueElements the queue elements to claim
+     * @param maxResults the maximum number of queue elements to claim
+     * @param owner the owner of the claims
+     * @param leaseUntil the expiration of the claims
+     * @return the claimed queue elements
+     */
+    @Transactional
+    public List<QueueDTO> claimQueueElements(String queueName, List<QueueDTO> queueElements, int maxResults, String owner, Date leaseUntil) {
+        if (queueElements.isEmpty()) {
+            return Collections.emptyList();
+        }
+
+        Map<String, Object> params = Collections.singletonMap("actualDate", (Object) new Date());
+        int expired = this.commonDao.executeUpdate(QueueClaim.DELETE_EXPIRED, params);
+        if (expired > 0) {
+            LOG.info("Reclaimed {} queue elements with expired lease", expired);
+        }
+
+        Set<Long> ids = new HashSet<>();
+        for (QueueDTO queueElement : queueElements) {
+            ids.add(queueElement.getId());
+        }
+        @SuppressWarnings("unchecked")
+        List<QueueClaimPK> claimedPKs = this.commonDao.currentSession().getNamedQuery(QueueClaim.QUERY_CLAIMED)
+                .setString(QUEUE_NAME, queueName)
+                .setParameterList("ids", ids)
+                .list();
+        Set<QueueClaimPK> claimed = new HashSet<>(claimedPKs);
+
+        List<QueueDTO> result = new ArrayList<>();
+        for (QueueDTO queueElement : queueElements) {
+            if (result.size() >= maxResults) {
+                break;
+            }
+            QueueClaimPK claimPK = getClaimPK(queueName, queueElement);
+            if (claimed.add(claimPK)) {
+                this.commonDao.saveEntity(new QueueClaim(claimPK, owner, leaseUntil));
+                result.add(queueElement);
+            }
+        }
+
+        // detect concurrent claims within this transaction
+        this.commonDao.currentSession().flush();
+        return result;
+    }
+
+    /**
+     * Get the owner of the queue element.
+     *
+     * @param queueName the name of the queue
+     * @param queueElement the queue element
+     * @return the owner; null if the queue element is not claimed or the lease expired
+     */
+    @Transactional(readOnly = true)
+    public String getClaimOwner(String queueName, QueueDTO queueElement) {
+        QueueClaimPK claimPK = getClaimPK(queueName, queueElement);
+        return (String) this.commonDao.currentSession().getNamedQuery(QueueClaim.QUERY_OWNER)
+                .setString(QUEUE_NAME, claimPK.getQueueName())
+                .setString("itemType", claimPK.getItemType())
+                .setLong("itemId", claimPK.getItemId())
+                .setTimestamp("actualDate", new Date())
+                .uniqueResult();
+    }
+
+    @Transactional
+    public void releaseQueueElement(String queueName, QueueDTO queueElement, String owner) {
+        this.commonDao.executeUpdate(QueueClaim.DELETE_CLAIM, getClaimParams(queueName, queueElement, owner));
+    }
+
+    /**
+     * Mark the claim of a processed queue element as completed.
+     *
+     * The claim is not renewed anymore but kept until the lease expires, so that
+     * other workers which read the element before it has been processed can't claim it.
+     *
+     * @param queueName the name of the queue
+     * @param queueElement the processed queue element
+     * @param owner the owner of the claim
+     */
+    @Transactional
+    public void completeQueueElement(String queueName, QueueDTO queueElement, String owner) {
+        this.commonDao.executeUpdate(QueueClaim.UPDATE_COMPLETED, getClaimParams(queueName, queueElement, owner));
+    }
+
+    @Transactional
+    public int renewClaims(String owner, Date leaseUntil) {
+        Map<String, Object> params = new HashMap<>();
+        params.put(OWNER, owner);
+        params.put("leaseUntil", leaseUntil);
+        return this.commonDao.executeUpdate(QueueClaim.UPDATE_LEASE, params);
+    }
+
+    @Transactional
+    public int releaseClaims(String owner) {
+        Map<String, Object> params = Collections.singletonMap(OWNER, (Object) owner);
+        return this.commonDao.executeUpdate(QueueClaim.DELETE_BY_OWNER, params);
+    }
+
+    private static Map<String, Object> getClaimParams(String queueName, QueueDTO queueElement, String owner) {
+        QueueClaimPK claimPK = getClaimPK(queueName, queueElement);
+        Map<String, Object> params = new HashMap<>();
+        params.put(QUEUE_NAME, claimPK.getQueueName());
+        params.put("itemType", claimPK.getItemType());
+        params.put("itemId", claimPK.getItemId());
+        params.put(OWNER, owner);
+        return params;
+    }
+
+    private static QueueClaimPK getClaimPK(String queueName, QueueDTO queueElement) {
+        final String itemType;
+        if (queueElement.getMetadataType() != null) {
+            itemType = queueElement.getMetadataType().name();
+        } else if (queueElement.getLocatedArtwork() != null) {
+            itemType = queueElement.getLocatedArtwork().booleanValue() ? "LOCATED" : "GENERATED";
+        } else {
+            itemType = NO_TYPE;
+        }
+        return new QueueClaimPK(queueName, itemType, queueElement.getId().longValue());
+    }
+}
@@ -83,6 +83,13 @@ public class UpgradeDatabaseService {
 			}
 		}
 		
+        // fill lower cased person identifiers (same for all database types)
+        try {
+            upgradeDatabaseDao.patchPersonIdentifierLower();
+        } catch (Exception ex) {
+            LOG.warn("Failed upgrade 'patchPersonIdentifierLower' for database type "+databaseType, ex);
+        }
+
         // fix roles (same for all database types)
         try {
             upgradeDatabaseDao.fixRoles();
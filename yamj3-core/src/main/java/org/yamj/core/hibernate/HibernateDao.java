@@ -22,6 +22,7 @@
  */
 package org.yamj.core.hibernate;
 
+import java.io.IOException;
 import java.io.Serializable;
 import java.math.BigDecimal;
 import java.math.BigInteger;
@@ -33,6 +34,7 @@ import org.hibernate.*;
 import org.hibernate.criterion.MatchMode;
 import org.hibernate.criterion.Order;
 import org.hibernate.criterion.Restrictions;
+import org.hibernate.transform.ResultTransformer;
 import org.hibernate.transform.Transformers;
 import org.hibernate.type.BasicType;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -459,12 +461,15 @@ public abstract class HibernateDao {
      *
      * Gets the options from the wrapper for start and max
      *
-     * Puts the total count returned from the query into the wrapper
+     * Puts the total count returned from the query into the wrapper; if start or max
+     * is set, then the total count is determined by a separate count query, which
+     * can be skipped by the options. A skipped total count is set to
+     * {@link IApiWrapper#UNKNOWN_TOTAL_COUNT}.
      *
      * @param entityClass
      * @param sqlScalars
      * @param wrapper
-     * @return
+     * @return the results of the requested page
      */
     @SuppressWarnings({ "rawtypes", "unchecked" })
     public <T> List<T> executeQueryWithTransform(Class<T> entityClass, SqlScalars sqlScalars, IApiWrapper wrapper) { //NOSONAR
@@ -473,15 +478,7 @@ public abstract class HibernateDao {
         query.setReadOnly(true).setCacheable(true);
         
         // add parameters
-        for (Map.Entry<String, Object> entry : sqlScalars.getParameters().entrySet()) {
-            if (entry.getValue() instanceof Collection) {
-                query.setParameterList(entry.getKey(), (Collection) entry.getValue());
-            } else if (entry.getValue() instanceof Object[]) {
-                query.setParameterList(entry.getKey(), (Object[]) entry.getValue());
-            } else {
-                query.setParameter(entry.getKey(), entry.getValue());
-            }
-        }
+        applySqlParameters(query, sqlScalars);
 
         // populate scalars
         for (Map.Entry<String, BasicType> entry : sqlScalars.getScalars().entrySet()) {
@@ -502,29 +499,147 @@ public abstract class HibernateDao {
             query.setResultTransformer(Transformers.aliasToBean(entityClass));
         }
 
-        // run query
-		List<T> queryResults = query.list();
+        IOptions options = (wrapper == null ? null : wrapper.getOptions());
+        if (options == null || (options.getStart() <= 0 && options.getMax() <= 0)) {
+            // run query without paging
+            List<T> queryResults = query.list();
+            if (wrapper != null) {
+                wrapper.setTotalCount(queryResults.size());
+            }
+            return queryResults;
+        }
 
-        // if the wrapper is populated, then run the query to get the maximum results
-        if (wrapper != null) {
-            wrapper.setTotalCount(queryResults.size());
+        // run query with paging
+        final int start = Math.max(0, options.getStart());
+        if (start > 0) {
+            query.setFirstResult(start);
+        }
+        if (options.getMax() > 0) {
+            query.setMaxResults(options.getMax());
+        }
+        List<T> queryResults = query.list();
+        setPagedTotalCount(wrapper, sqlScalars, start, queryResults.size());
+        return queryResults;
+    }
 
-            // if there is a start or max set, we will need to re-run the query after setting the options
-            IOptions options = wrapper.getOptions();
-            if (options != null && (options.getStart() > 0 || options.getMax() > 0)) {
-                if (options.getStart() > 0) {
-                    query.setFirstResult(options.getStart());
-                }
+    /**
+     * Execute a query and pass the results in chunks to the handler
+     *
+     * The results are scrolled forward only, so only one chunk of the
+     * transformed results is held in memory at a time.
+     *
+     * Gets the options from the wrapper for start and max and puts the total
+     * count into the wrapper after all results have been handled
+     *
+     * @param entityClass
+     * @param sqlScalars
+     * @param wrapper
+     * @param chunkSize
+     * @param handler
+     * @return the number of handled results
+     * @throws IOException if the handler failed
+     */
+    @SuppressWarnings({ "rawtypes", "unchecked" })
+    public <T> int scrollQueryWithTransform(Class<T> entityClass, SqlScalars sqlScalars, IApiWrapper wrapper, int chunkSize, IChunkHandler<T> handler) throws IOException { //NOSONAR
+        
+        SQLQuery query = currentSession().createSQLQuery(sqlScalars.getSql());
+        query.setReadOnly(true);
+        query.setFetchSize(chunkSize);
+        
+        // add parameters
+        applySqlParameters(query, sqlScalars);
 
-                if (options.getMax() > 0) {
-                    query.setMaxResults(options.getMax());
+        // populate scalars; the aliases are needed in the same order for the transformation
+        List<String> aliases = new ArrayList<>();
+        for (Map.Entry<String, BasicType> entry : sqlScalars.getScalars().entrySet()) {
+            if (entry.getValue() == null) {
+                query.addScalar(entry.getKey());
+            } else {
+                query.addScalar(entry.getKey(), entry.getValue());
+            }
+            aliases.add(entry.getKey());
+        }
+        final String[] aliasArray = aliases.toArray(new String[aliases.size()]);
+        final ResultTransformer transformer = Transformers.aliasToBean(entityClass);
+
+        IOptions options = (wrapper == null ? null : wrapper.getOptions());
+        int start = 0;
+        if (options != null) {
+            start = Math.max(0, options.getStart());
+            if (start > 0) {
+                query.setFirstResult(start);
+            }
+            if (options.getMax() > 0) {
+                query.setMaxResults(options.getMax());
+            }
+        }
+
+        int count = 0;
+        List<T> chunk = new ArrayList<>(chunkSize);
+        ScrollableResults results = query.scroll(ScrollMode.FORWARD_ONLY);
+        try {
+            while (results.next()) {
+                chunk.add((T) transformer.transformTuple(results.get(), aliasArray));
+                if (chunk.size() >= chunkSize) {
+                    handler.handleChunk(chunk);
+                    count += chunk.size();
+                    chunk = new ArrayList<>(chunkSize);
                 }
-                
-                // this will get the trimmed list
-                queryResults = query.list();
             }
+            if (!chunk.isEmpty()) {
+                handler.handleChunk(chunk);
+                count += chunk.size();
+            }
+        } finally {
+            results.close();
         }
 
-        return queryResults;
+        if (wrapper != null) {
+            if (options == null || (options.getStart() <= 0 && options.getMax() <= 0)) {
+                wrapper.setTotalCount(count);
+            } else {
+                setPagedTotalCount(wrapper, sqlScalars, start, count);
+            }
+        }
+        return count;
+    }
+
+    private void setPagedTotalCount(IApiWrapper wrapper, SqlScalars sqlScalars, int start, int size) {
+        final IOptions options = wrapper.getOptions();
+        if (Boolean.TRUE.equals(options.getSkipcount())) {
+            // total count not requested
+            wrapper.setTotalCount(IApiWrapper.UNKNOWN_TOTAL_COUNT);
+        } else if (size > 0 && (options.getMax() <= 0 || size < options.getMax())) {
+            // last page has been reached, so no need to count
+            wrapper.setTotalCount(start + size);
+        } else {
+            wrapper.setTotalCount(executeCount(sqlScalars));
+        }
+    }
+
+    /**
+     * Count the rows returned by the SQL of the scalars.
+     *
+     * @param sqlScalars
+     * @return the row count
+     */
+    public int executeCount(SqlScalars sqlScalars) {
+        SQLQuery query = currentSession().createSQLQuery(sqlScalars.getCountSql());
+        query.setReadOnly(true).setCacheable(true);
+        applySqlParameters(query, sqlScalars);
+        return convertRowElementToInteger(query.uniqueResult());
+    }
+
+    @SuppressWarnings("rawtypes")
+    private static void applySqlParameters(SQLQuery query, SqlScalars sqlScalars) {
+        for (Map.Entry<String, Object> entry : sqlScalars.getParameters().entrySet()) {
+            if (entry.getValue() instanceof Collection) {
+                query.setParameterList(entry.getKey(), (Collection) entry.getValue());
+            } else if (entry.getValue() instanceof Object[]) {
+                query.setParameterList(entry.getKey(), (Object[]) entry.getValue());
+            } else {
+                query.setParameter(entry.getKey(), entry.getValue());
+            }
+        }
     }
 }
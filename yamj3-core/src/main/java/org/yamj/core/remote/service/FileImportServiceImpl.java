@@ -22,6 +22,7 @@
  */
 package org.yamj.core.remote.service;
 
+import java.util.List;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -55,4 +56,45 @@ public class FileImportServiceImpl implements FileImportService {
             throw new RuntimeException("Failed to import scanned directory: "+importDTO.getStageDirectory().getPath()); //NOSONAR
         }
     }
+
+    @Override
+    public void importScannedBatch(List<ImportDTO> importDTOs) {
+        if (importDTOs == null || importDTOs.isEmpty()) {
+            return;
+        }
+        
+        try {
+            stagingService.storeStageDirectories(importDTOs);
+            LOG.trace("Imported {} scanned directories", importDTOs.size());
+            importScheduler.trigger();
+        } catch (Exception error) {
+            LOG.error("Failed to import {} scanned directories, starting with: {}", importDTOs.size(), importDTOs.get(0).getStageDirectory().getPath(), error);
+            throw new RuntimeException("Failed to import "+importDTOs.size()+" scanned directories"); //NOSONAR
+        }
+    }
+
+    @Override
+    public void deleteScannedDirectories(String client, String baseDirectory, List<String> directoryPaths) {
+        if (directoryPaths == null || directoryPaths.isEmpty()) {
+            return;
+        }
+        
+        try {
+            int deleted = stagingService.markStageDirectoriesAsDeleted(client, baseDirectory, directoryPaths);
+            LOG.info("Marked {} files of {} vanished directories in '{}' as deleted", deleted, directoryPaths.size(), baseDirectory);
+        } catch (Exception error) {
+            LOG.error("Failed to delete {} vanished directories in: {}", directoryPaths.size(), baseDirectory, error);
+            throw new RuntimeException("Failed to delete vanished directories in: "+baseDirectory); //NOSONAR
+        }
+    }
+
+    @Override
+    public Long getLibraryId(String client, String baseDirectory) {
+        try {
+            return stagingService.getLibraryId(client, baseDirectory);
+        } catch (Exception error) {
+            LOG.error("Failed to get library: {}", baseDirectory, error);
+            throw new RuntimeException("Failed to get library: "+baseDirectory); //NOSONAR
+        }
+    }
 }
@@ -22,35 +22,187 @@
  */
 package org.yamj.core.scheduling;
 
-import java.util.Collection;
-import java.util.concurrent.*;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import javax.annotation.PreDestroy;
+import org.apache.commons.lang3.concurrent.BasicThreadFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.yamj.core.database.model.dto.QueueDTO;
 
 public abstract class AbstractQueueScheduler {
 
-    protected void threadedProcessing(Collection<QueueDTO> queueElements, int maxThreads, IQueueProcessService service) {
-        final BlockingQueue<QueueDTO> queue = new LinkedBlockingQueue<>(queueElements);
+    private static final Logger LOG = LoggerFactory.getLogger(AbstractQueueScheduler.class);
+    
+    private ThreadPoolExecutor executor;
+
+    @Autowired
+    private QueueClaimScheduler queueClaimScheduler;
 
-        if (maxThreads > 1) {
-            // instantiate executor if more then 1 thread should be used
-            final ExecutorService executor = Executors.newFixedThreadPool(maxThreads);
-            for (int i = 0; i < maxThreads; i++) {
-                executor.execute(new QueueProcessRunner(queue, service));
+    /**
+     * Process the queue continuously until no more queue elements are available.
+     * 
+     * The queue is refilled from the provider as soon as the workers are about to run
+     * out of work, so the workers don't have to wait for a batch to be finished.
+     * 
+     * The queue elements are claimed before they are processed, so that workers of other
+     * schedulers or core instances don't process the same elements; the claims of
+     * processed elements are kept until their lease expires, cause other workers may
+     * have read them from the queue before they have been processed. If a processed
+     * element is still in the queue, then its claim is released, so that it can be
+     * claimed again later on.
+     * 
+     * @param queueName the name of the queue used for claiming
+     * @param provider the provider for queue elements
+     * @param maxResults the maximum number of elements to fetch at once
+     * @param maxThreads the number of worker threads
+     * @param service the service to process the queue elements
+     * @return the number of processed queue elements
+     */
+    protected int pipelinedProcessing(final String queueName, IQueueProvider provider, int maxResults, int maxThreads, IQueueProcessService service) {
+        // elements submitted in this run which are not finished yet
+        final Set<QueueDTO> submitted = Collections.newSetFromMap(new ConcurrentHashMap<QueueDTO,Boolean>());
+        // elements finished in this run; they may be delivered again by the provider
+        // if their status could not be updated
+        final Set<QueueDTO> processed = Collections.newSetFromMap(new ConcurrentHashMap<QueueDTO,Boolean>());
+        final QueuePipeline pipeline = new QueuePipeline(getExecutor(maxThreads), service, maxThreads + maxResults) {
+            @Override
+            protected void elementProcessed(QueueDTO queueElement) {
+                try {
+                    queueClaimScheduler.complete(queueName, queueElement);
+                } finally {
+                    // mark as processed before it's removed, so it's never seen as unsubmitted
+                    processed.add(queueElement);
+                    submitted.remove(queueElement);
+                }
             }
-            
-            executor.shutdown();
-    
-            // run until all workers have finished
-            while (!executor.isTerminated()) {
+        };
+        // processed elements which are still in the queue and whose claims have been released
+        final Set<QueueDTO> released = new HashSet<>();
+        int submitCount = 0;
+        
+        try {
+            while (true) {
+                // fetch claimed and released elements in addition, cause they are still in the queue
+                final int maxCandidates = maxResults + released.size() + queueClaimScheduler.getClaimCount(queueName);
+                List<QueueDTO> candidates = provider.getQueueElements(maxCandidates);
+
+                List<QueueDTO> unsubmitted = new ArrayList<>();
+                int releasedNow = 0;
+                if (candidates != null) {
+                    if (candidates.size() < maxCandidates) {
+                        // all queue elements are delivered, so processed elements which are missing left the queue
+                        processed.retainAll(candidates);
+                        released.retainAll(candidates);
+                    }
+                    
+                    for (QueueDTO candidate : candidates) {
+                        if (!submitted.contains(candidate) && !processed.contains(candidate)) {
+                            unsubmitted.add(candidate);
+                        } else if (processed.contains(candidate) && released.add(candidate)) {
+                            // still in the queue after processing; it's not processed again in this run
+                            queueClaimScheduler.release(queueName, candidate);
+                            releasedNow++;
+                        }
+                    }
+                }
+
+                final List<QueueDTO> claimed = queueClaimScheduler.claim(queueName, unsubmitted, maxResults);
+                int added = 0;
                 try {
-                    TimeUnit.SECONDS.sleep(5);
-                } catch (InterruptedException ignore) {
-                    // interrupt in sleep can be ignored
+                    for (QueueDTO queueElement : claimed) {
+                        // add before the submit, cause the worker removes it when finished
+                        submitted.add(queueElement);
+                        pipeline.submit(queueElement);
+                        added++;
+                    }
+                } finally {
+                    // release claims of elements which could not be submitted
+                    for (QueueDTO queueElement : claimed.subList(added, claimed.size())) {
+                        submitted.remove(queueElement);
+                        queueClaimScheduler.release(queueName, queueElement);
+                    }
+                    submitCount += added;
+                }
+
+                if (added > 0) {
+                    // refill as soon as workers are about to run out of work
+                    pipeline.awaitPending(maxThreads);
+                } else if (releasedNow > 0) {
+                    // released elements may have hidden further queue elements
+                    continue;
+                } else if (pipeline.getPending() > 0) {
+                    // elements in process may hide further queue elements
+                    pipeline.awaitPending(0);
+                } else {
+                    break;
                 }
             }
-        } else {
-            // single threaded processing
-            new QueueProcessRunner(queue, service).run();
+        } catch (InterruptedException ex) {
+            LOG.debug("Queue processing has been interrupted");
+            Thread.currentThread().interrupt();
+        }
+        
+        return submitCount;
+    }
+
+    /**
+     * Claim the next element of the queue.
+     * 
+     * The claim must be completed by {@link #completeQueueElement(String, QueueDTO)}
+     * after the element has been processed, or released by {@link #releaseQueueElement(String, QueueDTO)}
+     * if the element stays in the queue.
+     * 
+     * @param queueName the name of the queue used for claiming
+     * @param provider the provider for queue elements
+     * @param skipped the released elements which should not be claimed again
+     * @return the claimed queue element; null if no element is available
+     */
+    protected QueueDTO claimNextQueueElement(String queueName, IQueueProvider provider, Set<QueueDTO> skipped) {
+        List<QueueDTO> candidates = provider.getQueueElements(1 + skipped.size() + queueClaimScheduler.getClaimCount(queueName));
+        if (candidates == null) {
+            return null;
+        }
+        
+        List<QueueDTO> unskipped = new ArrayList<>(candidates);
+        unskipped.removeAll(skipped);
+        List<QueueDTO> claimed = queueClaimScheduler.claim(queueName, unskipped, 1);
+        return claimed.isEmpty() ? null : claimed.get(0);
+    }
+
+    protected void completeQueueElement(String queueName, QueueDTO queueElement) {
+        queueClaimScheduler.complete(queueName, queueElement);
+    }
+
+    protected void releaseQueueElement(String queueName, QueueDTO queueElement) {
+        queueClaimScheduler.release(queueName, queueElement);
+    }
+
+    private synchronized ThreadPoolExecutor getExecutor(int maxThreads) {
+        if (executor == null) {
+            executor = new ThreadPoolExecutor(maxThreads, maxThreads, 60, TimeUnit.SECONDS, 
+                            new LinkedBlockingQueue<Runnable>(),
+                            new BasicThreadFactory.Builder().namingPattern(getClass().getSimpleName() + "-%d").build());
+            executor.allowCoreThreadTimeOut(true);
+        } else if (maxThreads > executor.getMaximumPoolSize()) {
+            executor.setMaximumPoolSize(maxThreads);
+            executor.setCorePoolSize(maxThreads);
+        } else if (maxThreads < executor.getMaximumPoolSize()) {
+            executor.setCorePoolSize(maxThreads);
+            executor.setMaximumPoolSize(maxThreads);
+        }
+        return executor;
+    }
+    
+    @PreDestroy
+    public synchronized void shutdownExecutor() {
+        if (executor != null) {
+            executor.shutdownNow();
+            executor = null;
         }
     }
 }
@@ -25,7 +25,6 @@ package org.yamj.core.scheduling;
 import java.util.List;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.locks.ReentrantLock;
-import org.apache.commons.collections.CollectionUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -87,14 +86,18 @@ public class ArtworkProcessScheduler extends AbstractQueueScheduler {
 
         // process located or generated artwork
         int maxResults = Math.max(1,configService.getIntProperty("yamj3.scheduler.artworkprocess.maxResults", 100));
-        List<QueueDTO> queueElements = artworkStorageService.getArtworkQueueForProcessing(maxResults);
-        if (CollectionUtils.isEmpty(queueElements)) {
+        int processed = pipelinedProcessing("artwork.process", new IQueueProvider() {
+            @Override
+            public List<QueueDTO> getQueueElements(int max) {
+                return artworkStorageService.getArtworkQueueForProcessing(max);
+            }
+        }, maxResults, maxThreads, artworkProcessorService);
+        
+        if (processed == 0) {
             LOG.trace("No artwork found to process");
             watchProcess.set(false);
         } else {
-            LOG.info("Found {} artwork objects to process; process with {} threads", queueElements.size(), maxThreads);
-            this.threadedProcessing(queueElements, maxThreads, artworkProcessorService);
-            LOG.debug("Finished artwork processing");
+            LOG.info("Finished artwork processing: processed {} artwork objects with {} threads", processed, maxThreads);
         }
     }
 }
@@ -25,7 +25,6 @@ package org.yamj.core.scheduling;
 import java.util.List;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.locks.ReentrantLock;
-import org.apache.commons.collections.CollectionUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -87,19 +86,23 @@ public class ArtworkScanScheduler extends AbstractQueueScheduler {
     
             // determine if photo scanning is enabled (local and online), cause not querying photo artwork
             // will significantly reduce the amount of artwork to scan
-            boolean scanPhoto = configService.getBooleanProperty("yamj3.artwork.scan.local.photo", true);
-            scanPhoto = scanPhoto && configService.getBooleanProperty("yamj3.artwork.scan.online.photo", true);
+            final boolean scanPhoto = configService.getBooleanProperty("yamj3.artwork.scan.local.photo", true) &&
+                                      configService.getBooleanProperty("yamj3.artwork.scan.online.photo", true);
 
             // process located or generated artwork
             int maxResults = Math.max(1,configService.getIntProperty("yamj3.scheduler.artworkscan.maxResults", 60));
-            List<QueueDTO> queueElements = artworkStorageService.getArtworkQueueForScanning(maxResults, scanPhoto);
-            if (CollectionUtils.isEmpty(queueElements)) {
+            int processed = pipelinedProcessing("artwork.scan", new IQueueProvider() {
+                @Override
+                public List<QueueDTO> getQueueElements(int max) {
+                    return artworkStorageService.getArtworkQueueForScanning(max, scanPhoto);
+                }
+            }, maxResults, maxThreads, artworkScannerService);
+            
+            if (processed == 0) {
                 LOG.trace("No artwork found to scan");
                 watchProcess.set(false);
             } else {
-                LOG.info("Found {} artwork objects to scan; process with {} threads", queueElements.size(), maxThreads);
-                this.threadedProcessing(queueElements, maxThreads, artworkScannerService);
-                LOG.debug("Finished artwork scanning");
+                LOG.info("Finished artwork scanning: scanned {} artwork objects with {} threads", processed, maxThreads);
             }
         }
         
@@ -0,0 +1,155 @@
+/*
+ *      Copyright (c) 2004-2015 YAMJ Members
+ *      https://github.com/organizations/YAMJ/teams
+ *
+ *      This file is part of the Yet Another Media Jukebox (YAMJ).
+ *
+ *      YAMJ is free software: you can redistribute it and/or modify
+ *      it under the terms of the GNU General Public License as published by
+ *      the Free Software Foundation, either version 3 of the License, or
+ *      any later version.
+ *
+ *      YAMJ is distributed in the hope that it will be useful,
+ *      but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *      MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *      GNU General Public License for more details.
+ *
+ *      You should have received a copy of the GNU General Public License
+ *      along with YAMJ.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ *      Web: https://github.com/YAMJ/yamj-v3
+ *
+ */
+package org.yamj.core.scheduling;
+
+import java.lang.management.ManagementFactory;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import org.apache.commons.lang3.StringUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.yamj.common.tools.PropertyTools;
+import org.yamj.core.database.model.CoreNode;
+import org.yamj.core.database.model.dto.QueueDTO;
+import org.yamj.core.database.service.ClusterStorageService;
+import org.yamj.core.database.service.QueueStorageService;
+
+/**
+ * Registers this core instance as node of the cluster working on the same database.
+ * 
+ * One node is elected as leader to run the singleton jobs; other jobs which must not run
+ * concurrently on several nodes are locked cluster wide. The queue based schedulers share
+ * their work by claiming queue elements.
+ */
+@Component
+public class ClusterScheduler {
+
+    private static final Logger LOG = LoggerFactory.getLogger(ClusterScheduler.class);
+    private static final int HEARTBEAT_INTERVAL = 30000;
+    private static final String LEADER_QUEUE = "cluster.leader";
+    private static final String JOB_QUEUE = "cluster.job.";
+    private static final QueueDTO SINGLE_ELEMENT = new QueueDTO(0L);
+    
+    private final Date startTime = new Date();
+    private String hostName;
+    private long heartbeatTimeout;
+    private int aliveNodes = 0;
+    private volatile boolean leader = false;
+    
+    @Autowired
+    private ClusterStorageService clusterStorageService;
+    @Autowired
+    private QueueStorageService queueStorageService;
+    @Autowired
+    private QueueClaimScheduler queueClaimScheduler;
+
+    @PostConstruct
+    public void init() {
+        // process name is pid@host
+        this.hostName = StringUtils.left(StringUtils.substringAfter(ManagementFactory.getRuntimeMXBean().getName(), "@"), 255);
+        // a node is dead if it missed some heartbeats
+        this.heartbeatTimeout = Math.max(3L * HEARTBEAT_INTERVAL, 1000L * PropertyTools.getIntProperty("yamj3.cluster.heartbeatTimeout", 120));
+    }
+
+    /**
+     * Indicates if this node is the leader of the cluster.
+     * 
+     * @return true, if this node is the leader
+     */
+    public boolean isLeader() {
+        return leader;
+    }
+
+    /**
+     * Lock a job cluster wide.
+     * 
+     * @param jobName the name of the job
+     * @return true, if the lock has been acquired; false if the job is locked by another node
+     */
+    public boolean lockJob(String jobName) {
+        return !queueClaimScheduler.claim(JOB_QUEUE + jobName, Collections.singletonList(SINGLE_ELEMENT), 1).isEmpty();
+    }
+
+    public void unlockJob(String jobName) {
+        queueClaimScheduler.release(JOB_QUEUE + jobName, SINGLE_ELEMENT);
+    }
+    
+    @Scheduled(initialDelay = 500, fixedDelay = HEARTBEAT_INTERVAL)
+    public void heartbeat() {
+        final String nodeId = queueClaimScheduler.getOwner();
+        try {
+            clusterStorageService.heartbeat(nodeId, hostName, startTime);
+
+            final Date deadline = new Date(System.currentTimeMillis() - heartbeatTimeout);
+            for (String deadNode : clusterStorageService.removeDeadNodes(deadline)) {
+                LOG.info("Removed core node without heartbeat: {}", deadNode);
+            }
+
+            List<CoreNode> nodes = clusterStorageService.getAliveNodes(deadline);
+            if (nodes.size() != aliveNodes) {
+                aliveNodes = nodes.size();
+                LOG.info("Cluster has {} core node(s): {}", aliveNodes, nodes);
+            }
+            
+            electLeader(nodeId);
+        } catch (Exception ex) {
+            LOG.warn("Failed to update cluster state", ex);
+            // leadership can not be verified
+            changeLeadership(false);
+        }
+    }
+
+    private void electLeader(String nodeId) {
+        final String owner = queueStorageService.getClaimOwner(LEADER_QUEUE, SINGLE_ELEMENT);
+        if (owner == null) {
+            // no leader or lease of leader expired
+            changeLeadership(!queueClaimScheduler.claim(LEADER_QUEUE, Collections.singletonList(SINGLE_ELEMENT), 1).isEmpty());
+        } else {
+            changeLeadership(nodeId.equals(owner));
+        }
+    }
+
+    private void changeLeadership(boolean newLeader) {
+        if (leader != newLeader) {
+            LOG.info(newLeader ? "This core node is the cluster leader now" : "This core node is no longer the cluster leader");
+            leader = newLeader;
+        }
+    }
+
+    @PreDestroy
+    public void unregister() {
+        leader = false;
+        try {
+            clusterStorageService.unregister(queueClaimScheduler.getOwner());
+        } catch (Exception ex) {
+            // node will be removed by other nodes
+            LOG.debug("Failed to unregister core node: {}", ex.getMessage());
+        }
+    }
+}
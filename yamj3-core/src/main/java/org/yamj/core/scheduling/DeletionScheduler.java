@@ -37,6 +37,8 @@ public class DeletionScheduler {
     
     @Autowired
     private DeletionService deletionService;
+    @Autowired
+    private ClusterScheduler clusterScheduler;
     
     private final AtomicBoolean watchProcess = new AtomicBoolean(false);
 
@@ -48,7 +50,17 @@ public class DeletionScheduler {
     @Scheduled(initialDelay = 30000, fixedDelay = 1000)
     public void run() {
         if (watchProcess.getAndSet(false)) {
-            deletionService.executeAllDeletions();
+            if (clusterScheduler.lockJob("deletion")) {
+                try {
+                    deletionService.executeAllDeletions();
+                } finally {
+                    clusterScheduler.unlockJob("deletion");
+                }
+            } else {
+                LOG.debug("Deletion process is running on another core node");
+                // retry later, cause the deletion may have been triggered for new data
+                watchProcess.set(true);
+            }
         }
     }
 }
@@ -36,10 +36,13 @@ public class ExecutionTaskScheduler {
     
     @Autowired
     private ExecutionTaskService executionTaskService;
+    @Autowired
+    private ClusterScheduler clusterScheduler;
     
     @Scheduled(initialDelay = 5000, fixedDelay = 60000)
     public void executeTasks() {
-        if (EXECUTION_TASK_LOCK.tryLock()) {
+        // execution tasks are singleton jobs of the cluster leader
+        if (clusterScheduler.isLeader() && EXECUTION_TASK_LOCK.tryLock()) {
             try {
                 for (ExecutionTask task : this.executionTaskService.getExecutableTasks()) {
                     executionTaskService.executeTask(task);
@@ -23,19 +23,27 @@
 package org.yamj.core.scheduling;
 
 import static org.yamj.core.database.model.type.FileType.*;
+import static org.yamj.core.tools.ExceptionTools.isConstraintViolation;
 import static org.yamj.core.tools.ExceptionTools.isLockingError;
 
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.locks.ReentrantLock;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
+import org.yamj.core.config.ConfigService;
+import org.yamj.core.database.model.dto.QueueDTO;
+import org.yamj.core.database.model.type.FileType;
 import org.yamj.core.service.mediaimport.MediaImportService;
 
 @Component
-public class ImportScheduler {
+public class ImportScheduler extends AbstractQueueScheduler {
 
     private static final Logger LOG = LoggerFactory.getLogger(ImportScheduler.class);
     private static final ReentrantLock IMPORT_LOCK = new ReentrantLock();
@@ -45,6 +53,8 @@ public class ImportScheduler {
     // start with an initial media import
     private final AtomicBoolean watchProcess = new AtomicBoolean(true);
 
+    @Autowired
+    private ConfigService configService;
     @Autowired
     private MediaImportService mediaImportService;
     @Autowired
@@ -71,187 +81,192 @@ public class ImportScheduler {
         }
     }
 
-    private void processStageFiles() { //NOSONAR
-        Long id = null;
-        int counter = 0;
+    private void processStageFiles() {
+        int maxThreads = configService.getIntProperty("yamj3.scheduler.mediaimport.maxThreads", 1);
+        int maxResults = Math.max(1, configService.getIntProperty("yamj3.scheduler.mediaimport.maxResults", 20));
+
+        // the file types are processed one after another, so that
+        // videos exist before NFOs and images are attached to them
         
         // PROCESS VIDEOS
-        do {
-            id = null;
-            try {
-                // find next stage file to process
-                id = mediaImportService.getNextStageFileId(VIDEO);
-                if (id != null) {
-                    LOG.trace("Process video stage file: {}", id);
-                    mediaImportService.processVideo(id);
-                    LOG.info("Processed video stage file: {}", id);
-                    counter++;
-
-                    // trigger media file scan after 20 processed videos
-                    if ((counter % 20) == 0) { 
-                        mediaFileScanScheduler.trigger();
-                    }
-                }
-            } catch (Exception error) {
-                if (isLockingError(error)) {
-                    LOG.warn("Locking error during import of video stage file {}", id);
-                } else if (id == null) {
-                    LOG.error("Failed to get next video stage file", error);
-                } else {
-                    LOG.error("Failed to process video stage file {}", id);
-                    LOG.error(STAGING_ERROR, error);
-                    
-                    try {
-                        mediaImportService.processingError(id);
-                    } catch (Exception ex) {
-                        // leave status as it is in any error case
-                        LOG.trace(DATABASE_ERROR, ex);
-                    }
-                }
-            }
-        } while (id != null);
-        if (counter > 0) {
+        if (processStageFiles(VIDEO, maxThreads, maxResults) > 0) {
             // trigger scan of media files and meta data if video files has been processed
             mediaFileScanScheduler.trigger();
             metadataScanScheduler.triggerScanVideo();
-            counter = 0;
         }
         
         // PROCESS NFOS
-        do {
-            id = null;
-            try {
-                // find next stage file to process
-                id = mediaImportService.getNextStageFileId(NFO);
-                if (id != null) {
-                    LOG.trace("Process nfo stage file: {}", id);
-                    mediaImportService.processNfo(id);
-                    LOG.info("Processed nfo stage file: {}", id);
-                    counter++;
-                }
-            } catch (Exception error) {
-                if (isLockingError(error)) {
-                    LOG.warn("Locking error during import of nfo stage file {}", id);
-                } else if (id == null) {
-                    LOG.error("Failed to get next nfo stage file", error);
-                } else {
-                    LOG.error("Failed to process nfo stage file {}", id);
-                    LOG.warn(STAGING_ERROR, error);
-                    
-                    try {
-                        mediaImportService.processingError(id);
-                    } catch (Exception ex) {
-                        // leave status as it is in any error case
-                        LOG.trace(DATABASE_ERROR, ex);
-                    }
-                }
-            }
-        } while (id != null);
-        if (counter > 0) {
+        if (processStageFiles(NFO, maxThreads, maxResults) > 0) {
             // trigger scan of meta data when NFOs has been processed
             metadataScanScheduler.triggerScanVideo();
-            counter = 0;
         }
 
         // PROCESS IMAGES
-        do {
-            id = null;
-            try {
-                // find next stage file to process
-                id = mediaImportService.getNextStageFileId(IMAGE);
-                if (id != null) {
-                    LOG.trace("Process image stage file: {}", id);
-                    mediaImportService.processImage(id);
-                    LOG.info("Processed image stage file: {}", id);
-                    counter++;
-                    
-                    // trigger artwork process after 20 processed images
-                    if ((counter % 20) == 0) { 
-                        artworkProcessScheduler.trigger();
-                    }
-                }
-            } catch (Exception error) {
-                if (isLockingError(error)) {
-                    LOG.warn("Locking error during import of image stage file {}", id);
-                } else if (id == null) {
-                    LOG.error("Failed to get next image stage file", error);
-                } else {
-                    LOG.error("Failed to process image stage file {}", id);
-                    LOG.warn(STAGING_ERROR, error);
-                    
-                    try {
-                        mediaImportService.processingError(id);
-                    } catch (Exception ex) {
-                        // leave status as it is in any error case
-                        LOG.trace(DATABASE_ERROR, ex);
-                    }
-                }
-            }
-        } while (id != null);
-        if (counter > 0) {
+        if (processStageFiles(IMAGE, maxThreads, maxResults) > 0) {
             // trigger artwork process if images has been processed
             artworkProcessScheduler.trigger();
-            counter = 0;
         }
 
         // PROCESS WATCHED
+        processStageFiles(WATCHED, maxThreads, maxResults);
+
+        // PROCESS SUBTITLE
+        processStageFiles(SUBTITLE, maxThreads, maxResults);
+    }
+
+    /**
+     * Process all stage files of the given type.
+     * 
+     * With more than one thread the stage directories are claimed by the workers,
+     * so that the stage files of one directory are processed in order by one worker.
+     * Stage files which failed due to concurrent changes are processed afterwards
+     * one by one; each of them is claimed, so that other core instances skip it.
+     * 
+     * @param fileType the file type
+     * @param maxThreads the number of worker threads
+     * @param maxResults the number of stage directories to fetch at once
+     * @return the number of processed stage files
+     */
+    private int processStageFiles(final FileType fileType, int maxThreads, int maxResults) {
+        final AtomicInteger counter = new AtomicInteger(0);
+        final String type = fileType.name().toLowerCase();
+        
+        if (maxThreads > 1) {
+            pipelinedProcessing("import.directory." + type, new IQueueProvider() {
+                @Override
+                public List<QueueDTO> getQueueElements(int max) {
+                    return mediaImportService.getStageDirectoryQueueForImport(fileType, max);
+                }
+            }, maxResults, maxThreads, new StageDirectoryProcessor(fileType, counter));
+        }
+
+        // process remaining stage files one by one
+        final String fileQueue = "import.file." + type;
+        final IQueueProvider fileProvider = new IQueueProvider() {
+            @Override
+            public List<QueueDTO> getQueueElements(int max) {
+                return mediaImportService.getStageFileQueueForImport(fileType, max);
+            }
+        };
+        
+        // stage files which stay in the queue due to locking errors
+        final Set<QueueDTO> skipped = new HashSet<>();
+        
+        QueueDTO queueElement;
         do {
-            id = null;
+            queueElement = null;
+            Long id = null;
+            boolean stillQueued = false;
             try {
-                // find next stage file to process
-                id = mediaImportService.getNextStageFileId(WATCHED);
-                if (id != null) {
-                    LOG.trace("Process watched stage file: {}", id);
-                    mediaImportService.processWatched(id);
-                    LOG.info("Processed watched stage file: {}", id);
+                // claim next stage file to process
+                queueElement = claimNextQueueElement(fileQueue, fileProvider, skipped);
+                if (queueElement != null) {
+                    id = queueElement.getId();
+                    processStageFile(fileType, id, counter);
                 }
             } catch (Exception error) {
                 if (isLockingError(error)) {
-                    LOG.warn("Locking error during import of watched stage file {}", id);
+                    LOG.warn("Locking error during import of {} stage file {}", type, id);
+                    stillQueued = (queueElement != null);
                 } else if (id == null) {
-                    LOG.error("Failed to get next watched stage file", error);
+                    LOG.error("Failed to get next {} stage file", type, error);
                 } else {
-                    LOG.error("Failed to process watched stage file {}", id);
-                    LOG.warn(STAGING_ERROR, error);
-                    
-                    try {
-                        mediaImportService.processingError(id);
-                    } catch (Exception ex) {
-                        // leave status as it is in any error case
-                        LOG.trace(DATABASE_ERROR, ex);
-                    }
+                    processingError(fileType, id, error);
+                }
+            } finally {
+                if (stillQueued) {
+                    // stage file can be claimed again by the next run or another core instance
+                    releaseQueueElement(fileQueue, queueElement);
+                    skipped.add(queueElement);
+                } else if (queueElement != null) {
+                    completeQueueElement(fileQueue, queueElement);
                 }
             }
-        } while (id != null);
+        } while (queueElement != null);
+        
+        return counter.get();
+    }
 
-        // PROCESS SUBTITLE
-        do {
-            id = null;
-            try {
-                // find next stage file to process
-                id = mediaImportService.getNextStageFileId(SUBTITLE);
-                if (id != null) {
-                    LOG.trace("Process subtitle stage file: {}", id);
-                    mediaImportService.processSubtitle(id);
-                    LOG.info("Processed subtitle stage file: {}", id);
-                }
-            } catch (Exception error) {
-                if (isLockingError(error)) {
-                    LOG.warn("Locking error during import of subtitle stage file {}", id);
-                } else if (id == null) {
-                    LOG.error("Failed to get next subtitle stage file", error);
-                } else {
-                    LOG.error("Failed to process subtitle stage file {}", id);
-                    LOG.warn(STAGING_ERROR, error);
-                    
-                    try {
-                        mediaImportService.processingError(id);
-                    } catch (Exception ex) {
-                        // leave status as it is in any error case
-                        LOG.trace(DATABASE_ERROR, ex);
+    private void processStageFile(FileType fileType, Long id, AtomicInteger counter) {
+        final String type = fileType.name().toLowerCase();
+        LOG.trace("Process {} stage file: {}", type, id);
+        
+        switch (fileType) {
+            case VIDEO:
+                mediaImportService.processVideo(id);
+                break;
+            case NFO:
+                mediaImportService.processNfo(id);
+                break;
+            case IMAGE:
+                mediaImportService.processImage(id);
+                break;
+            case WATCHED:
+                mediaImportService.processWatched(id);
+                break;
+            case SUBTITLE:
+                mediaImportService.processSubtitle(id);
+                break;
+            default:
+                LOG.warn("No import for {} stage file {}", type, id);
+                return;
+        }
+        LOG.info("Processed {} stage file: {}", type, id);
+        
+        // trigger media file scan or artwork process after 20 processed files
+        if ((counter.incrementAndGet() % 20) == 0) {
+            if (fileType == VIDEO) {
+                mediaFileScanScheduler.trigger();
+            } else if (fileType == IMAGE) {
+                artworkProcessScheduler.trigger();
+            }
+        }
+    }
+
+    private void processingError(FileType fileType, Long id, Exception error) {
+        LOG.error("Failed to process {} stage file {}", fileType.name().toLowerCase(), id);
+        LOG.warn(STAGING_ERROR, error);
+        
+        try {
+            mediaImportService.processingError(id);
+        } catch (Exception ex) {
+            // leave status as it is in any error case
+            LOG.trace(DATABASE_ERROR, ex);
+        }
+    }
+
+    /**
+     * Processes the stage files of a claimed stage directory.
+     */
+    private final class StageDirectoryProcessor implements IQueueProcessService {
+
+        private final FileType fileType;
+        private final AtomicInteger counter;
+        
+        public StageDirectoryProcessor(FileType fileType, AtomicInteger counter) {
+            this.fileType = fileType;
+            this.counter = counter;
+        }
+        
+        @Override
+        public void processQueueElement(QueueDTO queueElement) {
+            for (Long id : mediaImportService.getStageFileIdsForImport(fileType, queueElement.getId())) {
+                try {
+                    processStageFile(fileType, id, counter);
+                } catch (Exception error) {
+                    if (isLockingError(error) || isConstraintViolation(error)) {
+                        // another worker changed the same data; leave for processing one by one
+                        LOG.debug("Concurrent change during import of {} stage file {}", fileType.name().toLowerCase(), id);
+                    } else {
+                        processingError(fileType, id, error);
                     }
                 }
             }
-        } while (id != null);
+        }
+
+        @Override
+        public void processErrorOccurred(QueueDTO queueElement, Exception error) {
+            LOG.error("Failed to get {} stage files of stage directory {}", fileType.name().toLowerCase(), queueElement.getId(), error);
+        }
     }
 }
@@ -25,7 +25,6 @@ package org.yamj.core.scheduling;
 import java.util.List;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.locks.ReentrantLock;
-import org.apache.commons.collections.CollectionUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -86,14 +85,18 @@ public class MediaFileScanScheduler extends AbstractQueueScheduler {
         }
 
         int maxResults = Math.max(1,configService.getIntProperty("yamj3.scheduler.mediafilescan.maxResults", 50));
-        List<QueueDTO> queueElements = mediaStorageService.getMediaFileQueue(maxResults);
-        if (CollectionUtils.isEmpty(queueElements)) {
+        int processed = pipelinedProcessing("mediafile.scan", new IQueueProvider() {
+            @Override
+            public List<QueueDTO> getQueueElements(int max) {
+                return mediaStorageService.getMediaFileQueue(max);
+            }
+        }, maxResults, maxThreads, mediaInfoService);
+        
+        if (processed == 0) {
             LOG.trace("No media files found to scan");
             watchProcess.set(false);
         } else {
-            LOG.info("Found {} media files to process; scan with {} threads", queueElements.size(), maxThreads);
-            threadedProcessing(queueElements, maxThreads, mediaInfoService);
-            LOG.debug("Finished media file scanning");
+            LOG.info("Finished media file scanning: processed {} media files with {} threads", processed, maxThreads);
         }
     }
 }
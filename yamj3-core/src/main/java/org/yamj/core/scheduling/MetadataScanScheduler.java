@@ -25,7 +25,6 @@ package org.yamj.core.scheduling;
 import java.util.List;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.locks.ReentrantLock;
-import org.apache.commons.collections.CollectionUtils;
 import org.joda.time.LocalDateTime;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -126,8 +125,14 @@ public class MetadataScanScheduler extends AbstractQueueScheduler {
             }
     
             int maxResults = Math.max(1,configService.getIntProperty("yamj3.scheduler.metadatascan.maxResults", 30));
-            List<QueueDTO> queueElements = metadataStorageService.getMetaDataQueueForScanning(maxResults);
-            if (CollectionUtils.isEmpty(queueElements)) {
+            int processed = pipelinedProcessing("metadata.scan", new IQueueProvider() {
+                @Override
+                public List<QueueDTO> getQueueElements(int max) {
+                    return metadataStorageService.getMetaDataQueueForScanning(max);
+                }
+            }, maxResults, maxThreads, metadataScannerService);
+            
+            if (processed == 0) {
                 LOG.trace("No metadata found to scan");
                 watchScanVideo.set(false);
                 
@@ -149,9 +154,7 @@ public class MetadataScanScheduler extends AbstractQueueScheduler {
                 }
                 
             } else {
-                LOG.info("Found {} metadata objects to process; scan with {} threads", queueElements.size(), maxThreads);
-                threadedProcessing(queueElements, maxThreads, metadataScannerService);
-                LOG.debug("Finished metadata scanning");
+                LOG.info("Finished metadata scanning: processed {} metadata objects with {} threads", processed, maxThreads);
                 videosHasBeenScanned = true;
             }
         }
@@ -180,15 +183,19 @@ public class MetadataScanScheduler extends AbstractQueueScheduler {
             }
     
             int maxResults = Math.max(1,configService.getIntProperty("yamj3.scheduler.peoplescan.maxResults", 50));
-            List<QueueDTO> queueElements = metadataStorageService.getPersonQueueForScanning(maxResults);
-            if (CollectionUtils.isEmpty(queueElements)) {
+            int processed = pipelinedProcessing("person.scan", new IQueueProvider() {
+                @Override
+                public List<QueueDTO> getQueueElements(int max) {
+                    return metadataStorageService.getPersonQueueForScanning(max);
+                }
+            }, maxResults, maxThreads, metadataScannerService);
+            
+            if (processed == 0) {
                 LOG.trace("No people data found to scan");
                 watchScanPeople.set(false);
                 watchScanFilmography.set(true);
             } else {
-                LOG.info("Found {} people objects to process; scan with {} threads", queueElements.size(), maxThreads);
-                threadedProcessing(queueElements, maxThreads, metadataScannerService);
-                LOG.debug("Finished people data scanning");
+                LOG.info("Finished people data scanning: processed {} people objects with {} threads", processed, maxThreads);
             }
         }
         
@@ -215,15 +222,19 @@ public class MetadataScanScheduler extends AbstractQueueScheduler {
         }
 
         int maxResults = Math.max(1,configService.getIntProperty("yamj3.scheduler.filmographyscan.maxResults", 50));
-        List<QueueDTO> queueElements = metadataStorageService.getFilmographyQueueForScanning(maxResults);
-        if (CollectionUtils.isEmpty(queueElements)) {
+        int processed = pipelinedProcessing("filmography.scan", new IQueueProvider() {
+            @Override
+            public List<QueueDTO> getQueueElements(int max) {
+                return metadataStorageService.getFilmographyQueueForScanning(max);
+            }
+        }, maxResults, maxThreads, metadataScannerService);
+        
+        if (processed == 0) {
             LOG.trace("No filmography data found to scan");
             watchScanFilmography.set(false);
             return;
         }
 
-        LOG.info("Found {} filmography objects to process; scan with {} threads", queueElements.size(), maxThreads);
-        threadedProcessing(queueElements, maxThreads, metadataScannerService);
-        LOG.debug("Finished filmography data scanning");
+        LOG.info("Finished filmography data scanning: processed {} filmography objects with {} threads", processed, maxThreads);
     }
 }
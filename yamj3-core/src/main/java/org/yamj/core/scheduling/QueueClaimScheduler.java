@@ -0,0 +1,154 @@
+/*
+ *      Copyright (c) 2004-2015 YAMJ Members
+ *      https://github.com/organizations/YAMJ/teams
+ *
+ *      This file is part of the Yet Another Media Jukebox (YAMJ).
+ *
+ *      YAMJ is free software: you can redistribute it and/or modify
+ *      it under the terms of the GNU General Public License as published by
+ *      the Free Software Foundation, either version 3 of the License, or
+ *      any later version.
+ *
+ *      YAMJ is distributed in the hope that it will be useful,
+ *      but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *      MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *      GNU General Public License for more details.
+ *
+ *      You should have received a copy of the GNU General Public License
+ *      along with YAMJ.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ *      Web: https://github.com/YAMJ/yamj-v3
+ *
+ */
+package org.yamj.core.scheduling;
+
+import java.lang.management.ManagementFactory;
+import java.util.*;
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import org.apache.commons.lang3.StringUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.yamj.common.tools.PropertyTools;
+import org.yamj.core.database.model.dto.QueueDTO;
+import org.yamj.core.database.service.QueueStorageService;
+
+/**
+ * Claims queue elements for the workers of this core instance.
+ * 
+ * The claims are leased; the leases are renewed as long as this instance is alive,
+ * so that the queue elements of a crashed instance are reclaimed after the lease time.
+ */
+@Component
+public class QueueClaimScheduler {
+
+    private static final Logger LOG = LoggerFactory.getLogger(QueueClaimScheduler.class);
+    private static final int RENEW_INTERVAL = 60000;
+    // unique per process, so that claims of a former process are not mixed up with own claims
+    private static final String OWNER = StringUtils.left(ManagementFactory.getRuntimeMXBean().getName() + "-" + UUID.randomUUID().toString().substring(0, 8), 100);
+
+    private long leaseTime;
+    
+    @Autowired
+    private QueueStorageService queueStorageService;
+
+    @PostConstruct
+    public void init() {
+        // at least two renewals must fit into the lease time
+        this.leaseTime = Math.max(3L * RENEW_INTERVAL, 1000L * PropertyTools.getIntProperty("yamj3.scheduler.queue.leaseTime", 600));
+    }
+
+    public String getOwner() {
+        return OWNER;
+    }
+    
+    /**
+     * Claim queue elements which are not claimed by other workers.
+     * 
+     * The candidates should contain at least as many elements as are claimed at all in
+     * addition to the maximum results; see {@link #getClaimCount(String)}.
+     * 
+     * @param queueName the name of the queue
+     * @param candidates the candidates to claim
+     * @param maxResults the maximum number of queue elements to claim
+     * @return the claimed queue elements
+     */
+    public List<QueueDTO> claim(String queueName, List<QueueDTO> candidates, int maxResults) {
+        if (candidates == null || candidates.isEmpty()) {
+            return Collections.emptyList();
+        }
+        
+        try {
+            return queueStorageService.claimQueueElements(queueName, candidates, maxResults, OWNER, leaseUntil());
+        } catch (Exception ex) {
+            LOG.debug("Concurrent claim of {} queue elements, claiming one by one", queueName, ex);
+        }
+
+        final List<QueueDTO> claimed = new ArrayList<>();
+        for (QueueDTO candidate : candidates) {
+            if (claimed.size() >= maxResults) {
+                break;
+            }
+            try {
+                claimed.addAll(queueStorageService.claimQueueElements(queueName, Collections.singletonList(candidate), 1, OWNER, leaseUntil()));
+            } catch (Exception ex) {
+                LOG.trace("Queue element {} already claimed: {}", candidate, ex.getMessage());
+            }
+        }
+        return claimed;
+    }
+
+    public int getClaimCount(String queueName) {
+        try {
+            return queueStorageService.getClaimCount(queueName);
+        } catch (Exception ex) {
+            LOG.warn("Failed to count claims of {} queue", queueName, ex);
+            return 0;
+        }
+    }
+
+    public void release(String queueName, QueueDTO queueElement) {
+        try {
+            queueStorageService.releaseQueueElement(queueName, queueElement, OWNER);
+        } catch (Exception ex) {
+            // claim will expire
+            LOG.warn("Failed to release {} queue element {}", queueName, queueElement, ex);
+        }
+    }
+
+    public void complete(String queueName, QueueDTO queueElement) {
+        try {
+            queueStorageService.completeQueueElement(queueName, queueElement, OWNER);
+        } catch (Exception ex) {
+            // claim will expire
+            LOG.warn("Failed to complete {} queue element {}", queueName, queueElement, ex);
+        }
+    }
+
+    @Scheduled(initialDelay = RENEW_INTERVAL, fixedDelay = RENEW_INTERVAL)
+    public void renewLeases() {
+        try {
+            int renewed = queueStorageService.renewClaims(OWNER, leaseUntil());
+            LOG.trace("Renewed {} queue claims", renewed);
+        } catch (Exception ex) {
+            LOG.warn("Failed to renew queue claims", ex);
+        }
+    }
+
+    @PreDestroy
+    public void releaseLeases() {
+        try {
+            queueStorageService.releaseClaims(OWNER);
+        } catch (Exception ex) {
+            // claims will expire
+            LOG.debug("Failed to release queue claims: {}", ex.getMessage());
+        }
+    }
+
+    private Date leaseUntil() {
+        return new Date(System.currentTimeMillis() + leaseTime);
+    }
+}
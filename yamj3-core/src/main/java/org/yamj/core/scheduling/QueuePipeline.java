@@ -0,0 +1,127 @@
+/*
+ *      Copyright (c) 2004-2015 YAMJ Members
+ *      https://github.com/organizations/YAMJ/teams
+ *
+ *      This file is part of the Yet Another Media Jukebox (YAMJ).
+ *
+ *      YAMJ is free software: you can redistribute it and/or modify
+ *      it under the terms of the GNU General Public License as published by
+ *      the Free Software Foundation, either version 3 of the License, or
+ *      any later version.
+ *
+ *      YAMJ is distributed in the hope that it will be useful,
+ *      but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *      MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *      GNU General Public License for more details.
+ *
+ *      You should have received a copy of the GNU General Public License
+ *      along with YAMJ.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ *      Web: https://github.com/YAMJ/yamj-v3
+ *
+ */
+package org.yamj.core.scheduling;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import org.yamj.core.database.model.dto.QueueDTO;
+
+/**
+ * Feeds queue elements to a worker pool and keeps track of the elements in process.
+ * 
+ * The number of submitted but not yet finished elements is bounded, so that
+ * a submit blocks until a worker has finished an element.
+ */
+public class QueuePipeline {
+
+    private final Executor executor;
+    private final IQueueProcessService service;
+    private final Semaphore capacity;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition finished = lock.newCondition();
+    private int pending = 0;
+
+    public QueuePipeline(Executor executor, IQueueProcessService service, int maxPending) {
+        this.executor = executor;
+        this.service = service;
+        this.capacity = new Semaphore(Math.max(1, maxPending));
+    }
+
+    public void submit(final QueueDTO queueElement) throws InterruptedException {
+        capacity.acquire();
+        
+        lock.lock();
+        try {
+            pending++;
+        } finally {
+            lock.unlock();
+        }
+
+        final QueueProcessRunner runner = new QueueProcessRunner(queueElement, service);
+        try {
+            executor.execute(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        runner.run();
+                    } finally {
+                        elementProcessed(queueElement);
+                        elementFinished();
+                    }
+                }
+            });
+        } catch (RuntimeException ex) {
+            // element could not be handed over to the pool
+            elementFinished();
+            throw ex;
+        }
+    }
+
+    /**
+     * Called by the worker after the queue element has been processed.
+     * 
+     * @param queueElement the processed queue element
+     */
+    protected void elementProcessed(QueueDTO queueElement) {
+        // nothing to do by default
+    }
+
+    private void elementFinished() {
+        lock.lock();
+        try {
+            pending--;
+            finished.signalAll();
+        } finally {
+            lock.unlock();
+        }
+        capacity.release();
+    }
+
+    public int getPending() {
+        lock.lock();
+        try {
+            return pending;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Wait until the number of pending elements dropped to the given threshold.
+     * 
+     * @param threshold the threshold
+     * @throws InterruptedException if the waiting thread has been interrupted
+     */
+    public void awaitPending(int threshold) throws InterruptedException {
+        lock.lock();
+        try {
+            while (pending > threshold) {
+                finished.await();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+}
@@ -22,7 +22,6 @@
  */
 package org.yamj.core.scheduling;
 
-import java.util.concurrent.BlockingQueue;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.yamj.core.database.model.dto.QueueDTO;
@@ -30,27 +29,24 @@ import org.yamj.core.database.model.dto.QueueDTO;
 public class QueueProcessRunner implements Runnable {
 
     private static final Logger LOG = LoggerFactory.getLogger(QueueProcessRunner.class);
-    private final BlockingQueue<QueueDTO> queue;
+    private final QueueDTO queueElement;
     private final IQueueProcessService service;
 
-    public QueueProcessRunner(BlockingQueue<QueueDTO> queue, IQueueProcessService service) {
-        this.queue = queue;
+    public QueueProcessRunner(QueueDTO queueElement, IQueueProcessService service) {
+        this.queueElement = queueElement;
         this.service = service;
     }
 
     @Override
     public void run() {
-        QueueDTO queueElement;
-        while ((queueElement = queue.poll()) != null) {
+        try {
+            service.processQueueElement(queueElement);
+        } catch (Exception error) {
             try {
-                service.processQueueElement(queueElement);
-            } catch (Exception error) {
-                try {
-                    service.processErrorOccurred(queueElement, error);
-                } catch (Exception ex) {
-                    // leave status as it is in any error case
-                    LOG.trace("Database error", ex);
-                }
+                service.processErrorOccurred(queueElement, error);
+            } catch (Exception ex) {
+                // leave status as it is in any error case
+                LOG.trace("Database error", ex);
             }
         }
     }
@@ -25,7 +25,6 @@ package org.yamj.core.scheduling;
 import java.util.List;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.locks.ReentrantLock;
-import org.apache.commons.collections.CollectionUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -86,14 +85,18 @@ public class TrailerProcessScheduler extends AbstractQueueScheduler {
         }
 
         int maxResults = Math.max(1,configService.getIntProperty("yamj3.scheduler.trailerprocess.maxResults", 50));
-        List<QueueDTO> queueElements = trailerStorageService.getTrailerQueueForProcessing(maxResults);
-        if (CollectionUtils.isEmpty(queueElements)) {
+        int processed = pipelinedProcessing("trailer.process", new IQueueProvider() {
+            @Override
+            public List<QueueDTO> getQueueElements(int max) {
+                return trailerStorageService.getTrailerQueueForProcessing(max);
+            }
+        }, maxResults, maxThreads, trailerProcessorService);
+        
+        if (processed == 0) {
             LOG.trace("No trailer found to process");
             watchProcess.set(false);
         } else {
-            LOG.info("Found {} trailer objects to process; process with {} threads", queueElements.size(), maxThreads);
-            this.threadedProcessing(queueElements, maxThreads, trailerProcessorService);
-            LOG.debug("Finished trailer processing");
+            LOG.info("Finished trailer processing: processed {} trailer objects with {} threads", processed, maxThreads);
         }
     }
 }
@@ -25,7 +25,6 @@ package org.yamj.core.scheduling;
 import java.util.List;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.locks.ReentrantLock;
-import org.apache.commons.collections.CollectionUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -87,14 +86,18 @@ public class TrailerScanScheduler extends AbstractQueueScheduler {
     
             // process located or generated artwork
             int maxResults = Math.max(1, configService.getIntProperty("yamj3.scheduler.trailerscan.maxResults", 30));
-            List<QueueDTO> queueElements = trailerStorageService.getTrailerQueueForScanning(maxResults);
-            if (CollectionUtils.isEmpty(queueElements)) {
+            int processed = pipelinedProcessing("trailer.scan", new IQueueProvider() {
+                @Override
+                public List<QueueDTO> getQueueElements(int max) {
+                    return trailerStorageService.getTrailerQueueForScanning(max);
+                }
+            }, maxResults, maxThreads, trailerScannerService);
+            
+            if (processed == 0) {
                 LOG.trace("No trailer found to scan");
                 watchProcess.set(false);
             } else {
-                LOG.info("Found {} trailer objects to process; scan with {} threads", queueElements.size(), maxThreads);
-                threadedProcessing(queueElements, maxThreads, trailerScannerService);
-                LOG.debug("Finished trailer scanning");
+                LOG.info("Finished trailer scanning: scanned {} trailer objects with {} threads", processed, maxThreads);
             }
         }
         
@@ -31,7 +31,13 @@ import java.awt.image.BufferedImage;
 import java.io.File;
 import java.io.IOException;
 import java.net.URL;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import javax.annotation.PreDestroy;
 import org.apache.commons.lang3.StringUtils;
 import org.apache.sanselan.ImageReadException;
 import org.slf4j.Logger;
@@ -41,6 +47,7 @@ import org.springframework.context.annotation.DependsOn;
 import org.springframework.dao.IncorrectResultSizeDataAccessException;
 import org.springframework.http.MediaType;
 import org.springframework.stereotype.Service;
+import org.yamj.common.tools.PropertyTools;
 import org.yamj.common.type.MetaDataType;
 import org.yamj.common.type.StatusType;
 import org.yamj.core.database.model.ArtworkGenerated;
@@ -61,6 +68,8 @@ import org.yamj.plugin.api.model.type.ArtworkType;
 public class ArtworkProcessorService implements IQueueProcessService {
 
     private static final Logger LOG = LoggerFactory.getLogger(ArtworkProcessorService.class);
+    // on-demand generations by located id and profile
+    private RenderPool<ArtworkGenerated> renderPool;
     
     @Autowired
     private ArtworkStorageService artworkStorageService;
@@ -119,7 +128,16 @@ public class ArtworkProcessorService implements IQueueProcessService {
                         stored = fileStorageService.store(storageType, cacheFilename, located.getStageFile());
                     }
                 } else {
-                    stored = fileStorageService.store(storageType, cacheFilename, new URL(located.getUrl()));
+                    // dimension is read while storing the image
+                    Dimension dimension = fileStorageService.storeWithDimension(storageType, cacheFilename, new URL(located.getUrl()));
+                    stored = (dimension != null);
+                    if (stored && !setDimension(located, dimension)) {
+                        LOG.warn("No valid image dimension determined: {}", located);
+                        fileStorageService.deleteFile(storageType, cacheFilename);
+                        located.setStatus(StatusType.INVALID);
+                        artworkStorageService.updateArtworkLocated(located);
+                        return;
+                    }
                 }
             } catch (IOException ex) {
                 LOG.error("{}: {}", STORAGE_ERROR, ex.getMessage());
@@ -147,10 +165,10 @@ public class ArtworkProcessorService implements IQueueProcessService {
 
         // after that: try preProcessing of images
         List<ArtworkProfile> profiles = artworkStorageService.getPreProcessArtworkProfiles(located);
-        for (ArtworkProfile profile : profiles) {
+        if (!profiles.isEmpty()) {
             try {
-                // generate image for a profiles
-                generateImage(located, profile);
+                // generate images for all profiles
+                generateImages(located, profiles);
             } catch (IOException ex)  {
                 LOG.warn("Original image is not found: {}/{}", located.getCacheDirectory(), located.getCacheFilename());
                 LOG.trace(IMAGE_GENERATION_ERROR, ex);
@@ -159,30 +177,18 @@ public class ArtworkProcessorService implements IQueueProcessService {
                 located.setCacheDirectory(null);
                 located.setCacheFilename(null);
                 located.setStatus(StatusType.UPDATED);
-
-                // no further processing for that located image
-                break;
             } catch (OutOfMemoryError ex) {
                 LOG.error("Failed to load/transform image due to memory constraints: {}", located);
                 LOG.trace("Out of memory", ex);
 
                 // mark located artwork as error
                 located.setStatus(StatusType.ERROR);
-
-                // no further processing for that located image
-                break;
              } catch (ImageReadException ex) {
                 LOG.warn("Original image is invalid: {}", located);
                 LOG.trace("Invalid image error", ex);
 
                 // mark located artwork as invalid
                 located.setStatus(StatusType.INVALID);
-
-                // no further processing for that located image
-                break;
-            } catch (Exception ex) {
-                LOG.error("Failed to generate image for {} with profile {}", located, profile.getProfileName());
-                LOG.warn(IMAGE_GENERATION_ERROR, ex);
             }
         }
 
@@ -243,6 +249,10 @@ public class ArtworkProcessorService implements IQueueProcessService {
         // create and store image
         createAndStoreImage(located, profile, cacheFilename);
         
+        return storeArtworkGenerated(located, profile, cacheFilename);
+    }
+
+    private ArtworkGenerated storeArtworkGenerated(ArtworkLocated located, ArtworkProfile profile, String cacheFilename) {
         try {
             final String cacheDir = StringUtils.removeEnd(FileTools.createDirHash(cacheFilename), File.separator + cacheFilename);
             return artworkStorageService.storeArtworkGenerated(located, profile, cacheDir, cacheFilename);
@@ -255,22 +265,21 @@ public class ArtworkProcessorService implements IQueueProcessService {
         }
     }
 
-    private static boolean checkArtworkQuality(ArtworkLocated located) {
+    private boolean checkArtworkQuality(ArtworkLocated located) {
         if (StringUtils.isNotBlank(located.getUrl())) {
 
             if (located.getWidth() <= 0 || located.getHeight() <= 0) {
                 // retrieve dimension
                 try {
-                    // get dimension
-                    Dimension dimension = GraphicTools.getDimension(located.getUrl());
-                    if (dimension.getHeight() <= 0 || dimension.getWidth() <= 0) {
-                        LOG.warn("No valid image dimension determined: {}", located);
-                        return false;
+                    // get dimension from the first bytes of the image
+                    Dimension dimension = fileStorageService.probeDimension(new URL(located.getUrl()));
+                    if (dimension == null) {
+                        // dimension will be read while storing the image
+                        LOG.trace("Image dimension not found in header: {}", located);
+                    } else {
+                        // set values for later usage
+                        setDimension(located, dimension);
                     }
-
-                    // set values for later usage
-                    located.setWidth((int) dimension.getWidth());
-                    located.setHeight((int) dimension.getHeight());
                 } catch (IOException ex) {
                     LOG.warn("Could not determine image dimension cause invalid image: {}", located);
                     LOG.trace("Invalid image error", ex);
@@ -287,6 +296,19 @@ public class ArtworkProcessorService implements IQueueProcessService {
         return true;
     }
     
+    /**
+     * Set the dimension of the located artwork if not done before
+     * 
+     * @return true if the located artwork has a valid dimension
+     */
+    private static boolean setDimension(ArtworkLocated located, Dimension dimension) {
+        if (located.getWidth() <= 0 || located.getHeight() <= 0) {
+            located.setWidth(dimension.width);
+            located.setHeight(dimension.height);
+        }
+        return located.getWidth() > 0 && located.getHeight() > 0;
+    }
+
     public ImageDTO getImage(Long id, String profileName) throws IOException, ImageReadException { //NOSONAR
         ImageDTO result = new ImageDTO();
 
@@ -320,7 +342,12 @@ public class ArtworkProcessorService implements IQueueProcessService {
         }
         
         // create the image and the database entry
-        generated = this.generateImage(located, profile);
+        generated = this.renderImage(located, profile);
+        if (generated == null) {
+            // image generation is queued or still running
+            result.setPending(true);
+            return result;
+        }
         
         // return the image
         final StorageType storageType = ArtworkStorageTools.getStorageType(located);
@@ -329,24 +356,172 @@ public class ArtworkProcessorService implements IQueueProcessService {
         return result;
     }
 
+    /**
+     * Generate the image on the render executor.
+     * 
+     * Concurrent requests for the same located artwork and profile wait for the same generation.
+     * 
+     * @return the generated artwork, or null if the generation is queued or still running
+     */
+    private ArtworkGenerated renderImage(final ArtworkLocated located, final ArtworkProfile profile) throws IOException, ImageReadException { //NOSONAR
+        final String key = located.getId() + "-" + profile.getId();
+        final int timeout = PropertyTools.getIntProperty("yamj3.artwork.render.timeout", 10);
+        try {
+            ArtworkGenerated generated = getRenderPool().render(key, new Callable<ArtworkGenerated>() {
+                @Override
+                public ArtworkGenerated call() throws Exception {
+                    return generateImage(located, profile);
+                }
+            }, timeout);
+            
+            if (generated == null) {
+                LOG.debug("Image for {} with profile {} still rendering or rejected", located, profile.getProfileName());
+            }
+            return generated;
+        } catch (ExecutionException ex) {
+            final Throwable cause = ex.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            } else if (cause instanceof ImageReadException) {
+                throw (ImageReadException) cause;
+            } else if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new IOException("Image generation failed", cause);
+        }
+    }
+
     private void createAndStoreImage(ArtworkLocated located, ArtworkProfile profile, String cacheFilename) throws IOException, ImageReadException { 
         final StorageType storageType = ArtworkStorageTools.getStorageType(profile);
+        final File original = this.fileStorageService.getFile(storageType, located.getCacheFilename());
+        final Dimension size = getTargetSize(profile);
         
-        LOG.trace("Generate image for {} with profile {}", located, profile.getProfileName());
-        BufferedImage imageGraphic = GraphicTools.loadJPEGImage(this.fileStorageService.getFile(storageType, located.getCacheFilename()));
-    
-        // set dimension of original image if not done before
-        if (located.getWidth() <= 0 || located.getHeight() <= 0) {
-            located.setWidth(imageGraphic.getWidth());
-            located.setHeight(imageGraphic.getHeight());
+        final int permits = reserveMemory(located, original, size);
+        try {
+            LOG.trace("Generate image for {} with profile {}", located, profile.getProfileName());
+            BufferedImage imageGraphic = GraphicTools.loadJPEGImage(original, size.width, size.height);
+            drawAndStoreImage(imageGraphic, profile, storageType, cacheFilename);
+        } finally {
+            getRenderPool().releaseMemory(permits);
         }
-    
+    }
+
+    /**
+     * Generate the images of all profiles from a single decode of the original image.
+     * 
+     * The original is decoded subsampled to the largest profile size and the
+     * profiles are generated in descending size.
+     */
+    private void generateImages(ArtworkLocated located, List<ArtworkProfile> profiles) throws IOException, ImageReadException { //NOSONAR
+        List<ArtworkProfile> sorted = new ArrayList<>(profiles);
+        Collections.sort(sorted, new Comparator<ArtworkProfile>() {
+            @Override
+            public int compare(ArtworkProfile p1, ArtworkProfile p2) {
+                Dimension d1 = getTargetSize(p1);
+                Dimension d2 = getTargetSize(p2);
+                return Long.compare((long) d2.width * d2.height, (long) d1.width * d1.height);
+            }
+        });
+
+        // the decoded image must cover all profiles
+        final Dimension size = new Dimension();
+        for (ArtworkProfile profile : sorted) {
+            Dimension target = getTargetSize(profile);
+            size.width = Math.max(size.width, target.width);
+            size.height = Math.max(size.height, target.height);
+        }
+        
+        final StorageType storageType = ArtworkStorageTools.getStorageType(sorted.get(0));
+        final File original = this.fileStorageService.getFile(storageType, located.getCacheFilename());
+        
+        final int permits = reserveMemory(located, original, size);
+        try {
+            BufferedImage imageGraphic = GraphicTools.loadJPEGImage(original, size.width, size.height);
+            
+            for (ArtworkProfile profile : sorted) {
+                LOG.trace("Generate image for {} with profile {}", located, profile.getProfileName());
+                final String cacheFilename = ArtworkStorageTools.buildCacheFilename(located, profile);
+                try {
+                    drawAndStoreImage(imageGraphic, profile, storageType, cacheFilename);
+                    storeArtworkGenerated(located, profile, cacheFilename);
+                } catch (IOException ex) {
+                    // storage failures reset the located artwork like a missing original
+                    throw ex;
+                } catch (Exception ex) {
+                    LOG.error("Failed to generate image for {} with profile {}", located, profile.getProfileName());
+                    LOG.warn(IMAGE_GENERATION_ERROR, ex);
+                }
+            }
+        } finally {
+            getRenderPool().releaseMemory(permits);
+        }
+    }
+
+    private void drawAndStoreImage(BufferedImage imageGraphic, ArtworkProfile profile, StorageType storageType, String cacheFilename) throws IOException {
         // draw the image
         BufferedImage image = drawImage(imageGraphic, profile);
     
         // store image on stage system
         fileStorageService.storeImage(cacheFilename, storageType, image, profile.getImageType(), profile.getQuality());
     }
+
+    private static Dimension getTargetSize(ArtworkProfile profile) {
+        final float rcqFactor = profile.getRounderCornerQuality();
+        return new Dimension(Math.max(0, (int) (profile.getWidth() * rcqFactor)), Math.max(0, (int) (profile.getHeight() * rcqFactor)));
+    }
+
+    /**
+     * Reserve the memory needed to decode the original and draw an image of the given size
+     * 
+     * @return the reserved memory which must be released afterwards
+     */
+    private int reserveMemory(ArtworkLocated located, File original, Dimension size) throws IOException {
+        // set dimension of original image if not done before; just the image header is read
+        if (located.getWidth() <= 0 || located.getHeight() <= 0) {
+            Dimension dimension = GraphicTools.getDimension(original);
+            if (dimension.width > 0 && dimension.height > 0) {
+                located.setWidth(dimension.width);
+                located.setHeight(dimension.height);
+            }
+        }
+
+        return getRenderPool().reserveMemory(estimateMemoryKB(located, original, size));
+    }
+
+    /**
+     * Estimate the memory in KB needed to decode the original and draw an image of the given size
+     */
+    private static int estimateMemoryKB(ArtworkLocated located, File original, Dimension size) {
+        long bytes;
+        if (located.getWidth() > 0 && located.getHeight() > 0) {
+            final int factor = GraphicTools.getSubsampling(located.getWidth(), located.getHeight(), size.width, size.height);
+            bytes = 4L * (located.getWidth() / factor + 1) * (located.getHeight() / factor + 1);
+        } else {
+            // JPEG images are compressed about 1:10
+            bytes = 10L * original.length();
+        }
+        bytes += 4L * size.width * size.height;
+        return (int) Math.min(Integer.MAX_VALUE, 1 + bytes / 1024);
+    }
+
+    private synchronized RenderPool<ArtworkGenerated> getRenderPool() {
+        if (renderPool == null) {
+            final int maxThreads = Math.max(1, PropertyTools.getIntProperty("yamj3.artwork.render.maxThreads", 2));
+            final int maxQueue = Math.max(1, PropertyTools.getIntProperty("yamj3.artwork.render.maxQueue", 100));
+            final int percent = Math.min(90, Math.max(1, PropertyTools.getIntProperty("yamj3.artwork.render.memoryPercent", 25)));
+            final int memoryKB = (int) Math.max(1, Runtime.getRuntime().maxMemory() / 1024 * percent / 100);
+            renderPool = new RenderPool<>(maxThreads, maxQueue, memoryKB);
+        }
+        return renderPool;
+    }
+
+    @PreDestroy
+    public synchronized void shutdownRenderExecutor() {
+        if (renderPool != null) {
+            renderPool.shutdown();
+            renderPool = null;
+        }
+    }
     
     private static BufferedImage drawImage(BufferedImage imageGraphic, ArtworkProfile profile) {
         BufferedImage bi = imageGraphic;
@@ -28,6 +28,7 @@ public class ImageDTO {
 
     private String resource;
     private MediaType mediaType;
+    private boolean pending = false;
 
     public String getResource() {
         return resource;
@@ -44,4 +45,15 @@ public class ImageDTO {
     public void setMediaType(MediaType mediaType) {
         this.mediaType = mediaType;
     }
-}
\ No newline at end of file
+
+    /**
+     * Image is still being rendered and should be requested again later.
+     */
+    public boolean isPending() {
+        return pending;
+    }
+
+    public void setPending(boolean pending) {
+        this.pending = pending;
+    }
+}
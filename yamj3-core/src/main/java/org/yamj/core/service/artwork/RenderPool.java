@@ -0,0 +1,128 @@
+/*
+ *      Copyright (c) 2004-2015 YAMJ Members
+ *      https://github.com/organizations/YAMJ/teams
+ *
+ *      This file is part of the Yet Another Media Jukebox (YAMJ).
+ *
+ *      YAMJ is free software: you can redistribute it and/or modify
+ *      it under the terms of the GNU General Public License as published by
+ *      the Free Software Foundation, either version 3 of the License, or
+ *      any later version.
+ *
+ *      YAMJ is distributed in the hope that it will be useful,
+ *      but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *      MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *      GNU General Public License for more details.
+ *
+ *      You should have received a copy of the GNU General Public License
+ *      along with YAMJ.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ *      Web: https://github.com/YAMJ/yamj-v3
+ *
+ */
+package org.yamj.core.service.artwork;
+
+import java.util.concurrent.*;
+import org.apache.commons.lang3.concurrent.BasicThreadFactory;
+
+/**
+ * Bounded pool for on-demand image generations
+ *
+ * Concurrent requests for the same key wait for the same generation; if the
+ * queue of the pool is full, the generation is rejected. The memory of the
+ * decoded images is limited by a budget shared by all generations.
+ *
+ * @param <T> the result of a generation
+ */
+final class RenderPool<T> {
+
+    // in-flight generations by key
+    private final ConcurrentMap<String, Future<T>> renderings = new ConcurrentHashMap<>();
+    private final ThreadPoolExecutor executor;
+    // decoded image memory in KB which may be used by concurrent image generations
+    private final Semaphore memory;
+    private final int memoryKB;
+
+    /**
+     * Create the pool.
+     *
+     * @param maxThreads the maximum number of concurrent generations
+     * @param maxQueue the maximum number of queued generations
+     * @param memoryKB the memory budget in KB
+     */
+    RenderPool(int maxThreads, int maxQueue, int memoryKB) {
+        this.executor = new ThreadPoolExecutor(maxThreads, maxThreads, 60, TimeUnit.SECONDS,
+                        new ArrayBlockingQueue<Runnable>(maxQueue),
+                        new BasicThreadFactory.Builder().namingPattern("ArtworkRender-%d").build());
+        this.executor.allowCoreThreadTimeOut(true);
+        this.memoryKB = memoryKB;
+        this.memory = new Semaphore(memoryKB, true);
+    }
+
+    /**
+     * Start the generation for the key or join the running one and wait for its result.
+     *
+     * @param key the key of the generation
+     * @param callable the generation; not called if a generation for the key is running
+     * @param timeout the time to wait for the result in seconds
+     * @return the result, or null if the generation has been rejected or is still running
+     * @throws ExecutionException if the generation failed
+     */
+    T render(final String key, Callable<T> callable, int timeout) throws ExecutionException {
+        Future<T> future = renderings.get(key);
+        if (future == null) {
+            FutureTask<T> task = new FutureTask<T>(callable) {
+                @Override
+                protected void done() {
+                    // removed after the result has been set, so that no request in between starts another generation
+                    renderings.remove(key, this);
+                }
+            };
+
+            future = renderings.putIfAbsent(key, task);
+            if (future == null) {
+                future = task;
+                try {
+                    executor.execute(task);
+                } catch (RejectedExecutionException ex) { //NOSONAR
+                    renderings.remove(key, task);
+                    return null;
+                }
+            }
+        }
+
+        try {
+            return future.get(timeout, TimeUnit.SECONDS);
+        } catch (TimeoutException ex) { //NOSONAR
+            return null;
+        } catch (InterruptedException ex) { //NOSONAR
+            Thread.currentThread().interrupt();
+            return null;
+        }
+    }
+
+    /**
+     * Reserve memory of the budget; waits until enough memory has been released.
+     *
+     * @param kb the needed memory in KB; capped to the budget
+     * @return the reserved memory which must be released afterwards
+     */
+    int reserveMemory(int kb) {
+        final int permits = Math.max(0, Math.min(memoryKB, kb));
+        memory.acquireUninterruptibly(permits);
+        return permits;
+    }
+
+    /**
+     * Release reserved memory.
+     *
+     * @param permits the memory returned by {@link #reserveMemory(int)}
+     */
+    void releaseMemory(int permits) {
+        memory.release(permits);
+    }
+
+    void shutdown() {
+        executor.shutdownNow();
+    }
+}
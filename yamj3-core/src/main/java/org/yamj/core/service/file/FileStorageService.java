@@ -22,14 +22,17 @@
  */
 package org.yamj.core.service.file;
 
+import java.awt.Dimension;
+import java.awt.Graphics2D;
 import java.awt.image.BufferedImage;
 import java.io.*;
 import java.net.MalformedURLException;
+import java.net.URISyntaxException;
 import java.net.URL;
-import java.util.Arrays;
-import java.util.List;
-import java.util.Set;
+import java.util.*;
+import java.util.concurrent.*;
 import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
 import javax.imageio.*;
 import javax.imageio.stream.FileImageOutputStream;
 import net.lingala.zip4j.core.ZipFile;
@@ -37,8 +40,16 @@ import net.lingala.zip4j.exception.ZipException;
 import net.lingala.zip4j.model.FileHeader;
 import org.apache.commons.io.FileUtils;
 import org.apache.commons.io.FilenameUtils;
+import org.apache.commons.io.IOUtils;
+import org.apache.commons.io.output.TeeOutputStream;
 import org.apache.commons.lang3.StringUtils;
+import org.apache.commons.lang3.concurrent.BasicThreadFactory;
 import org.apache.http.HttpEntity;
+import org.apache.http.HttpHeaders;
+import org.apache.http.HttpResponse;
+import org.apache.http.HttpStatus;
+import org.apache.http.client.methods.HttpGet;
+import org.apache.http.util.EntityUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -48,12 +59,16 @@ import org.yamj.common.tools.PropertyTools;
 import org.yamj.core.api.model.Skin;
 import org.yamj.core.database.model.StageFile;
 import org.yamj.core.service.attachment.AttachmentScannerService;
+import org.yamj.core.tools.image.GraphicTools;
+import org.yamj.core.tools.image.ImageHeader;
 import org.yamj.plugin.api.model.type.ImageType;
 
 @Service("fileStorageService")
 public class FileStorageService {
 
     private static final Logger LOG = LoggerFactory.getLogger(FileStorageService.class);
+    // bytes of an image which are read to determine the dimension
+    private static final int IMAGE_HEADER_SIZE = 32 * 1024;
 
     // This is the base directory to store the resources in. It should NOT be used in the hash of the filename
     private String storageResourceDir;
@@ -62,6 +77,7 @@ public class FileStorageService {
     private String storagePathPhoto;
     private String storagePathSkin;
     private String storagePathTrailer;
+    private ExecutorService deletionExecutor;
     
     @Autowired
     private PoolingHttpClient httpClient;
@@ -138,6 +154,80 @@ public class FileStorageService {
         return true;
     }
 
+    /**
+     * Store an image from an URL and read its dimension while storing.
+     * 
+     * @param type
+     * @param filename
+     * @param url
+     * @return the dimension of the image, which is empty if not determinable, or null if the download failed
+     * @throws IOException
+     */
+    public Dimension storeWithDimension(StorageType type, String filename, URL url) throws IOException {
+        LOG.debug("Store image {}; source url: {}", filename, url.toString());
+        File storageFile = new File(getStorageName(type, filename));
+
+        HttpEntity entity = httpClient.requestResource(url);
+        if (entity == null) {
+            LOG.error("Failed to get content from source url: {}", url);
+            return null;
+        }
+
+        ImageHeader.Capture header = new ImageHeader.Capture(IMAGE_HEADER_SIZE);
+        try (OutputStream outputStream = new TeeOutputStream(new FileOutputStream(storageFile), header)) {
+            entity.writeTo(outputStream);
+        }
+
+        Dimension dimension = header.getDimension();
+        if (dimension == null) {
+            // header too large or unknown image type
+            dimension = GraphicTools.getDimension(storageFile);
+        }
+        return dimension;
+    }
+
+    /**
+     * Read the dimension of a remote image by requesting just the first bytes of the image.
+     * 
+     * @param url
+     * @return the dimension or null if not determinable from the first bytes
+     * @throws IOException if the image could not be requested
+     */
+    public Dimension probeDimension(URL url) throws IOException {
+        final HttpGet httpGet;
+        try {
+            httpGet = new HttpGet(url.toURI());
+        } catch (URISyntaxException ex) {
+            throw new IOException("Invalid image URL: " + url, ex);
+        }
+        httpGet.setHeader(HttpHeaders.RANGE, "bytes=0-" + (IMAGE_HEADER_SIZE - 1));
+        
+        HttpResponse response = httpClient.execute(httpGet);
+        final int statusCode = response.getStatusLine().getStatusCode();
+        final HttpEntity entity = response.getEntity();
+        if (statusCode != HttpStatus.SC_OK && statusCode != HttpStatus.SC_PARTIAL_CONTENT) {
+            EntityUtils.consumeQuietly(entity);
+            throw new IOException("Image request failed with status " + statusCode + ": " + url);
+        }
+        if (entity == null) {
+            return null;
+        }
+        
+        ImageHeader.Capture header = new ImageHeader.Capture(IMAGE_HEADER_SIZE);
+        final InputStream inputStream = entity.getContent();
+        try {
+            IOUtils.copyLarge(inputStream, header, 0, IMAGE_HEADER_SIZE);
+        } finally {
+            if (statusCode == HttpStatus.SC_OK) {
+                // range not supported; abort before closing, because closing
+                // the content would download the rest of the image
+                httpGet.abort();
+            }
+            IOUtils.closeQuietly(inputStream);
+        }
+        return header.getDimension();
+    }
+
     public boolean store(StorageType type, String filename, byte[] bytes) throws IOException {
         LOG.debug("Store file {}; uploaded image", filename);
         String storageFileName = getStorageName(type, filename);
@@ -190,8 +280,14 @@ public class FileStorageService {
                 ImageIO.write(bi, "png", outputFile);
             } else {
                 float jpegQuality = (float) quality / 100;
-                BufferedImage bufImage = new BufferedImage(bi.getWidth(), bi.getHeight(), BufferedImage.TYPE_INT_RGB);
-                bufImage.createGraphics().drawImage(bi, 0, 0, null, null);
+                BufferedImage bufImage = bi;
+                if (bi.getType() != BufferedImage.TYPE_INT_RGB && bi.getType() != BufferedImage.TYPE_3BYTE_BGR) {
+                    // JPEG needs an image without alpha channel
+                    bufImage = new BufferedImage(bi.getWidth(), bi.getHeight(), BufferedImage.TYPE_INT_RGB);
+                    Graphics2D g = bufImage.createGraphics();
+                    g.drawImage(bi, 0, 0, null, null);
+                    g.dispose();
+                }
 
                 writer = ImageIO.getImageWritersByFormatName("jpeg").next();
                 ImageWriteParam iwp = writer.getDefaultWriteParam();
@@ -383,18 +479,96 @@ public class FileStorageService {
 
         // delete files on disk
         for (String filename : filesToDelete) {
-            try {
-                LOG.debug("Delete file: {}", filename);
-                File file = new File(filename);
-                if (!file.exists()) {
-                    LOG.debug("File '{}' does not exist", filename);
-                } else if (!file.delete()) {
-                    LOG.warn("File '{}' could not be deleted", filename);
+            deleteStorageFile(filename);
+        }
+    }
+
+    /**
+     * Delete the storage files in parallel on the deletion worker pool.
+     *
+     * @param filesToDelete
+     * @return the futures of the deletions
+     */
+    public List<Future<?>> deleteStorageFilesInParallel(Collection<String> filesToDelete) {
+        if (filesToDelete.isEmpty()) {
+            LOG.trace("No files to delete in storage");
+            return Collections.emptyList();
+        }
+
+        final ExecutorService executor = getDeletionExecutor();
+        List<Future<?>> futures = new ArrayList<>(filesToDelete.size());
+        for (final String filename : filesToDelete) {
+            futures.add(executor.submit(new Runnable() {
+                @Override
+                public void run() {
+                    deleteStorageFile(filename);
+                }
+            }));
+        }
+        return futures;
+    }
+
+    /**
+     * Wait until the given deletions of storage files are finished.
+     *
+     * @param futures
+     */
+    public static void awaitDeletions(Collection<Future<?>> futures) {
+        boolean interrupted = false;
+
+        for (Future<?> future : futures) {
+            boolean done = false;
+            while (!done) {
+                try {
+                    future.get();
+                    done = true;
+                } catch (InterruptedException ex) {
+                    // the deletion must be finished before returning
+                    interrupted = true;
+                } catch (ExecutionException ex) {
+                    LOG.error("Deletion error", ex.getCause());
+                    done = true;
                 }
-            } catch (Exception ex) {
-                LOG.error("Deletion error for file: '" + filename + "'", ex);
             }
         }
+
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void deleteStorageFile(String filename) {
+        try {
+            LOG.debug("Delete file: {}", filename);
+            File file = new File(filename);
+            if (!file.exists()) {
+                LOG.debug("File '{}' does not exist", filename);
+            } else if (!file.delete()) {
+                LOG.warn("File '{}' could not be deleted", filename);
+            }
+        } catch (Exception ex) {
+            LOG.error("Deletion error for file: '" + filename + "'", ex);
+        }
+    }
+
+    private synchronized ExecutorService getDeletionExecutor() {
+        if (deletionExecutor == null) {
+            final int maxThreads = Math.max(1, PropertyTools.getIntProperty("yamj3.file.storage.delete.maxThreads", 4));
+            ThreadPoolExecutor pool = new ThreadPoolExecutor(maxThreads, maxThreads, 60, TimeUnit.SECONDS,
+                            new LinkedBlockingQueue<Runnable>(),
+                            new BasicThreadFactory.Builder().namingPattern("StorageDeletion-%d").build());
+            pool.allowCoreThreadTimeOut(true);
+            deletionExecutor = pool;
+        }
+        return deletionExecutor;
+    }
+
+    @PreDestroy
+    public synchronized void shutdownDeletionExecutor() {
+        if (deletionExecutor != null) {
+            deletionExecutor.shutdown();
+            deletionExecutor = null;
+        }
     }
     
     public String getStorageResourceDir() {
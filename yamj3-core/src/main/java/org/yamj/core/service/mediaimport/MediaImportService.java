@@ -50,10 +50,12 @@ import org.yamj.core.config.ConfigServiceWrapper;
 import org.yamj.core.config.LocaleService;
 import org.yamj.core.database.dao.*;
 import org.yamj.core.database.model.*;
+import org.yamj.core.database.model.dto.QueueDTO;
 import org.yamj.core.database.model.type.FileType;
 import org.yamj.core.database.service.CommonStorageService;
 import org.yamj.core.database.service.MetadataStorageService;
 import org.yamj.core.service.file.FileTools;
+import org.yamj.core.service.search.SearchIndexService;
 import org.yamj.core.service.various.IdentifierService;
 import org.yamj.core.service.various.StagingService;
 import org.yamj.core.tools.WatchedDTO;
@@ -99,6 +101,8 @@ public class MediaImportService {
     private LocaleService localeService;
     @Autowired
     private IdentifierService identifierService;
+    @Autowired
+    private SearchIndexService searchIndexService;
     
     @Value("${yamj3.folder.name.nfo:null}")
     private String nfoFolderName;
@@ -110,8 +114,18 @@ public class MediaImportService {
     private String photoFolderName;
     
     @Transactional(readOnly = true)
-    public Long getNextStageFileId(final FileType fileType) {
-        return this.stagingDao.getNextStageFileId(fileType);
+    public List<QueueDTO> getStageFileQueueForImport(final FileType fileType, final int maxResults) {
+        return this.stagingDao.getStageFileQueueForImport(fileType, maxResults);
+    }
+
+    @Transactional(readOnly = true)
+    public List<QueueDTO> getStageDirectoryQueueForImport(final FileType fileType, final int maxResults) {
+        return this.stagingDao.getStageDirectoryQueueForImport(fileType, maxResults);
+    }
+
+    @Transactional(readOnly = true)
+    public List<Long> getStageFileIdsForImport(final FileType fileType, final Long directoryId) {
+        return this.stagingDao.getStageFileIdsForImport(fileType, directoryId);
     }
 
     @Transactional
@@ -239,6 +253,7 @@ public class MediaImportService {
 
                 LOG.debug("Store new movie: '{}' - {}", videoData.getTitle(), videoData.getPublicationYear());
                 metadataDao.saveEntity(videoData);
+                searchIndexService.update(videoData);
 
                 // create new poster artwork entry
                 Artwork poster = new Artwork();
@@ -313,6 +328,7 @@ public class MediaImportService {
 
                             LOG.debug("Store new series: '{}'", series.getTitle());
                             metadataDao.saveEntity(series);
+                            searchIndexService.update(series);
 
                             // create new poster artwork entry
                             Artwork poster = new Artwork();
@@ -365,6 +381,7 @@ public class MediaImportService {
 
                         LOG.debug("Store new seaon: '{}' - Season {}", season.getTitle(), season.getSeason());
                         metadataDao.saveEntity(season);
+                        searchIndexService.update(season);
 
                         // create new poster artwork entry
                         Artwork poster = new Artwork();
@@ -408,6 +425,7 @@ public class MediaImportService {
 
                     LOG.debug("Store new episode: '{}' - Season {} - Episode {}", season.getTitle(), season.getSeason(), videoData.getEpisode());
                     metadataDao.saveEntity(videoData);
+                    searchIndexService.update(videoData);
 
                     // create new videoimage artwork entry
                     Artwork videoimage = new Artwork();
@@ -27,7 +27,6 @@ import static org.yamj.plugin.api.Constants.*;
 import static org.yamj.plugin.api.metadata.MetadataTools.*;
 
 import java.io.File;
-import java.util.ArrayList;
 import java.util.Date;
 import java.util.List;
 import org.apache.commons.io.FileUtils;
@@ -36,16 +35,19 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
-import org.w3c.dom.*;
 import org.yamj.common.type.StatusType;
 import org.yamj.core.config.ConfigServiceWrapper;
 import org.yamj.core.config.LocaleService;
 import org.yamj.core.database.model.StageFile;
 import org.yamj.core.database.model.dto.CreditDTO;
+import org.yamj.core.service.metadata.nfo.NfoXmlContent.Actor;
+import org.yamj.core.service.metadata.nfo.NfoXmlContent.Id;
+import org.yamj.core.service.metadata.nfo.NfoXmlContent.SetInfo;
+import org.yamj.core.service.metadata.nfo.NfoXmlContent.Values;
+import org.yamj.core.service.metadata.nfo.NfoXmlContent.Video;
 import org.yamj.core.service.metadata.online.OnlineScannerService;
 import org.yamj.core.service.various.IdentifierService;
 import org.yamj.core.service.various.StagingService;
-import org.yamj.core.tools.xml.DOMHelper;
 import org.yamj.plugin.api.model.type.JobType;
 
 /**
@@ -55,8 +57,6 @@ import org.yamj.plugin.api.model.type.JobType;
 public final class InfoReader {
 
     private static final Logger LOG = LoggerFactory.getLogger(InfoReader.class);
-    private static final String XML_START = "<";
-    private static final String XML_END = "</";
     private static final String SPLITTER = "(?<!-)/|,|\\|";  // caters for the case where "-/" is not wanted as part of the split
     
     @Autowired
@@ -73,24 +73,22 @@ public final class InfoReader {
     /**
      * Try and read a NFO file for information
      *
-     * @param nfoFile
-     * @param nfoText
+     * @param stageFile
      * @param dto
      */
     public void readNfoFile(StageFile stageFile, InfoDTO dto) {
         final String nfoFilename = stageFile.getFileName();
-        File nfoFile = new File(stageFile.getFullPath());
+        final File nfoFile = new File(stageFile.getFullPath());
         
-        String nfoContent = null;
+        String stageContent = null;
+        NfoXmlContent nfoContent;
         try {
-            nfoContent = FileUtils.readFileToString(nfoFile, UTF8);
+            nfoContent = NfoXmlReader.read(nfoFile);
         } catch (Exception e) {
             LOG.error("Unable to read NFO file: " + stageFile.getFullPath(), e);
             
-            nfoFile = null;
-            nfoContent = stageFile.getContent();
-            
-            if (isBlank(nfoContent)) {
+            stageContent = stageFile.getContent();
+            if (isBlank(stageContent)) {
                 LOG.warn("NFO file '{}' is not readable", nfoFilename);
                 
                 try {
@@ -105,55 +103,36 @@ public final class InfoReader {
             }
             
             LOG.warn("NFO file '{}' is not readable; try stage file content", nfoFilename);
+            nfoContent = NfoXmlReader.read(stageContent);
         }
         
         boolean parsedNfo = false;   // was the NFO XML parsed correctly or at all
-        boolean hasXml = false;
-
-        if (containsIgnoreCase(nfoContent, XML_START + DOMHelper.TYPE_MOVIE)
-                || containsIgnoreCase(nfoContent, XML_START + DOMHelper.TYPE_TVSHOW)
-                || containsIgnoreCase(nfoContent, XML_START + DOMHelper.TYPE_EPISODE)) {
-            hasXml = true;
-        }
 
-        // If the file has XML tags in it, try reading it as a pure XML file
-        if (hasXml) {
-            parsedNfo = this.readXmlNfo(nfoFile, nfoContent, nfoFilename, stageFile.getFileDate(), dto);
-        }
+        if (nfoContent.isParsed()) {
+            parseXML(nfoContent, dto, stageFile.getFileDate());
+            parsedNfo = true;
 
-        // If it has XML in it, but didn't parse correctly, try splitting it out
-        if (hasXml && !parsedNfo) {
-            int posMovie = findPosition(nfoContent, DOMHelper.TYPE_MOVIE);
-            int posTv = findPosition(nfoContent, DOMHelper.TYPE_TVSHOW);
-            int posEp = findPosition(nfoContent, DOMHelper.TYPE_EPISODE);
-            int start = Math.min(posMovie, Math.min(posTv, posEp));
-
-            posMovie = indexOf(nfoContent, XML_END + DOMHelper.TYPE_MOVIE);
-            posTv = indexOf(nfoContent, XML_END + DOMHelper.TYPE_TVSHOW);
-            posEp = indexOf(nfoContent, XML_END + DOMHelper.TYPE_EPISODE);
-            int end = Math.max(posMovie, Math.max(posTv, posEp));
-
-            if ((end > -1) && (end > start)) {
-                end = indexOf(nfoContent, '>', end) + 1;
-
-                // Send text to be read
-                String nfoTrimmed = substring(nfoContent, start, end);
-                parsedNfo = readXmlNfo(null, nfoTrimmed, nfoFilename, stageFile.getFileDate(), dto);
-
-                nfoTrimmed = remove(nfoContent, nfoTrimmed);
-                if (parsedNfo && isNotBlank(nfoTrimmed)) {
-                    // we have some text left, so scan that with the text scanner
-                    readTextNfo(nfoTrimmed, dto);
-                }
+            if (isNotBlank(nfoContent.getText())) {
+                // we have some text left, so scan that with the text scanner
+                readTextNfo(nfoContent.getText(), dto);
             }
         }
 
-        // If the XML wasn't found or parsed correctly, then fall back to the old method
         if (parsedNfo) {
             LOG.debug("Successfully scanned {} as XML format", nfoFilename);
         } else {
             // If the XML wasn't found or parsed correctly, then fall back to the old method
-            parsedNfo = readTextNfo(nfoContent, dto);
+            final String textContent;
+            if (!nfoContent.isXmlFound()) {
+                // the text is the whole content
+                textContent = nfoContent.getText();
+            } else if (stageContent != null) {
+                textContent = stageContent;
+            } else {
+                textContent = readContent(stageFile, nfoFile);
+            }
+            
+            parsedNfo = readTextNfo(textContent, dto);
             if (parsedNfo) {
                 LOG.debug("Successfully scanned {} as text format", nfoFilename);
             } else {
@@ -170,65 +149,38 @@ public final class InfoReader {
     }
 
     /**
-     * Find the position of the string or return the maximum
-     *
-     * @param nfoText
-     * @param xmlType
-     * @return
-     */
-    private static int findPosition(final String nfoText, final String xmlType) {
-        final int pos = indexOf(nfoText, XML_START + xmlType);
-        return pos == -1 ? Integer.MAX_VALUE : pos;
-    }
-
-    /**
-     * Read NFO as XML.
+     * Read the whole content of the NFO file; needed for invalid XML only.
      *
-     * @param nfoString
-     * @param nfoFilename
-     * @param dto
-     * @return
+     * @param stageFile
+     * @param nfoFile
+     * @return the content
      */
-    private boolean readXmlNfo(final File nfoFile, final String nfoContent, final String nfoFilename, final Date nfoFileDate, InfoDTO dto) {
-        Document xmlDoc;
-
+    private static String readContent(StageFile stageFile, File nfoFile) {
         try {
-            if (nfoFile == null) {
-                // Assume we're using the string
-                xmlDoc = DOMHelper.getDocFromString(nfoContent);
-            } else {
-                xmlDoc = DOMHelper.getDocFromFile(nfoFile);
-            }
-        } catch (Exception ex) {
-            if (nfoFile != null) {
-                LOG.error("Failed parsing NFO file: " + nfoFile.getAbsolutePath(), ex);
-            } else {
-                LOG.error("Failed parsing NFO file: " + nfoFilename, ex);
-            }
-            return false;
+            return FileUtils.readFileToString(nfoFile, UTF8);
+        } catch (Exception e) {
+            LOG.warn("Unable to read NFO file '{}': {}", nfoFile.getAbsolutePath(), e.getMessage());
+            return defaultString(stageFile.getContent());
         }
-
-        parseXML(xmlDoc, dto, nfoFileDate);
-        return true;
     }
 
     /**
-     * Parse the XML document for NFO information
+     * Parse the XML content for NFO information
      *
-     * @param xmlDoc
+     * @param nfoContent
      * @param dto
-     * @return
+     * @param nfoFileDate
      */
-    private void parseXML(final Document xmlDoc, InfoDTO dto, final Date nfoFileDate) {
-        NodeList nlMovies;
+    private void parseXML(final NfoXmlContent nfoContent, InfoDTO dto, final Date nfoFileDate) {
+        final Video video;
 
         // determine if the NFO file is for a TV Show or Movie so the default ID can be set
-        boolean isTV = xmlDoc.getElementsByTagName(DOMHelper.TYPE_TVSHOW).getLength() > 0;
+        boolean isTV = nfoContent.getTvShow() != null;
         if (dto.isTvShow() || isTV) {
-            nlMovies = xmlDoc.getElementsByTagName(DOMHelper.TYPE_TVSHOW);
+            video = nfoContent.getTvShow();
             dto.setTvShow(true);
         } else {
-            nlMovies = xmlDoc.getElementsByTagName(DOMHelper.TYPE_MOVIE);
+            video = nfoContent.getMovie();
             dto.setTvShow(false);
         }
 
@@ -236,29 +188,26 @@ public final class InfoReader {
         boolean watched = false;
         
         // just one movie/TVshow per file
-        if ((nlMovies != null) && (nlMovies.getLength() > 0) && (nlMovies.item(0).getNodeType() == Node.ELEMENT_NODE)) {
-            // get first info element
-            final Element eCommon = (Element) nlMovies.item(0);
-            
+        if (video != null) {
             // parse title
-            parseTitle(eCommon, dto);
+            parseTitle(video, dto);
     
             // parse year
-            String value = DOMHelper.getValueFromElement(eCommon, "year");
+            String value = video.getValue("year");
             dto.setYear(value);
     
             // get the movie IDs
-            parseIds(eCommon.getElementsByTagName("id"), dto, isTV);
+            parseIds(video.getIds(), dto, isTV);
     
             // parsed watched
-            value = DOMHelper.getValueFromElement(eCommon, "watched");
+            value = video.getValue("watched");
             watched = Boolean.parseBoolean(value);
             
             if (dto.isTvShow()) {
                 // TV show specific
     
                 // specific TVDB id
-                value = DOMHelper.getValueFromElement(eCommon, "tvdbid");
+                value = video.getValue("tvdbid");
                 if (isNotBlank(value)) {
                     dto.addId(SOURCE_TVDB, value);
                 }
@@ -272,81 +221,71 @@ public final class InfoReader {
             }
             
             // parse sets
-            parseSets(eCommon.getElementsByTagName("set"), dto);
+            parseSets(video.getSets(), dto);
     
             // parse rating
-            dto.setRating(parseRating(DOMHelper.getValueFromElement(eCommon, "rating")));
+            dto.setRating(parseRating(video.getValue("rating")));
     
             // parse certification
-            parseCertification(eCommon, dto);
+            parseCertification(video, dto);
     
             // parse plot
-            value = DOMHelper.getValueFromElement(eCommon, "plot");
+            value = video.getValue("plot");
             dto.setPlot(value);
     
             // parse outline
-            value = DOMHelper.getValueFromElement(eCommon, "outline");
+            value = video.getValue("outline");
             dto.setOutline(value);
     
             // parse tagline
-            value = DOMHelper.getValueFromElement(eCommon, "tagline");
+            value = video.getValue("tagline");
             dto.setTagline(value);
     
             // parse quote
-            value = DOMHelper.getValueFromElement(eCommon, "quote");
+            value = video.getValue("quote");
             dto.setQuote(value);
     
             // parse company (may be studio)
-            value = DOMHelper.getValueFromElement(eCommon, "studio", "company");
+            value = video.getValue("studio", "company");
             dto.setCompany(value);
 			
 			// parse library
-            value = DOMHelper.getValueFromElement(eCommon, "library");
+            value = video.getValue("library");
             dto.setLibrary(value);
 			
             // parse genres
-            parseGenres(eCommon.getElementsByTagName("genre"), dto);
+            for (String genres : video.getGenres()) {
+                for (String genre : genres.split(SPLITTER)) {
+                    dto.addGenre(genre);
+                }
+            }
 
             // parse countries
-            parseCountries(eCommon.getElementsByTagName("country"), dto);
+            for (String countries : video.getCountries()) {
+                for (String country : countries.split(SPLITTER)) {
+                    dto.addCountryCode(localeService.findCountryCode(country));
+                }
+            }
 
             // premiered / release date
-            movieDate(DOMHelper.getValueFromElement(eCommon, "premiered", "releasedate"), dto);
+            movieDate(video.getValue("premiered", "releasedate"), dto);
     
             // parse Top250
-            value = DOMHelper.getValueFromElement(eCommon, "top250");
+            value = video.getValue("top250");
             dto.setTop250(NumberUtils.toInt(value, -1));
             
             // director and writers
             if (!this.configServiceWrapper.getBooleanProperty("nfo.skip.crew", false)) {
                 if (this.configServiceWrapper.isCastScanEnabled(JobType.DIRECTOR)) {
-                    parseDirectors(eCommon.getElementsByTagName("director"), dto);
+                    for (String director : video.getDirectors()) {
+                        dto.addCredit(this.identifierService.createCredit(NfoScannerService.SCANNER_ID, JobType.DIRECTOR, director));
+                    }
                 }
                 
                 if (this.configServiceWrapper.isCastScanEnabled(JobType.WRITER)) {
-                    List<Node> writerNodes = new ArrayList<>();
-                    // get writers list
-                    NodeList nlWriters = eCommon.getElementsByTagName("writer");
-                    if (nlWriters != null && nlWriters.getLength() > 0) {
-                        for (int looper = 0; looper < nlWriters.getLength(); looper++) {
-                            Node node = nlWriters.item(looper);
-                            if (node.getNodeType() == Node.ELEMENT_NODE) {
-                                writerNodes.add(node);
-                            }
-                        }
+                    for (String writer : video.getWriters()) {
+                        dto.addCredit(this.identifierService.createCredit(NfoScannerService.SCANNER_ID, JobType.WRITER, writer));
                     }
-                    // get credits list (old style)
-                    nlWriters = eCommon.getElementsByTagName("credits");
-                    if (nlWriters != null && nlWriters.getLength() > 0) {
-                        for (int looper = 0; looper < nlWriters.getLength(); looper++) {
-                            Node node = nlWriters.item(looper);
-                            if (node.getNodeType() == Node.ELEMENT_NODE) {
-                                writerNodes.add(node);
-                            }
-                        }
-                    }
-                    // parse writers
-                    parseWriters(writerNodes, dto);
                 }
             }
     
@@ -354,40 +293,42 @@ public final class InfoReader {
             if (!this.configServiceWrapper.getBooleanProperty("nfo.skip.cast", false)
                 && this.configServiceWrapper.isCastScanEnabled(JobType.ACTOR)) 
             {
-                parseActors(eCommon.getElementsByTagName("actor"), dto);
+                parseActors(video.getActors(), dto);
             }
             
             // parse artwork URLs
             if (!this.configServiceWrapper.getBooleanProperty("nfo.skip.posterURL", true)) {
-                dto.addPosterURL(DOMHelper.getValueFromElement(eCommon, "thumb"));
+                dto.addPosterURL(video.getValue("thumb"));
             }
             if (!this.configServiceWrapper.getBooleanProperty("nfo.skip.fanartURL", true)) {
-                dto.addFanartURL(DOMHelper.getValueFromElement(eCommon, "fanart"));
+                dto.addFanartURL(video.getValue("fanart"));
             }
     
             // parse trailer
             if (!this.configServiceWrapper.getBooleanProperty("nfo.skip.trailerURL", false)) {
-                parseTrailers(eCommon.getElementsByTagName("trailer"), dto);
+                for (String trailer : video.getTrailers()) {
+                    dto.addTrailerURL(trailer);
+                }
             }
         }
         
         // parse all episodes
         if (dto.isTvShow()) {
-            parseAllEpisodeDetails(dto, xmlDoc.getElementsByTagName(DOMHelper.TYPE_EPISODE), watched, nfoFileDate);
+            parseAllEpisodeDetails(dto, nfoContent.getEpisodes(), watched, nfoFileDate);
         }
     }
 
     /**
      * Parse all the title information from the XML NFO file
      *
-     * @param eCommon
+     * @param video
      * @param dto
      */
-    private static void parseTitle(Element eCommon, InfoDTO dto) {
+    private static void parseTitle(Video video, InfoDTO dto) {
         // determine title elements
-        String titleMain = DOMHelper.getValueFromElement(eCommon, "title");
-        String titleOrig = DOMHelper.getValueFromElement(eCommon, "originaltitle", "originalTitle");
-        String titleSort = DOMHelper.getValueFromElement(eCommon, "sorttitle", "sortTitle");
+        String titleMain = video.getValue("title");
+        String titleOrig = video.getValue("originaltitle", "originalTitle");
+        String titleSort = video.getValue("sorttitle", "sortTitle");
 
         dto.setTitle(titleMain);
         dto.setTitleOriginal(titleOrig);
@@ -397,23 +338,15 @@ public final class InfoReader {
     /**
      * Parse all the IDs associated with the movie from the XML NFO file
      *
-     * @param nlElements
+     * @param ids
      * @param dto
      * @param isTV
      */
-    private static void parseIds(NodeList nlElements, InfoDTO dto, boolean isTV) {
-        Node nElements;
-        for (int looper = 0; looper < nlElements.getLength(); looper++) {
-            nElements = nlElements.item(looper);
-            if (nElements.getNodeType() != Node.ELEMENT_NODE) {
-                continue;
-            }
-            
-            Element eId = (Element) nElements;
-
-            String movieId = eId.getTextContent();
+    private static void parseIds(List<Id> ids, InfoDTO dto, boolean isTV) {
+        for (Id id : ids) {
+            String movieId = id.getId();
             if (isNotBlank(movieId)) {
-                String movieDb = eId.getAttribute("moviedb");
+                String movieDb = id.getMovieDb();
                 if (isBlank(movieDb)) {
                     if ("-1".equals(movieId)) {
                         // skip all scans
@@ -435,7 +368,7 @@ public final class InfoReader {
             }
             
             // process the TMDB id
-            movieId = eId.getAttribute("TMDB");
+            movieId = id.getTmdbId();
             if (isNotBlank(movieId)) {
                 LOG.debug("Found TheMovieDb ID: {}", movieId);
                 dto.addId(SOURCE_TMDB, movieId);
@@ -446,25 +379,24 @@ public final class InfoReader {
     /**
      * Parse Certification from the XML NFO file
      *
-     * @param eCommon
-     * @param movie
+     * @param video
+     * @param dto
      */
-    private void parseCertification(Element eCommon, InfoDTO dto) {
+    private void parseCertification(Video video, InfoDTO dto) {
         boolean certificationMPAA = this.configServiceWrapper.getBooleanProperty("yamj3.certification.mpaa", false);
         String tempCert;
         
         if (certificationMPAA) {
-            tempCert = DOMHelper.getValueFromElement(eCommon, "mpaa");
+            tempCert = video.getValue("mpaa");
             if (isNotBlank(tempCert)) {
                 dto.addCertificatioInfo("MPAA", trimToNull(processMpaaCertification(tempCert)));
             }
         }
 
-        tempCert = DOMHelper.getValueFromElement(eCommon, "certification");
+        tempCert = video.getValue("certification");
         if (isBlank(tempCert)) {
             return;
         }
-            
         // scan for given countries
         for (String countryCode : this.localeService.getCertificationCountryCodes()) {
             for (String countryName : this.localeService.getCountryNames(countryCode)) {
@@ -494,60 +426,6 @@ public final class InfoReader {
         }
     }
 
-    /**
-     * Parse Genres from the XML NFO file
-     * Caters for multiple genres on the same line and multiple lines.
-     *
-     * @param nlElements
-     * @param dto
-    */
-    private void parseGenres(NodeList nlElements, InfoDTO dto) {
-        Node nElements;
-        for (int looper = 0; looper < nlElements.getLength(); looper++) {
-            nElements = nlElements.item(looper);
-            if (nElements.getNodeType() != Node.ELEMENT_NODE) {
-                continue;
-            }
-            
-            Element eGenre = (Element) nElements;
-            NodeList nlNames = eGenre.getElementsByTagName("name");
-            if ((nlNames != null) && (nlNames.getLength() > 0)) {
-                parseGenres(nlNames, dto);
-            } else if (eGenre.getTextContent() != null) {
-                for (String genre : eGenre.getTextContent().split(SPLITTER)) {
-                    dto.addGenre(genre);
-                }
-            }
-        }
-    }
-
-    /**
-     * Parse countries from the XML NFO file
-     * Caters for multiple countries on the same line and multiple lines.
-     *
-     * @param nlElements
-     * @param dto
-    */
-    private void parseCountries(NodeList nlElements, InfoDTO dto) {
-        Node nElements;
-        for (int looper = 0; looper < nlElements.getLength(); looper++) {
-            nElements = nlElements.item(looper);
-            if (nElements.getNodeType() != Node.ELEMENT_NODE) {
-                continue;
-            }
-            
-            Element eCountry = (Element) nElements;
-            NodeList nlNames = eCountry.getElementsByTagName("name");
-            if ((nlNames != null) && (nlNames.getLength() > 0)) {
-                parseCountries(nlNames, dto);
-            } else if (eCountry.getTextContent() != null) {
-                for (String country : eCountry.getTextContent().split(SPLITTER)) {
-                    dto.addCountryCode(localeService.findCountryCode(country));
-                }
-            }
-        }
-    }
-
     /**
      * Convert the date string to a date and update the movie object
      *
@@ -565,175 +443,45 @@ public final class InfoReader {
     /**
      * Parse Sets from the XML NFO file
      *
-     * @param nlElements
+     * @param sets
      * @param dto
      */
-    private static void parseSets(NodeList nlElements, InfoDTO dto) {
-        Node nElements;
-        for (int looper = 0; looper < nlElements.getLength(); looper++) {
-            nElements = nlElements.item(looper);
-            if (nElements.getNodeType() != Node.ELEMENT_NODE) {
-                continue;
-            }
-            
-            Element eId = (Element) nElements;
-            String setOrder = eId.getAttribute("order");
+    private static void parseSets(List<SetInfo> sets, InfoDTO dto) {
+        for (SetInfo set : sets) {
+            String setOrder = set.getOrder();
             if (isNumeric(setOrder)) {
-                dto.addSetInfo(eId.getTextContent(), Integer.valueOf(setOrder));
+                dto.addSetInfo(set.getName(), Integer.valueOf(setOrder));
             } else {
-                dto.addSetInfo(eId.getTextContent());
+                dto.addSetInfo(set.getName());
             }
         }
     }
 
-    /**
-     * Parse directors from the XML NFO file
-     *
-     * @param nlElements
-     * @param dto
-     */
-    private void parseDirectors(NodeList nlElements, InfoDTO dto) {
-        // check if we have a node
-        if (nlElements == null || nlElements.getLength() == 0) {
-            return;
-        }
-
-        Node nElements;
-        for (int looper = 0; looper < nlElements.getLength(); looper++) {
-            nElements = nlElements.item(looper);
-            if (nElements.getNodeType() == Node.ELEMENT_NODE) {
-                final String personName = ((Element) nElements).getTextContent();
-                dto.addCredit(this.identifierService.createCredit(NfoScannerService.SCANNER_ID, JobType.DIRECTOR, personName));
-            }
-        }
-    }
-
-    /**
-     * Parse writers from the XML NFO file
-     *
-     * @param nlElements
-     * @param dto
-     */
-    private void parseWriters(List<Node> nlWriters, InfoDTO dto) {
-        // check if we have nodes
-        if (nlWriters == null || nlWriters.isEmpty()) {
-            return;
-        }
-
-        for (Node nWriter : nlWriters) {
-            NodeList nlChilds = ((Element)nWriter).getChildNodes();
-            for (int looper = 0; looper < nlChilds.getLength(); looper++) {
-                Node nChilds = nlChilds.item(looper);
-                if (nChilds.getNodeType() == Node.TEXT_NODE) {
-                    dto.addCredit(this.identifierService.createCredit(NfoScannerService.SCANNER_ID, JobType.WRITER, nChilds.getNodeValue()));
-                }
-            }
-        }
-    }
-    
     /**
      * Parse Actors from the XML NFO file.
      *
-     * @param nlElements
+     * @param actors
      * @param dto
      */
-    private void parseActors(NodeList nlElements, InfoDTO dto) {
-        // check if we have a node
-        if (nlElements == null || nlElements.getLength() == 0) {
-            return;
-        }
-
-        for (int actorLoop = 0; actorLoop < nlElements.getLength(); actorLoop++) {
-            // Get all the name/role/thumb nodes
-            Node nActors = nlElements.item(actorLoop);
-            NodeList nlCast = nActors.getChildNodes();
-            Node nElement;
-
-            String aName = null;
-            String aRole = null;
-            String aThumb = null;
-            boolean firstActor = true;
-
-            if (nlCast.getLength() > 1) {
-                for (int looper = 0; looper < nlCast.getLength(); looper++) {
-                    nElement = nlCast.item(looper);
-                    if (nElement.getNodeType() != Node.ELEMENT_NODE) {
-                        continue;
-                    }
-
-                    Element eCast = (Element) nElement;
-                    if ("name".equalsIgnoreCase(eCast.getNodeName())) {
-                        
-                        if (firstActor) {
-                            firstActor = false;
-                        } else {
-                            CreditDTO credit = this.identifierService.createCredit(NfoScannerService.SCANNER_ID, JobType.ACTOR, aName, aRole);
-                            if (credit != null) {
-                                credit.addPhoto(NfoScannerService.SCANNER_ID, aThumb);
-                                dto.addCredit(credit);
-                            }
-                        }
-                        
-                        aName = eCast.getTextContent();
-                        aRole = null;
-                        aThumb = null;
-                    } else if ("role".equalsIgnoreCase(eCast.getNodeName()) && isNotBlank(eCast.getTextContent())) {
-                        aRole = eCast.getTextContent();
-                    } else if ("thumb".equalsIgnoreCase(eCast.getNodeName()) && isNotBlank(eCast.getTextContent())) {
-                        // thumb will be skipped if there's nothing in there
-                        aThumb = eCast.getTextContent();
-                    }
-                    // There's a case where there might be a different node here that isn't name, role or thumb, but that will be ignored
-                }
-            } else {
-                // this looks like a Mede8er node in the "<actor>Actor Name</actor>" format, so just get the text element
-                aName = nActors.getTextContent();
-            }
-
-            // after all add the last scraped actor
-            CreditDTO credit = this.identifierService.createCredit(NfoScannerService.SCANNER_ID, JobType.ACTOR, aName, aRole);
+    private void parseActors(List<Actor> actors, InfoDTO dto) {
+        for (Actor actor : actors) {
+            CreditDTO credit = this.identifierService.createCredit(NfoScannerService.SCANNER_ID, JobType.ACTOR, actor.getName(), actor.getRole());
             if (credit != null) {
-                credit.addPhoto(NfoScannerService.SCANNER_ID, aThumb);
+                credit.addPhoto(NfoScannerService.SCANNER_ID, actor.getThumb());
                 dto.addCredit(credit);
             }
         }
     }
 
-    /**
-     * Parse Trailers from the XML NFO file
-     *
-     * @param nlElements
-     * @param dto
-     */
-    private static void parseTrailers(NodeList nlElements, InfoDTO dto) {
-        Node nElements;
-        for (int looper = 0; looper < nlElements.getLength(); looper++) {
-            nElements = nlElements.item(looper);
-            if (nElements.getNodeType() != Node.ELEMENT_NODE) {
-                continue;
-            }
-            
-            Element eTrailer = (Element) nElements;
-            dto.addTrailerURL(eTrailer.getTextContent());
-        }
-    }
-
     /**
      * Process all the Episode Details
      *
      * @param dto
-     * @param nlEpisodeDetails
+     * @param episodes
      */
-    private static void parseAllEpisodeDetails(InfoDTO dto, NodeList nlEpisodeDetails, boolean watched, Date nfoFileDate) {
-        Node nEpisodeDetails;
-        for (int looper = 0; looper < nlEpisodeDetails.getLength(); looper++) {
-            nEpisodeDetails = nlEpisodeDetails.item(looper);
-            if (nEpisodeDetails.getNodeType() != Node.ELEMENT_NODE) {
-                continue;
-            }
-            
-            Element eEpisodeDetail = (Element) nEpisodeDetails;
-            InfoEpisodeDTO episodeDTO = parseSingleEpisodeDetail(eEpisodeDetail);
+    private static void parseAllEpisodeDetails(InfoDTO dto, List<Values> episodes, boolean watched, Date nfoFileDate) {
+        for (Values episode : episodes) {
+            InfoEpisodeDTO episodeDTO = parseSingleEpisodeDetail(episode);
             if (episodeDTO.isValid()) {
                 // just add valid episodes to series
                 episodeDTO.setWatched(watched, nfoFileDate);
@@ -745,40 +493,37 @@ public final class InfoReader {
     /**
      * Parse a single episode detail element
      *
-     * @param eEpisodeDetails
+     * @param episode
      * @return
      */
-    private static InfoEpisodeDTO parseSingleEpisodeDetail(Element eEpisodeDetails) {
-        if (eEpisodeDetails == null) {
-            return null;
-        }
+    private static InfoEpisodeDTO parseSingleEpisodeDetail(Values episode) {
         InfoEpisodeDTO episodeDTO = new InfoEpisodeDTO();
         
-        episodeDTO.setTitle(DOMHelper.getValueFromElement(eEpisodeDetails, "title"));
+        episodeDTO.setTitle(episode.getValue("title"));
 
-        String tempValue = DOMHelper.getValueFromElement(eEpisodeDetails, "season");
+        String tempValue = episode.getValue("season");
         if (isNumeric(tempValue)) {
             episodeDTO.setSeason(Integer.parseInt(tempValue));
         }
 
-        tempValue = DOMHelper.getValueFromElement(eEpisodeDetails, "episode");
+        tempValue = episode.getValue("episode");
         if (isNumeric(tempValue)) {
             episodeDTO.setEpisode(Integer.parseInt(tempValue));
         }
 
-        episodeDTO.setPlot(DOMHelper.getValueFromElement(eEpisodeDetails, "plot"));
+        episodeDTO.setPlot(episode.getValue("plot"));
 
-        tempValue = DOMHelper.getValueFromElement(eEpisodeDetails, "rating");
+        tempValue = episode.getValue("rating");
         episodeDTO.setRating(parseRating(tempValue));
 
-        tempValue = DOMHelper.getValueFromElement(eEpisodeDetails, "aired");
+        tempValue = episode.getValue("aired");
         if (isNotBlank(tempValue)) {
             episodeDTO.setFirstAired(parseToDate(tempValue.trim()));
         }
 
-        episodeDTO.setAirsAfterSeason(DOMHelper.getValueFromElement(eEpisodeDetails, "airsafterseason", "airsAfterSeason"));
-        episodeDTO.setAirsBeforeSeason(DOMHelper.getValueFromElement(eEpisodeDetails, "airsbeforeseason", "airsBeforeSeason"));
-        episodeDTO.setAirsBeforeEpisode(DOMHelper.getValueFromElement(eEpisodeDetails, "airsbeforeepisode", "airsBeforeEpisode"));
+        episodeDTO.setAirsAfterSeason(episode.getValue("airsafterseason", "airsAfterSeason"));
+        episodeDTO.setAirsBeforeSeason(episode.getValue("airsbeforeseason", "airsBeforeSeason"));
+        episodeDTO.setAirsBeforeEpisode(episode.getValue("airsbeforeepisode", "airsBeforeEpisode"));
 
         return episodeDTO;
     }
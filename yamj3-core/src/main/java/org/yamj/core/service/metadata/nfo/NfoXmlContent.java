@@ -0,0 +1,254 @@
+/*
+ *      Copyright (c) 2004-2015 YAMJ Members
+ *      https://github.com/organizations/YAMJ/teams
+ *
+ *      This file is part of the Yet Another Media Jukebox (YAMJ).
+ *
+ *      YAMJ is free software: you can redistribute it and/or modify
+ *      it under the terms of the GNU General Public License as published by
+ *      the Free Software Foundation, either version 3 of the License, or
+ *      any later version.
+ *
+ *      YAMJ is distributed in the hope that it will be useful,
+ *      but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *      MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *      GNU General Public License for more details.
+ *
+ *      You should have received a copy of the GNU General Public License
+ *      along with YAMJ.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ *      Web: https://github.com/YAMJ/yamj-v3
+ *
+ */
+package org.yamj.core.service.metadata.nfo;
+
+import java.util.*;
+
+/**
+ * The content of a XML NFO file as read by the {@link NfoXmlReader}.
+ *
+ * Just the values needed for the {@link InfoDTO} are held, no document tree.
+ */
+public final class NfoXmlContent {
+
+    private final StringBuilder text = new StringBuilder();
+    private boolean xmlFound = false;
+    private boolean parsed = false;
+    private Video movie;
+    private Video tvShow;
+    private final List<Values> episodes = new ArrayList<>(0);
+
+    /**
+     * Get the text outside of the XML elements.
+     * 
+     * @return the text; the whole content if no XML has been found
+     */
+    public String getText() {
+        return text.toString();
+    }
+
+    void appendText(String value) {
+        text.append(value);
+    }
+
+    public boolean isXmlFound() {
+        return xmlFound;
+    }
+
+    void setXmlFound(boolean xmlFound) {
+        this.xmlFound = xmlFound;
+    }
+
+    /**
+     * Indicates if the XML has been parsed; trailing garbage is ignored
+     * if at least one element has been read completely.
+     * 
+     * @return true, if the XML has been parsed
+     */
+    public boolean isParsed() {
+        return parsed;
+    }
+
+    void setParsed(boolean parsed) {
+        this.parsed = parsed;
+    }
+
+    public Video getMovie() {
+        return movie;
+    }
+
+    void setMovie(Video movie) {
+        this.movie = movie;
+    }
+
+    public Video getTvShow() {
+        return tvShow;
+    }
+
+    void setTvShow(Video tvShow) {
+        this.tvShow = tvShow;
+    }
+
+    public List<Values> getEpisodes() {
+        return episodes;
+    }
+
+    /**
+     * Holds the first value of each element name.
+     */
+    public static class Values {
+
+        private final Map<String, String> values = new HashMap<>();
+
+        /**
+         * Get the value of the first element with the given names;
+         * a later name wins if elements for several names exist.
+         * 
+         * @param names
+         * @return the value or an empty string
+         */
+        public String getValue(String... names) {
+            String value = "";
+            for (String name : names) {
+                String found = values.get(name);
+                if (found != null) {
+                    value = found;
+                }
+            }
+            return value;
+        }
+
+        boolean hasValue(String name) {
+            return values.containsKey(name);
+        }
+
+        void setValue(String name, String value) {
+            values.put(name, value);
+        }
+    }
+
+    /**
+     * The values of a movie or TV show element.
+     */
+    public static final class Video extends Values {
+
+        private final List<Id> ids = new ArrayList<>(2);
+        private final List<SetInfo> sets = new ArrayList<>(0);
+        private final List<String> genres = new ArrayList<>(5);
+        private final List<String> countries = new ArrayList<>(2);
+        private final List<String> directors = new ArrayList<>(2);
+        private final List<String> writers = new ArrayList<>(2);
+        private final List<Actor> actors = new ArrayList<>(10);
+        private final List<String> trailers = new ArrayList<>(0);
+
+        public List<Id> getIds() {
+            return ids;
+        }
+
+        public List<SetInfo> getSets() {
+            return sets;
+        }
+
+        public List<String> getGenres() {
+            return genres;
+        }
+
+        public List<String> getCountries() {
+            return countries;
+        }
+
+        public List<String> getDirectors() {
+            return directors;
+        }
+
+        public List<String> getWriters() {
+            return writers;
+        }
+
+        public List<Actor> getActors() {
+            return actors;
+        }
+
+        public List<String> getTrailers() {
+            return trailers;
+        }
+    }
+
+    /**
+     * An ID with the "moviedb" and "TMDB" attributes.
+     */
+    public static final class Id {
+
+        private final String id;
+        private final String movieDb;
+        private final String tmdbId;
+
+        Id(String id, String movieDb, String tmdbId) {
+            this.id = id;
+            this.movieDb = movieDb;
+            this.tmdbId = tmdbId;
+        }
+
+        public String getId() {
+            return id;
+        }
+
+        public String getMovieDb() {
+            return movieDb;
+        }
+
+        public String getTmdbId() {
+            return tmdbId;
+        }
+    }
+
+    /**
+     * A set with the "order" attribute.
+     */
+    public static final class SetInfo {
+
+        private final String name;
+        private final String order;
+
+        SetInfo(String name, String order) {
+            this.name = name;
+            this.order = order;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public String getOrder() {
+            return order;
+        }
+    }
+
+    /**
+     * An actor with role and thumb.
+     */
+    public static final class Actor {
+
+        private final String name;
+        private final String role;
+        private final String thumb;
+
+        Actor(String name, String role, String thumb) {
+            this.name = name;
+            this.role = role;
+            this.thumb = thumb;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public String getRole() {
+            return role;
+        }
+
+        public String getThumb() {
+            return thumb;
+        }
+    }
+}
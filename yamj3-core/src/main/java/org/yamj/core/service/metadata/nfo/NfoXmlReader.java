@@ -0,0 +1,641 @@
+/*
+ *      Copyright (c) 2004-2015 YAMJ Members
+ *      https://github.com/organizations/YAMJ/teams
+ *
+ *      This file is part of the Yet Another Media Jukebox (YAMJ).
+ *
+ *      YAMJ is free software: you can redistribute it and/or modify
+ *      it under the terms of the GNU General Public License as published by
+ *      the Free Software Foundation, either version 3 of the License, or
+ *      any later version.
+ *
+ *      YAMJ is distributed in the hope that it will be useful,
+ *      but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *      MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *      GNU General Public License for more details.
+ *
+ *      You should have received a copy of the GNU General Public License
+ *      along with YAMJ.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ *      Web: https://github.com/YAMJ/yamj-v3
+ *
+ */
+package org.yamj.core.service.metadata.nfo;
+
+import static org.yamj.core.tools.xml.DOMHelper.TYPE_EPISODE;
+import static org.yamj.core.tools.xml.DOMHelper.TYPE_MOVIE;
+import static org.yamj.core.tools.xml.DOMHelper.TYPE_TVSHOW;
+
+import java.io.*;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Pattern;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import org.apache.commons.lang3.StringUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.yamj.core.service.metadata.nfo.NfoXmlContent.Actor;
+import org.yamj.core.service.metadata.nfo.NfoXmlContent.Id;
+import org.yamj.core.service.metadata.nfo.NfoXmlContent.SetInfo;
+import org.yamj.core.service.metadata.nfo.NfoXmlContent.Values;
+import org.yamj.core.service.metadata.nfo.NfoXmlContent.Video;
+
+/**
+ * Streaming reader for XML NFO files.
+ *
+ * The content is read in one pass with StAX. Text before the first movie, TV show
+ * or episode element is skipped and all elements are wrapped in a root, so that
+ * NFO files with several elements or with text around the XML can be read.
+ */
+public final class NfoXmlReader {
+
+    private static final Logger LOG = LoggerFactory.getLogger(NfoXmlReader.class);
+    private static final String TYPE_ROOT = "xml";
+    private static final String[] ROOT_TYPES = {TYPE_MOVIE, TYPE_TVSHOW, TYPE_EPISODE};
+    private static final char BYTE_ORDER_MARK = '\uFEFF';
+    private static final int MAX_TYPE_LENGTH = TYPE_EPISODE.length() + 1;
+    // bytes which must hold the byte order mark and the XML declaration
+    private static final int ENCODING_PROBE_SIZE = 1024;
+    // XML declaration, comments and DTD before the XML elements are no text
+    private static final Pattern XML_MARKUP = Pattern.compile("<[?!].*?>", Pattern.DOTALL);
+    private static final XMLInputFactory FACTORY = XMLInputFactory.newInstance();
+
+    static {
+        FACTORY.setProperty(XMLInputFactory.IS_COALESCING, Boolean.TRUE);
+        FACTORY.setProperty(XMLInputFactory.IS_NAMESPACE_AWARE, Boolean.FALSE);
+        FACTORY.setProperty(XMLInputFactory.SUPPORT_DTD, Boolean.FALSE);
+        FACTORY.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, Boolean.FALSE);
+    }
+
+    private NfoXmlReader() {
+        throw new UnsupportedOperationException("Utility class cannot be instantiated");
+    }
+
+    /**
+     * Read the NFO file.
+     *
+     * @param nfoFile
+     * @return the NFO content
+     * @throws IOException if the file can't be read
+     */
+    public static NfoXmlContent read(File nfoFile) throws IOException {
+        try (InputStream in = new BufferedInputStream(new FileInputStream(nfoFile))) {
+            return read(in);
+        }
+    }
+
+    /**
+     * Read the NFO content from the stream.
+     *
+     * The encoding is detected by the XML parser from the byte order mark or
+     * the XML declaration; without both the content is read as UTF-8.
+     *
+     * @param in
+     * @return the NFO content
+     * @throws IOException if the content can't be read
+     */
+    public static NfoXmlContent read(InputStream in) throws IOException {
+        final InputStream buffered = in.markSupported() ? in : new BufferedInputStream(in);
+        return read(new InputStreamReader(buffered, detectEncoding(buffered)));
+    }
+
+    /**
+     * Read the NFO content.
+     *
+     * @param nfoContent
+     * @return the NFO content
+     */
+    public static NfoXmlContent read(String nfoContent) {
+        try {
+            return read(new StringReader(nfoContent));
+        } catch (IOException ex) {
+            // can't happen when reading a string
+            throw new IllegalStateException(ex);
+        }
+    }
+
+    /**
+     * Read the NFO content from the reader.
+     *
+     * @param reader
+     * @return the NFO content
+     * @throws IOException if the content can't be read
+     */
+    public static NfoXmlContent read(Reader reader) throws IOException {
+        final NfoXmlContent content = new NfoXmlContent();
+        final BufferedReader in = new BufferedReader(reader);
+        // skip the byte order mark
+        in.mark(1);
+        if (in.read() != BYTE_ORDER_MARK) {
+            in.reset();
+        }
+        
+        if (!skipToRootType(in, content)) {
+            // no XML found, so the text holds the whole content
+            return content;
+        }
+        content.setXmlFound(true);
+
+        final RootReader root = new RootReader(in);
+        XMLStreamReader xml = null;
+        try {
+            xml = FACTORY.createXMLStreamReader(root);
+            readRoot(xml, root, content);
+            content.setParsed(true);
+        } catch (XMLStreamException ex) {
+            if (content.isParsed()) {
+                LOG.debug("Invalid XML after NFO elements is read as text: {}", ex.getMessage());
+                content.appendText(root.getRemainingText());
+            } else {
+                LOG.debug("Failed parsing NFO XML: {}", ex.getMessage());
+            }
+        } finally {
+            if (xml != null) {
+                try {
+                    xml.close();
+                } catch (XMLStreamException ignore) { //NOSONAR
+                    // nothing to do
+                }
+            }
+        }
+        return content;
+    }
+
+    /**
+     * Let the XML parser detect the encoding of the start of the stream.
+     *
+     * @return the detected encoding or UTF-8 if there is none
+     */
+    private static Charset detectEncoding(InputStream in) throws IOException {
+        final byte[] probe = new byte[ENCODING_PROBE_SIZE];
+        in.mark(ENCODING_PROBE_SIZE);
+        int length = 0;
+        int read;
+        while (length < probe.length && (read = in.read(probe, length, probe.length - length)) != -1) {
+            length += read;
+        }
+        in.reset();
+
+        XMLStreamReader xml = null;
+        try {
+            xml = FACTORY.createXMLStreamReader(new ByteArrayInputStream(probe, 0, length));
+            final String encoding = xml.getEncoding();
+            if (encoding != null) {
+                return Charset.forName(encoding);
+            }
+        } catch (XMLStreamException | IllegalArgumentException ex) {
+            // no XML start or unknown charset
+            LOG.trace("Failed to detect NFO encoding: {}", ex.getMessage());
+        } finally {
+            if (xml != null) {
+                try {
+                    xml.close();
+                } catch (XMLStreamException ignore) { //NOSONAR
+                    // nothing to do
+                }
+            }
+        }
+        return StandardCharsets.UTF_8;
+    }
+
+    /**
+     * Skip the text until the start of a movie, TV show or episode element.
+     *
+     * @return true if an element start has been found; the reader is positioned behind the '<'
+     */
+    private static boolean skipToRootType(BufferedReader in, NfoXmlContent content) throws IOException {
+        final StringBuilder skipped = new StringBuilder();
+        final char[] buffer = new char[MAX_TYPE_LENGTH];
+
+        int c;
+        while ((c = in.read()) != -1) {
+            if (c == '<') {
+                in.mark(MAX_TYPE_LENGTH);
+                int length = 0;
+                int read;
+                while (length < MAX_TYPE_LENGTH && (read = in.read(buffer, length, MAX_TYPE_LENGTH - length)) != -1) {
+                    length += read;
+                }
+                in.reset();
+
+                if (isRootType(new String(buffer, 0, length))) {
+                    content.appendText(XML_MARKUP.matcher(skipped).replaceAll(""));
+                    return true;
+                }
+            }
+            skipped.append((char) c);
+        }
+
+        content.appendText(skipped.toString());
+        return false;
+    }
+
+    private static boolean isRootType(String tag) {
+        for (String type : ROOT_TYPES) {
+            if (tag.length() > type.length() && tag.startsWith(type)) {
+                final char delimiter = tag.charAt(type.length());
+                if (delimiter == '>' || delimiter == '/' || Character.isWhitespace(delimiter)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private static void readRoot(XMLStreamReader xml, RootReader root, NfoXmlContent content) throws XMLStreamException {
+        // text between the elements; added when the following element has been read
+        final StringBuilder text = new StringBuilder();
+
+        // skip the wrapping root
+        xml.nextTag();
+
+        while (xml.hasNext()) {
+            switch (xml.next()) {
+                case XMLStreamConstants.START_ELEMENT:
+                    final String name = xml.getLocalName();
+                    if (TYPE_MOVIE.equals(name) && content.getMovie() == null) {
+                        content.setMovie(readVideo(xml, content));
+                    } else if (TYPE_TVSHOW.equals(name) && content.getTvShow() == null) {
+                        content.setTvShow(readVideo(xml, content));
+                    } else if (TYPE_EPISODE.equals(name)) {
+                        content.getEpisodes().add(readValues(xml));
+                    } else {
+                        readText(xml);
+                    }
+                    // at least one element has been read completely
+                    content.setParsed(true);
+                    content.appendText(text.toString());
+                    text.setLength(0);
+                    root.setConsumed(xml.getLocation().getCharacterOffset());
+                    break;
+                case XMLStreamConstants.CHARACTERS:
+                case XMLStreamConstants.CDATA:
+                    text.append(xml.getText());
+                    break;
+                default:
+                    break;
+            }
+        }
+        content.appendText(text.toString());
+    }
+
+    /**
+     * Read the values of a movie or TV show element.
+     */
+    private static Video readVideo(XMLStreamReader xml, NfoXmlContent content) throws XMLStreamException {
+        final Video video = new Video();
+        // the element which value is the next text
+        String pending = null;
+        int depth = 1;
+
+        while (depth > 0) {
+            switch (xml.next()) {
+                case XMLStreamConstants.START_ELEMENT:
+                    if (pending != null) {
+                        video.setValue(pending, null);
+                        pending = null;
+                    }
+                    
+                    final String name = xml.getLocalName();
+                    if ("id".equals(name)) {
+                        final String movieDb = xml.getAttributeValue(null, "moviedb");
+                        final String tmdbId = xml.getAttributeValue(null, "TMDB");
+                        video.getIds().add(new Id(readText(xml), movieDb, tmdbId));
+                    } else if ("set".equals(name)) {
+                        final String order = xml.getAttributeValue(null, "order");
+                        video.getSets().add(new SetInfo(readText(xml), order));
+                    } else if ("genre".equals(name)) {
+                        readNamesOrText(xml, video.getGenres());
+                    } else if ("country".equals(name)) {
+                        readNamesOrText(xml, video.getCountries());
+                    } else if ("director".equals(name)) {
+                        video.getDirectors().add(readText(xml));
+                    } else if ("writer".equals(name) || "credits".equals(name)) {
+                        readOwnText(xml, video.getWriters());
+                    } else if ("actor".equals(name)) {
+                        readActor(xml, video.getActors());
+                    } else if ("trailer".equals(name)) {
+                        video.getTrailers().add(readText(xml));
+                    } else if (TYPE_EPISODE.equals(name)) {
+                        content.getEpisodes().add(readValues(xml));
+                    } else {
+                        if (!video.hasValue(name)) {
+                            pending = name;
+                        }
+                        depth++;
+                    }
+                    break;
+                case XMLStreamConstants.CHARACTERS:
+                case XMLStreamConstants.CDATA:
+                case XMLStreamConstants.SPACE:
+                    if (pending != null) {
+                        video.setValue(pending, xml.getText());
+                        pending = null;
+                    }
+                    break;
+                case XMLStreamConstants.END_ELEMENT:
+                    if (pending != null) {
+                        video.setValue(pending, null);
+                        pending = null;
+                    }
+                    depth--;
+                    break;
+                default:
+                    break;
+            }
+        }
+        return video;
+    }
+
+    /**
+     * Read the first value of each element within the actual element.
+     */
+    private static Values readValues(XMLStreamReader xml) throws XMLStreamException {
+        final Values values = new Values();
+        String pending = null;
+        int depth = 1;
+
+        while (depth > 0) {
+            switch (xml.next()) {
+                case XMLStreamConstants.START_ELEMENT:
+                    if (pending != null) {
+                        values.setValue(pending, null);
+                    }
+                    final String name = xml.getLocalName();
+                    pending = values.hasValue(name) ? null : name;
+                    depth++;
+                    break;
+                case XMLStreamConstants.CHARACTERS:
+                case XMLStreamConstants.CDATA:
+                case XMLStreamConstants.SPACE:
+                    if (pending != null) {
+                        values.setValue(pending, xml.getText());
+                        pending = null;
+                    }
+                    break;
+                case XMLStreamConstants.END_ELEMENT:
+                    if (pending != null) {
+                        values.setValue(pending, null);
+                        pending = null;
+                    }
+                    depth--;
+                    break;
+                default:
+                    break;
+            }
+        }
+        return values;
+    }
+
+    /**
+     * Read the text of the actual element including the text of all child elements.
+     */
+    private static String readText(XMLStreamReader xml) throws XMLStreamException {
+        final StringBuilder text = new StringBuilder();
+        int depth = 1;
+
+        while (depth > 0) {
+            switch (xml.next()) {
+                case XMLStreamConstants.START_ELEMENT:
+                    depth++;
+                    break;
+                case XMLStreamConstants.END_ELEMENT:
+                    depth--;
+                    break;
+                case XMLStreamConstants.CHARACTERS:
+                case XMLStreamConstants.CDATA:
+                case XMLStreamConstants.SPACE:
+                    text.append(xml.getText());
+                    break;
+                default:
+                    break;
+            }
+        }
+        return text.toString();
+    }
+
+    /**
+     * Read the text of each "name" element or the whole text if there are none.
+     */
+    private static void readNamesOrText(XMLStreamReader xml, List<String> values) throws XMLStreamException {
+        final StringBuilder text = new StringBuilder();
+        final List<String> names = new ArrayList<>(1);
+        int depth = 1;
+
+        while (depth > 0) {
+            switch (xml.next()) {
+                case XMLStreamConstants.START_ELEMENT:
+                    if ("name".equals(xml.getLocalName())) {
+                        final String name = readText(xml);
+                        names.add(name);
+                        text.append(name);
+                    } else {
+                        depth++;
+                    }
+                    break;
+                case XMLStreamConstants.END_ELEMENT:
+                    depth--;
+                    break;
+                case XMLStreamConstants.CHARACTERS:
+                case XMLStreamConstants.CDATA:
+                case XMLStreamConstants.SPACE:
+                    text.append(xml.getText());
+                    break;
+                default:
+                    break;
+            }
+        }
+
+        if (names.isEmpty()) {
+            values.add(text.toString());
+        } else {
+            values.addAll(names);
+        }
+    }
+
+    /**
+     * Read the text nodes of the actual element without the text of child elements.
+     */
+    private static void readOwnText(XMLStreamReader xml, List<String> values) throws XMLStreamException {
+        int depth = 1;
+
+        while (depth > 0) {
+            switch (xml.next()) {
+                case XMLStreamConstants.START_ELEMENT:
+                    depth++;
+                    break;
+                case XMLStreamConstants.END_ELEMENT:
+                    depth--;
+                    break;
+                case XMLStreamConstants.CHARACTERS:
+                case XMLStreamConstants.CDATA:
+                case XMLStreamConstants.SPACE:
+                    if (depth == 1) {
+                        values.add(xml.getText());
+                    }
+                    break;
+                default:
+                    break;
+            }
+        }
+    }
+
+    /**
+     * Read the actors of an actor element.
+     *
+     * An actor element may contain several actors, each started by a "name" element.
+     * If there is just the actor name, i.e. "&lt;actor&gt;Actor Name&lt;/actor&gt;", then
+     * the whole text is the name.
+     */
+    private static void readActor(XMLStreamReader xml, List<Actor> actors) throws XMLStreamException {
+        final StringBuilder text = new StringBuilder();
+        final List<Actor> found = new ArrayList<>(1);
+        String name = null;
+        String role = null;
+        String thumb = null;
+        boolean firstActor = true;
+        int childNodes = 0;
+        int depth = 1;
+
+        while (depth > 0) {
+            switch (xml.next()) {
+                case XMLStreamConstants.START_ELEMENT:
+                    childNodes++;
+                    final String element = xml.getLocalName();
+                    final String value = readText(xml);
+                    text.append(value);
+
+                    if ("name".equalsIgnoreCase(element)) {
+                        if (firstActor) {
+                            firstActor = false;
+                        } else {
+                            found.add(new Actor(name, role, thumb));
+                        }
+                        name = value;
+                        role = null;
+                        thumb = null;
+                    } else if ("role".equalsIgnoreCase(element) && StringUtils.isNotBlank(value)) {
+                        role = value;
+                    } else if ("thumb".equalsIgnoreCase(element) && StringUtils.isNotBlank(value)) {
+                        // thumb will be skipped if there's nothing in there
+                        thumb = value;
+                    }
+                    break;
+                case XMLStreamConstants.END_ELEMENT:
+                    depth--;
+                    break;
+                case XMLStreamConstants.CHARACTERS:
+                case XMLStreamConstants.CDATA:
+                case XMLStreamConstants.SPACE:
+                    childNodes++;
+                    text.append(xml.getText());
+                    break;
+                default:
+                    break;
+            }
+        }
+
+        if (childNodes > 1) {
+            // add the last scraped actor
+            found.add(new Actor(name, role, thumb));
+            actors.addAll(found);
+        } else {
+            actors.add(new Actor(text.toString(), null, null));
+        }
+    }
+
+    /**
+     * Wraps the content in a root element, so that several elements and text around them can be read.
+     *
+     * The content behind the last completely read element is kept, so that it can be
+     * read as text if the XML parser fails on it.
+     */
+    private static final class RootReader extends Reader {
+
+        // the '<' of the first element has already been read
+        private static final String PREFIX = "<" + TYPE_ROOT + "><";
+        private static final String SUFFIX = "</" + TYPE_ROOT + ">";
+        private final Reader in;
+        private final StringBuilder unconsumed = new StringBuilder();
+        // offset of the first unconsumed character in the wrapped content
+        private long unconsumedOffset = 0;
+        private int prefixPos = 0;
+        private int suffixPos = 0;
+        private boolean endOfStream = false;
+
+        public RootReader(Reader in) {
+            this.in = in;
+        }
+
+        @Override
+        public int read(char[] cbuf, int off, int len) throws IOException {
+            if (len == 0) {
+                return 0;
+            }
+            if (prefixPos < PREFIX.length()) {
+                return copy(PREFIX, prefixPos, cbuf, off, len, true);
+            }
+            if (!endOfStream) {
+                final int read = in.read(cbuf, off, len);
+                if (read != -1) {
+                    unconsumed.append(cbuf, off, read);
+                    return read;
+                }
+                endOfStream = true;
+            }
+            if (suffixPos < SUFFIX.length()) {
+                return copy(SUFFIX, suffixPos, cbuf, off, len, false);
+            }
+            return -1;
+        }
+
+        /**
+         * Set the characters up to the offset of the parser as consumed.
+         */
+        void setConsumed(int parserOffset) {
+            final long offset = parserOffset - (long) PREFIX.length();
+            final int count = (int) Math.min(offset - unconsumedOffset, unconsumed.length());
+            if (count > 0) {
+                unconsumed.delete(0, count);
+                unconsumedOffset += count;
+            }
+        }
+
+        /**
+         * Get the unconsumed content including the content which has not been read by the parser.
+         */
+        String getRemainingText() throws IOException {
+            final StringBuilder text = new StringBuilder(unconsumed);
+            if (!endOfStream) {
+                final char[] buffer = new char[1024];
+                int read;
+                while ((read = in.read(buffer)) != -1) {
+                    text.append(buffer, 0, read);
+                }
+                endOfStream = true;
+            }
+            return text.toString();
+        }
+
+        private int copy(String source, int pos, char[] cbuf, int off, int len, boolean prefix) {
+            final int count = Math.min(len, source.length() - pos);
+            source.getChars(pos, pos + count, cbuf, off);
+            if (prefix) {
+                prefixPos += count;
+            } else {
+                suffixPos += count;
+            }
+            return count;
+        }
+
+        @Override
+        public void close() throws IOException {
+            in.close();
+        }
+    }
+}
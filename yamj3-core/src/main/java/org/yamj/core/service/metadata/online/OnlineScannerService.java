@@ -22,7 +22,16 @@
  */
 package org.yamj.core.service.metadata.online;
 
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
 import java.util.*;
+import java.util.concurrent.*;
+import javax.annotation.PreDestroy;
+import org.apache.commons.lang3.StringUtils;
+import org.apache.commons.lang3.concurrent.BasicThreadFactory;
+import org.apache.commons.lang3.concurrent.ConcurrentUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -33,6 +42,7 @@ import org.yamj.common.type.StatusType;
 import org.yamj.core.config.ConfigServiceWrapper;
 import org.yamj.core.config.LocaleService;
 import org.yamj.core.database.model.*;
+import org.yamj.core.database.model.dto.CreditDTO;
 import org.yamj.core.service.metadata.WrapperMovie;
 import org.yamj.core.service.metadata.WrapperPerson;
 import org.yamj.core.service.metadata.WrapperSeries;
@@ -40,6 +50,7 @@ import org.yamj.core.service.metadata.nfo.InfoDTO;
 import org.yamj.core.service.various.IdentifierService;
 import org.yamj.plugin.api.metadata.*;
 import org.yamj.plugin.api.model.IMovie;
+import org.yamj.plugin.api.model.IPerson;
 import org.yamj.plugin.api.model.ISeries;
 import org.yamj.plugin.api.model.IdMap;
 import org.yamj.plugin.api.service.PluginMetadataService;
@@ -60,6 +71,7 @@ public class OnlineScannerService implements PluginMetadataService {
     private final HashMap<String, PluginSeriesScanner> registeredSeriesScanner = new HashMap<>();
     private final HashMap<String, PluginPersonScanner> registeredPersonScanner = new HashMap<>();
     private final HashMap<String, PluginFilmographyScanner> registeredFilmographyScanner = new HashMap<>();
+    private ExecutorService executor;
 
     @Autowired
     private ConfigServiceWrapper configServiceWrapper;
@@ -113,55 +125,30 @@ public class OnlineScannerService implements PluginMetadataService {
         
         final boolean throwTempError = this.throwTempUnavailableError();
         final boolean useAlternate = this.configServiceWrapper.getBooleanProperty("yamj3.sourcedb.scanner.movie.alternate.always", false);
-        final WrapperMovie wrapper = new WrapperMovie(videoData, localeService, identifierService);
         ScanResult scanResult = null;
-                        
-        for (String scanner : MOVIE_SCANNER) {
-            // holds the inner scan result
-            ScanResult innerResult = ScanResult.NO_RESULT;
-            
-            PluginMovieScanner movieScanner = registeredMovieScanner.get(scanner);
-            if (movieScanner == null) {
-                LOG.warn("Movie scanner {} not registered", scanner);
-            } else {
-                // scan video data
-                try {
-                    if (videoData.isSkippedScan(movieScanner.getScannerName())) {
-                        LOG.info("Movie scan skipped for '{}' using {}", videoData.getTitle(), movieScanner.getScannerName());
-                        innerResult = ScanResult.SKIPPED;
-                    } else {
-                        LOG.info("Scanning movie data for '{}' using {}", videoData.getTitle(), movieScanner.getScannerName());
-                        innerResult = movieScanner.scanMovie(wrapper, throwTempError);
-                    }
-                } catch (TemporaryUnavailableException ex) {
-                    // check retry
-                    if (scanResult == null && videoData.getRetries() < configServiceWrapper.getIntProperty("yamj3.error.maxRetries.movie", 0)) {
-                        LOG.info(TEMP_UNAVAILABLE_ERROR, movieScanner.getScannerName(), videoData.getIdentifier());
-                        innerResult = ScanResult.RETRY;
-                    } else {
-                        LOG.error("Temporary scanning error for movie '{}' with {} scanner", videoData.getIdentifier(), movieScanner.getScannerName());
-                        LOG.warn(SCANNING_ERROR, ex);
-                    }
-                } catch (Exception ex) {
-                    LOG.error("Failed scanning movie '{}' with {} scanner", videoData.getIdentifier(), movieScanner.getScannerName());
-                    LOG.warn(SCANNING_ERROR, ex);
-                }
-            }
 
-            if (ScanResult.OK.equals(innerResult)) {
-                // scanned OK
-                scanResult = ScanResult.OK;
-                // no alternate scanning then break the loop
-                if (!useAlternate) {
+        if (useAlternate && this.configServiceWrapper.getBooleanProperty("yamj3.sourcedb.scanner.movie.alternate.parallel", false)) {
+            scanResult = scanMovieParallel(videoData, throwTempError);
+        } else {
+            final WrapperMovie wrapper = new WrapperMovie(videoData, localeService, identifierService);
+            for (String scanner : MOVIE_SCANNER) {
+                // holds the inner scan result
+                ScanResult innerResult = ScanResult.NO_RESULT;
+                
+                PluginMovieScanner movieScanner = registeredMovieScanner.get(scanner);
+                if (movieScanner == null) {
+                    LOG.warn("Movie scanner {} not registered", scanner);
+                } else {
+                    innerResult = scanMovie(movieScanner, videoData, wrapper, wrapper, throwTempError, scanResult == null);
+                }
+    
+                scanResult = combineScanResult(scanResult, innerResult);
+                // no alternate scanning then break the loop if scanned OK
+                if (ScanResult.OK.equals(innerResult) && !useAlternate) {
                     break;
                 }
-            } else if (ScanResult.SKIPPED.equals(innerResult)) {
-                // change nothing if scan skipped and force next scan
-            } else {
-                // just set scan result to inner result if no scan result before
-                scanResult = scanResult == null ? innerResult : scanResult;
             }
-        }       
+        }
         
         // evaluate scan result
         if (ScanResult.OK.equals(scanResult)) {
@@ -186,6 +173,80 @@ public class OnlineScannerService implements PluginMetadataService {
         }
     }
 
+    private ScanResult scanMovie(PluginMovieScanner movieScanner, VideoData videoData, WrapperMovie wrapper, IMovie movie, boolean throwTempError, boolean retryAllowed) {
+        try {
+            if (videoData.isSkippedScan(movieScanner.getScannerName())) {
+                LOG.info("Movie scan skipped for '{}' using {}", videoData.getTitle(), movieScanner.getScannerName());
+                return ScanResult.SKIPPED;
+            }
+            
+            LOG.info("Scanning movie data for '{}' using {}", videoData.getTitle(), movieScanner.getScannerName());
+            return movieScanner.scanMovie(wrapper, movie, throwTempError);
+        } catch (TemporaryUnavailableException ex) {
+            // check retry
+            if (retryAllowed && videoData.getRetries() < configServiceWrapper.getIntProperty("yamj3.error.maxRetries.movie", 0)) {
+                LOG.info(TEMP_UNAVAILABLE_ERROR, movieScanner.getScannerName(), videoData.getIdentifier());
+                return ScanResult.RETRY;
+            }
+            LOG.error("Temporary scanning error for movie '{}' with {} scanner", videoData.getIdentifier(), movieScanner.getScannerName());
+            LOG.warn(SCANNING_ERROR, ex);
+        } catch (Exception ex) {
+            LOG.error("Failed scanning movie '{}' with {} scanner", videoData.getIdentifier(), movieScanner.getScannerName());
+            LOG.warn(SCANNING_ERROR, ex);
+        }
+        return ScanResult.NO_RESULT;
+    }
+
+    /**
+     * Scan a movie with the alternate scanners at once.
+     * 
+     * The first scanner runs alone, because the alternate scanners depend on the ids
+     * it stores, e.g. the IMDb id found by TMDb. The scanners share the video data,
+     * so each scanner gets an own wrapper and the access to the video data is serialized.
+     * The results are combined in the order of the scanners; a retry is only triggered
+     * if no scanner before delivered a result.
+     * 
+     * @param videoData
+     * @param throwTempError
+     * @return the combined scan result
+     */
+    private ScanResult scanMovieParallel(final VideoData videoData, final boolean throwTempError) {
+        final Object lock = new Object();
+        final List<Future<ScanResult>> futures = new ArrayList<>();
+        ScanResult primaryResult = null;
+        
+        for (String scanner : MOVIE_SCANNER) {
+            final PluginMovieScanner movieScanner = registeredMovieScanner.get(scanner);
+            if (movieScanner == null) {
+                LOG.warn("Movie scanner {} not registered", scanner);
+                futures.add(ConcurrentUtils.constantFuture(ScanResult.NO_RESULT));
+                continue;
+            }
+            
+            final WrapperMovie wrapper = new WrapperMovie(videoData, localeService, identifierService);
+            if (primaryResult == null) {
+                // the primary scanner provides the ids for the alternate scanners
+                primaryResult = scanMovie(movieScanner, videoData, wrapper, wrapper, throwTempError, true);
+                futures.add(ConcurrentUtils.constantFuture(primaryResult));
+                continue;
+            }
+
+            final boolean retryAllowed = ScanResult.SKIPPED.equals(primaryResult);
+            final IMovie movie = synchronizedProxy(IMovie.class, wrapper, lock);
+            futures.add(getExecutor().submit(new Callable<ScanResult>() {
+                @Override
+                public ScanResult call() {
+                    return scanMovie(movieScanner, videoData, wrapper, movie, throwTempError, retryAllowed);
+                }
+            }));
+        }
+        
+        final ScanResult scanResult = awaitScanResults(futures);
+        // credits are expected in the order of the scanners
+        sortBySource(videoData.getCreditDTOS(), MOVIE_SCANNER);
+        return scanResult;
+    }
+
     /**
      * Scan a series.
      * 
@@ -300,53 +361,28 @@ public class OnlineScannerService implements PluginMetadataService {
         
         final boolean throwTempError = this.throwTempUnavailableError();
         final boolean useAlternate = this.configServiceWrapper.getBooleanProperty("yamj3.sourcedb.scanner.person.alternate.always", false);
-        final WrapperPerson wrapper = new WrapperPerson(person);
         ScanResult scanResult = null;
         
-        for (String scanner : PERSON_SCANNER) {
-            // holds the inner scan result
-            ScanResult innerResult = ScanResult.NO_RESULT;
-            
-            PluginPersonScanner personScanner = registeredPersonScanner.get(scanner);
-            if (personScanner == null) {
-                LOG.warn("Person scanner {} not registered", scanner);
-            } else {
-                // scan person data
-                try {
-                    if (person.isSkippedScan(personScanner.getScannerName())) {
-                        LOG.info("Person scan skipped for '{}' using {}", person.getName(), personScanner.getScannerName());
-                        innerResult = ScanResult.SKIPPED;
-                    } else {
-                        LOG.info("Scanning person data for '{}' using {}", person.getName(), personScanner.getScannerName());
-                        innerResult = personScanner.scanPerson(wrapper, throwTempError);
-                    }
-                } catch (TemporaryUnavailableException ex) {
-                    // check retry
-                    if (scanResult == null && person.getRetries() < configServiceWrapper.getIntProperty("yamj3.error.maxRetries.person", 0)) {
-                        LOG.info(TEMP_UNAVAILABLE_ERROR, personScanner.getScannerName(), person.getName());
-                        innerResult = ScanResult.RETRY;
-                    } else {
-                        LOG.error("Temporary scanning error for person '{}' with {} scanner", person.getName(), personScanner.getScannerName());
-                        LOG.warn(SCANNING_ERROR, ex);
-                    }
-                } catch (Exception error) {
-                    LOG.error("Failed scanning person '{}' with {} scanner", person.getName(), personScanner.getScannerName());
-                    LOG.warn(SCANNING_ERROR, error);
+        if (useAlternate && this.configServiceWrapper.getBooleanProperty("yamj3.sourcedb.scanner.person.alternate.parallel", false)) {
+            scanResult = scanPersonParallel(person, throwTempError);
+        } else {
+            final WrapperPerson wrapper = new WrapperPerson(person);
+            for (String scanner : PERSON_SCANNER) {
+                // holds the inner scan result
+                ScanResult innerResult = ScanResult.NO_RESULT;
+                
+                PluginPersonScanner personScanner = registeredPersonScanner.get(scanner);
+                if (personScanner == null) {
+                    LOG.warn("Person scanner {} not registered", scanner);
+                } else {
+                    innerResult = scanPerson(personScanner, person, wrapper, wrapper, throwTempError, scanResult == null);
                 }
-            }
-            
-            if (ScanResult.OK.equals(innerResult)) {
-                // scanned OK
-                scanResult = ScanResult.OK;
-                // no alternate scanning then break the loop
-                if (!useAlternate) {
+                
+                scanResult = combineScanResult(scanResult, innerResult);
+                // no alternate scanning then break the loop if scanned OK
+                if (ScanResult.OK.equals(innerResult) && !useAlternate) {
                     break;
                 }
-            } else if (ScanResult.SKIPPED.equals(innerResult)) {
-                // change nothing if scan skipped and force next scan
-            } else {
-                // just set scan result to inner result if no scan result before
-                scanResult = scanResult == null ? innerResult : scanResult;
             }
         }
         
@@ -375,6 +411,72 @@ public class OnlineScannerService implements PluginMetadataService {
         }
     }
 
+    private ScanResult scanPerson(PluginPersonScanner personScanner, Person person, WrapperPerson wrapper, IPerson iPerson, boolean throwTempError, boolean retryAllowed) {
+        try {
+            if (person.isSkippedScan(personScanner.getScannerName())) {
+                LOG.info("Person scan skipped for '{}' using {}", person.getName(), personScanner.getScannerName());
+                return ScanResult.SKIPPED;
+            }
+            
+            LOG.info("Scanning person data for '{}' using {}", person.getName(), personScanner.getScannerName());
+            return personScanner.scanPerson(wrapper, iPerson, throwTempError);
+        } catch (TemporaryUnavailableException ex) {
+            // check retry
+            if (retryAllowed && person.getRetries() < configServiceWrapper.getIntProperty("yamj3.error.maxRetries.person", 0)) {
+                LOG.info(TEMP_UNAVAILABLE_ERROR, personScanner.getScannerName(), person.getName());
+                return ScanResult.RETRY;
+            }
+            LOG.error("Temporary scanning error for person '{}' with {} scanner", person.getName(), personScanner.getScannerName());
+            LOG.warn(SCANNING_ERROR, ex);
+        } catch (Exception error) {
+            LOG.error("Failed scanning person '{}' with {} scanner", person.getName(), personScanner.getScannerName());
+            LOG.warn(SCANNING_ERROR, error);
+        }
+        return ScanResult.NO_RESULT;
+    }
+
+    /**
+     * Scan a person with all scanners at once.
+     * 
+     * @param person
+     * @param throwTempError
+     * @return the combined scan result
+     * @see #scanMovieParallel(VideoData, boolean)
+     */
+    private ScanResult scanPersonParallel(final Person person, final boolean throwTempError) {
+        final Object lock = new Object();
+        final List<Future<ScanResult>> futures = new ArrayList<>();
+        ScanResult primaryResult = null;
+        
+        for (String scanner : PERSON_SCANNER) {
+            final PluginPersonScanner personScanner = registeredPersonScanner.get(scanner);
+            if (personScanner == null) {
+                LOG.warn("Person scanner {} not registered", scanner);
+                futures.add(ConcurrentUtils.constantFuture(ScanResult.NO_RESULT));
+                continue;
+            }
+            
+            final WrapperPerson wrapper = new WrapperPerson(person);
+            if (primaryResult == null) {
+                // the primary scanner provides the ids for the alternate scanners
+                primaryResult = scanPerson(personScanner, person, wrapper, wrapper, throwTempError, true);
+                futures.add(ConcurrentUtils.constantFuture(primaryResult));
+                continue;
+            }
+
+            final boolean retryAllowed = ScanResult.SKIPPED.equals(primaryResult);
+            final IPerson iPerson = synchronizedProxy(IPerson.class, wrapper, lock);
+            futures.add(getExecutor().submit(new Callable<ScanResult>() {
+                @Override
+                public ScanResult call() {
+                    return scanPerson(personScanner, person, wrapper, iPerson, throwTempError, retryAllowed);
+                }
+            }));
+        }
+        
+        return awaitScanResults(futures);
+    }
+
     /**
      * Scan a person.
      * 
@@ -463,6 +565,109 @@ public class OnlineScannerService implements PluginMetadataService {
         }
     }
 
+    /**
+     * Combine the scan result of a scanner with the scan result of the scanners before.
+     * 
+     * @param scanResult the scan result of the scanners before
+     * @param innerResult the scan result of the scanner
+     * @return the combined scan result
+     */
+    static ScanResult combineScanResult(ScanResult scanResult, ScanResult innerResult) {
+        if (ScanResult.OK.equals(innerResult)) {
+            return ScanResult.OK;
+        }
+        if (ScanResult.SKIPPED.equals(innerResult)) {
+            // change nothing if scan skipped and force next scan
+            return scanResult;
+        }
+        // just set scan result to inner result if no scan result before
+        return scanResult == null ? innerResult : scanResult;
+    }
+
+    private static ScanResult awaitScanResults(List<Future<ScanResult>> futures) {
+        ScanResult scanResult = null;
+        boolean interrupted = false;
+        
+        for (Future<ScanResult> future : futures) {
+            ScanResult innerResult = null;
+            while (innerResult == null) {
+                try {
+                    innerResult = future.get();
+                } catch (InterruptedException ex) {
+                    // all scanners must be finished before the data can be stored
+                    interrupted = true;
+                } catch (ExecutionException ex) {
+                    LOG.warn(SCANNING_ERROR, ex.getCause());
+                    innerResult = ScanResult.ERROR;
+                }
+            }
+            scanResult = combineScanResult(scanResult, innerResult);
+        }
+        
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+        return scanResult;
+    }
+
+    private static void sortBySource(Collection<CreditDTO> credits, Set<String> scanners) {
+        final List<String> order = new ArrayList<>(scanners);
+        final List<CreditDTO> sorted = new ArrayList<>(credits);
+        Collections.sort(sorted, new Comparator<CreditDTO>() {
+            @Override
+            public int compare(CreditDTO credit1, CreditDTO credit2) {
+                return Integer.compare(sourceIndex(credit1), sourceIndex(credit2));
+            }
+            
+            private int sourceIndex(CreditDTO credit) {
+                final int index = order.indexOf(StringUtils.lowerCase(credit.getSource()));
+                return index < 0 ? order.size() : index;
+            }
+        });
+        
+        credits.clear();
+        credits.addAll(sorted);
+    }
+
+    /**
+     * Create a proxy which serializes all calls to the target.
+     */
+    @SuppressWarnings("unchecked")
+    private static <T> T synchronizedProxy(Class<T> type, final T target, final Object lock) {
+        return (T) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[] {type}, new InvocationHandler() {
+            @Override
+            public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+                synchronized (lock) {
+                    try {
+                        return method.invoke(target, args);
+                    } catch (InvocationTargetException ex) {
+                        throw ex.getCause();
+                    }
+                }
+            }
+        });
+    }
+
+    private synchronized ExecutorService getExecutor() {
+        if (executor == null) {
+            final int maxThreads = Math.max(1, PropertyTools.getIntProperty("yamj3.sourcedb.scanner.parallel.maxThreads", 4));
+            ThreadPoolExecutor pool = new ThreadPoolExecutor(maxThreads, maxThreads, 60, TimeUnit.SECONDS,
+                            new LinkedBlockingQueue<Runnable>(),
+                            new BasicThreadFactory.Builder().namingPattern("OnlineScanner-%d").build());
+            pool.allowCoreThreadTimeOut(true);
+            executor = pool;
+        }
+        return executor;
+    }
+
+    @PreDestroy
+    public synchronized void shutdownExecutor() {
+        if (executor != null) {
+            executor.shutdownNow();
+            executor = null;
+        }
+    }
+
     public boolean scanNFO(String nfoContent, InfoDTO dto) {
         NfoScanner nfoScanner = null;
         if (dto.isTvShow()) {
@@ -27,6 +27,7 @@ import org.slf4j.LoggerFactory;
 import org.yamj.core.service.metadata.WrapperMovie;
 import org.yamj.plugin.api.metadata.MovieScanner;
 import org.yamj.plugin.api.metadata.NfoScanner;
+import org.yamj.plugin.api.model.IMovie;
 import org.yamj.plugin.api.model.IdMap;
 
 public class PluginMovieScanner implements NfoScanner {
@@ -48,19 +49,31 @@ public class PluginMovieScanner implements NfoScanner {
     }
     
     public ScanResult scanMovie(WrapperMovie wrapper, boolean throwTempError) {
+        return scanMovie(wrapper, wrapper, throwTempError);
+    }
+
+    /**
+     * Scan the movie; the plugin scanner works on the given movie, which may guard the wrapper.
+     * 
+     * @param wrapper the wrapper which holds the actual scanner
+     * @param movie the movie handed over to the plugin scanner
+     * @param throwTempError
+     * @return the scan result
+     */
+    public ScanResult scanMovie(WrapperMovie wrapper, IMovie movie, boolean throwTempError) {
         // set actual scanner
         wrapper.setScanner(movieScanner);
 
         // get the movie id
-        String movieId = movieScanner.getMovieId(wrapper, throwTempError);
+        String movieId = movieScanner.getMovieId(movie, throwTempError);
         if (!movieScanner.isValidMovieId(movieId)) {
-            LOG.debug("{} id not available '{}'", getScannerName(), wrapper.getTitle());
+            LOG.debug("{} id not available '{}'", getScannerName(), movie.getTitle());
             return ScanResult.MISSING_ID;
         }
         
-        final boolean scanned = movieScanner.scanMovie(wrapper, throwTempError);
+        final boolean scanned = movieScanner.scanMovie(movie, throwTempError);
         if (!scanned) {
-            LOG.error("Can't find {} informations for movie '{}'", getScannerName(), wrapper.getTitle());
+            LOG.error("Can't find {} informations for movie '{}'", getScannerName(), movie.getTitle());
             return ScanResult.NO_RESULT;
         }
         
@@ -27,6 +27,7 @@ import org.slf4j.LoggerFactory;
 import org.yamj.core.service.metadata.WrapperPerson;
 import org.yamj.plugin.api.metadata.MetadataScanner;
 import org.yamj.plugin.api.metadata.PersonScanner;
+import org.yamj.plugin.api.model.IPerson;
 
 public class PluginPersonScanner implements MetadataScanner {
 
@@ -47,19 +48,31 @@ public class PluginPersonScanner implements MetadataScanner {
     }
 
     public ScanResult scanPerson(WrapperPerson wrapper, boolean throwTempError) {
+        return scanPerson(wrapper, wrapper, throwTempError);
+    }
+
+    /**
+     * Scan the person; the plugin scanner works on the given person, which may guard the wrapper.
+     * 
+     * @param wrapper the wrapper which holds the actual scanner
+     * @param person the person handed over to the plugin scanner
+     * @param throwTempError
+     * @return the scan result
+     */
+    public ScanResult scanPerson(WrapperPerson wrapper, IPerson person, boolean throwTempError) {
         // set actual scanner
         wrapper.setScanner(personScanner);
 
         // get the person id
-        String personId = personScanner.getPersonId(wrapper, throwTempError);
+        String personId = personScanner.getPersonId(person, throwTempError);
         if (!personScanner.isValidPersonId(personId)) {
-            LOG.debug("{} id not available '{}'", getScannerName(), wrapper.getName());
+            LOG.debug("{} id not available '{}'", getScannerName(), person.getName());
             return ScanResult.MISSING_ID;
         }
 
-        final boolean scanned = personScanner.scanPerson(wrapper, throwTempError);
+        final boolean scanned = personScanner.scanPerson(person, throwTempError);
         if (!scanned) {
-            LOG.error("Can't find {} informations for person '{}'", getScannerName(), wrapper.getName());
+            LOG.error("Can't find {} informations for person '{}'", getScannerName(), person.getName());
             return ScanResult.NO_RESULT;
         }
         
@@ -0,0 +1,113 @@
+/*
+ *      Copyright (c) 2004-2015 YAMJ Members
+ *      https://github.com/organizations/YAMJ/teams
+ *
+ *      This file is part of the Yet Another Media Jukebox (YAMJ).
+ *
+ *      YAMJ is free software: you can redistribute it and/or modify
+ *      it under the terms of the GNU General Public License as published by
+ *      the Free Software Foundation, either version 3 of the License, or
+ *      any later version.
+ *
+ *      YAMJ is distributed in the hope that it will be useful,
+ *      but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *      MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *      GNU General Public License for more details.
+ *
+ *      You should have received a copy of the GNU General Public License
+ *      along with YAMJ.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ *      Web: https://github.com/YAMJ/yamj-v3
+ *
+ */
+package org.yamj.core.service.search;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * Inverted index of the terms of one column.
+ *
+ * Lookups run concurrently to updates; updates are serialized.
+ */
+final class SearchIndex {
+
+    // sorted terms for prefix lookups
+    private final ConcurrentNavigableMap<String, Set<Long>> postings = new ConcurrentSkipListMap<>();
+    // terms of each document for updates and removals
+    private final ConcurrentMap<Long, Set<String>> documents = new ConcurrentHashMap<>();
+
+    synchronized void put(Long id, Set<String> terms) {
+        remove(id);
+        if (terms.isEmpty()) {
+            return;
+        }
+        
+        documents.put(id, terms);
+        for (String term : terms) {
+            Set<Long> ids = postings.get(term);
+            if (ids == null) {
+                ids = Collections.newSetFromMap(new ConcurrentHashMap<Long, Boolean>());
+                postings.put(term, ids);
+            }
+            ids.add(id);
+        }
+    }
+
+    synchronized void remove(Long id) {
+        Set<String> terms = documents.remove(id);
+        if (terms == null) {
+            return;
+        }
+        
+        for (String term : terms) {
+            Set<Long> ids = postings.get(term);
+            if (ids != null) {
+                ids.remove(id);
+                if (ids.isEmpty()) {
+                    postings.remove(term);
+                }
+            }
+        }
+    }
+
+    Set<Long> getIds() {
+        return new HashSet<>(documents.keySet());
+    }
+
+    /**
+     * Find the documents with a term starting with the prefix.
+     *
+     * @param prefix
+     * @param maxResults
+     * @return the document ids or null if more than the maximal results are found
+     */
+    Set<Long> findPrefix(String prefix, int maxResults) {
+        Set<Long> result = new HashSet<>();
+        for (Set<Long> ids : postings.subMap(prefix, true, prefix + Character.MAX_VALUE, false).values()) {
+            result.addAll(ids);
+            if (result.size() > maxResults) {
+                return null;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Check if the document has a term starting with the prefix.
+     */
+    boolean matches(Long id, String prefix) {
+        Set<String> terms = documents.get(id);
+        if (terms != null) {
+            for (String term : terms) {
+                if (term.startsWith(prefix)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,298 @@
+/*
+ *      Copyright (c) 2004-2015 YAMJ Members
+ *      https://github.com/organizations/YAMJ/teams
+ *
+ *      This file is part of the Yet Another Media Jukebox (YAMJ).
+ *
+ *      YAMJ is free software: you can redistribute it and/or modify
+ *      it under the terms of the GNU General Public License as published by
+ *      the Free Software Foundation, either version 3 of the License, or
+ *      any later version.
+ *
+ *      YAMJ is distributed in the hope that it will be useful,
+ *      but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *      MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *      GNU General Public License for more details.
+ *
+ *      You should have received a copy of the GNU General Public License
+ *      along with YAMJ.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ *      Web: https://github.com/YAMJ/yamj-v3
+ *
+ */
+package org.yamj.core.service.search;
+
+import java.io.IOException;
+import java.util.*;
+import java.util.regex.Pattern;
+import javax.annotation.PostConstruct;
+import org.apache.commons.lang3.StringUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.yamj.common.tools.PropertyTools;
+import org.yamj.core.api.options.IOptionsSearch;
+import org.yamj.core.database.dao.MetadataDao;
+import org.yamj.core.database.model.*;
+import org.yamj.core.database.model.dto.SearchEntryDTO;
+import org.yamj.core.database.model.type.SearchType;
+import org.yamj.core.hibernate.IChunkHandler;
+import org.yamj.core.service.various.IdentifierService;
+
+/**
+ * In-process search index over the titles of the videos, seasons and series and the names of the persons.
+ *
+ * The search terms are the words of the values cleaned like identifiers, so the search is
+ * case and accent insensitive and matches the start of the words. The index is updated when
+ * scanned metadata has been committed and rebuilt periodically to cover the changes of other
+ * core nodes. Until the index is built, and for searches which the index cannot answer, the
+ * API falls back to the SQL search, which applies the same word start rule to the indexed columns.
+ */
+@Service("searchIndexService")
+public class SearchIndexService {
+
+    private static final Logger LOG = LoggerFactory.getLogger(SearchIndexService.class);
+    private static final Pattern WORD_SEPARATOR = Pattern.compile("[\\s\\-\\(\\)]+");
+    // marks the first word of a value for searches at the start
+    private static final String FIRST_WORD = "^";
+    private static final int CHUNK_SIZE = 1000;
+
+    @Autowired
+    private MetadataDao metadataDao;
+    @Autowired
+    private IdentifierService identifierService;
+
+    private final Map<SearchType, Map<String, SearchIndex>> indexes = new EnumMap<>(SearchType.class);
+    private boolean enabled;
+    private int maxResults;
+    private volatile boolean ready = false;
+
+    @PostConstruct
+    public void init() {
+        LOG.trace("Initialize search index service");
+
+        enabled = PropertyTools.getBooleanProperty("yamj3.search.index.enabled", true);
+        maxResults = Math.max(1, PropertyTools.getIntProperty("yamj3.search.index.maxResults", 1000));
+        
+        for (SearchType searchType : SearchType.values()) {
+            Map<String, SearchIndex> columnIndexes = new HashMap<>();
+            for (String column : searchType.getColumns()) {
+                columnIndexes.put(column, new SearchIndex());
+            }
+            indexes.put(searchType, columnIndexes);
+        }
+    }
+
+    @Scheduled(initialDelay = 15000, fixedDelay = 600000)
+    public void rebuild() {
+        if (!enabled) {
+            return;
+        }
+
+        final long start = System.currentTimeMillis();
+        try {
+            for (SearchType searchType : SearchType.values()) {
+                rebuild(searchType);
+            }
+            ready = true;
+            LOG.debug("Rebuilt search index in {} ms", System.currentTimeMillis() - start);
+        } catch (Exception ex) {
+            LOG.error("Failed to rebuild search index: {}", ex.getMessage());
+            LOG.warn("Search index error", ex);
+        }
+    }
+
+    private void rebuild(final SearchType searchType) throws IOException {
+        final Map<String, SearchIndex> columnIndexes = indexes.get(searchType);
+        final Map<String, Set<Long>> indexedIds = new HashMap<>();
+        for (Map.Entry<String, SearchIndex> entry : columnIndexes.entrySet()) {
+            indexedIds.put(entry.getKey(), entry.getValue().getIds());
+        }
+        
+        final Set<Long> foundIds = new HashSet<>();
+        metadataDao.scrollSearchEntries(searchType, CHUNK_SIZE, new IChunkHandler<SearchEntryDTO>() {
+            @Override
+            public void handleChunk(List<SearchEntryDTO> chunk) {
+                for (SearchEntryDTO entry : chunk) {
+                    index(searchType, entry.getId(), entry.getValues());
+                    foundIds.add(entry.getId());
+                }
+            }
+        });
+
+        // remove the deleted entries which were indexed before the rebuild
+        for (Map.Entry<String, Set<Long>> entry : indexedIds.entrySet()) {
+            SearchIndex index = columnIndexes.get(entry.getKey());
+            for (Long id : entry.getValue()) {
+                if (!foundIds.contains(id)) {
+                    index.remove(id);
+                }
+            }
+        }
+    }
+
+    /**
+     * Update the index with the titles of the metadata after the current transaction has been committed
+     * 
+     * @param metadata
+     */
+    public void update(AbstractMetadata metadata) {
+        final SearchType searchType;
+        if (metadata instanceof VideoData) {
+            searchType = SearchType.VIDEODATA;
+        } else if (metadata instanceof Season) {
+            searchType = SearchType.SEASON;
+        } else {
+            searchType = SearchType.SERIES;
+        }
+        update(searchType, metadata.getId(), metadata.getTitle(), metadata.getTitleOriginal(), metadata.getTitleSort());
+    }
+
+    /**
+     * Update the index with the name of the person after the current transaction has been committed
+     * 
+     * @param person
+     */
+    public void update(Person person) {
+        update(SearchType.PERSON, person.getId(), person.getName());
+    }
+
+    private void update(final SearchType searchType, final Long id, final String... values) {
+        if (!enabled) {
+            return;
+        }
+        
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter() {
+                @Override
+                public void afterCommit() {
+                    index(searchType, id, values);
+                }
+            });
+        } else {
+            index(searchType, id, values);
+        }
+    }
+
+    private void index(SearchType searchType, Long id, String... values) {
+        final Map<String, SearchIndex> columnIndexes = indexes.get(searchType);
+        final List<String> columns = searchType.getColumns();
+        for (int i = 0; i < columns.size(); i++) {
+            final String value = i < values.length ? values[i] : null;
+            columnIndexes.get(columns.get(i)).put(id, getTerms(value));
+        }
+    }
+
+    private Set<String> getTerms(String value) {
+        List<String> words = getWords(value);
+        if (words.isEmpty()) {
+            return Collections.emptySet();
+        }
+        
+        Set<String> terms = new HashSet<>(words);
+        terms.add(FIRST_WORD + words.get(0));
+        return terms;
+    }
+
+    private List<String> getWords(String value) {
+        final String cleaned = StringUtils.lowerCase(identifierService.cleanIdentifier(value));
+        if (cleaned == null) {
+            return Collections.emptyList();
+        }
+
+        List<String> words = new ArrayList<>();
+        for (String word : WORD_SEPARATOR.split(cleaned)) {
+            if (word.length() > 0) {
+                words.add(word);
+            }
+        }
+        return words;
+    }
+
+    /**
+     * Resolve the search of the options with the index.
+     * 
+     * The found ids are set in the options for each search type which could be answered by the index.
+     * 
+     * @param options
+     * @param searchTypes
+     */
+    public void resolve(IOptionsSearch options, SearchType... searchTypes) {
+        for (SearchType searchType : searchTypes) {
+            Collection<Long> ids = find(searchType, options.getField(), options.getSearch(), options.getMode());
+            if (ids != null) {
+                options.setSearchIds(searchType, ids);
+            }
+        }
+    }
+
+    /**
+     * Find the ids whose field contains words starting with all words of the search.
+     * 
+     * @param searchType
+     * @param field the searched column, optionally with table alias
+     * @param search
+     * @param mode the search mode; just ANY and START are supported
+     * @return the found ids or null if the search can not be answered by the index
+     */
+    public Collection<Long> find(SearchType searchType, String field, String search, String mode) {
+        if (!ready || StringUtils.isBlank(search)) {
+            return null;
+        }
+        
+        final boolean start = "START".equalsIgnoreCase(mode);
+        if (!start && StringUtils.isNotBlank(mode) && !"ANY".equalsIgnoreCase(mode)) {
+            // END and EXACT need the SQL search
+            return null;
+        }
+        
+        final String column = searchType.getColumn(field);
+        if (column == null) {
+            return null;
+        }
+        final SearchIndex index = indexes.get(searchType).get(column);
+        
+        final List<String> words = getWords(search);
+        if (words.isEmpty()) {
+            return null;
+        }
+        
+        // look up the selective words and filter the candidates by the others
+        Set<Long> result = null;
+        List<String> unselective = new ArrayList<>();
+        for (int i = 0; i < words.size(); i++) {
+            final String prefix = (start && i == 0) ? FIRST_WORD + words.get(i) : words.get(i);
+            Set<Long> ids = index.findPrefix(prefix, maxResults);
+            if (ids == null) {
+                unselective.add(prefix);
+            } else if (result == null) {
+                result = ids;
+            } else {
+                result.retainAll(ids);
+            }
+            
+            if (result != null && result.isEmpty()) {
+                return result;
+            }
+        }
+        
+        if (result == null) {
+            // too many results; let the database do the search
+            return null;
+        }
+        
+        for (String prefix : unselective) {
+            Iterator<Long> iter = result.iterator();
+            while (iter.hasNext()) {
+                if (!index.matches(iter.next(), prefix)) {
+                    iter.remove();
+                }
+            }
+        }
+        return result;
+    }
+}
@@ -22,9 +22,9 @@
  */
 package org.yamj.core.service.various;
 
-import java.util.HashSet;
-import java.util.List;
-import java.util.Set;
+import java.util.*;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.locks.ReentrantLock;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -39,6 +39,11 @@ import org.yamj.core.service.file.FileStorageService;
 /**
  * Task for checking if video, series or person is older than x days and marks
  * those data entries as updated in order to force a rescan.
+ * 
+ * The entities are deleted in chunks, each chunk in its own transaction. If a chunk
+ * fails then the entities of that chunk are deleted one by one. The cached files are
+ * deleted in parallel while the next chunks are processed; the deletion lock is released
+ * before waiting for them.
  */
 @Service("deletionService")
 public class DeletionService {
@@ -52,51 +57,71 @@ public class DeletionService {
     private ConfigService configService;
     @Autowired
     private ArtworkScanScheduler artworkScanScheduler;
+    @Autowired
+    private FileStorageService fileStorageService;
     
     public void executeAllDeletions() {
         if (DELETION_LOCK.tryLock()) {
+            final List<Future<?>> fileDeletions;
             try {
-                this.doExecuteAllDeletions();
+                fileDeletions = this.doExecuteAllDeletions();
             } finally {
                 DELETION_LOCK.unlock();
             }
+            
+            // wait until storage files are deleted
+            FileStorageService.awaitDeletions(fileDeletions);
         }
     }
     
-    private void doExecuteAllDeletions() {
-        Set<String> filesToDelete = new HashSet<>();
+    private List<Future<?>> doExecuteAllDeletions() {
+        final int chunkSize = Math.max(1, this.configService.getIntProperty("yamj3.delete.chunkSize", 200));
+        final List<Future<?>> fileDeletions = new ArrayList<>();
 
         try {
             List<Long> ids = this.commonStorageService.getStageFilesForDeletion();
             // delete stage files
-            for (Long id : ids) {
-                try {
-                    filesToDelete.addAll(this.commonStorageService.deleteStageFile(id));
-                } catch (Exception ex) {
-                    LOG.error("Failed to delete stage file ID: "+id, ex);
+            deleteInChunks("stage file", ids, chunkSize, fileDeletions, new ChunkDeletion() {
+                @Override
+                public Set<String> delete(List<Long> chunk) {
+                    return commonStorageService.deleteStageFiles(chunk);
                 }
-            }
+
+                @Override
+                public Set<String> delete(Long id) {
+                    return commonStorageService.deleteStageFile(id);
+                }
+            });
         } catch (Exception ex) {
             LOG.warn("Failed to retrieve stage files to delete", ex);
         }
 
         try {
             List<Long> ids = this.commonStorageService.getArtworkLocatedForDeletion();
-            boolean updateTrigger = false;
+            final AtomicBoolean updateTrigger = new AtomicBoolean(false);
                 
-            // delete stage files
-            for (Long id : ids) {
-                try {
-                    DeletionDTO dto = this.commonStorageService.deleteArtworkLocated(id);
-                    filesToDelete.addAll(dto.getFilesToDelete());
-                    updateTrigger = updateTrigger || dto.isUpdateTrigger();
-                } catch (Exception ex) {
-                    LOG.error("Failed to delete located artwork ID: "+id, ex);
+            // delete located artwork
+            deleteInChunks("located artwork", ids, chunkSize, fileDeletions, new ChunkDeletion() {
+                @Override
+                public Set<String> delete(List<Long> chunk) {
+                    return handle(commonStorageService.deleteArtworkLocated(chunk));
                 }
-            }
+
+                @Override
+                public Set<String> delete(Long id) {
+                    return handle(commonStorageService.deleteArtworkLocated(id));
+                }
+                
+                private Set<String> handle(DeletionDTO dto) {
+                    if (dto.isUpdateTrigger()) {
+                        updateTrigger.set(true);
+                    }
+                    return dto.getFilesToDelete();
+                }
+            });
             
             // trigger artwork scan
-            if (updateTrigger) {
+            if (updateTrigger.get()) {
                 artworkScanScheduler.trigger();
             }
         } catch (Exception ex) {
@@ -107,16 +132,18 @@ public class DeletionService {
             List<Long> ids = this.commonStorageService.getTrailersToDelete();
 
             // delete trailers
-            for (Long id : ids) {
-                try {
-                    String fileToDelete  = this.commonStorageService.deleteTrailer(id);
-                    if (fileToDelete != null) {
-                       filesToDelete.add(fileToDelete);
-                    }
-                } catch (Exception ex) {
-                    LOG.error("Failed to delete trailer ID: "+id, ex);
+            deleteInChunks("trailer", ids, chunkSize, fileDeletions, new ChunkDeletion() {
+                @Override
+                public Set<String> delete(List<Long> chunk) {
+                    return commonStorageService.deleteTrailers(chunk);
                 }
-            }
+
+                @Override
+                public Set<String> delete(Long id) {
+                    String fileToDelete = commonStorageService.deleteTrailer(id);
+                    return fileToDelete == null ? Collections.<String>emptySet() : Collections.singleton(fileToDelete);
+                }
+            });
         } catch (Exception ex) {
             LOG.warn("Failed to retrieve trailers to delete", ex);
         }
@@ -125,18 +152,21 @@ public class DeletionService {
         if (this.configService.getBooleanProperty("yamj3.delete.orphan.person", true)) {
             try {
                 List<Long> ids = this.commonStorageService.getOrphanPersons();
-                for (Long id : ids) {
-                    try {
-                        filesToDelete.addAll(this.commonStorageService.deletePerson(id));
-                    } catch (Exception ex) {
-                        LOG.error("Failed to delete person ID: "+id, ex);
+                deleteInChunks("person", ids, chunkSize, fileDeletions, new ChunkDeletion() {
+                    @Override
+                    public Set<String> delete(List<Long> chunk) {
+                        return commonStorageService.deletePersons(chunk);
                     }
-                }
+
+                    @Override
+                    public Set<String> delete(Long id) {
+                        return commonStorageService.deletePerson(id);
+                    }
+                });
             } catch (Exception ex) {
                 LOG.warn("Failed to retrieve orphan persons", ex);
             }
         }
-
         // delete orphan genres if allowed
         if (this.configService.getBooleanProperty("yamj3.delete.orphan.genre", true)) {
             try {
@@ -186,19 +216,71 @@ public class DeletionService {
         if (this.configService.getBooleanProperty("yamj3.delete.orphan.boxedset", true)) {
             try {
                 List<Long> ids = this.commonStorageService.getOrphanBoxedSets();
-                for (Long id : ids) {
-                    try {
-                        filesToDelete.addAll(this.commonStorageService.deleteBoxedSet(id));
-                    } catch (Exception ex) {
-                        LOG.error("Failed to delete boxed set ID: "+id, ex);
+                deleteInChunks("boxed set", ids, chunkSize, fileDeletions, new ChunkDeletion() {
+                    @Override
+                    public Set<String> delete(List<Long> chunk) {
+                        return commonStorageService.deleteBoxedSets(chunk);
                     }
-                }
+
+                    @Override
+                    public Set<String> delete(Long id) {
+                        return commonStorageService.deleteBoxedSet(id);
+                    }
+                });
             } catch (Exception ex) {
                 LOG.warn("Failed to retrieve orphan boxed sets", ex);
             }
         }
 
-        // delete storage files
-        FileStorageService.deleteStorageFiles(filesToDelete);
+        return fileDeletions;
+    }
+
+    /**
+     * Delete the entities in chunks and the storage files of each chunk in parallel.
+     * 
+     * If a chunk fails, then the entities of the chunk are deleted one by one.
+     * 
+     * @param entityName the name of the entity for logging
+     * @param ids the IDs of the entities to delete
+     * @param chunkSize the chunk size
+     * @param fileDeletions the pending deletions of storage files
+     * @param deletion the deletion of a chunk and a single entity
+     */
+    private void deleteInChunks(String entityName, List<Long> ids, int chunkSize, List<Future<?>> fileDeletions, ChunkDeletion deletion) {
+        for (List<Long> chunk : partition(ids, chunkSize)) {
+            Set<String> filesToDelete;
+            try {
+                filesToDelete = deletion.delete(chunk);
+            } catch (Exception ex) {
+                LOG.debug("Failed to delete chunk of {} entries, deleting one by one", entityName, ex);
+                filesToDelete = new HashSet<>();
+                for (Long id : chunk) {
+                    try {
+                        filesToDelete.addAll(deletion.delete(id));
+                    } catch (Exception ex2) {
+                        LOG.error("Failed to delete " + entityName + " ID: " + id, ex2);
+                    }
+                }
+            }
+            fileDeletions.addAll(this.fileStorageService.deleteStorageFilesInParallel(filesToDelete));
+        }
+    }
+
+    /**
+     * Deletes the entities of a chunk or a single entity.
+     */
+    private interface ChunkDeletion {
+
+        Set<String> delete(List<Long> chunk);
+
+        Set<String> delete(Long id);
+    }
+
+    private static List<List<Long>> partition(List<Long> ids, int chunkSize) {
+        List<List<Long>> chunks = new ArrayList<>();
+        for (int i = 0; i < ids.size(); i += chunkSize) {
+            chunks.add(ids.subList(i, Math.min(ids.size(), i + chunkSize)));
+        }
+        return chunks;
     }
 }
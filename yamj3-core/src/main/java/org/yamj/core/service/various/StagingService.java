@@ -27,6 +27,7 @@ import static org.yamj.common.type.StatusType.DUPLICATE;
 import static org.yamj.common.type.StatusType.NEW;
 import static org.yamj.common.type.StatusType.UPDATED;
 import static org.yamj.core.database.Literals.LITERAL_ID;
+import static org.yamj.core.database.Literals.LITERAL_LIBRARY;
 import static org.yamj.core.database.Literals.LITERAL_STATUS;
 import static org.yamj.core.database.model.type.FileType.VIDEO;
 import static org.yamj.core.tools.YamjTools.split;
@@ -67,6 +68,7 @@ import org.yamj.core.service.mediaimport.FilenameScanner;
 public class StagingService {
 
     private static final Logger LOG = LoggerFactory.getLogger(StagingService.class);
+    private static final int BATCH_FLUSH_SIZE = 50;
 
     @Autowired
     private StagingDao stagingDao;
@@ -113,6 +115,48 @@ public class StagingService {
 			}
     }
 
+    @Transactional(readOnly = true)
+    public Long getLibraryId(String client, String baseDirectory) {
+        Library library = stagingDao.getLibrary(client, baseDirectory);
+        if (library == null) {
+            // the base directory is stored with slashes
+            library = stagingDao.getLibrary(client, StringUtils.replace(baseDirectory, "\\", "/"));
+        }
+        return library == null ? null : library.getId();
+    }
+
+    /**
+     * Store a batch of scanned directories in one transaction.
+     * 
+     * The library of the directories is only stored once per batch and the
+     * session is flushed in chunks, so that the changes are sent to the
+     * database in JDBC batches.
+     *
+     * @param importDTOs the scanned directories
+     */
+    @Transactional
+    public void storeStageDirectories(List<ImportDTO> importDTOs) {
+        Map<String, Library> libraries = new HashMap<>();
+        int stored = 0;
+        
+        for (ImportDTO importDTO : importDTOs) {
+            final String libraryKey = importDTO.getClient() + "|" + FilenameUtils.normalizeNoEndSeparator(importDTO.getBaseDirectory(), true);
+            Library library = libraries.get(libraryKey);
+            if (library == null) {
+                library = storeLibrary(importDTO);
+                libraries.put(libraryKey, library);
+            }
+            
+            storeStageDirectory(importDTO.getStageDirectory(), library);
+            
+            if (++stored % BATCH_FLUSH_SIZE == 0) {
+                stagingDao.flushAndClear();
+            }
+        }
+        
+        LOG.debug("Stored batch of {} directories for {} libraries", stored, libraries.size());
+    }
+
     @Transactional
     public void storeStageDirectory(StageDirectoryDTO stageDirectoryDTO, Library library) {
         // normalize the directory path
@@ -389,6 +433,43 @@ public class StagingService {
         return false;
     }
     
+    /**
+     * Mark all stage files of the given directories as deleted.
+     *
+     * @param client the client of the library
+     * @param baseDirectory the base directory of the library
+     * @param directoryPaths the paths of the vanished directories
+     * @return the number of stage files marked as deleted
+     */
+    @Transactional
+    public int markStageDirectoriesAsDeleted(String client, String baseDirectory, List<String> directoryPaths) {
+        Library library = stagingDao.getLibrary(client, baseDirectory);
+        if (library == null) {
+            library = stagingDao.getLibrary(client, FilenameUtils.normalizeNoEndSeparator(baseDirectory, true));
+        }
+        if (library == null) {
+            LOG.warn("Library '{}' not found for client '{}'", baseDirectory, client);
+            return 0;
+        }
+        
+        List<String> normalized = new ArrayList<>(directoryPaths.size());
+        for (String directoryPath : directoryPaths) {
+            normalized.add(FilenameUtils.normalizeNoEndSeparator(directoryPath, true));
+        }
+        
+        Map<String, Object> params = new HashMap<>(3);
+        params.put(LITERAL_STATUS, DELETED);
+        params.put(LITERAL_LIBRARY, library);
+        
+        int updated = 0;
+        for (List<String> subList : split(normalized, 500)) {
+            params.put("directoryPaths", subList);
+            updated += this.stagingDao.executeUpdate(StageFile.UPDATE_STATUS_DIRECTORIES, params);
+        }
+        LOG.debug("Marked {} stage files of {} vanished directories as deleted", updated, directoryPaths.size());
+        return updated;
+    }
+
     @Transactional
     public void markStageFilesAsDeleted(List<Long> stageFileIds) {
         Map<String, Object> params = new HashMap<>(2);
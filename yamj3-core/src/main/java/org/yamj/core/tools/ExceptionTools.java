@@ -25,10 +25,13 @@ package org.yamj.core.tools;
 import javax.persistence.LockTimeoutException;
 import javax.persistence.OptimisticLockException;
 import javax.persistence.PessimisticLockException;
+import org.apache.commons.lang3.exception.ExceptionUtils;
 import org.hibernate.StaleStateException;
 import org.hibernate.dialect.lock.LockingStrategyException;
+import org.hibernate.exception.ConstraintViolationException;
 import org.hibernate.exception.LockAcquisitionException;
 import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.yamj.api.common.exception.ApiException;
 import org.yamj.api.common.exception.ApiExceptionType;
 
@@ -65,6 +68,18 @@ public final class ExceptionTools {
         return result;
     }
     
+    /**
+     * Check if the exception or one of its causes is a constraint violation;
+     * Spring and Hibernate may wrap the violation in other exceptions.
+     * 
+     * @param e the exception
+     * @return true, if the exception has been caused by a constraint violation
+     */
+    public static boolean isConstraintViolation(Exception e) {
+        return ExceptionUtils.indexOfType(e, DataIntegrityViolationException.class) >= 0
+            || ExceptionUtils.indexOfType(e, ConstraintViolationException.class) >= 0;
+    }
+
     public static boolean is404(ApiException ex) {
         return ApiExceptionType.HTTP_404_ERROR.equals(ex.getExceptionType());
     }
@@ -0,0 +1,70 @@
+/*
+ *      Copyright (c) 2004-2015 YAMJ Members
+ *      https://github.com/organizations/YAMJ/teams
+ *
+ *      This file is part of the Yet Another Media Jukebox (YAMJ).
+ *
+ *      YAMJ is free software: you can redistribute it and/or modify
+ *      it under the terms of the GNU General Public License as published by
+ *      the Free Software Foundation, either version 3 of the License, or
+ *      any later version.
+ *
+ *      YAMJ is distributed in the hope that it will be useful,
+ *      but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *      MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *      GNU General Public License for more details.
+ *
+ *      You should have received a copy of the GNU General Public License
+ *      along with YAMJ.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ *      Web: https://github.com/YAMJ/yamj-v3
+ *
+ */
+package org.yamj.core.tools;
+
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * A fixed set of locks where each key is mapped to one lock.
+ *
+ * Equal keys always get the same lock, so that work on the same key is
+ * serialised while work on different keys rarely has to wait.
+ */
+public final class StripedLock {
+
+    private final ReentrantLock[] locks;
+
+    /**
+     * Create the striped lock
+     *
+     * @param stripes the number of locks; rounded up to a power of two
+     */
+    public StripedLock(int stripes) {
+        int size = 1;
+        while (size < stripes) {
+            size <<= 1;
+        }
+        this.locks = new ReentrantLock[size];
+        for (int i = 0; i < size; i++) {
+            this.locks[i] = new ReentrantLock();
+        }
+    }
+
+    /**
+     * Get the lock for the given key.
+     *
+     * @param key the key; null keys share one lock
+     * @return the lock
+     */
+    public Lock get(Object key) {
+        return locks[index(key)];
+    }
+
+    private int index(Object key) {
+        int hash = key == null ? 0 : key.hashCode();
+        // spread the hash, so that keys differing in the higher bits get different locks
+        hash ^= (hash >>> 16);
+        return hash & (locks.length - 1);
+    }
+}
@@ -45,29 +45,64 @@ public final class GraphicTools {
         throw new UnsupportedOperationException("Utility class cannot be instantiated");
     }
 
-    public static Dimension getDimension(String url) throws IOException {
-        try (InputStream in = new URL(url).openStream();
-             ImageInputStream iis = ImageIO.createImageInputStream(in))
-         {
-
-            final Iterator<ImageReader> readers = ImageIO.getImageReaders(iis);
-            if (readers.hasNext()) {
-                ImageReader reader = readers.next();
+    /**
+     * Get the dimension of an image file; just the header of the image is read
+     *
+     * @param fileImage
+     * @return the dimension or an empty dimension if the image type is unknown
+     * @throws IOException
+     */
+    public static Dimension getDimension(File fileImage) throws IOException {
+        if (!fileImage.exists()) {
+            throw new FileNotFoundException("Image file '" + fileImage.getName() + "' does not exist");
+        }
+        try (ImageInputStream iis = ImageIO.createImageInputStream(fileImage)) {
+            return readDimension(iis);
+        }
+    }
+
+    private static Dimension readDimension(ImageInputStream iis) throws IOException {
+        if (iis == null) {
+            return new Dimension();
+        }
+        
+        final Iterator<ImageReader> readers = ImageIO.getImageReaders(iis);
+        if (readers.hasNext()) {
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(iis, true);
+                return new Dimension(reader.getWidth(0), reader.getHeight(0));
+            } finally {
                 try {
-                    reader.setInput(iis, true);
-                    return new Dimension(reader.getWidth(0), reader.getHeight(0));
-                } finally {
-                    try {
-                        reader.dispose();
-                    } catch (Exception ignore) { //NOSONAR
-                        // ignore any error on dispose
-                    }
+                    reader.dispose();
+                } catch (Exception ignore) { //NOSONAR
+                    // ignore any error on dispose
                 }
             }
         }
         return new Dimension();
     }
 
+    /**
+     * Get the power of two subsampling which decodes an image still covering the minimal size
+     *
+     * @param width the width of the image
+     * @param height the height of the image
+     * @param minWidth the minimal width of the decoded image
+     * @param minHeight the minimal height of the decoded image
+     * @return the subsampling factor
+     */
+    public static int getSubsampling(int width, int height, int minWidth, int minHeight) {
+        int factor = 1;
+        if (minWidth <= 0 || minHeight <= 0) {
+            return factor;
+        }
+        while (width / (factor * 2) >= minWidth && height / (factor * 2) >= minHeight) {
+            factor *= 2;
+        }
+        return factor;
+    }
+
     /**
      * Load a JPG image from a file
      *
@@ -77,11 +112,25 @@ public final class GraphicTools {
      * @throws ImageReadException
      */
     public static BufferedImage loadJPEGImage(File fileImage) throws IOException, ImageReadException { //NOSONAR
+        return loadJPEGImage(fileImage, 0, 0);
+    }
+
+    /**
+     * Load a JPG image from a file, subsampled while decoding so that the image still covers the minimal size
+     *
+     * @param fileImage
+     * @param minWidth the minimal width of the image; 0 to load the full image
+     * @param minHeight the minimal height of the image; 0 to load the full image
+     * @return
+     * @throws IOException
+     * @throws ImageReadException
+     */
+    public static BufferedImage loadJPEGImage(File fileImage, int minWidth, int minHeight) throws IOException, ImageReadException { //NOSONAR
         if (!fileImage.exists()) {
             throw new FileNotFoundException("Image file '" + fileImage.getName() + "' does not exist");
         }
         JpegReader jr = new JpegReader();
-        BufferedImage bi = jr.readImage(fileImage);
+        BufferedImage bi = jr.readImage(fileImage, minWidth, minHeight);
         if (bi == null) {
             // null means: the image is invalid and couldn't be loaded
             throw new ImageReadException("Image file '" + fileImage.getName() + "' is invalid");
@@ -133,25 +182,15 @@ public final class GraphicTools {
             y = nMaxHeight - tempHeight;
         }
 
-        Image temp1 = imgSrc.getScaledInstance(tempWidth, tempHeight, Image.SCALE_SMOOTH);
-        BufferedImage bi = new BufferedImage(nMaxWidth, nMaxHeight, BufferedImage.TYPE_INT_ARGB);
-        bi.createGraphics().drawImage(temp1, 0, y, null);
+        // the area above the image stays transparent
+        int imageType = y > 0 ? BufferedImage.TYPE_INT_ARGB : ImageScaler.imageType(imgSrc);
+        BufferedImage bi = new BufferedImage(nMaxWidth, nMaxHeight, imageType);
+        ImageScaler.draw(imgSrc, bi, 0, y, tempWidth, tempHeight);
         return bi;
     }
 
     public static BufferedImage scaleToSizeStretch(int nMaxWidth, int nMaxHeight, BufferedImage imgSrc) {
-        /* determine thumbnail size from WIDTH and HEIGHT */
-
-        int tempWidth;
-        int tempHeight;
-
-        tempWidth = nMaxWidth;
-        tempHeight = nMaxHeight;
-
-        Image temp1 = imgSrc.getScaledInstance(tempWidth, tempHeight, Image.SCALE_SMOOTH);
-        BufferedImage bi = new BufferedImage(nMaxWidth, nMaxHeight, BufferedImage.TYPE_INT_ARGB);
-        bi.createGraphics().drawImage(temp1, 0, 0, null);
-        return bi;
+        return ImageScaler.scale(imgSrc, nMaxWidth, nMaxHeight);
     }
 
     public static BufferedImage scaleToSizeBestFit(int nMaxWidth, BufferedImage imgSrc) {
@@ -165,10 +204,7 @@ public final class GraphicTools {
         tempWidth = nMaxWidth;
         tempHeight = (int) (((double) imageHeight * (double) nMaxWidth) / imageWidth);
 
-        Image temp1 = imgSrc.getScaledInstance(tempWidth, tempHeight, Image.SCALE_SMOOTH);
-        BufferedImage bi = new BufferedImage(tempWidth, tempHeight, BufferedImage.TYPE_INT_ARGB);
-        bi.createGraphics().drawImage(temp1, 0, 0, null);
-        return bi;
+        return ImageScaler.scale(imgSrc, tempWidth, tempHeight);
     }
 
     public static BufferedImage scaleToSizeNormalized(int nMaxWidth, int nMaxHeight, BufferedImage imgSrc) {
@@ -179,21 +215,18 @@ public final class GraphicTools {
         double imageRatio = (double) imageHeight / (double) imageWidth;
         double thumbnailRatio = (double) nMaxHeight / (double) nMaxWidth;
 
-        int tempWidth;
-        int tempHeight;
+        // crop the source to the thumbnail ratio, so only the visible part gets scaled
+        int cropWidth = imageWidth;
+        int cropHeight = imageHeight;
 
         if (imageRatio > thumbnailRatio) {
-            tempWidth = nMaxWidth;
-            tempHeight = (int) (((double) imageHeight * (double) nMaxWidth) / imageWidth);
+            cropHeight = Math.max(1, Math.min(imageHeight, (int) Math.round(imageWidth * thumbnailRatio)));
         } else {
-            tempWidth = (int) (((double) imageWidth * (double) nMaxHeight) / imageHeight);
-            tempHeight = nMaxHeight;
+            cropWidth = Math.max(1, Math.min(imageWidth, (int) Math.round(imageHeight / thumbnailRatio)));
         }
 
-        Image temp1 = imgSrc.getScaledInstance(tempWidth, tempHeight, Image.SCALE_SMOOTH);
-        BufferedImage bi = new BufferedImage(tempWidth, tempHeight, BufferedImage.TYPE_INT_ARGB);
-        bi.createGraphics().drawImage(temp1, 0, 0, null);
-        return cropToSize(nMaxWidth, nMaxHeight, bi);
+        BufferedImage crop = imgSrc.getSubimage((imageWidth - cropWidth) / 2, (imageHeight - cropHeight) / 2, cropWidth, cropHeight);
+        return ImageScaler.scale(crop, nMaxWidth, nMaxHeight);
     }
 
     public static BufferedImage cropToSize(int nMaxWidth, int nMaxHeight, BufferedImage imgSrc) {
@@ -0,0 +1,159 @@
+/*
+ *      Copyright (c) 2004-2015 YAMJ Members
+ *      https://github.com/organizations/YAMJ/teams
+ *
+ *      This file is part of the Yet Another Media Jukebox (YAMJ).
+ *
+ *      YAMJ is free software: you can redistribute it and/or modify
+ *      it under the terms of the GNU General Public License as published by
+ *      the Free Software Foundation, either version 3 of the License, or
+ *      any later version.
+ *
+ *      YAMJ is distributed in the hope that it will be useful,
+ *      but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *      MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *      GNU General Public License for more details.
+ *
+ *      You should have received a copy of the GNU General Public License
+ *      along with YAMJ.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ *      Web: https://github.com/YAMJ/yamj-v3
+ *
+ */
+package org.yamj.core.tools.image;
+
+import java.awt.Dimension;
+import java.io.OutputStream;
+
+/**
+ * Reads the dimension of an image from the first bytes of a JPEG, PNG, GIF or BMP image.
+ */
+public final class ImageHeader {
+
+    private ImageHeader() {
+        throw new UnsupportedOperationException("Utility class cannot be instantiated");
+    }
+
+    /**
+     * Read the dimension from the header of an image
+     *
+     * @param data the first bytes of the image
+     * @param length the number of valid bytes
+     * @return the dimension or null if the image type is unknown or the header is not complete
+     */
+    public static Dimension readDimension(byte[] data, int length) {
+        if (length >= 24 && (data[0] & 0xFF) == 0x89 && data[1] == 'P' && data[2] == 'N' && data[3] == 'G') {
+            // IHDR is always the first chunk
+            return dimension(readInt(data, 16, true), readInt(data, 20, true));
+        }
+        if (length >= 10 && data[0] == 'G' && data[1] == 'I' && data[2] == 'F') {
+            return dimension(readShort(data, 6, false), readShort(data, 8, false));
+        }
+        if (length >= 26 && data[0] == 'B' && data[1] == 'M') {
+            if (readInt(data, 14, false) == 12) {
+                // OS/2 bitmap header
+                return dimension(readShort(data, 18, false), readShort(data, 20, false));
+            }
+            // height is negative for top-down bitmaps
+            return dimension(readInt(data, 18, false), Math.abs(readInt(data, 22, false)));
+        }
+        if (length >= 4 && (data[0] & 0xFF) == 0xFF && (data[1] & 0xFF) == 0xD8) {
+            return readJpegDimension(data, length);
+        }
+        return null;
+    }
+
+    private static Dimension readJpegDimension(byte[] data, int length) {
+        int pos = 2;
+        while (pos + 1 < length) {
+            if ((data[pos] & 0xFF) != 0xFF) {
+                // no marker found
+                return null;
+            }
+            int marker = data[pos + 1] & 0xFF;
+            if (marker == 0xFF) {
+                // fill byte
+                pos++;
+                continue;
+            }
+            if (marker == 0x01 || (marker >= 0xD0 && marker <= 0xD7)) {
+                // marker without segment
+                pos += 2;
+                continue;
+            }
+            if (marker == 0xD9 || marker == 0xDA) {
+                // end of image or start of scan without frame header
+                return null;
+            }
+            if (pos + 9 > length) {
+                return null;
+            }
+            if (isStartOfFrame(marker)) {
+                return dimension(readShort(data, pos + 7, true), readShort(data, pos + 5, true));
+            }
+            pos += 2 + readShort(data, pos + 2, true);
+        }
+        return null;
+    }
+
+    private static boolean isStartOfFrame(int marker) {
+        // SOF0 to SOF15 without DHT, JPG and DAC markers
+        return marker >= 0xC0 && marker <= 0xCF && marker != 0xC4 && marker != 0xC8 && marker != 0xCC;
+    }
+
+    private static Dimension dimension(int width, int height) {
+        if (width <= 0 || height <= 0) {
+            return null;
+        }
+        return new Dimension(width, height);
+    }
+
+    private static int readShort(byte[] data, int pos, boolean bigEndian) {
+        int b1 = data[pos] & 0xFF;
+        int b2 = data[pos + 1] & 0xFF;
+        return bigEndian ? (b1 << 8) | b2 : (b2 << 8) | b1;
+    }
+
+    private static int readInt(byte[] data, int pos, boolean bigEndian) {
+        if (bigEndian) {
+            return (readShort(data, pos, true) << 16) | readShort(data, pos + 2, true);
+        }
+        return (readShort(data, pos + 2, false) << 16) | readShort(data, pos, false);
+    }
+
+    /**
+     * Output stream which keeps the first bytes written to read the dimension of the image.
+     */
+    public static final class Capture extends OutputStream {
+
+        private final byte[] buffer;
+        private int length = 0;
+
+        public Capture(int size) {
+            this.buffer = new byte[size];
+        }
+
+        @Override
+        public void write(int b) {
+            if (length < buffer.length) {
+                buffer[length++] = (byte) b;
+            }
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            int count = Math.min(len, buffer.length - length);
+            if (count > 0) {
+                System.arraycopy(b, off, buffer, length, count);
+                length += count;
+            }
+        }
+
+        /**
+         * @return the dimension or null if it could not be read from the captured bytes
+         */
+        public Dimension getDimension() {
+            return readDimension(buffer, length);
+        }
+    }
+}
@@ -0,0 +1,152 @@
+/*
+ *      Copyright (c) 2004-2015 YAMJ Members
+ *      https://github.com/organizations/YAMJ/teams
+ *
+ *      This file is part of the Yet Another Media Jukebox (YAMJ).
+ *
+ *      YAMJ is free software: you can redistribute it and/or modify
+ *      it under the terms of the GNU General Public License as published by
+ *      the Free Software Foundation, either version 3 of the License, or
+ *      any later version.
+ *
+ *      YAMJ is distributed in the hope that it will be useful,
+ *      but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *      MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *      GNU General Public License for more details.
+ *
+ *      You should have received a copy of the GNU General Public License
+ *      along with YAMJ.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ *      Web: https://github.com/YAMJ/yamj-v3
+ *
+ */
+package org.yamj.core.tools.image;
+
+import java.awt.AlphaComposite;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.Transparency;
+import java.awt.image.BufferedImage;
+import java.lang.ref.SoftReference;
+
+/**
+ * Progressive image scaling.
+ *
+ * Downscaling halves the image with bilinear interpolation until it is less than
+ * twice the target size and finishes with a bicubic step. The intermediate images
+ * are drawn into scratch buffers which are reused by the thread.
+ */
+public final class ImageScaler {
+
+    // larger scratch buffers are not kept for reuse
+    private static final int MAX_SCRATCH_PIXELS = 4 * 1024 * 1024;
+    private static final ThreadLocal<SoftReference<BufferedImage[]>> SCRATCH = new ThreadLocal<>();
+
+    private ImageScaler() {
+        throw new UnsupportedOperationException("Utility class cannot be instantiated");
+    }
+
+    /**
+     * The image type to scale the given image into
+     *
+     * @param image
+     * @return TYPE_INT_RGB for opaque images, else TYPE_INT_ARGB
+     */
+    public static int imageType(BufferedImage image) {
+        return image.getTransparency() == Transparency.OPAQUE ? BufferedImage.TYPE_INT_RGB : BufferedImage.TYPE_INT_ARGB;
+    }
+
+    /**
+     * Scale the image to the given size
+     *
+     * @param imgSrc
+     * @param width
+     * @param height
+     * @return the new image
+     */
+    public static BufferedImage scale(BufferedImage imgSrc, int width, int height) {
+        BufferedImage bi = new BufferedImage(width, height, imageType(imgSrc));
+        draw(imgSrc, bi, 0, 0, width, height);
+        return bi;
+    }
+
+    /**
+     * Scale the image into the given area of the destination image
+     *
+     * @param imgSrc
+     * @param imgDest
+     * @param x
+     * @param y
+     * @param width
+     * @param height
+     */
+    public static void draw(BufferedImage imgSrc, BufferedImage imgDest, int x, int y, int width, int height) {
+        final int type = imageType(imgSrc);
+        BufferedImage current = imgSrc;
+        int currentWidth = imgSrc.getWidth();
+        int currentHeight = imgSrc.getHeight();
+        int index = 0;
+
+        while (true) {
+            int nextWidth = currentWidth / 2 >= width ? currentWidth / 2 : currentWidth;
+            int nextHeight = currentHeight / 2 >= height ? currentHeight / 2 : currentHeight;
+            if (nextWidth == currentWidth && nextHeight == currentHeight) {
+                break;
+            }
+
+            BufferedImage next = scratch(index, nextWidth, nextHeight, type);
+            render(current, next, 0, 0, nextWidth, nextHeight, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            current = next;
+            currentWidth = nextWidth;
+            currentHeight = nextHeight;
+            index = 1 - index;
+        }
+
+        render(current, imgDest, x, y, width, height, RenderingHints.VALUE_INTERPOLATION_BICUBIC);
+    }
+
+    private static void render(BufferedImage imgSrc, BufferedImage imgDest, int x, int y, int width, int height, Object interpolation) {
+        Graphics2D g = imgDest.createGraphics();
+        try {
+            g.setComposite(AlphaComposite.Src);
+            g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, interpolation);
+            g.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            g.drawImage(imgSrc, x, y, width, height, null);
+        } finally {
+            g.dispose();
+        }
+    }
+
+    /**
+     * Get a scratch image of the given size; the returned image shares the buffer of the thread
+     */
+    private static BufferedImage scratch(int index, int width, int height, int type) {
+        if ((long) width * height > MAX_SCRATCH_PIXELS) {
+            return new BufferedImage(width, height, type);
+        }
+
+        SoftReference<BufferedImage[]> ref = SCRATCH.get();
+        BufferedImage[] buffers = ref == null ? null : ref.get();
+        if (buffers == null) {
+            buffers = new BufferedImage[2];
+            SCRATCH.set(new SoftReference<>(buffers));
+        }
+
+        BufferedImage buffer = buffers[index];
+        if (buffer == null || buffer.getType() != type) {
+            buffer = new BufferedImage(width, height, type);
+            buffers[index] = buffer;
+        } else if (buffer.getWidth() < width || buffer.getHeight() < height) {
+            int bufferWidth = Math.max(width, buffer.getWidth());
+            int bufferHeight = Math.max(height, buffer.getHeight());
+            if ((long) bufferWidth * bufferHeight > MAX_SCRATCH_PIXELS) {
+                return new BufferedImage(width, height, type);
+            }
+            buffer = new BufferedImage(bufferWidth, bufferHeight, type);
+            buffers[index] = buffer;
+        }
+
+        // the sub image restricts the interpolation to the used area
+        return buffer.getSubimage(0, 0, width, height);
+    }
+}
@@ -30,6 +30,7 @@ import java.util.ArrayList;
 import java.util.Iterator;
 import javax.imageio.IIOException;
 import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
 import javax.imageio.ImageReader;
 import javax.imageio.stream.ImageInputStream;
 import org.apache.sanselan.ImageReadException;
@@ -66,6 +67,20 @@ public class JpegReader {
      * @throws IOException
      */
     public BufferedImage readImage(File file) throws IOException {
+        return readImage(file, 0, 0);
+    }
+
+    /**
+     * Used to read a JPEG image to a BufferedImage which is subsampled while decoding
+     * to the largest power of two still covering the minimal size.
+     *
+     * @param file
+     * @param minWidth
+     * @param minHeight
+     * @return
+     * @throws IOException
+     */
+    public BufferedImage readImage(File file, int minWidth, int minHeight) throws IOException {
         colorType = COLOR_TYPE_RGB;
         hasAdobeMarker = false;
 
@@ -83,9 +98,9 @@ public class JpegReader {
                 reader.setInput(stream);
     
                 try {
-                    image = reader.read(0);
+                    image = reader.read(0, subsampling(reader, minWidth, minHeight));
                 } catch (CMMException | IIOException ex) { //NOSONAR
-                    image = readImageCmyk(file, reader);
+                    image = readImageCmyk(file, reader, minWidth, minHeight);
                 } finally {
                     reader.dispose();
                 }
@@ -99,20 +114,34 @@ public class JpegReader {
         return image;
     }
 
+    /**
+     * Read parameters with the subsampling for the minimal size
+     */
+    private static ImageReadParam subsampling(ImageReader reader, int minWidth, int minHeight) throws IOException {
+        ImageReadParam param = reader.getDefaultReadParam();
+        int factor = GraphicTools.getSubsampling(reader.getWidth(0), reader.getHeight(0), minWidth, minHeight);
+        if (factor > 1) {
+            param.setSourceSubsampling(factor, factor, 0, 0);
+        }
+        return param;
+    }
+
     /**
      * Attempt to read the image as a CYMK or YCCK file.
      *
      * @param file
      * @param reader
+     * @param minWidth
+     * @param minHeight
      * @return
      */
-    private BufferedImage readImageCmyk(File file, ImageReader reader) {
+    private BufferedImage readImageCmyk(File file, ImageReader reader, int minWidth, int minHeight) {
         colorType = COLOR_TYPE_CMYK;
         BufferedImage image;
         try {
             checkAdobeMarker(file);
             ICC_Profile profile = Sanselan.getICCProfile(file);
-            WritableRaster raster = (WritableRaster) reader.readRaster(0, null);
+            WritableRaster raster = (WritableRaster) reader.readRaster(0, subsampling(reader, minWidth, minHeight));
 
             if (colorType == COLOR_TYPE_YCCK) {
                 convertYcckToCmyk(raster);
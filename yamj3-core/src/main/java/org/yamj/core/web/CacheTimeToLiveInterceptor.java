@@ -0,0 +1,102 @@
+/*
+ *      Copyright (c) 2004-2015 YAMJ Members
+ *      https://github.com/organizations/YAMJ/teams
+ *
+ *      This file is part of the Yet Another Media Jukebox (YAMJ).
+ *
+ *      YAMJ is free software: you can redistribute it and/or modify
+ *      it under the terms of the GNU General Public License as published by
+ *      the Free Software Foundation, either version 3 of the License, or
+ *      any later version.
+ *
+ *      YAMJ is distributed in the hope that it will be useful,
+ *      but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *      MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *      GNU General Public License for more details.
+ *
+ *      You should have received a copy of the GNU General Public License
+ *      along with YAMJ.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ *      Web: https://github.com/YAMJ/yamj-v3
+ *
+ */
+package org.yamj.core.web;
+
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+import org.apache.commons.lang3.StringUtils;
+import org.apache.http.*;
+import org.apache.http.client.cache.HeaderConstants;
+import org.apache.http.client.protocol.HttpClientContext;
+import org.apache.http.protocol.HttpContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Sets the time to live of successful responses per target host.
+ *
+ * Many online services don't deliver caching headers, so their responses would
+ * not be cached at all. The validators (ETag, Last-Modified) are kept, so stale
+ * entries are revalidated.
+ */
+public class CacheTimeToLiveInterceptor implements HttpResponseInterceptor {
+
+    private static final Logger LOG = LoggerFactory.getLogger(CacheTimeToLiveInterceptor.class);
+    private final Map<Pattern, Long> timeToLives = new LinkedHashMap<>();
+
+    /**
+     * Create the interceptor from the rules in the format "regex=seconds,...".
+     *
+     * @param rules
+     */
+    public CacheTimeToLiveInterceptor(String rules) {
+        if (StringUtils.isBlank(rules)) {
+            return;
+        }
+
+        Pattern pattern = Pattern.compile(",?\\s*([^=]+)=(\\d+)");
+        Matcher matcher = pattern.matcher(rules);
+        while (matcher.find()) {
+            String group = matcher.group(1).trim();
+            try {
+                final Long seconds = Long.valueOf(matcher.group(2));
+                timeToLives.put(Pattern.compile(group), seconds);
+                LOG.trace("Added cache time to live '{}' with {} seconds", group, seconds);
+            } catch (PatternSyntaxException | NumberFormatException error) {
+                LOG.debug("Rule '{}' is no valid regexp, ignored", group);
+            }
+        }
+    }
+
+    public boolean isEmpty() {
+        return timeToLives.isEmpty();
+    }
+
+    @Override
+    public void process(HttpResponse response, HttpContext context) throws HttpException, IOException {
+        if (response.getStatusLine().getStatusCode() != HttpStatus.SC_OK) {
+            return;
+        }
+
+        HttpHost targetHost = HttpClientContext.adapt(context).getTargetHost();
+        if (targetHost == null) {
+            return;
+        }
+
+        final String hostName = targetHost.getHostName();
+        for (Entry<Pattern, Long> entry : timeToLives.entrySet()) {
+            if (entry.getKey().matcher(hostName).matches()) {
+                response.removeHeaders(HeaderConstants.CACHE_CONTROL);
+                response.removeHeaders(HeaderConstants.EXPIRES);
+                response.removeHeaders(HeaderConstants.PRAGMA);
+                response.setHeader(HeaderConstants.CACHE_CONTROL, HeaderConstants.CACHE_CONTROL_MAX_AGE + "=" + entry.getValue());
+                break;
+            }
+        }
+    }
+}
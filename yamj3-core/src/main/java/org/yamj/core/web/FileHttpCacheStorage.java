@@ -0,0 +1,378 @@
+/*
+ *      Copyright (c) 2004-2015 YAMJ Members
+ *      https://github.com/organizations/YAMJ/teams
+ *
+ *      This file is part of the Yet Another Media Jukebox (YAMJ).
+ *
+ *      YAMJ is free software: you can redistribute it and/or modify
+ *      it under the terms of the GNU General Public License as published by
+ *      the Free Software Foundation, either version 3 of the License, or
+ *      any later version.
+ *
+ *      YAMJ is distributed in the hope that it will be useful,
+ *      but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *      MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *      GNU General Public License for more details.
+ *
+ *      You should have received a copy of the GNU General Public License
+ *      along with YAMJ.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ *      Web: https://github.com/YAMJ/yamj-v3
+ *
+ */
+package org.yamj.core.web;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.*;
+import java.util.Map.Entry;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Lock;
+import org.apache.commons.codec.digest.DigestUtils;
+import org.apache.commons.io.IOUtils;
+import org.apache.http.Header;
+import org.apache.http.ProtocolVersion;
+import org.apache.http.StatusLine;
+import org.apache.http.client.cache.HttpCacheEntry;
+import org.apache.http.client.cache.HttpCacheStorage;
+import org.apache.http.client.cache.HttpCacheUpdateCallback;
+import org.apache.http.client.cache.Resource;
+import org.apache.http.impl.client.cache.HeapResource;
+import org.apache.http.message.BasicHeader;
+import org.apache.http.message.BasicStatusLine;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.yamj.core.tools.StripedLock;
+
+/**
+ * HTTP cache storage which keeps the cache entries in files, so that the
+ * cached responses survive a restart.
+ *
+ * The storage is bounded by size; if the size is exceeded, the least recently
+ * used entries are removed.
+ *
+ * The entries are written in an own binary format instead of Java serialization,
+ * so that files placed in the cache directory can't inject arbitrary objects.
+ * Files which can't be read are removed.
+ */
+public class FileHttpCacheStorage implements HttpCacheStorage {
+
+    private static final Logger LOG = LoggerFactory.getLogger(FileHttpCacheStorage.class);
+    private static final String SUFFIX = ".cache";
+    private static final int FORMAT_VERSION = 1;
+    private static final StripedLock LOCKS = new StripedLock(64);
+
+    private final File cacheDir;
+    private final long maxSize;
+    private final AtomicLong size = new AtomicLong();
+    private final AtomicBoolean cleaning = new AtomicBoolean();
+
+    /**
+     * Create the storage.
+     *
+     * @param cacheDir the directory for the cache files
+     * @param maxSize the maximum size of all cache files in bytes
+     */
+    public FileHttpCacheStorage(File cacheDir, long maxSize) {
+        this.cacheDir = cacheDir;
+        this.maxSize = maxSize;
+
+        if (!cacheDir.isDirectory() && !cacheDir.mkdirs()) {
+            LOG.warn("Failed to create HTTP cache directory '{}'", cacheDir.getAbsolutePath());
+        }
+        for (File file : listCacheFiles()) {
+            size.addAndGet(file.length());
+        }
+        LOG.debug("HTTP cache '{}' contains {} bytes", cacheDir.getAbsolutePath(), size.get());
+    }
+
+    @Override
+    public void putEntry(String key, HttpCacheEntry entry) throws IOException {
+        final File file = getFile(key);
+        final Lock lock = LOCKS.get(file.getName());
+        lock.lock();
+        try {
+            writeEntry(file, key, entry);
+        } finally {
+            lock.unlock();
+        }
+        cleanUp();
+    }
+
+    @Override
+    public HttpCacheEntry getEntry(String key) throws IOException {
+        final File file = getFile(key);
+        final Lock lock = LOCKS.get(file.getName());
+        lock.lock();
+        try {
+            return readEntry(file, key);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void removeEntry(String key) throws IOException {
+        final File file = getFile(key);
+        final Lock lock = LOCKS.get(file.getName());
+        lock.lock();
+        try {
+            deleteFile(file);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void updateEntry(String key, HttpCacheUpdateCallback callback) throws IOException {
+        final File file = getFile(key);
+        final Lock lock = LOCKS.get(file.getName());
+        lock.lock();
+        try {
+            HttpCacheEntry entry = callback.update(readEntry(file, key));
+            if (entry == null) {
+                deleteFile(file);
+            } else {
+                writeEntry(file, key, entry);
+            }
+        } finally {
+            lock.unlock();
+        }
+        cleanUp();
+    }
+
+    private File getFile(String key) {
+        final String hash = DigestUtils.sha1Hex(key);
+        return new File(new File(cacheDir, hash.substring(0, 2)), hash + SUFFIX);
+    }
+
+    private HttpCacheEntry readEntry(File file, String key) {
+        if (!file.isFile()) {
+            return null;
+        }
+
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+            if (in.readInt() != FORMAT_VERSION) {
+                throw new IOException("Unknown format");
+            }
+            // the key is stored in addition to detect hash collisions
+            if (!key.equals(readString(in, file))) {
+                return null;
+            }
+            HttpCacheEntry entry = readEntryData(in, file);
+            // mark file as recently used
+            if (!file.setLastModified(System.currentTimeMillis())) {
+                LOG.trace("Failed to touch HTTP cache file '{}'", file.getName());
+            }
+            return entry;
+        } catch (IOException | RuntimeException ex) {
+            LOG.debug("Removing unreadable HTTP cache file '{}': {}", file.getName(), ex.getMessage());
+            deleteFile(file);
+            return null;
+        }
+    }
+
+    private static HttpCacheEntry readEntryData(DataInputStream in, File file) throws IOException {
+        final Date requestDate = new Date(in.readLong());
+        final Date responseDate = new Date(in.readLong());
+        final String requestMethod = readString(in, file);
+        final ProtocolVersion protocol = new ProtocolVersion(readString(in, file), in.readInt(), in.readInt());
+        final StatusLine statusLine = new BasicStatusLine(protocol, in.readInt(), readString(in, file));
+
+        final Header[] headers = new Header[readCount(in, file)];
+        for (int i = 0; i < headers.length; i++) {
+            headers[i] = new BasicHeader(readString(in, file), readString(in, file));
+        }
+
+        final int variants = readCount(in, file);
+        final Map<String, String> variantMap = new HashMap<>(variants);
+        for (int i = 0; i < variants; i++) {
+            variantMap.put(readString(in, file), readString(in, file));
+        }
+
+        final byte[] content = readBytes(in, file);
+        final Resource resource = (content == null ? null : new HeapResource(content));
+        return new HttpCacheEntry(requestDate, responseDate, statusLine, headers, resource, variantMap, requestMethod);
+    }
+
+    private static void writeEntryData(DataOutputStream out, String key, HttpCacheEntry entry) throws IOException {
+        out.writeInt(FORMAT_VERSION);
+        writeString(out, key);
+        out.writeLong(entry.getRequestDate().getTime());
+        out.writeLong(entry.getResponseDate().getTime());
+        writeString(out, entry.getRequestMethod());
+        
+        final StatusLine statusLine = entry.getStatusLine();
+        writeString(out, statusLine.getProtocolVersion().getProtocol());
+        out.writeInt(statusLine.getProtocolVersion().getMajor());
+        out.writeInt(statusLine.getProtocolVersion().getMinor());
+        out.writeInt(statusLine.getStatusCode());
+        writeString(out, statusLine.getReasonPhrase());
+
+        final Header[] headers = entry.getAllHeaders();
+        out.writeInt(headers.length);
+        for (Header header : headers) {
+            writeString(out, header.getName());
+            writeString(out, header.getValue());
+        }
+
+        final Map<String, String> variantMap = entry.getVariantMap();
+        out.writeInt(variantMap.size());
+        for (Entry<String, String> variant : variantMap.entrySet()) {
+            writeString(out, variant.getKey());
+            writeString(out, variant.getValue());
+        }
+
+        final Resource resource = entry.getResource();
+        if (resource == null) {
+            out.writeInt(-1);
+        } else {
+            final byte[] content;
+            try (InputStream in = resource.getInputStream()) {
+                content = IOUtils.toByteArray(in);
+            }
+            writeBytes(out, content);
+        }
+    }
+
+    /**
+     * Write a string as length-prefixed UTF-8 bytes; unlike writeUTF() the length isn't limited to 64KB.
+     */
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        writeBytes(out, value == null ? null : value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static void writeBytes(DataOutputStream out, byte[] bytes) throws IOException {
+        if (bytes == null) {
+            out.writeInt(-1);
+        } else {
+            out.writeInt(bytes.length);
+            out.write(bytes);
+        }
+    }
+
+    private static String readString(DataInputStream in, File file) throws IOException {
+        final byte[] bytes = readBytes(in, file);
+        return bytes == null ? null : new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static byte[] readBytes(DataInputStream in, File file) throws IOException {
+        final int length = in.readInt();
+        if (length == -1) {
+            return null;
+        }
+        final byte[] bytes = new byte[checkLength(length, file)];
+        in.readFully(bytes);
+        return bytes;
+    }
+
+    private static int readCount(DataInputStream in, File file) throws IOException {
+        return checkLength(in.readInt(), file);
+    }
+
+    /**
+     * Check a length read from the file, so that a corrupted file can't cause huge allocations.
+     */
+    private static int checkLength(int length, File file) throws IOException {
+        if (length < 0 || length > file.length()) {
+            throw new IOException("Invalid length " + length);
+        }
+        return length;
+    }
+
+    private void writeEntry(File file, String key, HttpCacheEntry entry) throws IOException {
+        final File parent = file.getParentFile();
+        if (!parent.isDirectory() && !parent.mkdirs()) {
+            throw new IOException("Failed to create HTTP cache directory " + parent.getAbsolutePath());
+        }
+
+        final File tempFile = new File(parent, file.getName() + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(tempFile)))) {
+            writeEntryData(out, key, entry);
+        } catch (IOException ex) {
+            deleteFile(tempFile);
+            throw ex;
+        }
+
+        final long oldLength = file.length();
+        final long newLength = tempFile.length();
+        Files.move(tempFile.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        size.addAndGet(newLength - oldLength);
+    }
+
+    /**
+     * Delete a cache file; must be called with the lock of the file held.
+     */
+    private void deleteFile(File file) {
+        final long length = file.length();
+        if (file.delete()) {
+            size.addAndGet(-length);
+        }
+    }
+
+    /**
+     * Remove the least recently used entries until 90% of the maximum size is reached.
+     */
+    private void cleanUp() {
+        if (size.get() <= maxSize || !cleaning.compareAndSet(false, true)) {
+            return;
+        }
+
+        try {
+            List<File> files = listCacheFiles();
+            // snapshot the modification times, cause entries may be touched while sorting
+            final Map<File, Long> lastModified = new HashMap<>(files.size());
+            for (File file : files) {
+                lastModified.put(file, Long.valueOf(file.lastModified()));
+            }
+            Collections.sort(files, new Comparator<File>() {
+                @Override
+                public int compare(File file1, File file2) {
+                    return lastModified.get(file1).compareTo(lastModified.get(file2));
+                }
+            });
+            
+            final long targetSize = maxSize / 10 * 9;
+            int removed = 0;
+            for (File file : files) {
+                if (size.get() <= targetSize) {
+                    break;
+                }
+                // lock the entry, so that the size isn't changed by a concurrent write of the same file
+                final Lock lock = LOCKS.get(file.getName());
+                lock.lock();
+                try {
+                    deleteFile(file);
+                } finally {
+                    lock.unlock();
+                }
+                removed++;
+            }
+            LOG.debug("Removed {} entries from HTTP cache", removed);
+        } finally {
+            cleaning.set(false);
+        }
+    }
+
+    private List<File> listCacheFiles() {
+        List<File> result = new ArrayList<>();
+        File[] subDirs = cacheDir.listFiles();
+        if (subDirs != null) {
+            for (File subDir : subDirs) {
+                File[] files = subDir.listFiles();
+                if (files == null) {
+                    continue;
+                }
+                for (File file : files) {
+                    if (file.getName().endsWith(SUFFIX)) {
+                        result.add(file);
+                    }
+                }
+            }
+        }
+        return result;
+    }
+}
@@ -0,0 +1,210 @@
+/*
+ *      Copyright (c) 2004-2015 YAMJ Members
+ *      https://github.com/organizations/YAMJ/teams
+ *
+ *      This file is part of the Yet Another Media Jukebox (YAMJ).
+ *
+ *      YAMJ is free software: you can redistribute it and/or modify
+ *      it under the terms of the GNU General Public License as published by
+ *      the Free Software Foundation, either version 3 of the License, or
+ *      any later version.
+ *
+ *      YAMJ is distributed in the hope that it will be useful,
+ *      but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *      MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *      GNU General Public License for more details.
+ *
+ *      You should have received a copy of the GNU General Public License
+ *      along with YAMJ.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ *      Web: https://github.com/YAMJ/yamj-v3
+ *
+ */
+package org.yamj.core.web;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.StandardOpenOption;
+import javax.servlet.http.HttpServletResponse;
+import org.apache.commons.codec.digest.DigestUtils;
+import org.apache.commons.lang3.StringUtils;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.context.request.ServletWebRequest;
+
+/**
+ * Writes a file to the HTTP response.
+ * 
+ * Supports conditional requests by ETag and Last-Modified, single byte ranges and HEAD requests.
+ * The file content is transferred through its file channel, so that the file is not read into the heap.
+ */
+public final class FileResponseWriter {
+
+    private static final String BYTES = "bytes";
+    private static final String BYTES_PREFIX = "bytes=";
+
+    private FileResponseWriter() {
+        throw new UnsupportedOperationException("Utility class cannot be instantiated");
+    }
+
+    /**
+     * Write the file to the response.
+     * 
+     * @param file the file to write
+     * @param contentType the content type of the file
+     * @param maxAge the maximum age in seconds clients may cache the file
+     * @param webRequest the web request
+     * @param response the response
+     * @throws IOException if the file could not be written
+     */
+    public static void write(File file, String contentType, int maxAge, ServletWebRequest webRequest, HttpServletResponse response) throws IOException {
+        if (!file.isFile()) {
+            response.sendError(HttpServletResponse.SC_NOT_FOUND);
+            return;
+        }
+        
+        final long length = file.length();
+        // last modified in seconds precision as transferred in headers
+        final long lastModified = (file.lastModified() / 1000) * 1000;
+        final String etag = buildETag(file, length, lastModified);
+
+        response.setHeader(HttpHeaders.CACHE_CONTROL, "max-age=" + maxAge);
+        response.setHeader(HttpHeaders.ACCEPT_RANGES, BYTES);
+        
+        // sets ETag and Last-Modified and responds with 304 if not modified
+        if (webRequest.checkNotModified(etag, lastModified)) {
+            return;
+        }
+        
+        long start = 0;
+        long end = length - 1;
+        boolean partial = false;
+        
+        final String range = webRequest.getHeader(HttpHeaders.RANGE);
+        if (range != null && isIfRangeMatching(webRequest, etag, lastModified)) {
+            long[] byteRange = parseRange(range, length);
+            if (byteRange != null && byteRange.length == 0) {
+                response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes */" + length);
+                response.sendError(HttpServletResponse.SC_REQUESTED_RANGE_NOT_SATISFIABLE);
+                return;
+            } else if (byteRange != null) {
+                start = byteRange[0];
+                end = byteRange[1];
+                partial = true;
+            }
+        }
+
+        final long count = end - start + 1;
+        response.setContentType(contentType);
+        response.setHeader(HttpHeaders.CONTENT_LENGTH, Long.toString(count));
+        if (partial) {
+            response.setStatus(HttpServletResponse.SC_PARTIAL_CONTENT);
+            response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes " + start + "-" + end + "/" + length);
+        }
+        
+        if ("HEAD".equalsIgnoreCase(webRequest.getRequest().getMethod()) || count <= 0) {
+            return;
+        }
+        
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            final WritableByteChannel target = Channels.newChannel(response.getOutputStream());
+            long position = start;
+            long remaining = count;
+            while (remaining > 0) {
+                long transferred = channel.transferTo(position, remaining, target);
+                if (transferred <= 0) {
+                    // file has been truncated meanwhile
+                    break;
+                }
+                position += transferred;
+                remaining -= transferred;
+            }
+        }
+        response.flushBuffer();
+    }
+    
+    /**
+     * Build a strong ETag from the file name, which is unique for cached files,
+     * and the state of the file, which changes if the file has been regenerated.
+     */
+    private static String buildETag(File file, long length, long lastModified) {
+        return "\"" + DigestUtils.sha1Hex(file.getName()) + "-" + Long.toHexString(length) + "-" + Long.toHexString(lastModified) + "\"";
+    }
+
+    /**
+     * A range must only be served if the If-Range header, if present, matches the actual file.
+     */
+    private static boolean isIfRangeMatching(ServletWebRequest webRequest, String etag, long lastModified) {
+        final String ifRange = webRequest.getHeader(HttpHeaders.IF_RANGE);
+        if (ifRange == null) {
+            return true;
+        }
+        if (ifRange.startsWith("\"") || ifRange.startsWith("W/")) {
+            return etag.equals(ifRange);
+        }
+        try {
+            return webRequest.getRequest().getDateHeader(HttpHeaders.IF_RANGE) == lastModified;
+        } catch (IllegalArgumentException ex) { //NOSONAR
+            return false;
+        }
+    }
+
+    /**
+     * Parse a single byte range.
+     * 
+     * @param range the range header value
+     * @param length the length of the file
+     * @return the first and last byte position; an empty array if the range is not satisfiable;
+     *         null if the range is invalid or consists of multiple ranges, so the whole file should be served
+     */
+    private static long[] parseRange(String range, long length) {
+        if (!range.startsWith(BYTES_PREFIX) || range.indexOf(',') >= 0) {
+            return null; //NOSONAR
+        }
+        
+        final String spec = range.substring(BYTES_PREFIX.length()).trim();
+        final int dash = spec.indexOf('-');
+        if (dash < 0) {
+            return null; //NOSONAR
+        }
+
+        final String first = spec.substring(0, dash).trim();
+        final String last = spec.substring(dash + 1).trim();
+        if (!isEmptyOrNumeric(first) || !isEmptyOrNumeric(last) || (first.isEmpty() && last.isEmpty())) {
+            return null; //NOSONAR
+        }
+        
+        try {
+            long start;
+            long end;
+            if (first.isEmpty()) {
+                // suffix range with the last bytes
+                long suffix = Long.parseLong(last);
+                if (suffix == 0) {
+                    return new long[0];
+                }
+                start = Math.max(0, length - suffix);
+                end = length - 1;
+            } else {
+                start = Long.parseLong(first);
+                end = last.isEmpty() ? length - 1 : Math.min(Long.parseLong(last), length - 1);
+                if (!last.isEmpty() && Long.parseLong(last) < start) {
+                    return null; //NOSONAR
+                }
+            }
+            
+            if (start >= length) {
+                return new long[0];
+            }
+            return new long[]{start, end};
+        } catch (NumberFormatException ex) { //NOSONAR
+            return null; //NOSONAR
+        }
+    }
+
+    private static boolean isEmptyOrNumeric(String value) {
+        return value.isEmpty() || StringUtils.isNumeric(value);
+    }
+}
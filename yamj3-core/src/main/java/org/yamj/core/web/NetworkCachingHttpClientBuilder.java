@@ -0,0 +1,87 @@
+/*
+ *      Copyright (c) 2004-2015 YAMJ Members
+ *      https://github.com/organizations/YAMJ/teams
+ *
+ *      This file is part of the Yet Another Media Jukebox (YAMJ).
+ *
+ *      YAMJ is free software: you can redistribute it and/or modify
+ *      it under the terms of the GNU General Public License as published by
+ *      the Free Software Foundation, either version 3 of the License, or
+ *      any later version.
+ *
+ *      YAMJ is distributed in the hope that it will be useful,
+ *      but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *      MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *      GNU General Public License for more details.
+ *
+ *      You should have received a copy of the GNU General Public License
+ *      along with YAMJ.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ *      Web: https://github.com/YAMJ/yamj-v3
+ *
+ */
+package org.yamj.core.web;
+
+import java.io.IOException;
+import org.apache.http.HttpException;
+import org.apache.http.client.methods.CloseableHttpResponse;
+import org.apache.http.client.methods.HttpExecutionAware;
+import org.apache.http.client.methods.HttpRequestWrapper;
+import org.apache.http.client.protocol.HttpClientContext;
+import org.apache.http.conn.routing.HttpRoute;
+import org.apache.http.impl.client.cache.CachingHttpClientBuilder;
+import org.apache.http.impl.execchain.ClientExecChain;
+import org.apache.http.protocol.HttpProcessor;
+
+/**
+ * Caching HTTP client builder with a protocol processor for the requests which
+ * are not answered by the cache.
+ *
+ * The network processor sees the origin responses before they are cached and
+ * is not applied to cache hits.
+ */
+public class NetworkCachingHttpClientBuilder extends CachingHttpClientBuilder {
+
+    private HttpProcessor networkProcessor;
+
+    public static NetworkCachingHttpClientBuilder create() {
+        return new NetworkCachingHttpClientBuilder();
+    }
+
+    public final NetworkCachingHttpClientBuilder setNetworkProcessor(HttpProcessor networkProcessor) {
+        this.networkProcessor = networkProcessor;
+        return this;
+    }
+
+    @Override
+    protected ClientExecChain decorateMainExec(ClientExecChain mainExec) {
+        if (networkProcessor == null) {
+            return super.decorateMainExec(mainExec);
+        }
+        return super.decorateMainExec(new NetworkExec(mainExec, networkProcessor));
+    }
+
+    private static final class NetworkExec implements ClientExecChain {
+
+        private final ClientExecChain requestExecutor;
+        private final HttpProcessor httpProcessor;
+
+        public NetworkExec(ClientExecChain requestExecutor, HttpProcessor httpProcessor) {
+            this.requestExecutor = requestExecutor;
+            this.httpProcessor = httpProcessor;
+        }
+
+        @Override
+        public CloseableHttpResponse execute(HttpRoute route, HttpRequestWrapper request, HttpClientContext context, HttpExecutionAware execAware) throws IOException, HttpException {
+            httpProcessor.process(request, context);
+            CloseableHttpResponse response = requestExecutor.execute(route, request, context, execAware);
+            try {
+                httpProcessor.process(response, context);
+            } catch (IOException | HttpException | RuntimeException ex) {
+                response.close();
+                throw ex;
+            }
+            return response;
+        }
+    }
+}
@@ -0,0 +1,143 @@
+/*
+ *      Copyright (c) 2004-2015 YAMJ Members
+ *      https://github.com/organizations/YAMJ/teams
+ *
+ *      This file is part of the Yet Another Media Jukebox (YAMJ).
+ *
+ *      YAMJ is free software: you can redistribute it and/or modify
+ *      it under the terms of the GNU General Public License as published by
+ *      the Free Software Foundation, either version 3 of the License, or
+ *      any later version.
+ *
+ *      YAMJ is distributed in the hope that it will be useful,
+ *      but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *      MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *      GNU General Public License for more details.
+ *
+ *      You should have received a copy of the GNU General Public License
+ *      along with YAMJ.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ *      Web: https://github.com/YAMJ/yamj-v3
+ *
+ */
+package org.yamj.core.web;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+import org.apache.commons.lang3.StringUtils;
+import org.apache.http.HttpException;
+import org.apache.http.HttpHost;
+import org.apache.http.HttpRequest;
+import org.apache.http.HttpRequestInterceptor;
+import org.apache.http.client.protocol.HttpClientContext;
+import org.apache.http.protocol.HttpContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Limits the request rate per target host.
+ *
+ * Each rule is a token bucket for all hosts matching the regular expression;
+ * requests to hosts without a matching rule are not limited.
+ */
+public class RateLimitInterceptor implements HttpRequestInterceptor {
+
+    private static final Logger LOG = LoggerFactory.getLogger(RateLimitInterceptor.class);
+    private final List<RateLimit> rateLimits = new ArrayList<>();
+
+    /**
+     * Create the interceptor from the rules in the format "regex=permitsPerSecond,...".
+     *
+     * @param rules
+     */
+    public RateLimitInterceptor(String rules) {
+        if (StringUtils.isBlank(rules)) {
+            return;
+        }
+
+        Pattern pattern = Pattern.compile(",?\\s*([^=]+)=(\\d+(?:\\.\\d+)?)");
+        Matcher matcher = pattern.matcher(rules);
+        while (matcher.find()) {
+            String group = matcher.group(1).trim();
+            try {
+                final double permitsPerSecond = Double.parseDouble(matcher.group(2));
+                if (permitsPerSecond > 0) {
+                    rateLimits.add(new RateLimit(Pattern.compile(group), permitsPerSecond));
+                    LOG.trace("Added rate limit '{}' with {} requests per second", group, permitsPerSecond);
+                }
+            } catch (PatternSyntaxException | NumberFormatException error) {
+                LOG.debug("Rule '{}' is no valid regexp, ignored", group);
+            }
+        }
+    }
+
+    public boolean isEmpty() {
+        return rateLimits.isEmpty();
+    }
+
+    @Override
+    public void process(HttpRequest request, HttpContext context) throws HttpException, IOException {
+        HttpHost targetHost = HttpClientContext.adapt(context).getTargetHost();
+        if (targetHost == null) {
+            return;
+        }
+
+        final String hostName = targetHost.getHostName();
+        for (RateLimit rateLimit : rateLimits) {
+            if (rateLimit.matches(hostName)) {
+                try {
+                    rateLimit.acquire();
+                } catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                    throw new IOException("Interrupted while waiting for rate limit of " + hostName, ex);
+                }
+                break;
+            }
+        }
+    }
+
+    /**
+     * Token bucket which allows bursts up to one second of requests.
+     */
+    private static final class RateLimit {
+
+        private final Pattern pattern;
+        private final double permitsPerNanos;
+        private final double maxPermits;
+        private double storedPermits;
+        private long lastRefill;
+
+        public RateLimit(Pattern pattern, double permitsPerSecond) {
+            this.pattern = pattern;
+            this.permitsPerNanos = permitsPerSecond / TimeUnit.SECONDS.toNanos(1);
+            this.maxPermits = Math.max(1d, permitsPerSecond);
+            this.storedPermits = maxPermits;
+            this.lastRefill = System.nanoTime();
+        }
+
+        public boolean matches(String hostName) {
+            return pattern.matcher(hostName).matches();
+        }
+
+        public void acquire() throws InterruptedException {
+            final long waitNanos;
+            synchronized (this) {
+                final long now = System.nanoTime();
+                storedPermits = Math.min(maxPermits, storedPermits + (now - lastRefill) * permitsPerNanos);
+                lastRefill = now;
+                // reserve the permit; a negative amount is the debt of the waiting requests
+                storedPermits -= 1d;
+                waitNanos = storedPermits < 0 ? (long) (-storedPermits / permitsPerNanos) : 0;
+            }
+
+            if (waitNanos > 0) {
+                TimeUnit.NANOSECONDS.sleep(waitNanos);
+            }
+        }
+    }
+}
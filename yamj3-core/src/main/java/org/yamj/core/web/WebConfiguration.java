@@ -22,10 +22,13 @@
  */
 package org.yamj.core.web;
 
+import java.io.File;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 import org.apache.commons.lang3.StringUtils;
 import org.apache.http.HttpHost;
+import org.apache.http.HttpRequestInterceptor;
+import org.apache.http.HttpResponseInterceptor;
 import org.apache.http.auth.AuthScope;
 import org.apache.http.auth.UsernamePasswordCredentials;
 import org.apache.http.client.CredentialsProvider;
@@ -33,11 +36,10 @@ import org.apache.http.client.config.CookieSpecs;
 import org.apache.http.client.config.RequestConfig;
 import org.apache.http.config.SocketConfig;
 import org.apache.http.impl.client.BasicCredentialsProvider;
-import org.apache.http.impl.client.HttpClientBuilder;
 import org.apache.http.impl.client.SystemDefaultCredentialsProvider;
 import org.apache.http.impl.client.cache.CacheConfig;
-import org.apache.http.impl.client.cache.CachingHttpClientBuilder;
 import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.apache.http.protocol.ImmutableHttpProcessor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
@@ -86,6 +88,21 @@ public class WebConfiguration  {
     @Value("${yamj3.http.maxDownloadSlots:null}")
     private String maxDownloadSlots;
 
+    @Value("${yamj3.http.rateLimits:null}")
+    private String rateLimits;
+
+    @Value("${yamj3.http.cache.disk:true}")
+    private boolean cacheOnDisk;
+
+    @Value("${yamj3.http.cache.maxSize:200}")
+    private long cacheMaxSize;
+
+    @Value("${yamj3.http.cache.maxObjectSize:1048576}")
+    private long cacheMaxObjectSize;
+
+    @Value("${yamj3.http.cache.timeToLive:null}")
+    private String cacheTimeToLive;
+
     @Value("${trakttv.client.id:'unknown'}")
     private String traktTvClientId;
     
@@ -122,13 +139,36 @@ public class WebConfiguration  {
         connManager.setMaxTotal(connectionsMaxTotal);
         connManager.setDefaultMaxPerRoute(connectionsMaxPerRoute);
         
-        CacheConfig cacheConfig = CacheConfig.custom()
+        NetworkCachingHttpClientBuilder builder = NetworkCachingHttpClientBuilder.create();
+        if (cacheOnDisk) {
+            File cacheDir = new File(System.getProperty("yamj3.home", ".") + "/cache/http");
+            LOG.debug("Using HTTP cache directory: {}", cacheDir.getAbsolutePath());
+            builder.setHttpCacheStorage(new FileHttpCacheStorage(cacheDir, cacheMaxSize * 1024 * 1024));
+            builder.setCacheConfig(CacheConfig.custom()
+                        .setMaxObjectSize(cacheMaxObjectSize)
+                        .setSharedCache(false)
+                        .build());
+        } else {
+            builder.setCacheConfig(CacheConfig.custom()
                         .setMaxCacheEntries(1000)
                         .setMaxObjectSize(8192)
-                        .build();
-        
-        HttpClientBuilder builder = CachingHttpClientBuilder.create()
-                .setCacheConfig(cacheConfig)
+                        .build());
+        }
+
+        // applied to requests which are not answered by the cache
+        RateLimitInterceptor rateLimitInterceptor = new RateLimitInterceptor(rateLimits);
+        if (!rateLimitInterceptor.isEmpty()) {
+            LOG.debug("Using rate limits: {}", rateLimits);
+        }
+        CacheTimeToLiveInterceptor timeToLiveInterceptor = new CacheTimeToLiveInterceptor(cacheTimeToLive);
+        if (!timeToLiveInterceptor.isEmpty()) {
+            LOG.debug("Using cache time to live: {}", cacheTimeToLive);
+        }
+        builder.setNetworkProcessor(new ImmutableHttpProcessor(
+                        new HttpRequestInterceptor[] {rateLimitInterceptor},
+                        new HttpResponseInterceptor[] {timeToLiveInterceptor}));
+
+        builder
                 .setConnectionManager(connManager)
                 .setProxy(proxy)
                 .setDefaultCredentialsProvider(credentialsProvider)
@@ -149,7 +189,7 @@ public class WebConfiguration  {
         // build the client
         PoolingHttpClient wrapper = new PoolingHttpClient(builder.build(), connManager);
         wrapper.setUserAgentSelector(new WebBrowserUserAgentSelector());
-        wrapper.addGroupLimit(".*", 1); // default limit, can be overwritten
+        wrapper.addGroupLimit(".*", Math.max(1, connectionsMaxPerRoute)); // default limit, can be overwritten
         
         if (StringUtils.isNotBlank(maxDownloadSlots)) {
             LOG.debug("Using download limits: {}", maxDownloadSlots);
@@ -1,8 +1,10 @@
 package org.yamj.core.api.json;
 
+import static org.junit.Assert.assertEquals;
 import static org.yamj.plugin.api.Constants.UTF8;
 
 import java.io.File;
+import javax.servlet.http.HttpServletResponse;
 import org.apache.http.HttpEntity;
 import org.apache.http.client.methods.HttpPost;
 import org.apache.http.entity.ContentType;
@@ -11,10 +13,16 @@ import org.junit.Ignore;
 import org.junit.Test;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.context.request.ServletWebRequest;
 import org.yamj.api.common.http.DigestedResponse;
 import org.yamj.api.common.http.DigestedResponseReader;
 import org.yamj.api.common.http.SimpleHttpClientBuilder;
 import org.yamj.core.AbstractTest;
+import org.yamj.core.service.artwork.ArtworkProcessorService;
+import org.yamj.core.service.artwork.ImageDTO;
 
 public class ArtworkControllerTest extends AbstractTest {
 
@@ -25,6 +33,28 @@ public class ArtworkControllerTest extends AbstractTest {
         // no test 
     }
 
+    @Test
+    public void testPendingImageIsAccepted() throws Exception {
+        // the image generation was rejected or is still running
+        ArtworkProcessorService processorService = new ArtworkProcessorService() {
+            @Override
+            public ImageDTO getImage(Long id, String profileName) {
+                ImageDTO image = new ImageDTO();
+                image.setPending(true);
+                return image;
+            }
+        };
+        ArtworkController controller = new ArtworkController();
+        ReflectionTestUtils.setField(controller, "artworkLocatedProcessorService", processorService);
+
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/artwork/get/thumb/1");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        controller.getImage("thumb", 1L, new ServletWebRequest(request, response), response);
+
+        assertEquals(HttpServletResponse.SC_ACCEPTED, response.getStatus());
+        assertEquals("10", response.getHeader("Retry-After"));
+    }
+
     @Ignore
     public void uploadImage() throws Exception {
         final long id=1;
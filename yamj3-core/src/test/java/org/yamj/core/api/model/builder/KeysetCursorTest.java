@@ -0,0 +1,112 @@
+/*
+ *      Copyright (c) 2004-2015 YAMJ Members
+ *      https://github.com/organizations/YAMJ/teams
+ *
+ *      This file is part of the Yet Another Media Jukebox (YAMJ).
+ *
+ *      YAMJ is free software: you can redistribute it and/or modify
+ *      it under the terms of the GNU General Public License as published by
+ *      the Free Software Foundation, either version 3 of the License, or
+ *      any later version.
+ *
+ *      YAMJ is distributed in the hope that it will be useful,
+ *      but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *      MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *      GNU General Public License for more details.
+ *
+ *      You should have received a copy of the GNU General Public License
+ *      along with YAMJ.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ *      Web: https://github.com/YAMJ/yamj-v3
+ *
+ */
+package org.yamj.core.api.model.builder;
+
+import static org.junit.Assert.*;
+
+import java.nio.charset.StandardCharsets;
+import org.apache.commons.codec.binary.Base64;
+import org.junit.Test;
+
+public class KeysetCursorTest {
+
+    @Test
+    public void testEncodeDecode() {
+        KeysetCursor cursor = KeysetCursor.decode(new KeysetCursor("Star Wars | A New Hope", "movie", 42L).encode());
+        assertNotNull(cursor);
+        assertEquals("Star Wars | A New Hope", cursor.getSortValue());
+        assertEquals("movie", cursor.getVideoType());
+        assertEquals(42L, cursor.getId());
+    }
+
+    @Test
+    public void testEncodeDecodeNullAndEmpty() {
+        KeysetCursor cursor = KeysetCursor.decode(new KeysetCursor(null, null, 1L).encode());
+        assertNotNull(cursor);
+        assertNull(cursor.getSortValue());
+        assertNull(cursor.getVideoType());
+
+        cursor = KeysetCursor.decode(new KeysetCursor("", "", 2L).encode());
+        assertNotNull(cursor);
+        assertEquals("", cursor.getSortValue());
+        assertEquals("", cursor.getVideoType());
+    }
+
+    @Test
+    public void testEncodeIsUrlSafe() {
+        String token = new KeysetCursor("?&=/+ äöü", "series", 3L).encode();
+        assertTrue(token.matches("[A-Za-z0-9_-]+"));
+        assertEquals("?&=/+ äöü", KeysetCursor.decode(token).getSortValue());
+    }
+
+    @Test
+    public void testDecodeInvalid() {
+        assertNull(KeysetCursor.decode(null));
+        assertNull(KeysetCursor.decode(""));
+        assertNull(KeysetCursor.decode("not a token!"));
+        assertNull(KeysetCursor.decode(token("vTitle|vmovie")));
+        assertNull(KeysetCursor.decode(token("vTitle|vmovie|abc")));
+        assertNull(KeysetCursor.decode(token("Title|vmovie|1")));
+        assertNull(KeysetCursor.decode(token("v%zz|vmovie|1")));
+    }
+
+    @Test
+    public void testConditionById() {
+        KeysetCursor cursor = new KeysetCursor(null, null, 5L);
+        assertEquals(" AND vd.id>:keysetId", cursor.getCondition(null, "vd.id", null, false));
+        assertEquals(" AND vd.id<:keysetId", cursor.getCondition(null, "vd.id", null, true));
+    }
+
+    @Test
+    public void testConditionBySortColumn() {
+        KeysetCursor cursor = new KeysetCursor("Title", null, 5L);
+        assertEquals(" AND (vd.title>:keysetValue OR (vd.title=:keysetValue AND vd.id>:keysetId))",
+                cursor.getCondition("vd.title", "vd.id", null, false));
+        assertEquals(" AND (vd.title<:keysetValue OR (vd.title=:keysetValue AND vd.id<:keysetId))",
+                cursor.getCondition("vd.title", "vd.id", null, true));
+    }
+
+    @Test
+    public void testConditionWithVideoType() {
+        KeysetCursor cursor = new KeysetCursor("Title", "movie", 5L);
+        
+        // same type: compare sort value and id
+        assertEquals(" AND (t.title>:keysetValue OR (t.title=:keysetValue AND t.id>:keysetId))",
+                cursor.getCondition("t.title", "t.id", "movie", false));
+        // type after cursor type: same sort value is after the cursor
+        assertEquals(" AND t.title>=:keysetValue", cursor.getCondition("t.title", "t.id", "series", false));
+        // type before cursor type: same sort value is before the cursor
+        assertEquals(" AND t.title>:keysetValue", cursor.getCondition("t.title", "t.id", "episode", false));
+        // descending order reverses the type order
+        assertEquals(" AND t.title<:keysetValue", cursor.getCondition("t.title", "t.id", "series", true));
+        assertEquals(" AND t.title<=:keysetValue", cursor.getCondition("t.title", "t.id", "episode", true));
+        
+        // sorted by id and type
+        assertEquals(" AND t.id>=:keysetId", cursor.getCondition(null, "t.id", "series", false));
+        assertEquals(" AND t.id>:keysetId", cursor.getCondition(null, "t.id", "episode", false));
+    }
+
+    private static String token(String value) {
+        return Base64.encodeBase64URLSafeString(value.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,99 @@
+/*
+ *      Copyright (c) 2004-2015 YAMJ Members
+ *      https://github.com/organizations/YAMJ/teams
+ *
+ *      This file is part of the Yet Another Media Jukebox (YAMJ).
+ *
+ *      YAMJ is free software: you can redistribute it and/or modify
+ *      it under the terms of the GNU General Public License as published by
+ *      the Free Software Foundation, either version 3 of the License, or
+ *      any later version.
+ *
+ *      YAMJ is distributed in the hope that it will be useful,
+ *      but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *      MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *      GNU General Public License for more details.
+ *
+ *      You should have received a copy of the GNU General Public License
+ *      along with YAMJ.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ *      Web: https://github.com/YAMJ/yamj-v3
+ *
+ */
+package org.yamj.core.database.dao;
+
+import static org.junit.Assert.*;
+
+import java.util.Arrays;
+import java.util.Collections;
+import org.junit.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.cache.Cache;
+import org.yamj.core.AbstractTest;
+import org.yamj.core.database.model.Person;
+import org.yamj.core.database.model.dto.CreditDTO;
+import org.yamj.plugin.api.model.type.JobType;
+
+public class MetadataDaoTest extends AbstractTest {
+
+    @Autowired
+    private MetadataDao metadataDao;
+    @Autowired
+    @Qualifier("personIdCache")
+    private Cache personIdCache;
+
+    @Test
+    public void testCreatePerson() {
+        CreditDTO credit = new CreditDTO("test", "1", JobType.ACTOR, "Create_Person", "Create Person");
+        metadataDao.storeMovieCredit(credit);
+        
+        assertNotNull(credit.getPersonId());
+        Person person = metadataDao.getPerson("Create_Person");
+        assertNotNull(person);
+        assertEquals(credit.getPersonId(), person.getId());
+        assertEquals("create_person", person.getIdentifierLower());
+        assertNotNull(person.getPhoto());
+        
+        // id is cached after commit
+        assertEquals(person.getId(), personIdCache.get("create_person", Long.class));
+    }
+
+    @Test
+    public void testFindPersons() {
+        CreditDTO credit1 = new CreditDTO("test", "2", JobType.ACTOR, "Find_Person", "Find Person");
+        CreditDTO credit2 = new CreditDTO("test", "3", JobType.DIRECTOR, "Other_Person", "Other Person");
+        metadataDao.storeMovieCredits(Arrays.asList(credit1, credit2));
+        assertNotNull(credit1.getPersonId());
+        assertNotNull(credit2.getPersonId());
+        assertNotEquals(credit1.getPersonId(), credit2.getPersonId());
+
+        // persons are found case insensitive, even if not cached
+        personIdCache.evict("find_person");
+        CreditDTO credit3 = new CreditDTO("test", "2", JobType.WRITER, "FIND_PERSON", "Find Person");
+        CreditDTO credit4 = new CreditDTO("test", "3", JobType.ACTOR, "other_person", "Other Person");
+        metadataDao.storeMovieCredits(Arrays.asList(credit3, credit4));
+        assertEquals(credit1.getPersonId(), credit3.getPersonId());
+        assertEquals(credit2.getPersonId(), credit4.getPersonId());
+    }
+
+    @Test
+    public void testCachedPersonIdCheck() {
+        CreditDTO credit1 = new CreditDTO("test", "4", JobType.ACTOR, "Cached_Person", "Cached Person");
+        CreditDTO credit2 = new CreditDTO("test", "5", JobType.ACTOR, "Wrong_Person", "Wrong Person");
+        metadataDao.storeMovieCredits(Arrays.asList(credit1, credit2));
+
+        // cached id of another person must not be used
+        personIdCache.put("cached_person", credit2.getPersonId());
+        CreditDTO credit3 = new CreditDTO("test", "4", JobType.ACTOR, "Cached_Person", "Cached Person");
+        metadataDao.storeMovieCredits(Collections.singletonList(credit3));
+        assertEquals(credit1.getPersonId(), credit3.getPersonId());
+        assertEquals(credit1.getPersonId(), personIdCache.get("cached_person", Long.class));
+
+        // cached id of a not existing person must not be used
+        personIdCache.put("cached_person", Long.valueOf(-1L));
+        CreditDTO credit4 = new CreditDTO("test", "4", JobType.ACTOR, "Cached_Person", "Cached Person");
+        metadataDao.storeMovieCredits(Collections.singletonList(credit4));
+        assertEquals(credit1.getPersonId(), credit4.getPersonId());
+    }
+}
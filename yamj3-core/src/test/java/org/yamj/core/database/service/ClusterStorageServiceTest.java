@@ -0,0 +1,134 @@
+/*
+ *      Copyright (c) 2004-2015 YAMJ Members
+ *      https://github.com/organizations/YAMJ/teams
+ *
+ *      This file is part of the Yet Another Media Jukebox (YAMJ).
+ *
+ *      YAMJ is free software: you can redistribute it and/or modify
+ *      it under the terms of the GNU General Public License as published by
+ *      the Free Software Foundation, either version 3 of the License, or
+ *      any later version.
+ *
+ *      YAMJ is distributed in the hope that it will be useful,
+ *      but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *      MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *      GNU General Public License for more details.
+ *
+ *      You should have received a copy of the GNU General Public License
+ *      along with YAMJ.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ *      Web: https://github.com/YAMJ/yamj-v3
+ *
+ */
+package org.yamj.core.database.service;
+
+import static org.junit.Assert.*;
+
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import org.junit.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.yamj.core.AbstractTest;
+import org.yamj.core.database.dao.CommonDao;
+import org.yamj.core.database.model.CoreNode;
+import org.yamj.core.database.model.dto.QueueDTO;
+
+public class ClusterStorageServiceTest extends AbstractTest {
+
+    private static final String QUEUE_NAME = "test.cluster";
+    private static final Date START_TIME = new Date(1000000L);
+
+    @Autowired
+    private ClusterStorageService clusterStorageService;
+    @Autowired
+    private QueueStorageService queueStorageService;
+    @Autowired
+    private CommonDao commonDao;
+
+    @Test
+    public void testHeartbeat() {
+        clusterStorageService.heartbeat("heartbeat-node", "host1", START_TIME);
+        CoreNode node = commonDao.getById(CoreNode.class, "heartbeat-node");
+        assertNotNull(node);
+        assertEquals("host1", node.getHostName());
+        assertEquals(START_TIME.getTime(), node.getStartTime().getTime());
+        
+        final Date lastHeartbeat = new Date(System.currentTimeMillis() - 60000L);
+        setHeartbeat("heartbeat-node", lastHeartbeat);
+        clusterStorageService.heartbeat("heartbeat-node", "host2", new Date());
+        node = commonDao.getById(CoreNode.class, "heartbeat-node");
+        // only the heartbeat is updated
+        assertEquals("host1", node.getHostName());
+        assertEquals(START_TIME.getTime(), node.getStartTime().getTime());
+        assertTrue(node.getHeartbeat().after(lastHeartbeat));
+
+        clusterStorageService.unregister("heartbeat-node");
+    }
+
+    @Test
+    public void testAliveNodes() {
+        final Date deadline = new Date(System.currentTimeMillis() - 60000L);
+        clusterStorageService.heartbeat("alive-node", "host", START_TIME);
+        assertTrue(containsNode(clusterStorageService.getAliveNodes(deadline), "alive-node"));
+        
+        setHeartbeat("alive-node", new Date(deadline.getTime() - 1000L));
+        assertFalse(containsNode(clusterStorageService.getAliveNodes(deadline), "alive-node"));
+
+        clusterStorageService.unregister("alive-node");
+    }
+
+    @Test
+    public void testRemoveDeadNodes() {
+        clusterStorageService.heartbeat("dead-node", "host", START_TIME);
+        clusterStorageService.heartbeat("living-node", "host", START_TIME);
+        claim(1L, "dead-node");
+        claim(2L, "living-node");
+
+        // the dead node missed its heartbeats
+        setHeartbeat("dead-node", new Date(1000L));
+        List<String> removed = clusterStorageService.removeDeadNodes(new Date(2000L));
+
+        assertEquals(Collections.singletonList("dead-node"), removed);
+        assertNull(commonDao.getById(CoreNode.class, "dead-node"));
+        assertNull(queueStorageService.getClaimOwner(QUEUE_NAME, new QueueDTO(1L)));
+        assertNotNull(commonDao.getById(CoreNode.class, "living-node"));
+        assertEquals("living-node", queueStorageService.getClaimOwner(QUEUE_NAME, new QueueDTO(2L)));
+
+        clusterStorageService.unregister("living-node");
+    }
+
+    @Test
+    public void testUnregister() {
+        clusterStorageService.heartbeat("leaving-node", "host", START_TIME);
+        claim(3L, "leaving-node");
+
+        clusterStorageService.unregister("leaving-node");
+
+        assertNull(commonDao.getById(CoreNode.class, "leaving-node"));
+        assertNull(queueStorageService.getClaimOwner(QUEUE_NAME, new QueueDTO(3L)));
+        // unregister of an unknown node is ignored
+        clusterStorageService.unregister("leaving-node");
+    }
+
+    private void claim(long id, String owner) {
+        final Date leaseUntil = new Date(System.currentTimeMillis() + 60000L);
+        List<QueueDTO> claimed = queueStorageService.claimQueueElements(QUEUE_NAME, Collections.singletonList(new QueueDTO(id)), 1, owner, leaseUntil);
+        assertEquals(1, claimed.size());
+    }
+
+    private void setHeartbeat(String nodeId, Date heartbeat) {
+        CoreNode node = commonDao.getById(CoreNode.class, nodeId);
+        node.setHeartbeat(heartbeat);
+        commonDao.updateEntity(node);
+    }
+
+    private static boolean containsNode(List<CoreNode> nodes, String nodeId) {
+        for (CoreNode node : nodes) {
+            if (nodeId.equals(node.getNodeId())) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
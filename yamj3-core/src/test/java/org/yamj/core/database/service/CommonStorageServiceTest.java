@@ -0,0 +1,119 @@
+/*
+ *      Copyright (c) 2004-2015 YAMJ Members
+ *      https://github.com/organizations/YAMJ/teams
+ *
+ *      This file is part of the Yet Another Media Jukebox (YAMJ).
+ *
+ *      YAMJ is free software: you can redistribute it and/or modify
+ *      it under the terms of the GNU General Public License as published by
+ *      the Free Software Foundation, either version 3 of the License, or
+ *      any later version.
+ *
+ *      YAMJ is distributed in the hope that it will be useful,
+ *      but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *      MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *      GNU General Public License for more details.
+ *
+ *      You should have received a copy of the GNU General Public License
+ *      along with YAMJ.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ *      Web: https://github.com/YAMJ/yamj-v3
+ *
+ */
+package org.yamj.core.database.service;
+
+import static org.junit.Assert.*;
+
+import java.util.Arrays;
+import java.util.Set;
+import org.junit.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.yamj.common.type.StatusType;
+import org.yamj.core.AbstractTest;
+import org.yamj.core.database.dao.CommonDao;
+import org.yamj.core.database.model.*;
+import org.yamj.core.database.model.dto.DeletionDTO;
+import org.yamj.plugin.api.model.type.ArtworkType;
+import org.yamj.plugin.api.model.type.ContainerType;
+import org.yamj.plugin.api.model.type.ImageType;
+
+public class CommonStorageServiceTest extends AbstractTest {
+
+    @Autowired
+    private CommonStorageService commonStorageService;
+    @Autowired
+    private CommonDao commonDao;
+
+    @Test
+    public void testDeleteArtworkLocated() {
+        Artwork artwork = new Artwork();
+        artwork.setArtworkType(ArtworkType.PHOTO);
+        artwork.setStatus(StatusType.DONE);
+        commonDao.saveEntity(artwork);
+
+        ArtworkLocated located1 = createLocated(artwork, "hash1", StatusType.DELETED);
+        ArtworkLocated located2 = createLocated(artwork, "hash2", StatusType.DONE);
+        ArtworkGenerated generated = new ArtworkGenerated();
+        generated.setArtworkLocated(located1);
+        generated.setCacheDirectory("gen");
+        generated.setCacheFilename("hash1_small.jpg");
+        generated.setStatus(StatusType.DONE);
+        commonDao.saveEntity(generated);
+
+        // located artwork which is not marked as deleted is kept
+        DeletionDTO dto = commonStorageService.deleteArtworkLocated(Arrays.asList(located1.getId(), located2.getId()));
+        assertEquals(2, dto.getFilesToDelete().size());
+        assertFalse(dto.isUpdateTrigger());
+        assertNull(commonDao.getById(ArtworkLocated.class, located1.getId()));
+        assertNull(commonDao.getById(ArtworkGenerated.class, generated.getId()));
+        assertNotNull(commonDao.getById(ArtworkLocated.class, located2.getId()));
+        assertEquals(StatusType.DONE, commonDao.getById(Artwork.class, artwork.getId()).getStatus());
+
+        // artwork without located artwork is set to NEW
+        located2.setStatus(StatusType.DELETED);
+        commonDao.updateEntity(located2);
+        dto = commonStorageService.deleteArtworkLocated(Arrays.asList(located2.getId()));
+        assertEquals(1, dto.getFilesToDelete().size());
+        assertTrue(dto.isUpdateTrigger());
+        assertNull(commonDao.getById(ArtworkLocated.class, located2.getId()));
+        assertEquals(StatusType.NEW, commonDao.getById(Artwork.class, artwork.getId()).getStatus());
+    }
+
+    @Test
+    public void testDeleteTrailers() {
+        Trailer trailer1 = createTrailer("trailer1", StatusType.DELETED, "trailer1.mp4");
+        Trailer trailer2 = createTrailer("trailer2", StatusType.DELETED, null);
+        Trailer trailer3 = createTrailer("trailer3", StatusType.DONE, "trailer3.mp4");
+
+        Set<String> filesToDelete = commonStorageService.deleteTrailers(Arrays.asList(trailer1.getId(), trailer2.getId(), trailer3.getId()));
+        assertEquals(1, filesToDelete.size());
+        assertNull(commonDao.getById(Trailer.class, trailer1.getId()));
+        assertNull(commonDao.getById(Trailer.class, trailer2.getId()));
+        assertNotNull(commonDao.getById(Trailer.class, trailer3.getId()));
+    }
+
+    private ArtworkLocated createLocated(Artwork artwork, String hashCode, StatusType status) {
+        ArtworkLocated located = new ArtworkLocated();
+        located.setArtwork(artwork);
+        located.setSource("test");
+        located.setHashCode(hashCode);
+        located.setImageType(ImageType.JPG);
+        located.setCacheDirectory("loc");
+        located.setCacheFilename(hashCode + ".jpg");
+        located.setStatus(status);
+        commonDao.saveEntity(located);
+        return located;
+    }
+
+    private Trailer createTrailer(String hashCode, StatusType status, String cacheFilename) {
+        Trailer trailer = new Trailer();
+        trailer.setSource("test");
+        trailer.setHashCode(hashCode);
+        trailer.setContainer(ContainerType.MP4);
+        trailer.setCacheDirectory("trailer");
+        trailer.setCacheFilename(cacheFilename);
+        trailer.setStatus(status);
+        commonDao.saveEntity(trailer);
+        return trailer;
+    }
+}
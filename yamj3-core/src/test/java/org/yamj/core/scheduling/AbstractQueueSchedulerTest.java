@@ -0,0 +1,269 @@
+/*
+ *      Copyright (c) 2004-2015 YAMJ Members
+ *      https://github.com/organizations/YAMJ/teams
+ *
+ *      This file is part of the Yet Another Media Jukebox (YAMJ).
+ *
+ *      YAMJ is free software: you can redistribute it and/or modify
+ *      it under the terms of the GNU General Public License as published by
+ *      the Free Software Foundation, either version 3 of the License, or
+ *      any later version.
+ *
+ *      YAMJ is distributed in the hope that it will be useful,
+ *      but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *      MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *      GNU General Public License for more details.
+ *
+ *      You should have received a copy of the GNU General Public License
+ *      along with YAMJ.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ *      Web: https://github.com/YAMJ/yamj-v3
+ *
+ */
+package org.yamj.core.scheduling;
+
+import static org.junit.Assert.*;
+
+import java.util.*;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.yamj.core.database.model.dto.QueueDTO;
+
+public class AbstractQueueSchedulerTest {
+
+    private static final String QUEUE_NAME = "test.queue";
+
+    private TestQueueScheduler scheduler;
+    private TestClaimScheduler claimScheduler;
+    private TestQueue queue;
+
+    @Before
+    public void setUp() {
+        scheduler = new TestQueueScheduler();
+        claimScheduler = new TestClaimScheduler();
+        ReflectionTestUtils.setField(scheduler, "queueClaimScheduler", claimScheduler);
+        queue = new TestQueue();
+    }
+
+    @After
+    public void tearDown() {
+        scheduler.shutdownExecutor();
+    }
+
+    @Test
+    public void testPipelinedProcessing() {
+        queue.add(1, 2, 3, 4, 5, 6, 7);
+        
+        int processed = scheduler.pipelinedProcessing(QUEUE_NAME, queue, 2, 3, queue);
+        
+        assertEquals(7, processed);
+        assertTrue(queue.elements.isEmpty());
+        assertEquals(7, queue.processed.size());
+        assertEquals(new HashSet<>(queue.processed), claimScheduler.completed);
+        assertEquals(0, claimScheduler.getClaimCount(QUEUE_NAME));
+    }
+
+    @Test
+    public void testPipelinedProcessingStillQueued() {
+        queue.add(1, 2, 3, 4);
+        queue.stillQueued.add(new QueueDTO(1L));
+        
+        int processed = scheduler.pipelinedProcessing(QUEUE_NAME, queue, 1, 2, queue);
+        
+        // element is processed once and its claim released
+        assertEquals(4, processed);
+        assertEquals(Collections.singletonList(new QueueDTO(1L)), queue.elements);
+        assertEquals(4, queue.processed.size());
+        assertFalse(claimScheduler.claims.containsKey(new QueueDTO(1L)));
+    }
+
+    @Test
+    public void testPipelinedProcessingWithErrors() {
+        queue.add(1, 2, 3, 4, 5);
+        queue.failing.add(new QueueDTO(2L));
+        queue.failing.add(new QueueDTO(4L));
+        
+        int processed = scheduler.pipelinedProcessing(QUEUE_NAME, queue, 2, 2, queue);
+        
+        assertEquals(5, processed);
+        assertTrue(queue.elements.isEmpty());
+        assertEquals(new HashSet<>(Arrays.asList(new QueueDTO(2L), new QueueDTO(4L))), new HashSet<>(queue.errors));
+        assertEquals(5, claimScheduler.completed.size());
+        assertEquals(0, claimScheduler.getClaimCount(QUEUE_NAME));
+    }
+
+    @Test
+    public void testPipelinedProcessingFailedElementStillQueued() {
+        queue.add(1, 2, 3);
+        queue.failing.add(new QueueDTO(2L));
+        queue.stillQueued.add(new QueueDTO(2L));
+        
+        int processed = scheduler.pipelinedProcessing(QUEUE_NAME, queue, 1, 1, queue);
+        
+        // failed element is not processed again in this run
+        assertEquals(3, processed);
+        assertEquals(Collections.singletonList(new QueueDTO(2L)), queue.elements);
+        assertEquals(Collections.singletonList(new QueueDTO(2L)), queue.errors);
+        assertEquals(3, queue.processed.size());
+        assertFalse(claimScheduler.claims.containsKey(new QueueDTO(2L)));
+    }
+
+    @Test
+    public void testPipelinedProcessingRefill() {
+        queue.add(1, 2);
+        // elements which are queued while processing
+        queue.followUps.put(new QueueDTO(1L), new QueueDTO(3L));
+        queue.followUps.put(new QueueDTO(3L), new QueueDTO(4L));
+        
+        int processed = scheduler.pipelinedProcessing(QUEUE_NAME, queue, 2, 1, queue);
+        
+        assertEquals(4, processed);
+        assertTrue(queue.elements.isEmpty());
+        assertEquals(new HashSet<>(Arrays.asList(new QueueDTO(1L), new QueueDTO(2L), new QueueDTO(3L), new QueueDTO(4L))), claimScheduler.completed);
+    }
+
+    @Test
+    public void testPipelinedProcessingInterrupted() {
+        queue.add(1, 2, 3);
+        
+        Thread.currentThread().interrupt();
+        int processed = scheduler.pipelinedProcessing(QUEUE_NAME, queue, 2, 1, queue);
+        
+        // claims of elements which could not be submitted are released
+        assertTrue(Thread.interrupted());
+        assertEquals(0, processed);
+        assertTrue(queue.processed.isEmpty());
+        assertTrue(claimScheduler.claims.isEmpty());
+    }
+
+    @Test
+    public void testClaimNextQueueElementStillQueued() {
+        queue.add(1, 2, 3);
+        queue.stillQueued.add(new QueueDTO(1L));
+        Set<QueueDTO> skipped = new HashSet<>();
+
+        // first element stays in the queue and is released
+        QueueDTO element = scheduler.claimNextQueueElement(QUEUE_NAME, queue, skipped);
+        assertEquals(new QueueDTO(1L), element);
+        queue.processQueueElement(element);
+        scheduler.releaseQueueElement(QUEUE_NAME, element);
+        skipped.add(element);
+        
+        // next elements are claimed although the first element is still in the queue
+        element = scheduler.claimNextQueueElement(QUEUE_NAME, queue, skipped);
+        assertEquals(new QueueDTO(2L), element);
+        queue.processQueueElement(element);
+        scheduler.completeQueueElement(QUEUE_NAME, element);
+
+        element = scheduler.claimNextQueueElement(QUEUE_NAME, queue, skipped);
+        assertEquals(new QueueDTO(3L), element);
+        queue.processQueueElement(element);
+        scheduler.completeQueueElement(QUEUE_NAME, element);
+
+        assertNull(scheduler.claimNextQueueElement(QUEUE_NAME, queue, skipped));
+        assertFalse(claimScheduler.claims.containsKey(new QueueDTO(1L)));
+    }
+
+    @Test
+    public void testClaimNextQueueElementClaimedByOthers() {
+        queue.add(1, 2);
+        claimScheduler.claims.put(new QueueDTO(1L), Boolean.FALSE);
+
+        QueueDTO element = scheduler.claimNextQueueElement(QUEUE_NAME, queue, Collections.<QueueDTO>emptySet());
+        assertEquals(new QueueDTO(2L), element);
+    }
+
+    private static class TestQueueScheduler extends AbstractQueueScheduler {
+        // nothing to override
+    }
+
+    private static class TestQueue implements IQueueProvider, IQueueProcessService {
+
+        private final List<QueueDTO> elements = Collections.synchronizedList(new ArrayList<QueueDTO>());
+        private final List<QueueDTO> processed = Collections.synchronizedList(new ArrayList<QueueDTO>());
+        private final Set<QueueDTO> stillQueued = Collections.synchronizedSet(new HashSet<QueueDTO>());
+        private final Set<QueueDTO> failing = Collections.synchronizedSet(new HashSet<QueueDTO>());
+        private final List<QueueDTO> errors = Collections.synchronizedList(new ArrayList<QueueDTO>());
+        // elements to queue when an element is processed
+        private final Map<QueueDTO, QueueDTO> followUps = Collections.synchronizedMap(new HashMap<QueueDTO, QueueDTO>());
+
+        void add(long... ids) {
+            for (long id : ids) {
+                elements.add(new QueueDTO(id));
+            }
+        }
+
+        @Override
+        public List<QueueDTO> getQueueElements(int max) {
+            synchronized (elements) {
+                return new ArrayList<>(elements.subList(0, Math.min(max, elements.size())));
+            }
+        }
+
+        @Override
+        public void processQueueElement(QueueDTO queueElement) {
+            processed.add(queueElement);
+            QueueDTO followUp = followUps.get(queueElement);
+            if (followUp != null) {
+                elements.add(followUp);
+            }
+            if (failing.contains(queueElement)) {
+                throw new IllegalStateException("Failed to process " + queueElement);
+            }
+            if (!stillQueued.contains(queueElement)) {
+                elements.remove(queueElement);
+            }
+        }
+
+        @Override
+        public void processErrorOccurred(QueueDTO queueElement, Exception error) {
+            errors.add(queueElement);
+            if (!stillQueued.contains(queueElement)) {
+                elements.remove(queueElement);
+            }
+        }
+    }
+
+    private static class TestClaimScheduler extends QueueClaimScheduler {
+
+        // claimed elements; true if completed
+        private final Map<QueueDTO, Boolean> claims = new HashMap<>();
+        private final Set<QueueDTO> completed = new HashSet<>();
+
+        @Override
+        public synchronized List<QueueDTO> claim(String queueName, List<QueueDTO> candidates, int maxResults) {
+            List<QueueDTO> claimed = new ArrayList<>();
+            for (QueueDTO candidate : candidates) {
+                if (claimed.size() < maxResults && !claims.containsKey(candidate)) {
+                    claims.put(candidate, Boolean.FALSE);
+                    claimed.add(candidate);
+                }
+            }
+            return claimed;
+        }
+
+        @Override
+        public synchronized int getClaimCount(String queueName) {
+            int count = 0;
+            for (Boolean done : claims.values()) {
+                if (!done.booleanValue()) {
+                    count++;
+                }
+            }
+            return count;
+        }
+
+        @Override
+        public synchronized void release(String queueName, QueueDTO queueElement) {
+            claims.remove(queueElement);
+        }
+
+        @Override
+        public synchronized void complete(String queueName, QueueDTO queueElement) {
+            claims.put(queueElement, Boolean.TRUE);
+            completed.add(queueElement);
+        }
+    }
+}
@@ -0,0 +1,270 @@
+/*
+ *      Copyright (c) 2004-2015 YAMJ Members
+ *      https://github.com/organizations/YAMJ/teams
+ *
+ *      This file is part of the Yet Another Media Jukebox (YAMJ).
+ *
+ *      YAMJ is free software: you can redistribute it and/or modify
+ *      it under the terms of the GNU General Public License as published by
+ *      the Free Software Foundation, either version 3 of the License, or
+ *      any later version.
+ *
+ *      YAMJ is distributed in the hope that it will be useful,
+ *      but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *      MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *      GNU General Public License for more details.
+ *
+ *      You should have received a copy of the GNU General Public License
+ *      along with YAMJ.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ *      Web: https://github.com/YAMJ/yamj-v3
+ *
+ */
+package org.yamj.core.scheduling;
+
+import static org.junit.Assert.*;
+
+import java.util.*;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.yamj.core.database.model.CoreNode;
+import org.yamj.core.database.model.dto.QueueDTO;
+import org.yamj.core.database.service.ClusterStorageService;
+import org.yamj.core.database.service.QueueStorageService;
+
+public class ClusterSchedulerTest {
+
+    private TestCluster cluster;
+    private ClusterScheduler node1;
+    private ClusterScheduler node2;
+
+    @Before
+    public void setUp() {
+        cluster = new TestCluster();
+        node1 = createNode("node1");
+        node2 = createNode("node2");
+    }
+
+    private ClusterScheduler createNode(String nodeId) {
+        ClusterScheduler scheduler = new ClusterScheduler();
+        ReflectionTestUtils.setField(scheduler, "clusterStorageService", new TestClusterStorageService(cluster));
+        ReflectionTestUtils.setField(scheduler, "queueStorageService", new TestQueueStorageService(cluster));
+        ReflectionTestUtils.setField(scheduler, "queueClaimScheduler", new TestClaimScheduler(cluster, nodeId));
+        scheduler.init();
+        return scheduler;
+    }
+
+    @Test
+    public void testHeartbeatRegistersNode() {
+        node1.heartbeat();
+        node2.heartbeat();
+        
+        assertEquals(new HashSet<>(Arrays.asList("node1", "node2")), cluster.heartbeats.keySet());
+    }
+
+    @Test
+    public void testFirstNodeIsLeader() {
+        node1.heartbeat();
+        node2.heartbeat();
+        
+        assertTrue(node1.isLeader());
+        assertFalse(node2.isLeader());
+
+        // leadership is kept with further heartbeats
+        node2.heartbeat();
+        node1.heartbeat();
+        assertTrue(node1.isLeader());
+        assertFalse(node2.isLeader());
+    }
+
+    @Test
+    public void testDeadNodeIsRemoved() {
+        node1.heartbeat();
+        node2.heartbeat();
+        
+        // node1 missed its heartbeats
+        cluster.heartbeats.put("node1", new Date(0));
+        node2.heartbeat();
+
+        assertFalse(cluster.heartbeats.containsKey("node1"));
+        assertFalse(cluster.claims.containsValue("node1"));
+        assertTrue(node2.isLeader());
+
+        // the former leader rejoins as follower
+        node1.heartbeat();
+        assertFalse(node1.isLeader());
+        assertTrue(cluster.heartbeats.containsKey("node1"));
+    }
+
+    @Test
+    public void testUnregisterHandsOverLeadership() {
+        node1.heartbeat();
+        node2.heartbeat();
+        
+        node1.unregister();
+        assertFalse(node1.isLeader());
+        assertFalse(cluster.heartbeats.containsKey("node1"));
+        
+        node2.heartbeat();
+        assertTrue(node2.isLeader());
+    }
+
+    @Test
+    public void testFailedHeartbeatDropsLeadership() {
+        node1.heartbeat();
+        assertTrue(node1.isLeader());
+        
+        cluster.available = false;
+        node1.heartbeat();
+        assertFalse(node1.isLeader());
+
+        cluster.available = true;
+        node1.heartbeat();
+        assertTrue(node1.isLeader());
+    }
+
+    @Test
+    public void testJobLock() {
+        assertTrue(node1.lockJob("deletion"));
+        assertFalse(node2.lockJob("deletion"));
+        assertFalse(node1.lockJob("deletion"));
+        // other jobs are locked independently
+        assertTrue(node2.lockJob("trakttv"));
+
+        node2.unlockJob("deletion");
+        assertFalse(node2.lockJob("deletion"));
+        
+        node1.unlockJob("deletion");
+        assertTrue(node2.lockJob("deletion"));
+    }
+
+    /**
+     * The shared state of the cluster nodes.
+     */
+    private static class TestCluster {
+
+        // claimed queue elements with their owners
+        private final Map<String, String> claims = new HashMap<>();
+        private final Map<String, Date> heartbeats = new HashMap<>();
+        private boolean available = true;
+
+        static String claimKey(String queueName, QueueDTO queueElement) {
+            return queueName + "-" + queueElement.getId();
+        }
+
+        void checkAvailable() {
+            if (!available) {
+                throw new IllegalStateException("Database not available");
+            }
+        }
+
+        void removeNode(String nodeId) {
+            heartbeats.remove(nodeId);
+            claims.values().removeAll(Collections.singleton(nodeId));
+        }
+    }
+
+    private static class TestClusterStorageService extends ClusterStorageService {
+
+        private final TestCluster cluster;
+
+        TestClusterStorageService(TestCluster cluster) {
+            this.cluster = cluster;
+        }
+
+        @Override
+        public void heartbeat(String nodeId, String hostName, Date startTime) {
+            cluster.checkAvailable();
+            cluster.heartbeats.put(nodeId, new Date());
+        }
+
+        @Override
+        public List<CoreNode> getAliveNodes(Date deadline) {
+            cluster.checkAvailable();
+            List<CoreNode> nodes = new ArrayList<>();
+            for (Map.Entry<String, Date> entry : cluster.heartbeats.entrySet()) {
+                if (!entry.getValue().before(deadline)) {
+                    CoreNode node = new CoreNode();
+                    node.setNodeId(entry.getKey());
+                    node.setHeartbeat(entry.getValue());
+                    nodes.add(node);
+                }
+            }
+            return nodes;
+        }
+
+        @Override
+        public List<String> removeDeadNodes(Date deadline) {
+            cluster.checkAvailable();
+            List<String> nodeIds = new ArrayList<>();
+            for (Map.Entry<String, Date> entry : cluster.heartbeats.entrySet()) {
+                if (entry.getValue().before(deadline)) {
+                    nodeIds.add(entry.getKey());
+                }
+            }
+            for (String nodeId : nodeIds) {
+                cluster.removeNode(nodeId);
+            }
+            return nodeIds;
+        }
+
+        @Override
+        public void unregister(String nodeId) {
+            cluster.checkAvailable();
+            cluster.removeNode(nodeId);
+        }
+    }
+
+    private static class TestQueueStorageService extends QueueStorageService {
+
+        private final TestCluster cluster;
+
+        TestQueueStorageService(TestCluster cluster) {
+            this.cluster = cluster;
+        }
+
+        @Override
+        public String getClaimOwner(String queueName, QueueDTO queueElement) {
+            cluster.checkAvailable();
+            return cluster.claims.get(TestCluster.claimKey(queueName, queueElement));
+        }
+    }
+
+    private static class TestClaimScheduler extends QueueClaimScheduler {
+
+        private final TestCluster cluster;
+        private final String owner;
+
+        TestClaimScheduler(TestCluster cluster, String owner) {
+            this.cluster = cluster;
+            this.owner = owner;
+        }
+
+        @Override
+        public String getOwner() {
+            return owner;
+        }
+
+        @Override
+        public List<QueueDTO> claim(String queueName, List<QueueDTO> candidates, int maxResults) {
+            List<QueueDTO> claimed = new ArrayList<>();
+            for (QueueDTO candidate : candidates) {
+                String key = TestCluster.claimKey(queueName, candidate);
+                if (claimed.size() < maxResults && !cluster.claims.containsKey(key)) {
+                    cluster.claims.put(key, owner);
+                    claimed.add(candidate);
+                }
+            }
+            return claimed;
+        }
+
+        @Override
+        public void release(String queueName, QueueDTO queueElement) {
+            String key = TestCluster.claimKey(queueName, queueElement);
+            if (owner.equals(cluster.claims.get(key))) {
+                cluster.claims.remove(key);
+            }
+        }
+    }
+}
@@ -0,0 +1,129 @@
+/*
+ *      Copyright (c) 2004-2015 YAMJ Members
+ *      https://github.com/organizations/YAMJ/teams
+ *
+ *      This file is part of the Yet Another Media Jukebox (YAMJ).
+ *
+ *      YAMJ is free software: you can redistribute it and/or modify
+ *      it under the terms of the GNU General Public License as published by
+ *      the Free Software Foundation, either version 3 of the License, or
+ *      any later version.
+ *
+ *      YAMJ is distributed in the hope that it will be useful,
+ *      but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *      MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *      GNU General Public License for more details.
+ *
+ *      You should have received a copy of the GNU General Public License
+ *      along with YAMJ.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ *      Web: https://github.com/YAMJ/yamj-v3
+ *
+ */
+package org.yamj.core.service.artwork;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.Image;
+import java.awt.image.BufferedImage;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.yamj.core.database.model.type.ScalingType;
+import org.yamj.core.tools.image.GraphicTools;
+
+/**
+ * Compares the scaling of the artwork profiles with the former
+ * area averaging scaling of Image.getScaledInstance.
+ *
+ * The PSNR against the area averaged image is logged in the setup.
+ * Run with the main method from the test classpath.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+public class ArtworkScalingBenchmark {
+
+    private static final Logger LOG = LoggerFactory.getLogger(ArtworkScalingBenchmark.class);
+    private static final int SOURCE_WIDTH = 2000;
+    private static final int SOURCE_HEIGHT = 3000;
+    // poster size with the ratio of the original, so all scaling types show the whole image
+    private static final int TARGET_WIDTH = 400;
+    private static final int TARGET_HEIGHT = 600;
+
+    @Param({"DEFAULT", "NORMALIZE", "STRETCH"})
+    private String scalingType;
+    private BufferedImage original;
+
+    @Setup
+    public void createImage() {
+        original = new BufferedImage(SOURCE_WIDTH, SOURCE_HEIGHT, BufferedImage.TYPE_3BYTE_BGR);
+        Graphics2D g = original.createGraphics();
+        Random random = new Random(42);
+        for (int i = 0; i < 3000; i++) {
+            g.setColor(new Color(random.nextInt()));
+            g.fillOval(random.nextInt(SOURCE_WIDTH), random.nextInt(SOURCE_HEIGHT), random.nextInt(200), random.nextInt(200));
+        }
+        g.dispose();
+
+        BufferedImage scaled = progressiveScaling();
+        BufferedImage reference = areaAveraging();
+        LOG.info("{}: {}x{} image with PSNR {} dB", scalingType, scaled.getWidth(), scaled.getHeight(), String.format("%.1f", psnr(scaled, reference)));
+    }
+
+    @Benchmark
+    public BufferedImage progressiveScaling() {
+        // the scaling of the artwork profiles without rounded corners
+        switch (ScalingType.fromString(scalingType)) {
+            case NORMALIZE:
+                return GraphicTools.scaleToSizeNormalized(TARGET_WIDTH, TARGET_HEIGHT, original);
+            case STRETCH:
+                return GraphicTools.scaleToSizeStretch(TARGET_WIDTH, TARGET_HEIGHT, original);
+            default:
+                return GraphicTools.scaleToSize(TARGET_WIDTH, TARGET_HEIGHT, original);
+        }
+    }
+
+    @Benchmark
+    public BufferedImage areaAveraging() {
+        Image temp = original.getScaledInstance(TARGET_WIDTH, TARGET_HEIGHT, Image.SCALE_SMOOTH);
+        BufferedImage bi = new BufferedImage(TARGET_WIDTH, TARGET_HEIGHT, BufferedImage.TYPE_INT_ARGB);
+        bi.createGraphics().drawImage(temp, 0, 0, null);
+        // copy for the JPEG encoding as done before
+        BufferedImage rgb = new BufferedImage(bi.getWidth(), bi.getHeight(), BufferedImage.TYPE_INT_RGB);
+        rgb.createGraphics().drawImage(bi, 0, 0, null);
+        return rgb;
+    }
+
+    private static double psnr(BufferedImage image, BufferedImage reference) {
+        double squaredError = 0;
+        for (int y = 0; y < reference.getHeight(); y++) {
+            for (int x = 0; x < reference.getWidth(); x++) {
+                int p = image.getRGB(x, y);
+                int q = reference.getRGB(x, y);
+                for (int shift = 0; shift < 24; shift += 8) {
+                    int diff = ((p >> shift) & 0xFF) - ((q >> shift) & 0xFF);
+                    squaredError += diff * diff;
+                }
+            }
+        }
+        double mse = squaredError / (3.0 * reference.getWidth() * reference.getHeight());
+        return 10 * Math.log10(255 * 255 / mse);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(ArtworkScalingBenchmark.class.getSimpleName())
+                .build();
+        new Runner(options).run();
+    }
+}
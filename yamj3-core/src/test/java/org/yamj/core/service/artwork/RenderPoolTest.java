@@ -0,0 +1,154 @@
+/*
+ *      Copyright (c) 2004-2015 YAMJ Members
+ *      https://github.com/organizations/YAMJ/teams
+ *
+ *      This file is part of the Yet Another Media Jukebox (YAMJ).
+ *
+ *      YAMJ is free software: you can redistribute it and/or modify
+ *      it under the terms of the GNU General Public License as published by
+ *      the Free Software Foundation, either version 3 of the License, or
+ *      any later version.
+ *
+ *      YAMJ is distributed in the hope that it will be useful,
+ *      but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *      MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *      GNU General Public License for more details.
+ *
+ *      You should have received a copy of the GNU General Public License
+ *      along with YAMJ.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ *      Web: https://github.com/YAMJ/yamj-v3
+ *
+ */
+package org.yamj.core.service.artwork;
+
+import static org.junit.Assert.*;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.After;
+import org.junit.Test;
+
+public class RenderPoolTest {
+
+    private RenderPool<String> pool;
+
+    @After
+    public void tearDown() {
+        if (pool != null) {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    public void testRender() throws Exception {
+        pool = new RenderPool<>(1, 1, 100);
+        AtomicInteger calls = new AtomicInteger();
+        
+        assertEquals("first", pool.render("key", new TestRendering("first", calls, null), 5));
+        assertEquals(1, calls.get());
+    }
+
+    @Test
+    public void testConcurrentRequestsShareGeneration() throws Exception {
+        pool = new RenderPool<>(2, 10, 100);
+        final CountDownLatch blocker = new CountDownLatch(1);
+        AtomicInteger firstCalls = new AtomicInteger();
+        AtomicInteger secondCalls = new AtomicInteger();
+
+        // the first request times out while the generation is blocked
+        assertNull(pool.render("key", new TestRendering("first", firstCalls, blocker), 0));
+        
+        // the second request joins the running generation, which is released while waiting
+        new Thread(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    Thread.sleep(200);
+                } catch (InterruptedException ex) { //NOSONAR
+                    // release anyway
+                }
+                blocker.countDown();
+            }
+        }).start();
+        assertEquals("first", pool.render("key", new TestRendering("second", secondCalls, null), 5));
+        assertEquals(1, firstCalls.get());
+        assertEquals(0, secondCalls.get());
+    }
+
+    @Test
+    public void testFullQueueRejects() throws Exception {
+        pool = new RenderPool<>(1, 1, 100);
+        CountDownLatch blocker = new CountDownLatch(1);
+        AtomicInteger calls = new AtomicInteger();
+        AtomicInteger rejectedCalls = new AtomicInteger();
+
+        // one generation is running, one is queued
+        assertNull(pool.render("running", new TestRendering("running", calls, blocker), 0));
+        assertNull(pool.render("queued", new TestRendering("queued", calls, blocker), 0));
+        
+        // the third is rejected, so the request gets no image
+        assertNull(pool.render("rejected", new TestRendering("rejected", rejectedCalls, null), 0));
+
+        // wait for the queued generation (or a new one, if it finished already)
+        blocker.countDown();
+        assertEquals("queued", pool.render("queued", new TestRendering("queued", calls, null), 5));
+        assertEquals(0, rejectedCalls.get());
+        
+        // the rejected generation is not registered, so it can be requested again
+        assertEquals("retry", pool.render("rejected", new TestRendering("retry", rejectedCalls, null), 5));
+        assertEquals(1, rejectedCalls.get());
+    }
+
+    @Test
+    public void testMemoryBudget() throws Exception {
+        pool = new RenderPool<>(1, 1, 100);
+        
+        final int reserved = pool.reserveMemory(60);
+        assertEquals(60, reserved);
+
+        // more than the budget is capped, but must wait for the reserved memory
+        final CountDownLatch acquired = new CountDownLatch(1);
+        final AtomicInteger capped = new AtomicInteger();
+        Thread thread = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                capped.set(pool.reserveMemory(1000));
+                acquired.countDown();
+            }
+        });
+        thread.start();
+        assertFalse(acquired.await(200, TimeUnit.MILLISECONDS));
+
+        pool.releaseMemory(reserved);
+        assertTrue(acquired.await(5, TimeUnit.SECONDS));
+        assertEquals(100, capped.get());
+        
+        pool.releaseMemory(capped.get());
+        assertEquals(40, pool.reserveMemory(40));
+    }
+
+    private static class TestRendering implements Callable<String> {
+
+        private final String result;
+        private final AtomicInteger calls;
+        private final CountDownLatch blocker;
+
+        public TestRendering(String result, AtomicInteger calls, CountDownLatch blocker) {
+            this.result = result;
+            this.calls = calls;
+            this.blocker = blocker;
+        }
+
+        @Override
+        public String call() throws Exception {
+            calls.incrementAndGet();
+            if (blocker != null) {
+                blocker.await();
+            }
+            return result;
+        }
+    }
+}
@@ -0,0 +1,223 @@
+/*
+ *      Copyright (c) 2004-2015 YAMJ Members
+ *      https://github.com/organizations/YAMJ/teams
+ *
+ *      This file is part of the Yet Another Media Jukebox (YAMJ).
+ *
+ *      YAMJ is free software: you can redistribute it and/or modify
+ *      it under the terms of the GNU General Public License as published by
+ *      the Free Software Foundation, either version 3 of the License, or
+ *      any later version.
+ *
+ *      YAMJ is distributed in the hope that it will be useful,
+ *      but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *      MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *      GNU General Public License for more details.
+ *
+ *      You should have received a copy of the GNU General Public License
+ *      along with YAMJ.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ *      Web: https://github.com/YAMJ/yamj-v3
+ *
+ */
+package org.yamj.core.service.metadata.nfo;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.apache.commons.io.FileUtils;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.NodeList;
+import org.yamj.core.tools.xml.DOMHelper;
+
+/**
+ * Compares the streaming NFO reader with the former DOM based reading
+ * on a corpus of Kodi-style movie, TV show and episode NFO files.
+ *
+ * Run with the main method from the test classpath.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+public class NfoReaderBenchmark {
+
+    private static final int FILES_PER_TYPE = 100;
+    private File corpusDir;
+    private final List<File> nfoFiles = new ArrayList<>();
+
+    @Setup
+    public void createCorpus() throws IOException {
+        corpusDir = new File(FileUtils.getTempDirectory(), "yamj3-nfo-benchmark");
+        FileUtils.forceMkdir(corpusDir);
+
+        for (int i = 0; i < FILES_PER_TYPE; i++) {
+            nfoFiles.add(write("movie" + i + ".nfo", movieNfo(i)));
+            nfoFiles.add(write("tvshow" + i + ".nfo", tvShowNfo(i)));
+            nfoFiles.add(write("episode" + i + ".nfo", episodeNfo(i)));
+            // text around the XML as handled by the retry path before
+            nfoFiles.add(write("garbage" + i + ".nfo", movieNfo(i) + "\nhttp://www.imdb.com/title/tt" + (100000 + i) + "/\n"));
+        }
+    }
+
+    @TearDown
+    public void deleteCorpus() throws IOException {
+        FileUtils.deleteDirectory(corpusDir);
+    }
+
+    @Benchmark
+    public void domReader(Blackhole blackhole) throws Exception {
+        for (File nfoFile : nfoFiles) {
+            // the content was read for the XML detection and the text fallback
+            String content = FileUtils.readFileToString(nfoFile, StandardCharsets.UTF_8);
+            Document doc;
+            try {
+                doc = DOMHelper.getDocFromFile(nfoFile);
+            } catch (Exception ex) {
+                // parse the trimmed content
+                int start = content.indexOf('<' + DOMHelper.TYPE_MOVIE);
+                int end = content.indexOf("</" + DOMHelper.TYPE_MOVIE + ">") + 8;
+                doc = DOMHelper.getDocFromString(content.substring(start, end));
+            }
+            blackhole.consume(readDocument(doc));
+        }
+    }
+
+    @Benchmark
+    public void staxReader(Blackhole blackhole) throws Exception {
+        for (File nfoFile : nfoFiles) {
+            blackhole.consume(NfoXmlReader.read(nfoFile));
+        }
+    }
+
+    private static Object readDocument(Document doc) {
+        List<String> values = new ArrayList<>();
+        for (String type : new String[] {DOMHelper.TYPE_MOVIE, DOMHelper.TYPE_TVSHOW, DOMHelper.TYPE_EPISODE}) {
+            NodeList nodes = doc.getElementsByTagName(type);
+            for (int i = 0; i < nodes.getLength(); i++) {
+                Element element = (Element) nodes.item(i);
+                values.add(DOMHelper.getValueFromElement(element, "title"));
+                values.add(DOMHelper.getValueFromElement(element, "plot"));
+                NodeList actors = element.getElementsByTagName("actor");
+                for (int a = 0; a < actors.getLength(); a++) {
+                    values.add(actors.item(a).getTextContent());
+                }
+            }
+        }
+        return values;
+    }
+
+    private File write(String fileName, String content) throws IOException {
+        File file = new File(corpusDir, fileName);
+        FileUtils.writeStringToFile(file, content, StandardCharsets.UTF_8);
+        return file;
+    }
+
+    private static String movieNfo(int number) {
+        StringBuilder sb = new StringBuilder();
+        sb.append("<?xml version=\"1.0\" encoding=\"UTF-8\" standalone=\"yes\" ?>\n");
+        sb.append("<movie>\n");
+        sb.append("    <title>Movie ").append(number).append("</title>\n");
+        sb.append("    <originaltitle>Original Movie ").append(number).append("</originaltitle>\n");
+        sb.append("    <sorttitle>Movie ").append(number).append("</sorttitle>\n");
+        sb.append("    <year>").append(1980 + number % 35).append("</year>\n");
+        sb.append("    <rating>7.4</rating>\n");
+        sb.append("    <top250>0</top250>\n");
+        sb.append("    <outline>Outline of movie ").append(number).append("</outline>\n");
+        sb.append("    <plot>").append(plot(number)).append("</plot>\n");
+        sb.append("    <tagline>Tagline</tagline>\n");
+        sb.append("    <runtime>117</runtime>\n");
+        sb.append("    <thumb aspect=\"poster\">http://image.tmdb.org/t/p/original/poster").append(number).append(".jpg</thumb>\n");
+        sb.append("    <fanart><thumb>http://image.tmdb.org/t/p/original/fanart").append(number).append(".jpg</thumb></fanart>\n");
+        sb.append("    <mpaa>Rated R</mpaa>\n");
+        sb.append("    <certification>USA:R / Germany:16</certification>\n");
+        sb.append("    <id>tt").append(100000 + number).append("</id>\n");
+        sb.append("    <id moviedb=\"tmdb\">").append(number).append("</id>\n");
+        sb.append("    <set order=\"1\">Collection ").append(number % 10).append("</set>\n");
+        sb.append("    <genre>Action / Adventure</genre>\n");
+        sb.append("    <genre>Science Fiction</genre>\n");
+        sb.append("    <country>United States of America</country>\n");
+        sb.append("    <credits>Writer ").append(number).append("</credits>\n");
+        sb.append("    <director>Director ").append(number).append("</director>\n");
+        sb.append("    <premiered>2001-05-23</premiered>\n");
+        sb.append("    <studio>Studio ").append(number % 7).append("</studio>\n");
+        sb.append("    <trailer>plugin://plugin.video.youtube/?action=play_video&amp;videoid=abc").append(number).append("</trailer>\n");
+        sb.append("    <fileinfo><streamdetails><video><codec>h264</codec><width>1920</width><height>1080</height></video>");
+        sb.append("<audio><codec>dts</codec><language>eng</language><channels>6</channels></audio></streamdetails></fileinfo>\n");
+        actors(sb, number);
+        sb.append("</movie>\n");
+        return sb.toString();
+    }
+
+    private static String tvShowNfo(int number) {
+        StringBuilder sb = new StringBuilder();
+        sb.append("<?xml version=\"1.0\" encoding=\"UTF-8\" standalone=\"yes\" ?>\n");
+        sb.append("<tvshow>\n");
+        sb.append("    <title>Show ").append(number).append("</title>\n");
+        sb.append("    <rating>8.1</rating>\n");
+        sb.append("    <plot>").append(plot(number)).append("</plot>\n");
+        sb.append("    <mpaa>TV-14</mpaa>\n");
+        sb.append("    <id>").append(70000 + number).append("</id>\n");
+        sb.append("    <genre>Drama</genre>\n");
+        sb.append("    <premiered>2008-01-20</premiered>\n");
+        sb.append("    <studio>Network ").append(number % 5).append("</studio>\n");
+        actors(sb, number);
+        sb.append("</tvshow>\n");
+        return sb.toString();
+    }
+
+    private static String episodeNfo(int number) {
+        StringBuilder sb = new StringBuilder();
+        sb.append("<?xml version=\"1.0\" encoding=\"UTF-8\" standalone=\"yes\" ?>\n");
+        for (int episode = 1; episode <= 2; episode++) {
+            sb.append("<episodedetails>\n");
+            sb.append("    <title>Episode ").append(episode).append("</title>\n");
+            sb.append("    <season>").append(1 + number % 5).append("</season>\n");
+            sb.append("    <episode>").append(episode).append("</episode>\n");
+            sb.append("    <rating>7.9</rating>\n");
+            sb.append("    <plot>").append(plot(number)).append("</plot>\n");
+            sb.append("    <aired>2008-01-20</aired>\n");
+            sb.append("    <credits>Writer ").append(number).append("</credits>\n");
+            sb.append("    <director>Director ").append(number).append("</director>\n");
+            sb.append("</episodedetails>\n");
+        }
+        return sb.toString();
+    }
+
+    private static void actors(StringBuilder sb, int number) {
+        for (int actor = 0; actor < 15; actor++) {
+            sb.append("    <actor>\n");
+            sb.append("        <name>Actor ").append(number).append('-').append(actor).append("</name>\n");
+            sb.append("        <role>Role ").append(actor).append("</role>\n");
+            sb.append("        <thumb>http://image.tmdb.org/t/p/original/actor").append(actor).append(".jpg</thumb>\n");
+            sb.append("    </actor>\n");
+        }
+    }
+
+    private static String plot(int number) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < 10; i++) {
+            sb.append("The plot of number ").append(number).append(" goes on and on &amp; on. ");
+        }
+        return sb.toString();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(NfoReaderBenchmark.class.getSimpleName())
+                .build();
+        new Runner(options).run();
+    }
+}
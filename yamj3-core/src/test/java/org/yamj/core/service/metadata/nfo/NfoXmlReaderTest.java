@@ -0,0 +1,130 @@
+/*
+ *      Copyright (c) 2004-2015 YAMJ Members
+ *      https://github.com/organizations/YAMJ/teams
+ *
+ *      This file is part of the Yet Another Media Jukebox (YAMJ).
+ *
+ *      YAMJ is free software: you can redistribute it and/or modify
+ *      it under the terms of the GNU General Public License as published by
+ *      the Free Software Foundation, either version 3 of the License, or
+ *      any later version.
+ *
+ *      YAMJ is distributed in the hope that it will be useful,
+ *      but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *      MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *      GNU General Public License for more details.
+ *
+ *      You should have received a copy of the GNU General Public License
+ *      along with YAMJ.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ *      Web: https://github.com/YAMJ/yamj-v3
+ *
+ */
+package org.yamj.core.service.metadata.nfo;
+
+import static org.junit.Assert.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import org.junit.Test;
+import org.yamj.core.service.metadata.nfo.NfoXmlContent.Actor;
+import org.yamj.core.service.metadata.nfo.NfoXmlContent.Video;
+
+public class NfoXmlReaderTest {
+
+    private static NfoXmlContent read(String nfo, Charset charset) throws IOException {
+        return NfoXmlReader.read(new ByteArrayInputStream(nfo.getBytes(charset)));
+    }
+
+    @Test
+    public void testDeclaredEncoding() throws IOException {
+        NfoXmlContent content = read("<?xml version=\"1.0\" encoding=\"ISO-8859-1\"?>\n<movie><title>Amélie</title></movie>", StandardCharsets.ISO_8859_1);
+        assertTrue(content.isParsed());
+        assertEquals("Amélie", content.getMovie().getValue("title"));
+
+        content = read("<?xml version=\"1.0\" encoding=\"windows-1252\"?><movie><title>Tom & Jerry €</title></movie>".replace("&", "&amp;"), Charset.forName("windows-1252"));
+        assertEquals("Tom & Jerry €", content.getMovie().getValue("title"));
+    }
+
+    @Test
+    public void testDefaultEncoding() throws IOException {
+        NfoXmlContent content = read("\uFEFF<movie><title>Amélie</title></movie>", StandardCharsets.UTF_8);
+        assertEquals("Amélie", content.getMovie().getValue("title"));
+
+        content = read("\uFEFF<movie><title>Amélie</title></movie>", StandardCharsets.UTF_16LE);
+        assertEquals("Amélie", content.getMovie().getValue("title"));
+    }
+
+    @Test
+    public void testTrailingText() throws IOException {
+        NfoXmlContent content = read("<movie><title>Matrix</title></movie>\nhttp://www.imdb.com/title/tt0133093/?ref=a&b <end", StandardCharsets.UTF_8);
+        assertTrue(content.isParsed());
+        assertEquals("Matrix", content.getMovie().getValue("title"));
+        assertTrue(content.getText().contains("http://www.imdb.com/title/tt0133093/?ref=a&b <end"));
+        assertFalse(content.getText().contains("Matrix"));
+
+        content = NfoXmlReader.read("<movie><title>Matrix</title></movie> between <episodedetails><title>E1</title></episodedetails> after");
+        assertEquals(1, content.getEpisodes().size());
+        assertTrue(content.getText().contains("between"));
+        assertTrue(content.getText().contains("after"));
+    }
+
+    @Test
+    public void testTextFallback() throws IOException {
+        final String nfo = "http://www.imdb.com/title/tt0133093/";
+        NfoXmlContent content = read(nfo, StandardCharsets.UTF_8);
+        assertFalse(content.isXmlFound());
+        assertFalse(content.isParsed());
+        assertEquals(nfo, content.getText());
+
+        content = NfoXmlReader.read("<movie><title>Matrix & Co</title></movie>");
+        assertTrue(content.isXmlFound());
+        assertFalse(content.isParsed());
+    }
+
+    @Test
+    public void testMultiEpisode() {
+        NfoXmlContent content = NfoXmlReader.read("<?xml version=\"1.0\"?>\n"
+            + "<episodedetails><title>Pilot</title><season>1</season><episode>1</episode></episodedetails>\n"
+            + "<episodedetails><title>Second</title><season>1</season><episode>2</episode></episodedetails>");
+        assertTrue(content.isParsed());
+        assertNull(content.getMovie());
+        assertEquals(2, content.getEpisodes().size());
+        assertEquals("Pilot", content.getEpisodes().get(0).getValue("title"));
+        assertEquals("2", content.getEpisodes().get(1).getValue("episode"));
+    }
+
+    @Test
+    public void testActorsGenresSets() {
+        NfoXmlContent content = NfoXmlReader.read("<movie>"
+            + "<genre>Action / Drama</genre><genre><name>Sci-Fi</name></genre>"
+            + "<set order=\"2\">Matrix Collection</set>"
+            + "<actor><name>Keanu Reeves</name><role>Neo</role><thumb>neo.jpg</thumb>"
+            + "<name>Carrie-Anne Moss</name><role>Trinity</role></actor>"
+            + "<actor>Laurence Fishburne</actor>"
+            + "</movie>");
+        final Video movie = content.getMovie();
+        assertEquals(2, movie.getGenres().size());
+        assertEquals("Action / Drama", movie.getGenres().get(0));
+        assertEquals("Sci-Fi", movie.getGenres().get(1));
+
+        assertEquals(1, movie.getSets().size());
+        assertEquals("Matrix Collection", movie.getSets().get(0).getName());
+        assertEquals("2", movie.getSets().get(0).getOrder());
+
+        assertEquals(3, movie.getActors().size());
+        Actor actor = movie.getActors().get(0);
+        assertEquals("Keanu Reeves", actor.getName());
+        assertEquals("Neo", actor.getRole());
+        assertEquals("neo.jpg", actor.getThumb());
+        actor = movie.getActors().get(1);
+        assertEquals("Carrie-Anne Moss", actor.getName());
+        assertEquals("Trinity", actor.getRole());
+        assertNull(actor.getThumb());
+        actor = movie.getActors().get(2);
+        assertEquals("Laurence Fishburne", actor.getName());
+        assertNull(actor.getRole());
+    }
+}
@@ -0,0 +1,71 @@
+/*
+ *      Copyright (c) 2004-2015 YAMJ Members
+ *      https://github.com/organizations/YAMJ/teams
+ *
+ *      This file is part of the Yet Another Media Jukebox (YAMJ).
+ *
+ *      YAMJ is free software: you can redistribute it and/or modify
+ *      it under the terms of the GNU General Public License as published by
+ *      the Free Software Foundation, either version 3 of the License, or
+ *      any later version.
+ *
+ *      YAMJ is distributed in the hope that it will be useful,
+ *      but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *      MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *      GNU General Public License for more details.
+ *
+ *      You should have received a copy of the GNU General Public License
+ *      along with YAMJ.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ *      Web: https://github.com/YAMJ/yamj-v3
+ *
+ */
+package org.yamj.core.service.metadata.online;
+
+import static org.junit.Assert.*;
+import static org.yamj.core.service.metadata.online.OnlineScannerService.combineScanResult;
+
+import org.junit.Test;
+
+public class OnlineScannerServiceTest {
+
+    @Test
+    public void testFirstResultIsTaken() {
+        assertEquals(ScanResult.MISSING_ID, combineScanResult(null, ScanResult.MISSING_ID));
+        assertEquals(ScanResult.RETRY, combineScanResult(null, ScanResult.RETRY));
+        assertEquals(ScanResult.ERROR, combineScanResult(null, ScanResult.ERROR));
+    }
+
+    @Test
+    public void testOkWins() {
+        assertEquals(ScanResult.OK, combineScanResult(null, ScanResult.OK));
+        assertEquals(ScanResult.OK, combineScanResult(ScanResult.RETRY, ScanResult.OK));
+        assertEquals(ScanResult.OK, combineScanResult(ScanResult.MISSING_ID, ScanResult.OK));
+        assertEquals(ScanResult.OK, combineScanResult(ScanResult.OK, ScanResult.NO_RESULT));
+        assertEquals(ScanResult.OK, combineScanResult(ScanResult.OK, ScanResult.ERROR));
+    }
+
+    @Test
+    public void testSkippedChangesNothing() {
+        assertNull(combineScanResult(null, ScanResult.SKIPPED));
+        assertEquals(ScanResult.RETRY, combineScanResult(ScanResult.RETRY, ScanResult.SKIPPED));
+        assertEquals(ScanResult.OK, combineScanResult(ScanResult.OK, ScanResult.SKIPPED));
+    }
+
+    @Test
+    public void testLaterFailureKeepsFirstResult() {
+        // a retry of the primary scanner is not replaced by a failing alternate scanner
+        assertEquals(ScanResult.RETRY, combineScanResult(ScanResult.RETRY, ScanResult.ERROR));
+        assertEquals(ScanResult.MISSING_ID, combineScanResult(ScanResult.MISSING_ID, ScanResult.RETRY));
+        assertEquals(ScanResult.NO_RESULT, combineScanResult(ScanResult.NO_RESULT, ScanResult.MISSING_ID));
+    }
+
+    @Test
+    public void testResultsCombinedInScannerOrder() {
+        ScanResult scanResult = null;
+        for (ScanResult innerResult : new ScanResult[]{ScanResult.SKIPPED, ScanResult.MISSING_ID, ScanResult.NO_RESULT}) {
+            scanResult = combineScanResult(scanResult, innerResult);
+        }
+        assertEquals(ScanResult.MISSING_ID, scanResult);
+    }
+}
@@ -0,0 +1,153 @@
+/*
+ *      Copyright (c) 2004-2015 YAMJ Members
+ *      https://github.com/organizations/YAMJ/teams
+ *
+ *      This file is part of the Yet Another Media Jukebox (YAMJ).
+ *
+ *      YAMJ is free software: you can redistribute it and/or modify
+ *      it under the terms of the GNU General Public License as published by
+ *      the Free Software Foundation, either version 3 of the License, or
+ *      any later version.
+ *
+ *      YAMJ is distributed in the hope that it will be useful,
+ *      but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *      MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *      GNU General Public License for more details.
+ *
+ *      You should have received a copy of the GNU General Public License
+ *      along with YAMJ.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ *      Web: https://github.com/YAMJ/yamj-v3
+ *
+ */
+package org.yamj.core.service.search;
+
+import static org.junit.Assert.*;
+
+import java.io.IOException;
+import java.util.*;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.yamj.common.tools.PropertyTools;
+import org.yamj.core.database.dao.MetadataDao;
+import org.yamj.core.database.model.dto.SearchEntryDTO;
+import org.yamj.core.database.model.type.SearchType;
+import org.yamj.core.hibernate.IChunkHandler;
+import org.yamj.core.service.various.IdentifierService;
+
+public class SearchIndexServiceTest {
+
+    private final Map<SearchType, List<SearchEntryDTO>> entries = new EnumMap<>(SearchType.class);
+    private SearchIndexService searchIndexService;
+
+    @Before
+    public void setUp() {
+        for (SearchType searchType : SearchType.values()) {
+            entries.put(searchType, new ArrayList<SearchEntryDTO>());
+        }
+
+        MetadataDao metadataDao = new MetadataDao() {
+            @Override
+            public void scrollSearchEntries(SearchType searchType, int chunkSize, IChunkHandler<SearchEntryDTO> handler) throws IOException {
+                handler.handleChunk(new ArrayList<>(entries.get(searchType)));
+            }
+        };
+
+        PropertyTools.setProperty("yamj3.search.index.maxResults", 2);
+        searchIndexService = new SearchIndexService();
+        ReflectionTestUtils.setField(searchIndexService, "metadataDao", metadataDao);
+        ReflectionTestUtils.setField(searchIndexService, "identifierService", new IdentifierService());
+        searchIndexService.init();
+    }
+
+    private void add(SearchType searchType, long id, String title) {
+        SearchEntryDTO entry = new SearchEntryDTO();
+        entry.setId(id);
+        entry.setTitle(title);
+        entries.get(searchType).add(entry);
+    }
+
+    private Set<Long> find(SearchType searchType, String search, String mode) {
+        Collection<Long> ids = searchIndexService.find(searchType, "title", search, mode);
+        return ids == null ? null : new HashSet<>(ids);
+    }
+
+    private static Set<Long> ids(long... ids) {
+        Set<Long> result = new HashSet<>();
+        for (long id : ids) {
+            result.add(id);
+        }
+        return result;
+    }
+
+    @Test
+    public void testPrefixMatching() {
+        add(SearchType.VIDEODATA, 1, "The Lord of the Rings");
+        add(SearchType.VIDEODATA, 2, "Lord of War");
+        add(SearchType.VIDEODATA, 3, "Warlords");
+        searchIndexService.rebuild();
+
+        assertEquals(ids(1, 2), find(SearchType.VIDEODATA, "lord", null));
+        assertEquals(ids(1), find(SearchType.VIDEODATA, "RIN lor", "ANY"));
+        assertEquals(ids(2, 3), find(SearchType.VIDEODATA, "war", "any"));
+        assertEquals(ids(), find(SearchType.VIDEODATA, "ords", null));
+        assertEquals(ids(1, 2), new HashSet<>(searchIndexService.find(SearchType.VIDEODATA, "vd.title", "lord", null)));
+    }
+
+    @Test
+    public void testStartMode() {
+        add(SearchType.SERIES, 1, "The Lord of the Rings");
+        add(SearchType.SERIES, 2, "Lord of War");
+        searchIndexService.rebuild();
+
+        assertEquals(ids(2), find(SearchType.SERIES, "lord", "START"));
+        assertEquals(ids(1), find(SearchType.SERIES, "the ring", "start"));
+        assertEquals(ids(), find(SearchType.SERIES, "war", "START"));
+    }
+
+    @Test
+    public void testAccentFolding() {
+        add(SearchType.PERSON, 1, "Zoë Saldaña");
+        add(SearchType.PERSON, 2, "Jean-Pierre Jeunet");
+        searchIndexService.rebuild();
+
+        assertEquals(ids(1), new HashSet<>(searchIndexService.find(SearchType.PERSON, "name", "zoe saldana", null)));
+        assertEquals(ids(1), new HashSet<>(searchIndexService.find(SearchType.PERSON, "name", "SALDAÑA", null)));
+        assertEquals(ids(2), new HashSet<>(searchIndexService.find(SearchType.PERSON, "name", "pierre", null)));
+    }
+
+    @Test
+    public void testRemovalOnRebuild() {
+        add(SearchType.SEASON, 1, "Season One");
+        add(SearchType.SEASON, 2, "Season Two");
+        searchIndexService.rebuild();
+        assertEquals(ids(1, 2), find(SearchType.SEASON, "season", null));
+
+        entries.get(SearchType.SEASON).remove(0);
+        searchIndexService.rebuild();
+        assertEquals(ids(2), find(SearchType.SEASON, "season", null));
+        assertEquals(ids(), find(SearchType.SEASON, "one", null));
+    }
+
+    @Test
+    public void testFallback() {
+        add(SearchType.VIDEODATA, 1, "Star Wars");
+        add(SearchType.VIDEODATA, 2, "Starship Troopers");
+        add(SearchType.VIDEODATA, 3, "Stardust");
+
+        // not ready before the first rebuild
+        assertNull(find(SearchType.VIDEODATA, "wars", null));
+        searchIndexService.rebuild();
+
+        // more than the maximal results
+        assertNull(find(SearchType.VIDEODATA, "star", null));
+        // the unselective word filters the candidates of the selective one
+        assertEquals(ids(1), find(SearchType.VIDEODATA, "star wars", null));
+        // not supported modes and not indexed fields
+        assertNull(find(SearchType.VIDEODATA, "wars", "END"));
+        assertNull(find(SearchType.VIDEODATA, "wars", "EXACT"));
+        assertNull(searchIndexService.find(SearchType.VIDEODATA, "plot", "wars", null));
+        assertNull(searchIndexService.find(SearchType.PERSON, "title", "wars", null));
+    }
+}
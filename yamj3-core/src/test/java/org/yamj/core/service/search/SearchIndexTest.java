@@ -0,0 +1,98 @@
+/*
+ *      Copyright (c) 2004-2015 YAMJ Members
+ *      https://github.com/organizations/YAMJ/teams
+ *
+ *      This file is part of the Yet Another Media Jukebox (YAMJ).
+ *
+ *      YAMJ is free software: you can redistribute it and/or modify
+ *      it under the terms of the GNU General Public License as published by
+ *      the Free Software Foundation, either version 3 of the License, or
+ *      any later version.
+ *
+ *      YAMJ is distributed in the hope that it will be useful,
+ *      but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *      MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *      GNU General Public License for more details.
+ *
+ *      You should have received a copy of the GNU General Public License
+ *      along with YAMJ.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ *      Web: https://github.com/YAMJ/yamj-v3
+ *
+ */
+package org.yamj.core.service.search;
+
+import static org.junit.Assert.*;
+
+import java.util.*;
+import org.junit.Test;
+
+public class SearchIndexTest {
+
+    private static Set<String> terms(String... terms) {
+        return new HashSet<>(Arrays.asList(terms));
+    }
+
+    private static Set<Long> ids(long... ids) {
+        Set<Long> result = new HashSet<>();
+        for (long id : ids) {
+            result.add(id);
+        }
+        return result;
+    }
+
+    @Test
+    public void testFindPrefix() {
+        SearchIndex index = new SearchIndex();
+        index.put(1L, terms("star", "wars"));
+        index.put(2L, terms("starship", "troopers"));
+        index.put(3L, terms("lone", "star"));
+        index.put(4L, terms("mustard"));
+
+        assertEquals(ids(1, 2, 3), index.findPrefix("star", 10));
+        assertEquals(ids(2), index.findPrefix("starsh", 10));
+        assertEquals(ids(1), index.findPrefix("wars", 10));
+        assertEquals(ids(), index.findPrefix("tard", 10));
+    }
+
+    @Test
+    public void testFindPrefixMaxResults() {
+        SearchIndex index = new SearchIndex();
+        index.put(1L, terms("star"));
+        index.put(2L, terms("starship"));
+        index.put(3L, terms("stardust"));
+
+        assertNull(index.findPrefix("star", 2));
+        assertEquals(ids(1, 2, 3), index.findPrefix("star", 3));
+    }
+
+    @Test
+    public void testMatches() {
+        SearchIndex index = new SearchIndex();
+        index.put(1L, terms("star", "wars"));
+
+        assertTrue(index.matches(1L, "wa"));
+        assertFalse(index.matches(1L, "ars"));
+        assertFalse(index.matches(2L, "star"));
+    }
+
+    @Test
+    public void testUpdateAndRemove() {
+        SearchIndex index = new SearchIndex();
+        index.put(1L, terms("star", "wars"));
+        index.put(2L, terms("star", "trek"));
+
+        index.put(1L, terms("empire"));
+        assertEquals(ids(2), index.findPrefix("star", 10));
+        assertEquals(ids(), index.findPrefix("wars", 10));
+        assertEquals(ids(1), index.findPrefix("empire", 10));
+
+        index.remove(2L);
+        assertEquals(ids(), index.findPrefix("star", 10));
+        assertEquals(ids(1), index.getIds());
+
+        // an empty value removes the document
+        index.put(1L, Collections.<String>emptySet());
+        assertTrue(index.getIds().isEmpty());
+    }
+}
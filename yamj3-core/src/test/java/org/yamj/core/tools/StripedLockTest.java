@@ -0,0 +1,103 @@
+/*
+ *      Copyright (c) 2004-2015 YAMJ Members
+ *      https://github.com/organizations/YAMJ/teams
+ *
+ *      This file is part of the Yet Another Media Jukebox (YAMJ).
+ *
+ *      YAMJ is free software: you can redistribute it and/or modify
+ *      it under the terms of the GNU General Public License as published by
+ *      the Free Software Foundation, either version 3 of the License, or
+ *      any later version.
+ *
+ *      YAMJ is distributed in the hope that it will be useful,
+ *      but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *      MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *      GNU General Public License for more details.
+ *
+ *      You should have received a copy of the GNU General Public License
+ *      along with YAMJ.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ *      Web: https://github.com/YAMJ/yamj-v3
+ *
+ */
+package org.yamj.core.tools;
+
+import static org.junit.Assert.*;
+
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.Lock;
+import org.junit.Test;
+
+public class StripedLockTest {
+
+    private static int countLocks(StripedLock stripedLock, Object... keys) {
+        Set<Lock> locks = Collections.newSetFromMap(new IdentityHashMap<Lock, Boolean>());
+        for (Object key : keys) {
+            locks.add(stripedLock.get(key));
+        }
+        return locks.size();
+    }
+
+    @Test
+    public void testEqualKeysGetSameLock() {
+        StripedLock stripedLock = new StripedLock(16);
+        assertSame(stripedLock.get("Bruce Willis"), stripedLock.get(new String("Bruce Willis")));
+        assertSame(stripedLock.get(Long.valueOf(4711)), stripedLock.get(Long.valueOf(4711)));
+        assertSame(stripedLock.get(null), stripedLock.get(null));
+    }
+
+    @Test
+    public void testStripesAreRoundedUpToPowerOfTwo() {
+        Object[] keys = new Object[100];
+        for (int i = 0; i < keys.length; i++) {
+            keys[i] = Integer.valueOf(i);
+        }
+        assertEquals(4, countLocks(new StripedLock(3), keys));
+        assertEquals(8, countLocks(new StripedLock(8), keys));
+        assertEquals(1, countLocks(new StripedLock(1), keys));
+    }
+
+    @Test
+    public void testKeysDifferingInHigherBitsAreSpread() {
+        // the hash codes only differ above the stripe mask
+        assertEquals(4, countLocks(new StripedLock(4), 0, 1 << 16, 2 << 16, 3 << 16));
+    }
+
+    @Test
+    public void testSameStripeIsExclusive() throws Exception {
+        final StripedLock stripedLock = new StripedLock(16);
+        final AtomicBoolean sameBlocked = new AtomicBoolean(true);
+        final AtomicBoolean otherFree = new AtomicBoolean(false);
+        
+        Lock lock = stripedLock.get("key");
+        lock.lock();
+        try {
+            Thread thread = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    Lock same = stripedLock.get("key");
+                    if (same.tryLock()) {
+                        same.unlock();
+                        sameBlocked.set(false);
+                    }
+                    // keys 0 and 1 are on different stripes
+                    Lock other = stripedLock.get(stripedLock.get("key") == stripedLock.get(0) ? 1 : 0);
+                    if (other.tryLock()) {
+                        other.unlock();
+                        otherFree.set(true);
+                    }
+                }
+            });
+            thread.start();
+            thread.join();
+        } finally {
+            lock.unlock();
+        }
+        
+        assertTrue(sameBlocked.get());
+        assertTrue(otherFree.get());
+    }
+}
@@ -0,0 +1,56 @@
+/*
+ *      Copyright (c) 2004-2015 YAMJ Members
+ *      https://github.com/organizations/YAMJ/teams
+ *
+ *      This file is part of the Yet Another Media Jukebox (YAMJ).
+ *
+ *      YAMJ is free software: you can redistribute it and/or modify
+ *      it under the terms of the GNU General Public License as published by
+ *      the Free Software Foundation, either version 3 of the License, or
+ *      any later version.
+ *
+ *      YAMJ is distributed in the hope that it will be useful,
+ *      but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *      MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *      GNU General Public License for more details.
+ *
+ *      You should have received a copy of the GNU General Public License
+ *      along with YAMJ.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ *      Web: https://github.com/YAMJ/yamj-v3
+ *
+ */
+package org.yamj.core.tools.image;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+public class GraphicToolsTest {
+
+    @Test
+    public void testSubsampling() {
+        // 4000x6000 for 200x300 decodes to 250x375
+        assertEquals(16, GraphicTools.getSubsampling(4000, 6000, 200, 300));
+        // exact power of two keeps the minimal size
+        assertEquals(4, GraphicTools.getSubsampling(800, 1200, 200, 300));
+        assertEquals(2, GraphicTools.getSubsampling(799, 1200, 200, 300));
+    }
+
+    @Test
+    public void testSubsamplingLimitedByOneSide() {
+        // the height must still be covered
+        assertEquals(2, GraphicTools.getSubsampling(4000, 700, 200, 300));
+        assertEquals(2, GraphicTools.getSubsampling(700, 4000, 300, 200));
+    }
+
+    @Test
+    public void testNoSubsampling() {
+        assertEquals(1, GraphicTools.getSubsampling(300, 400, 200, 300));
+        // image smaller than the minimal size
+        assertEquals(1, GraphicTools.getSubsampling(100, 150, 200, 300));
+        // no minimal size means the full image
+        assertEquals(1, GraphicTools.getSubsampling(4000, 6000, 0, 0));
+        assertEquals(1, GraphicTools.getSubsampling(4000, 6000, 200, 0));
+    }
+}
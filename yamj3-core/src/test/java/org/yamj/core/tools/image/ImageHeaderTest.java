@@ -0,0 +1,137 @@
+/*
+ *      Copyright (c) 2004-2015 YAMJ Members
+ *      https://github.com/organizations/YAMJ/teams
+ *
+ *      This file is part of the Yet Another Media Jukebox (YAMJ).
+ *
+ *      YAMJ is free software: you can redistribute it and/or modify
+ *      it under the terms of the GNU General Public License as published by
+ *      the Free Software Foundation, either version 3 of the License, or
+ *      any later version.
+ *
+ *      YAMJ is distributed in the hope that it will be useful,
+ *      but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *      MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *      GNU General Public License for more details.
+ *
+ *      You should have received a copy of the GNU General Public License
+ *      along with YAMJ.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ *      Web: https://github.com/YAMJ/yamj-v3
+ *
+ */
+package org.yamj.core.tools.image;
+
+import static org.junit.Assert.*;
+
+import java.awt.Dimension;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageWriter;
+import javax.imageio.plugins.bmp.BMPImageWriteParam;
+import javax.imageio.stream.ImageOutputStream;
+import org.junit.Test;
+
+public class ImageHeaderTest {
+
+    private static byte[] write(String format, int width, int height) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        assertTrue(ImageIO.write(new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB), format, out));
+        return out.toByteArray();
+    }
+
+    private static Dimension read(byte[] data) {
+        return ImageHeader.readDimension(data, data.length);
+    }
+
+    @Test
+    public void testFormats() throws IOException {
+        assertEquals(new Dimension(320, 200), read(write("jpg", 320, 200)));
+        assertEquals(new Dimension(1000, 1500), read(write("png", 1000, 1500)));
+        assertEquals(new Dimension(17, 5), read(write("gif", 17, 5)));
+        assertEquals(new Dimension(64, 48), read(write("bmp", 64, 48)));
+    }
+
+    @Test
+    public void testJpegWithSegmentsAndFillBytes() throws IOException {
+        final byte[] jpeg = write("jpg", 640, 360);
+
+        // APP1 segment with 30 bytes of data and fill bytes before the next marker
+        final byte[] app1 = new byte[2 + 2 + 30 + 3];
+        app1[0] = (byte) 0xFF;
+        app1[1] = (byte) 0xE1;
+        app1[2] = 0;
+        app1[3] = 32;
+        Arrays.fill(app1, 34, app1.length, (byte) 0xFF);
+        
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        out.write(jpeg, 0, 2);
+        out.write(app1);
+        out.write(jpeg, 2, jpeg.length - 2);
+        
+        assertEquals(new Dimension(640, 360), read(out.toByteArray()));
+    }
+
+    @Test
+    public void testOS2Bitmap() {
+        final byte[] bmp = new byte[26];
+        bmp[0] = 'B';
+        bmp[1] = 'M';
+        // BITMAPCOREHEADER with 16 bit width and height
+        bmp[14] = 12;
+        bmp[18] = (byte) 0x2C;
+        bmp[19] = 0x01;
+        bmp[20] = (byte) 0xC8;
+        bmp[22] = 1;
+        bmp[24] = 24;
+        
+        assertEquals(new Dimension(300, 200), read(bmp));
+    }
+
+    @Test
+    public void testTopDownBitmap() throws IOException {
+        ImageWriter writer = ImageIO.getImageWritersByFormatName("bmp").next();
+        BMPImageWriteParam param = (BMPImageWriteParam) writer.getDefaultWriteParam();
+        param.setTopDown(true);
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (ImageOutputStream ios = ImageIO.createImageOutputStream(out)) {
+            writer.setOutput(ios);
+            writer.write(null, new IIOImage(new BufferedImage(40, 30, BufferedImage.TYPE_INT_RGB), null, null), param);
+        } finally {
+            writer.dispose();
+        }
+        
+        final byte[] bmp = out.toByteArray();
+        // height is stored negative
+        assertTrue(bmp[25] < 0);
+        assertEquals(new Dimension(40, 30), read(bmp));
+    }
+
+    @Test
+    public void testTruncated() throws IOException {
+        final byte[] png = write("png", 100, 100);
+        assertNull(ImageHeader.readDimension(png, 20));
+
+        final byte[] jpeg = write("jpg", 100, 100);
+        assertNull(ImageHeader.readDimension(jpeg, 10));
+        assertNull(ImageHeader.readDimension(jpeg, 0));
+
+        assertNull(read(new byte[]{'G', 'I', 'F', '8', '9', 'a'}));
+        assertNull(read(new byte[]{1, 2, 3, 4, 5, 6, 7, 8, 9, 10, 11, 12}));
+    }
+
+    @Test
+    public void testCapture() throws IOException {
+        final byte[] png = write("png", 123, 45);
+        ImageHeader.Capture capture = new ImageHeader.Capture(32);
+        capture.write(png, 0, 10);
+        assertNull(capture.getDimension());
+        capture.write(png, 10, png.length - 10);
+        assertEquals(new Dimension(123, 45), capture.getDimension());
+    }
+}
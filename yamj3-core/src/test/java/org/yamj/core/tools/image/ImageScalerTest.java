@@ -0,0 +1,134 @@
+/*
+ *      Copyright (c) 2004-2015 YAMJ Members
+ *      https://github.com/organizations/YAMJ/teams
+ *
+ *      This file is part of the Yet Another Media Jukebox (YAMJ).
+ *
+ *      YAMJ is free software: you can redistribute it and/or modify
+ *      it under the terms of the GNU General Public License as published by
+ *      the Free Software Foundation, either version 3 of the License, or
+ *      any later version.
+ *
+ *      YAMJ is distributed in the hope that it will be useful,
+ *      but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *      MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *      GNU General Public License for more details.
+ *
+ *      You should have received a copy of the GNU General Public License
+ *      along with YAMJ.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ *      Web: https://github.com/YAMJ/yamj-v3
+ *
+ */
+package org.yamj.core.tools.image;
+
+import static org.junit.Assert.*;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.util.concurrent.atomic.AtomicReference;
+import org.junit.Test;
+
+public class ImageScalerTest {
+
+    private static BufferedImage createImage(int width, int height, int type, Color color) {
+        BufferedImage image = new BufferedImage(width, height, type);
+        Graphics2D g = image.createGraphics();
+        g.setColor(color);
+        g.fillRect(0, 0, width, height);
+        g.dispose();
+        return image;
+    }
+
+    private static void assertColor(Color expected, BufferedImage image) {
+        for (int y = 0; y < image.getHeight(); y++) {
+            for (int x = 0; x < image.getWidth(); x++) {
+                assertEquals("Pixel " + x + "," + y, expected.getRGB(), image.getRGB(x, y));
+            }
+        }
+    }
+
+    private static void assertSamePixels(BufferedImage expected, BufferedImage image) {
+        assertEquals(expected.getWidth(), image.getWidth());
+        assertEquals(expected.getHeight(), image.getHeight());
+        for (int y = 0; y < image.getHeight(); y++) {
+            for (int x = 0; x < image.getWidth(); x++) {
+                assertEquals("Pixel " + x + "," + y, expected.getRGB(x, y), image.getRGB(x, y));
+            }
+        }
+    }
+
+    private static BufferedImage scaleInNewThread(final BufferedImage image, final int width, final int height) throws InterruptedException {
+        final AtomicReference<BufferedImage> result = new AtomicReference<>();
+        Thread thread = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                result.set(ImageScaler.scale(image, width, height));
+            }
+        });
+        thread.start();
+        thread.join();
+        return result.get();
+    }
+
+    @Test
+    public void testDownscale() {
+        BufferedImage scaled = ImageScaler.scale(createImage(1000, 1500, BufferedImage.TYPE_3BYTE_BGR, Color.RED), 100, 150);
+        assertEquals(100, scaled.getWidth());
+        assertEquals(150, scaled.getHeight());
+        assertEquals(BufferedImage.TYPE_INT_RGB, scaled.getType());
+        assertColor(Color.RED, scaled);
+
+        // just one side needs to be halved
+        scaled = ImageScaler.scale(createImage(1000, 100, BufferedImage.TYPE_INT_RGB, Color.BLUE), 99, 100);
+        assertEquals(99, scaled.getWidth());
+        assertEquals(100, scaled.getHeight());
+        assertColor(Color.BLUE, scaled);
+    }
+
+    @Test
+    public void testUpscale() {
+        BufferedImage scaled = ImageScaler.scale(createImage(30, 20, BufferedImage.TYPE_INT_RGB, Color.GREEN), 300, 200);
+        assertEquals(300, scaled.getWidth());
+        assertEquals(200, scaled.getHeight());
+        assertColor(Color.GREEN, scaled);
+    }
+
+    @Test
+    public void testTransparency() {
+        BufferedImage scaled = ImageScaler.scale(createImage(800, 800, BufferedImage.TYPE_INT_ARGB, new Color(0, 0, 255, 0)), 100, 100);
+        assertEquals(BufferedImage.TYPE_INT_ARGB, scaled.getType());
+        assertEquals(0, scaled.getRGB(50, 50) >>> 24);
+    }
+
+    @Test
+    public void testDrawIntoArea() {
+        BufferedImage dest = createImage(200, 300, BufferedImage.TYPE_INT_RGB, Color.BLACK);
+        ImageScaler.draw(createImage(800, 800, BufferedImage.TYPE_INT_RGB, Color.WHITE), dest, 0, 100, 200, 200);
+        assertEquals(Color.BLACK.getRGB(), dest.getRGB(100, 50));
+        assertEquals(Color.WHITE.getRGB(), dest.getRGB(100, 200));
+    }
+
+    @Test
+    public void testScratchBufferReuse() throws InterruptedException {
+        // fill the scratch buffers of this thread with a larger image
+        ImageScaler.scale(createImage(1600, 1600, BufferedImage.TYPE_INT_RGB, Color.RED), 100, 100);
+
+        // smaller images reuse the buffers without showing the former content
+        BufferedImage blue = createImage(800, 600, BufferedImage.TYPE_INT_RGB, Color.BLUE);
+        BufferedImage scaled = ImageScaler.scale(blue, 100, 75);
+        assertColor(Color.BLUE, scaled);
+        assertSamePixels(scaleInNewThread(blue, 100, 75), scaled);
+
+        // images of another type don't use the buffers of the former type
+        BufferedImage transparent = createImage(800, 600, BufferedImage.TYPE_INT_ARGB, new Color(0, 255, 0, 128));
+        scaled = ImageScaler.scale(transparent, 100, 75);
+        assertSamePixels(scaleInNewThread(transparent, 100, 75), scaled);
+
+        // the scaled images don't share the buffers
+        BufferedImage first = ImageScaler.scale(blue, 100, 75);
+        ImageScaler.scale(createImage(800, 600, BufferedImage.TYPE_INT_RGB, Color.RED), 100, 75);
+        assertColor(Color.BLUE, first);
+    }
+}
@@ -0,0 +1,95 @@
+/*
+ *      Copyright (c) 2004-2015 YAMJ Members
+ *      https://github.com/organizations/YAMJ/teams
+ *
+ *      This file is part of the Yet Another Media Jukebox (YAMJ).
+ *
+ *      YAMJ is free software: you can redistribute it and/or modify
+ *      it under the terms of the GNU General Public License as published by
+ *      the Free Software Foundation, either version 3 of the License, or
+ *      any later version.
+ *
+ *      YAMJ is distributed in the hope that it will be useful,
+ *      but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *      MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *      GNU General Public License for more details.
+ *
+ *      You should have received a copy of the GNU General Public License
+ *      along with YAMJ.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ *      Web: https://github.com/YAMJ/yamj-v3
+ *
+ */
+package org.yamj.core.tools.image;
+
+import static org.junit.Assert.*;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import javax.imageio.ImageIO;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class JpegReaderTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private File writeJpeg(int width, int height) throws IOException {
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = image.createGraphics();
+        try {
+            // left half red, right half blue
+            g.setColor(Color.RED);
+            g.fillRect(0, 0, width / 2, height);
+            g.setColor(Color.BLUE);
+            g.fillRect(width / 2, 0, width - width / 2, height);
+        } finally {
+            g.dispose();
+        }
+        File file = folder.newFile();
+        assertTrue(ImageIO.write(image, "jpg", file));
+        return file;
+    }
+
+    @Test
+    public void testReadFullImage() throws IOException {
+        BufferedImage image = new JpegReader().readImage(writeJpeg(640, 480));
+        assertNotNull(image);
+        assertEquals(640, image.getWidth());
+        assertEquals(480, image.getHeight());
+    }
+
+    @Test
+    public void testReadSubsampledImage() throws IOException {
+        BufferedImage image = new JpegReader().readImage(writeJpeg(1600, 2400), 200, 300);
+        assertNotNull(image);
+        // subsampled by 8, still covering the minimal size
+        assertEquals(200, image.getWidth());
+        assertEquals(300, image.getHeight());
+
+        // the content is scaled, not cropped
+        Color left = new Color(image.getRGB(20, 150));
+        Color right = new Color(image.getRGB(180, 150));
+        assertTrue(left.getRed() > 200 && left.getBlue() < 50);
+        assertTrue(right.getBlue() > 200 && right.getRed() < 50);
+    }
+
+    @Test
+    public void testReadSubsampledImageCoversMinimalSize() throws IOException {
+        BufferedImage image = new JpegReader().readImage(writeJpeg(1000, 1000), 300, 300);
+        assertNotNull(image);
+        // subsampled by 2; 4 would be smaller than the minimal size
+        assertEquals(500, image.getWidth());
+        assertEquals(500, image.getHeight());
+    }
+
+    @Test
+    public void testReadMissingFile() throws IOException {
+        assertNull(new JpegReader().readImage(new File(folder.getRoot(), "missing.jpg"), 200, 300));
+    }
+}
@@ -0,0 +1,208 @@
+/*
+ *      Copyright (c) 2004-2015 YAMJ Members
+ *      https://github.com/organizations/YAMJ/teams
+ *
+ *      This file is part of the Yet Another Media Jukebox (YAMJ).
+ *
+ *      YAMJ is free software: you can redistribute it and/or modify
+ *      it under the terms of the GNU General Public License as published by
+ *      the Free Software Foundation, either version 3 of the License, or
+ *      any later version.
+ *
+ *      YAMJ is distributed in the hope that it will be useful,
+ *      but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *      MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *      GNU General Public License for more details.
+ *
+ *      You should have received a copy of the GNU General Public License
+ *      along with YAMJ.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ *      Web: https://github.com/YAMJ/yamj-v3
+ *
+ */
+package org.yamj.core.web;
+
+import static org.junit.Assert.*;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.Date;
+import org.apache.commons.codec.digest.DigestUtils;
+import org.apache.commons.io.IOUtils;
+import org.apache.commons.lang3.StringUtils;
+import org.apache.http.Header;
+import org.apache.http.HttpVersion;
+import org.apache.http.client.cache.HttpCacheEntry;
+import org.apache.http.client.cache.HttpCacheUpdateCallback;
+import org.apache.http.impl.client.cache.HeapResource;
+import org.apache.http.message.BasicHeader;
+import org.apache.http.message.BasicStatusLine;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class FileHttpCacheStorageTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+    
+    private File cacheDir;
+
+    @Before
+    public void setUp() throws IOException {
+        cacheDir = folder.newFolder("http");
+    }
+
+    @Test
+    public void testPutAndGet() throws Exception {
+        FileHttpCacheStorage storage = new FileHttpCacheStorage(cacheDir, 1024 * 1024);
+        storage.putEntry("key", createEntry("content"));
+
+        // read with a new storage, as the entries must survive a restart
+        HttpCacheEntry entry = new FileHttpCacheStorage(cacheDir, 1024 * 1024).getEntry("key");
+        assertNotNull(entry);
+        assertEquals(1000L, entry.getRequestDate().getTime());
+        assertEquals(2000L, entry.getResponseDate().getTime());
+        assertEquals("HEAD", entry.getRequestMethod());
+        assertEquals(HttpVersion.HTTP_1_1, entry.getStatusLine().getProtocolVersion());
+        assertEquals(200, entry.getStatusLine().getStatusCode());
+        assertEquals("OK", entry.getStatusLine().getReasonPhrase());
+        Header[] headers = entry.getAllHeaders();
+        assertEquals(2, headers.length);
+        assertEquals("Content-Type", headers[0].getName());
+        assertEquals("text/plain; charset=äöü", headers[0].getValue());
+        assertEquals("variant", entry.getVariantMap().get("{Accept=text}key"));
+        assertEquals("content", read(entry));
+
+        assertNull(storage.getEntry("other"));
+    }
+
+    @Test
+    public void testLongKey() throws Exception {
+        // writeUTF would fail for keys with more than 64KB
+        String key = "http://localhost/" + StringUtils.repeat("x", 70000);
+        FileHttpCacheStorage storage = new FileHttpCacheStorage(cacheDir, 1024 * 1024);
+        storage.putEntry(key, createEntry("long"));
+        
+        assertEquals("long", read(storage.getEntry(key)));
+    }
+
+    @Test
+    public void testRemoveEntry() throws Exception {
+        FileHttpCacheStorage storage = new FileHttpCacheStorage(cacheDir, 1024 * 1024);
+        storage.putEntry("key", createEntry("content"));
+        storage.removeEntry("key");
+
+        assertNull(storage.getEntry("key"));
+        assertFalse(cacheFile("key").exists());
+    }
+
+    @Test
+    public void testUpdateEntry() throws Exception {
+        FileHttpCacheStorage storage = new FileHttpCacheStorage(cacheDir, 1024 * 1024);
+        storage.putEntry("key", createEntry("old"));
+
+        storage.updateEntry("key", new HttpCacheUpdateCallback() {
+            @Override
+            public HttpCacheEntry update(HttpCacheEntry existing) throws IOException {
+                assertEquals("old", read(existing));
+                return createEntry("new");
+            }
+        });
+        assertEquals("new", read(storage.getEntry("key")));
+
+        storage.updateEntry("key", new HttpCacheUpdateCallback() {
+            @Override
+            public HttpCacheEntry update(HttpCacheEntry existing) {
+                return null;
+            }
+        });
+        assertNull(storage.getEntry("key"));
+    }
+
+    @Test
+    public void testSerializedObjectIsRemoved() throws Exception {
+        File file = cacheFile("key");
+        assertTrue(file.getParentFile().mkdirs());
+        try (ObjectOutputStream out = new ObjectOutputStream(new FileOutputStream(file))) {
+            out.writeUTF("key");
+            out.writeObject(new Date());
+        }
+
+        FileHttpCacheStorage storage = new FileHttpCacheStorage(cacheDir, 1024 * 1024);
+        assertNull(storage.getEntry("key"));
+        assertFalse(file.exists());
+    }
+
+    @Test
+    public void testCorruptedFileIsRemoved() throws Exception {
+        FileHttpCacheStorage storage = new FileHttpCacheStorage(cacheDir, 1024 * 1024);
+        storage.putEntry("key", createEntry("content"));
+
+        // truncate the file
+        File file = cacheFile("key");
+        byte[] bytes = IOUtils.toByteArray(new FileInputStream(file));
+        try (OutputStream out = new FileOutputStream(file)) {
+            out.write(bytes, 0, bytes.length - 3);
+        }
+
+        assertNull(storage.getEntry("key"));
+        assertFalse(file.exists());
+    }
+
+    @Test
+    public void testCleanUpRemovesLeastRecentlyUsed() throws Exception {
+        String content = StringUtils.repeat("x", 1000);
+        FileHttpCacheStorage storage = new FileHttpCacheStorage(cacheDir, 1024 * 1024);
+        storage.putEntry("key0", createEntry(content));
+        long entrySize = cacheFile("key0").length();
+
+        // room for three entries
+        storage = new FileHttpCacheStorage(cacheDir, entrySize * 3 + entrySize / 2);
+        long time = System.currentTimeMillis() - 100000;
+        assertTrue(cacheFile("key0").setLastModified(time));
+        for (int i = 1; i < 3; i++) {
+            storage.putEntry("key" + i, createEntry(content));
+            assertTrue(cacheFile("key" + i).setLastModified(time + i * 1000));
+        }
+        // key0 has been used most recently now
+        assertNotNull(storage.getEntry("key0"));
+        
+        storage.putEntry("key3", createEntry(content));
+        
+        // the cache is shrunk to 90% of the maximum size, so the least recently used is removed
+        assertFalse(cacheFile("key1").exists());
+        assertTrue(cacheFile("key0").exists());
+        assertTrue(cacheFile("key2").exists());
+        assertTrue(cacheFile("key3").exists());
+
+        // the size is still correct after the clean up, so only the next least recently used is removed
+        storage.putEntry("key4", createEntry(content));
+        assertFalse(cacheFile("key2").exists());
+        assertTrue(cacheFile("key0").exists());
+        assertTrue(cacheFile("key3").exists());
+        assertTrue(cacheFile("key4").exists());
+    }
+
+    private File cacheFile(String key) {
+        String hash = DigestUtils.sha1Hex(key);
+        return new File(new File(cacheDir, hash.substring(0, 2)), hash + ".cache");
+    }
+
+    private static HttpCacheEntry createEntry(String content) {
+        return new HttpCacheEntry(new Date(1000L), new Date(2000L),
+                        new BasicStatusLine(HttpVersion.HTTP_1_1, 200, "OK"),
+                        new Header[] {new BasicHeader("Content-Type", "text/plain; charset=äöü"), new BasicHeader("ETag", "\"1\"")},
+                        new HeapResource(content.getBytes(StandardCharsets.UTF_8)),
+                        Collections.singletonMap("{Accept=text}key", "variant"),
+                        "HEAD");
+    }
+
+    private static String read(HttpCacheEntry entry) throws IOException {
+        try (InputStream in = entry.getResource().getInputStream()) {
+            return IOUtils.toString(in, StandardCharsets.UTF_8);
+        }
+    }
+}
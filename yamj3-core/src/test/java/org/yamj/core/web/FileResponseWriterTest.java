@@ -0,0 +1,223 @@
+/*
+ *      Copyright (c) 2004-2015 YAMJ Members
+ *      https://github.com/organizations/YAMJ/teams
+ *
+ *      This file is part of the Yet Another Media Jukebox (YAMJ).
+ *
+ *      YAMJ is free software: you can redistribute it and/or modify
+ *      it under the terms of the GNU General Public License as published by
+ *      the Free Software Foundation, either version 3 of the License, or
+ *      any later version.
+ *
+ *      YAMJ is distributed in the hope that it will be useful,
+ *      but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *      MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *      GNU General Public License for more details.
+ *
+ *      You should have received a copy of the GNU General Public License
+ *      along with YAMJ.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ *      Web: https://github.com/YAMJ/yamj-v3
+ *
+ */
+package org.yamj.core.web;
+
+import static org.junit.Assert.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Date;
+import javax.servlet.http.HttpServletResponse;
+import org.apache.commons.io.FileUtils;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.context.request.ServletWebRequest;
+
+public class FileResponseWriterTest {
+
+    private static final String CONTENT = "0123456789";
+    private static final String CONTENT_TYPE = "image/jpeg";
+    
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+    
+    private File file;
+    private long lastModified;
+
+    @Before
+    public void setUp() throws IOException {
+        file = folder.newFile("image.jpg");
+        FileUtils.writeStringToFile(file, CONTENT, StandardCharsets.UTF_8);
+        lastModified = 1400000000000L;
+        assertTrue(file.setLastModified(lastModified));
+    }
+
+    private static MockHttpServletResponse write(File file, MockHttpServletRequest request) throws IOException {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        FileResponseWriter.write(file, CONTENT_TYPE, 3600, new ServletWebRequest(request, response), response);
+        return response;
+    }
+
+    private static MockHttpServletRequest get() {
+        return new MockHttpServletRequest("GET", "/image.jpg");
+    }
+
+    @Test
+    public void testWriteFile() throws IOException {
+        MockHttpServletResponse response = write(file, get());
+        
+        assertEquals(HttpServletResponse.SC_OK, response.getStatus());
+        assertEquals(CONTENT, response.getContentAsString());
+        assertEquals(CONTENT.length(), response.getContentLength());
+        assertEquals(CONTENT_TYPE, response.getContentType());
+        assertEquals("max-age=3600", response.getHeader("Cache-Control"));
+        assertEquals("bytes", response.getHeader("Accept-Ranges"));
+        assertNotNull(response.getHeader("ETag"));
+    }
+
+    @Test
+    public void testMissingFile() throws IOException {
+        MockHttpServletResponse response = write(new File(folder.getRoot(), "missing.jpg"), get());
+        assertEquals(HttpServletResponse.SC_NOT_FOUND, response.getStatus());
+    }
+
+    @Test
+    public void testHeadWritesNoContent() throws IOException {
+        MockHttpServletResponse response = write(file, new MockHttpServletRequest("HEAD", "/image.jpg"));
+        
+        assertEquals(HttpServletResponse.SC_OK, response.getStatus());
+        assertEquals(CONTENT.length(), response.getContentLength());
+        assertEquals(0, response.getContentAsByteArray().length);
+    }
+
+    @Test
+    public void testNotModified() throws IOException {
+        MockHttpServletResponse response = write(file, get());
+        String etag = response.getHeader("ETag");
+        assertNotNull(response.getHeader("Last-Modified"));
+        
+        // revalidation as done by browsers
+        MockHttpServletRequest request = get();
+        request.addHeader("If-None-Match", etag);
+        request.addHeader("If-Modified-Since", new Date(lastModified));
+        response = write(file, request);
+        
+        assertEquals(HttpServletResponse.SC_NOT_MODIFIED, response.getStatus());
+        assertEquals(0, response.getContentAsByteArray().length);
+    }
+
+    @Test
+    public void testModifiedFileChangesETag() throws IOException {
+        String etag = write(file, get()).getHeader("ETag");
+        
+        FileUtils.writeStringToFile(file, CONTENT + CONTENT, StandardCharsets.UTF_8);
+        assertTrue(file.setLastModified(lastModified + 5000));
+        MockHttpServletRequest request = get();
+        request.addHeader("If-None-Match", etag);
+        request.addHeader("If-Modified-Since", new Date(lastModified));
+        MockHttpServletResponse response = write(file, request);
+        
+        assertEquals(HttpServletResponse.SC_OK, response.getStatus());
+        assertEquals(CONTENT + CONTENT, response.getContentAsString());
+        assertNotEquals(etag, response.getHeader("ETag"));
+    }
+
+    @Test
+    public void testRange() throws IOException {
+        MockHttpServletRequest request = get();
+        request.addHeader("Range", "bytes=2-5");
+        MockHttpServletResponse response = write(file, request);
+        
+        assertEquals(HttpServletResponse.SC_PARTIAL_CONTENT, response.getStatus());
+        assertEquals("bytes 2-5/10", response.getHeader("Content-Range"));
+        assertEquals(4, response.getContentLength());
+        assertEquals("2345", response.getContentAsString());
+    }
+
+    @Test
+    public void testOpenAndSuffixRange() throws IOException {
+        MockHttpServletRequest request = get();
+        request.addHeader("Range", "bytes=7-");
+        MockHttpServletResponse response = write(file, request);
+        assertEquals(HttpServletResponse.SC_PARTIAL_CONTENT, response.getStatus());
+        assertEquals("789", response.getContentAsString());
+
+        request = get();
+        request.addHeader("Range", "bytes=-4");
+        response = write(file, request);
+        assertEquals(HttpServletResponse.SC_PARTIAL_CONTENT, response.getStatus());
+        assertEquals("bytes 6-9/10", response.getHeader("Content-Range"));
+        assertEquals("6789", response.getContentAsString());
+
+        // the end is limited to the file length
+        request = get();
+        request.addHeader("Range", "bytes=8-100");
+        response = write(file, request);
+        assertEquals("bytes 8-9/10", response.getHeader("Content-Range"));
+        assertEquals("89", response.getContentAsString());
+    }
+
+    @Test
+    public void testUnsatisfiableRange() throws IOException {
+        MockHttpServletRequest request = get();
+        request.addHeader("Range", "bytes=10-");
+        MockHttpServletResponse response = write(file, request);
+        
+        assertEquals(HttpServletResponse.SC_REQUESTED_RANGE_NOT_SATISFIABLE, response.getStatus());
+        assertEquals("bytes */10", response.getHeader("Content-Range"));
+    }
+
+    @Test
+    public void testInvalidOrMultipleRangesServeWholeFile() throws IOException {
+        for (String range : new String[] {"bytes=1-2,4-5", "bytes=5-2", "bytes=a-b", "items=0-1"}) {
+            MockHttpServletRequest request = get();
+            request.addHeader("Range", range);
+            MockHttpServletResponse response = write(file, request);
+            
+            assertEquals(range, HttpServletResponse.SC_OK, response.getStatus());
+            assertEquals(range, CONTENT, response.getContentAsString());
+        }
+    }
+
+    @Test
+    public void testIfRange() throws IOException {
+        String etag = write(file, get()).getHeader("ETag");
+
+        // matching ETag serves the range
+        MockHttpServletRequest request = get();
+        request.addHeader("Range", "bytes=0-1");
+        request.addHeader("If-Range", etag);
+        MockHttpServletResponse response = write(file, request);
+        assertEquals(HttpServletResponse.SC_PARTIAL_CONTENT, response.getStatus());
+        assertEquals("01", response.getContentAsString());
+        
+        // other ETag serves the whole file
+        request = get();
+        request.addHeader("Range", "bytes=0-1");
+        request.addHeader("If-Range", "\"other\"");
+        response = write(file, request);
+        assertEquals(HttpServletResponse.SC_OK, response.getStatus());
+        assertEquals(CONTENT, response.getContentAsString());
+    }
+
+    @Test
+    public void testIfRangeByDate() throws IOException {
+        MockHttpServletRequest request = get();
+        request.addHeader("Range", "bytes=0-1");
+        request.addHeader("If-Range", new Date(lastModified));
+        MockHttpServletResponse response = write(file, request);
+        assertEquals(HttpServletResponse.SC_PARTIAL_CONTENT, response.getStatus());
+        
+        request = get();
+        request.addHeader("Range", "bytes=0-1");
+        request.addHeader("If-Range", new Date(lastModified - 60000));
+        response = write(file, request);
+        assertEquals(HttpServletResponse.SC_OK, response.getStatus());
+        assertEquals(CONTENT, response.getContentAsString());
+    }
+}
@@ -0,0 +1,109 @@
+/*
+ *      Copyright (c) 2004-2015 YAMJ Members
+ *      https://github.com/organizations/YAMJ/teams
+ *
+ *      This file is part of the Yet Another Media Jukebox (YAMJ).
+ *
+ *      YAMJ is free software: you can redistribute it and/or modify
+ *      it under the terms of the GNU General Public License as published by
+ *      the Free Software Foundation, either version 3 of the License, or
+ *      any later version.
+ *
+ *      YAMJ is distributed in the hope that it will be useful,
+ *      but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *      MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *      GNU General Public License for more details.
+ *
+ *      You should have received a copy of the GNU General Public License
+ *      along with YAMJ.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ *      Web: https://github.com/YAMJ/yamj-v3
+ *
+ */
+package org.yamj.core.web;
+
+import static org.junit.Assert.*;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import org.apache.http.HttpHost;
+import org.apache.http.HttpRequest;
+import org.apache.http.client.methods.HttpGet;
+import org.apache.http.client.protocol.HttpClientContext;
+import org.junit.Test;
+
+public class RateLimitInterceptorTest {
+
+    private static final HttpRequest REQUEST = new HttpGet("/");
+
+    private static HttpClientContext context(String hostName) {
+        HttpClientContext context = HttpClientContext.create();
+        if (hostName != null) {
+            context.setAttribute(HttpClientContext.HTTP_TARGET_HOST, new HttpHost(hostName));
+        }
+        return context;
+    }
+
+    private static long requestMillis(RateLimitInterceptor interceptor, String hostName, int requests) throws Exception {
+        final long start = System.nanoTime();
+        for (int i = 0; i < requests; i++) {
+            interceptor.process(REQUEST, context(hostName));
+        }
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+    }
+
+    @Test
+    public void testInvalidRulesAreIgnored() {
+        assertTrue(new RateLimitInterceptor(null).isEmpty());
+        assertTrue(new RateLimitInterceptor(" ").isEmpty());
+        assertTrue(new RateLimitInterceptor("[invalid=2").isEmpty());
+        assertTrue(new RateLimitInterceptor("api.example.com=0").isEmpty());
+        assertFalse(new RateLimitInterceptor("[invalid=2,api.example.com=2").isEmpty());
+    }
+
+    @Test
+    public void testBurstUpToOneSecond() throws Exception {
+        RateLimitInterceptor interceptor = new RateLimitInterceptor("api\\.example\\.com=5");
+        // the bucket starts full
+        assertTrue(requestMillis(interceptor, "api.example.com", 5) < 150);
+        // the next request has to wait for a refill of 200ms
+        long waited = requestMillis(interceptor, "api.example.com", 1);
+        assertTrue("Waited only " + waited + "ms", waited >= 150);
+    }
+
+    @Test
+    public void testWaitingRequestsAreQueued() throws Exception {
+        RateLimitInterceptor interceptor = new RateLimitInterceptor("api\\.example\\.com=10");
+        requestMillis(interceptor, "api.example.com", 10);
+        // each further request reserves the next permit
+        long waited = requestMillis(interceptor, "api.example.com", 3);
+        assertTrue("Waited only " + waited + "ms", waited >= 250);
+    }
+
+    @Test
+    public void testOtherHostsAreNotLimited() throws Exception {
+        RateLimitInterceptor interceptor = new RateLimitInterceptor("api\\.example\\.com=1");
+        assertTrue(requestMillis(interceptor, "www.example.com", 20) < 150);
+        assertTrue(requestMillis(interceptor, null, 20) < 150);
+    }
+
+    @Test
+    public void testFirstMatchingRuleIsUsed() throws Exception {
+        RateLimitInterceptor interceptor = new RateLimitInterceptor(".*\\.example\\.com=100, api\\.example\\.com=1");
+        assertTrue(requestMillis(interceptor, "api.example.com", 20) < 150);
+    }
+
+    @Test
+    public void testInterruptedWhileWaiting() throws Exception {
+        RateLimitInterceptor interceptor = new RateLimitInterceptor("api\\.example\\.com=1");
+        interceptor.process(REQUEST, context("api.example.com"));
+        
+        Thread.currentThread().interrupt();
+        try {
+            interceptor.process(REQUEST, context("api.example.com"));
+            fail("Expected IOException");
+        } catch (IOException expected) {
+            assertTrue(Thread.interrupted());
+        }
+    }
+}
@@ -109,6 +109,7 @@ public final class FileScanner {
         parser.addOption(new CmdLineOption("d", "directory", "The directory to process", false, true));
         parser.addOption(new CmdLineOption("w", "true or false", "Keep watching the directories for changes", false, true));
         parser.addOption(new CmdLineOption("l", "library", "The library file to read", false, true));
+        parser.addOption(new CmdLineOption("r", "true or false", "Send all directories, not only the changed ones", false, true));
 		// print always options syntax in case of no options or wrong options 
 		// LOG.info(parser.getDescriptions());
 		
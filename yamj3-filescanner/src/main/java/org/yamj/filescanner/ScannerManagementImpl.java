@@ -21,16 +21,22 @@
  *
  */
 package org.yamj.filescanner;
-import org.yamj.filescanner.service.SendToCore;
+import org.yamj.filescanner.service.LibrarySender;
 
 import java.io.File;
 import java.io.IOException;
+import java.nio.file.DirectoryIteratorException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
 import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
 import java.util.concurrent.TimeUnit;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 import java.util.regex.PatternSyntaxException;
-import org.apache.commons.io.FileUtils;
 import org.apache.commons.io.FilenameUtils;
 import org.apache.commons.lang3.StringUtils;
 import org.apache.commons.lang3.concurrent.ConcurrentUtils;
@@ -43,10 +49,12 @@ import org.springframework.remoting.RemoteConnectFailureException;
 import org.springframework.stereotype.Service;
 import org.springframework.util.CollectionUtils;
 import org.yamj.common.cmdline.CmdLineParser;
+import org.yamj.common.dto.ImportDTO;
 import org.yamj.common.dto.StageDirectoryDTO;
 import org.yamj.common.dto.StageFileDTO;
 import org.yamj.common.model.YamjInfo;
 import org.yamj.common.model.YamjInfoBuild;
+import org.yamj.common.remote.service.FileImportService;
 import org.yamj.common.remote.service.GitHubService;
 import org.yamj.common.tools.PropertyTools;
 import org.yamj.common.tools.StringTools;
@@ -54,7 +62,6 @@ import org.yamj.common.type.DirectoryType;
 import org.yamj.common.type.ExitType;
 import org.yamj.common.type.StatusType;
 import org.yamj.common.util.KeywordMap;
-import org.yamj.filescanner.comparator.FileTypeComparator;
 import org.yamj.filescanner.model.*;
 import org.yamj.filescanner.service.SystemInfoCore;
 import org.yamj.filescanner.tools.DirectoryEnding;
@@ -64,17 +71,13 @@ import org.yamj.filescanner.tools.Watcher;
 import java.util.Map;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Future;
-import java.util.concurrent.FutureTask;
 import java.util.concurrent.atomic.AtomicInteger;
 import javax.annotation.PostConstruct;
 import javax.annotation.PreDestroy;
 import javax.annotation.Resource;
-import org.springframework.context.ApplicationContext;
-import org.springframework.core.task.TaskRejectedException;
 import org.springframework.scheduling.annotation.Async;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
-import org.yamj.filescanner.ApplicationContextProvider;
 import org.yamj.filescanner.model.Library;
 import org.yamj.filescanner.model.LibraryCollection;
 import org.yamj.filescanner.model.TimeType;
@@ -94,6 +97,10 @@ public class ScannerManagementImpl implements ScannerManagement {
      */
     private static final Logger LOG = LoggerFactory.getLogger(ScannerManagementImpl.class);
     private static final int RETRY_MAX = PropertyTools.getIntProperty("filescanner.send.retry", 5);
+    private static final int SCAN_PARALLELISM = Math.max(1, PropertyTools.getIntProperty("filescanner.scan.parallelism", 4));
+    private static final long WATCH_QUIET_PERIOD = PropertyTools.getLongProperty("filescanner.watch.quietPeriod", 2000);
+    private static final long WATCH_MAX_DELAY = PropertyTools.getLongProperty("filescanner.watch.maxDelay", 30000);
+    private static final int SEND_BATCH_SIZE = Math.max(1, PropertyTools.getIntProperty("filescanner.send.batchSize", 100));
     private final AtomicInteger runningCount = new AtomicInteger(0);
     private final AtomicInteger retryCount = new AtomicInteger(0);
 	private final AtomicInteger retryWait = new AtomicInteger(0);
@@ -106,6 +113,10 @@ public class ScannerManagementImpl implements ScannerManagement {
     private SystemInfoCore pingCore;
     @Autowired
     private GitHubService githubService;
+    @Autowired
+    private FileImportService fileImportService;
+    @Autowired
+    private DirectoryIndex directoryIndex;
     // ImportDTO constants
     private static final String DEFAULT_CLIENT = PropertyTools.getProperty("filescanner.default.client", "FileScanner");
     private static final String DEFAULT_PLAYER_PATH = PropertyTools.getProperty("filescanner.default.playerpath", "");
@@ -202,6 +213,12 @@ public class ScannerManagementImpl implements ScannerManagement {
         libraryCollection.setDefaultPlayerPath(DEFAULT_PLAYER_PATH);
         // Do a quick check of the status of the connection
         pingCore.check(0, 0);
+        // Load the directories which are already known by the core
+        directoryIndex.load();
+        if (Boolean.parseBoolean(parser.getParsedOptionValue("r"))) {
+            LOG.info("Full rescan requested, all directories will be sent");
+            directoryIndex.clear();
+        }
 
         String directoryProperty = parser.getParsedOptionValue("d");
         boolean watchEnabled = parseWatchStatus(parser.getParsedOptionValue("w"));
@@ -274,6 +291,7 @@ public class ScannerManagementImpl implements ScannerManagement {
         } while (!allDone);
 		// exit loop, reset de wait count to 0
 		retryWait.getAndSet(0);
+		updateDirectoryIndex();
 		
         if (LOG.isInfoEnabled()) {
             LOG.info(StringUtils.repeat("*", DIVIDER_LINE_LENGTH));
@@ -285,71 +303,45 @@ public class ScannerManagementImpl implements ScannerManagement {
                 LOG.info("{}", library.getStatistics().generateStatistics(true));
             }
         }
-        // when watched is asked loop to the specified directory until the watcher detect something   
-		// set status = ExitType.LOOP not SUCCESS to loop,
-		// if SUCCESS is setted filescanner shutdown     
-		// when the watcher detect a change now the following sequence is performed 
-		// stop watching (reset keys and break watcher)
-		// rescan the library
-		// send the new scanning to the core (one time)
-		// restart the watcher
-		
-        do  {
-            Watcher wd;
-            try {
-                wd = new Watcher();
-			//	LOG.debug("ScannerManagementImpl watchEnabled wd");
-            } catch (UnsatisfiedLinkError ule) { //NOSONAR
-                LOG.warn("Watching is not possible on this system; therefore watch service will not be used");
-                wd = null;
-            }
-
-            if (wd != null) {
-                boolean directoriesToWatch = false;
-                for (Library library : libraryCollection.getLibraries()) {
-                    dirToWatch = library.getImportDTO().getBaseDirectory();
-                    if (library.isWatch()) {
-                        LOG.info("Watching directory '{}' for changes...", dirToWatch);
-                        wd.addDirectory(dirToWatch);
-                        directoriesToWatch = true;
-                    } else {
-                        LOG.info("Watching skipped for directory '{}'", dirToWatch);
-                    }
-                }
+        // when watched is asked the changes detected by the watcher are rescanned
+        // and sent to the core; only the changed directories are scanned again
+        Watcher wd;
+        try {
+            wd = new Watcher();
+        } catch (UnsatisfiedLinkError ule) { //NOSONAR
+            LOG.warn("Watching is not possible on this system; therefore watch service will not be used");
+            wd = null;
+        }
 
-                if (directoriesToWatch) {
-				//	LOG.debug("ScannerManagementImpl start wd.processEvents() with  '{}' ", dirToWatch);
-					status = ExitType.LOOP;
-                    wd.processEvents();
-					 for (Library library : libraryCollection.getLibraries()) {
-								library.getStatistics().setTime(TimeType.START);
-								status = scan(library);
-								library.getStatistics().setTime(TimeType.END);
-								library.setScanningComplete(true);
-								LOG.info("Scanning completed.");
-								library.setSendingComplete(false);
-								status = ExitType.LOOP;
-								sendLibrariesOneTime ();
-							}
-                    LOG.info("Watching directory '{}' completed", directoryProperty);
+        if (wd != null) {
+            boolean directoriesToWatch = false;
+            for (Library library : libraryCollection.getLibraries()) {
+                dirToWatch = library.getImportDTO().getBaseDirectory();
+                if (library.isWatch()) {
+                    LOG.info("Watching directory '{}' for changes...", dirToWatch);
+                    wd.addDirectory(dirToWatch);
+                    directoriesToWatch = true;
                 } else {
-                    LOG.info("No directories marked for watching");
+                    LOG.info("Watching skipped for directory '{}'", dirToWatch);
                 }
             }
-			if (status.equals(ExitType.LOOP)) 
-			{
-					LOG.info("do watch with status {}", status);
-					continue;
-			}
-			else {
-				LOG.info("Exiting watch with status {}", status);
-				break;
-			}
-        } while (watchEnabled);
-		if (!watchEnabled)
-			{
-				LOG.info("Watching not enabled.");
-			}
+
+            if (directoriesToWatch) {
+                status = ExitType.LOOP;
+                do {
+                    Watcher.Changes changes = wd.waitForChanges(WATCH_QUIET_PERIOD, WATCH_MAX_DELAY);
+                    if (!changes.isEmpty()) {
+                        rescanChanges(changes);
+                    }
+                } while (watchEnabled && wd.isWatching() && !Thread.currentThread().isInterrupted());
+                LOG.info("Watching directory '{}' completed", directoryProperty);
+            } else {
+                LOG.info("No directories marked for watching");
+            }
+        }
+        if (!watchEnabled) {
+            LOG.info("Watching not enabled.");
+        }
 
         LOG.info("Exiting with status {}", status);
 		return status;
@@ -359,6 +351,8 @@ public class ScannerManagementImpl implements ScannerManagement {
     /**
      * Start scanning a library.
      *
+     * The directories of the library are scanned in parallel.
+     *
      * @param library
      * @return
      */
@@ -369,158 +363,368 @@ public class ScannerManagementImpl implements ScannerManagement {
         File baseDirectory = new File(library.getImportDTO().getBaseDirectory());
         LOG.info("Scanning library '{}'...", baseDirectory.getAbsolutePath());
 
-        if (!baseDirectory.exists()) {
+        BasicFileAttributes baseAttributes = readDirectoryAttributes(baseDirectory.toPath());
+        if (baseAttributes == null) {
             LOG.info("Failed to read directory '{}'", baseDirectory.getAbsolutePath());
             return ExitType.NO_DIRECTORY;
         }
 
-        scanDir(library, baseDirectory);
+        checkLibrary(library);
+        directoryIndex.startScan(baseDirectory.getAbsolutePath());
+        ForkJoinPool scanPool = new ForkJoinPool(SCAN_PARALLELISM);
+        try {
+            scanPool.invoke(new ScanDirectoryTask(library, baseDirectory.toPath(), baseAttributes));
+            sendVanishedDirectories(library, baseDirectory.getAbsolutePath());
+        } catch (RuntimeException ex) {
+            // the scan is incomplete, so vanished directories can't be determined
+            LOG.error("Failed to scan library '{}'", baseDirectory.getAbsolutePath(), ex);
+        } finally {
+            scanPool.shutdown();
+        }
 
         library.getStatistics().setTime(TimeType.SCANNING_END);
         return status;
     }
 
     /**
-     * Scan a directory (and recursively any other directories contained
+     * Rescan the changed directories of the watched libraries and send them to the core.
+     *
+     * @param changes
+     */
+    private void rescanChanges(Watcher.Changes changes) {
+        // remember the directories sent since the last scan
+        updateDirectoryIndex();
+
+        for (Library library : libraryCollection.getLibraries()) {
+            if (!library.isWatch()) {
+                continue;
+            }
+
+            String baseDirectory = library.getImportDTO().getBaseDirectory();
+            List<String> trees = getInsideLibrary(changes.getTrees(), baseDirectory);
+            List<String> directories = getInsideLibrary(changes.getDirectories(), baseDirectory);
+            if (trees.isEmpty() && directories.isEmpty()) {
+                continue;
+            }
+            if (!new File(baseDirectory).isDirectory()) {
+                // the library is not available, so the changes can't be checked
+                LOG.info("Failed to read directory '{}'", baseDirectory);
+                continue;
+            }
+
+            if (checkLibrary(library)) {
+                LOG.info("Rescanning {} changed directories and {} changed trees of library '{}'", directories.size(), trees.size(), baseDirectory);
+                library.getStatistics().setTime(TimeType.SCANNING_START);
+                for (String tree : trees) {
+                    rescanTree(library, tree);
+                }
+                for (String directory : directories) {
+                    rescanDirectory(library, directory);
+                }
+                library.getStatistics().setTime(TimeType.SCANNING_END);
+            } else {
+                // the core doesn't know the directories anymore, so all must be sent
+                scan(library);
+            }
+            library.setScanningComplete(true);
+            library.setSendingComplete(false);
+        }
+
+        sendLibrariesOneTime();
+    }
+
+    private static List<String> getInsideLibrary(Set<String> paths, String baseDirectory) {
+        String prefix = baseDirectory.endsWith(File.separator) ? baseDirectory : baseDirectory + File.separator;
+        List<String> inside = new ArrayList<>();
+        for (String path : paths) {
+            if (path.equals(baseDirectory) || path.startsWith(prefix)) {
+                inside.add(path);
+            }
+        }
+        return inside;
+    }
+
+    /**
+     * Rescan a changed directory including its sub directories.
+     *
+     * If the directory doesn't exist anymore, the known directories below are sent as vanished.
      *
      * @param library
-     * @param parentDto
-     * @param directory
+     * @param path
      */
-    private StageDirectoryDTO scanDir(Library library, File directory) {
-        DirectoryType dirType = DirectoryEnding.check(directory);
-        StageDirectoryDTO stageDir;
+    private void rescanTree(Library library, String path) {
+        Path directory = new File(path).toPath();
+        BasicFileAttributes attributes = readDirectoryAttributes(directory);
 
-        LOG.info("Scanning directory '{}', detected type - {}", library.getRelativeDir(directory), dirType);
+        directoryIndex.startScan(path);
+        if (attributes != null) {
+            ForkJoinPool scanPool = new ForkJoinPool(SCAN_PARALLELISM);
+            try {
+                scanPool.invoke(new ScanDirectoryTask(library, directory, attributes));
+            } catch (RuntimeException ex) {
+                // the scan is incomplete, so vanished directories can't be determined
+                LOG.error("Failed to scan directory '{}'", path, ex);
+                return;
+            } finally {
+                scanPool.shutdown();
+            }
+        }
+        sendVanishedDirectories(library, path);
+    }
 
-        if (dirType == DirectoryType.BLURAY || dirType == DirectoryType.DVD) {
-            // Don't scan BLURAY or DVD structures
-            LOG.info("Skipping directory '{}' as its a {} type", directory.getAbsolutePath(), dirType);
-            library.getStatistics().increment(dirType == DirectoryType.BLURAY ? StatType.BLURAY : StatType.DVD);
-            stageDir = null;
-        } else if (DIR_EXCLUSIONS.containsKey(directory.getName().toLowerCase())) {
-            LOG.info("Skipping directory '{}' as its in the exclusion list.", directory.getAbsolutePath());
-            stageDir = null;
+    /**
+     * Rescan the files of a changed directory.
+     *
+     * @param library
+     * @param path
+     */
+    private void rescanDirectory(Library library, String path) {
+        Path directory = new File(path).toPath();
+        BasicFileAttributes attributes = readDirectoryAttributes(directory);
+        if (attributes == null) {
+            rescanTree(library, path);
         } else {
+            scanDir(library, directory, attributes);
+        }
+    }
+
+    private static BasicFileAttributes readDirectoryAttributes(Path directory) {
+        try {
+            BasicFileAttributes attributes = Files.readAttributes(directory, BasicFileAttributes.class);
+            return attributes.isDirectory() ? attributes : null;
+        } catch (IOException ex) { //NOSONAR
+            return null;
+        }
+    }
+
+    /**
+     * Notify the core about the directories of the library which have been
+     * sent before, but were not found by the scan.
+     *
+     * @param library
+     * @param baseDirectory
+     */
+    private void sendVanishedDirectories(Library library, String baseDirectory) {
+        List<String> vanished = directoryIndex.getVanishedDirectories(baseDirectory);
+        if (vanished.isEmpty()) {
+            return;
+        }
+
+        LOG.info("{} directories vanished from '{}'", vanished.size(), baseDirectory);
+        try {
+            fileImportService.deleteScannedDirectories(library.getImportDTO().getClient(), library.getImportDTO().getBaseDirectory(), vanished);
+            directoryIndex.remove(vanished);
+            directoryIndex.save();
+        } catch (RemoteConnectFailureException ex) {
+            LOG.error("Failed to connect to the core server: {}", ex.getMessage());
+            LOG.trace("Exception:", ex);
+        } catch (RemoteAccessException ex) {
+            LOG.error("Failed to send vanished directories to the core server: {}", ex.getMessage());
+            LOG.trace("Exception:", ex);
+        }
+    }
+
+    /**
+     * Check if the directories of the library in the directory index are still known by the core.
+     *
+     * @param library
+     * @return true, if the directory index is still valid for the library
+     */
+    private boolean checkLibrary(Library library) {
+        String baseDirectory = new File(library.getImportDTO().getBaseDirectory()).getAbsolutePath();
+        try {
+            Long libraryId = fileImportService.getLibraryId(library.getImportDTO().getClient(), library.getImportDTO().getBaseDirectory());
+            return directoryIndex.checkLibrary(baseDirectory, libraryId);
+        } catch (RemoteAccessException ex) {
+            // keep the directory index; the sending will fail as well if the core is not available
+            LOG.warn("Failed to get library '{}' from the core server: {}", baseDirectory, ex.getMessage());
+            LOG.trace("Exception:", ex);
+            return true;
+        }
+    }
+
+    /**
+     * Store the directories which have been sent successfully in the directory index.
+     */
+    private void updateDirectoryIndex() {
+        for (Library library : libraryCollection.getLibraries()) {
             try {
-                if (FileUtils.directoryContains(directory, new File(directory, FILE_MJBIGNORE))) {
-                    LOG.debug("Exclusion file '{}' found, skipping scanning of directory {}.", FILE_MJBIGNORE, directory.getName());
-                    return null;
+                directoryIndex.markLibrary(new File(library.getImportDTO().getBaseDirectory()).getAbsolutePath(),
+                        fileImportService.getLibraryId(library.getImportDTO().getClient(), library.getImportDTO().getBaseDirectory()));
+            } catch (RemoteAccessException ex) {
+                LOG.trace("Failed to get library '{}' from the core server", library.getImportDTO().getBaseDirectory(), ex);
+            }
+            for (Map.Entry<String, Future<StatusType>> entry : library.getDirectoryStatus().entrySet()) {
+                try {
+                    if (entry.getValue().isDone() && entry.getValue().get() == StatusType.DONE) {
+                        directoryIndex.markSent(entry.getKey());
+                    }
+                } catch (InterruptedException | ExecutionException ex) { //NOSONAR
+                    LOG.trace("Failed to get send status of '{}'", entry.getKey(), ex);
                 }
-            } catch (IOException ex) {
-                LOG.trace("Failed to seach for '{}' in the directory {}", FILE_MJBIGNORE, directory.getName());
-                LOG.trace("IO error", ex);
             }
+        }
+        directoryIndex.save();
+    }
+
+    /**
+     * Task to scan a directory and fork the scanning of the sub directories
+     */
+    private final class ScanDirectoryTask extends RecursiveAction {
 
-            stageDir = new StageDirectoryDTO();
-            stageDir.setPath(directory.getAbsolutePath());
-            stageDir.setDate(directory.lastModified());
+        private static final long serialVersionUID = 1L;
+        private final Library library;
+        private final Path directory;
+        private final BasicFileAttributes attributes;
 
-            library.getStatistics().increment(StatType.DIRECTORY);
+        public ScanDirectoryTask(Library library, Path directory, BasicFileAttributes attributes) {
+            this.library = library;
+            this.directory = directory;
+            this.attributes = attributes;
+        }
 
-            File[] files = directory.listFiles();
-            if (files == null) {
-                return stageDir;
+        @Override
+        protected void compute() {
+            Map<Path, BasicFileAttributes> subDirectories = scanDir(library, directory, attributes);
+            if (subDirectories.isEmpty()) {
+                return;
             }
-            
-            final List<File> currentFileList = Arrays.asList(files);
-            final FileTypeComparator comp = new FileTypeComparator(false);
-            Collections.sort(currentFileList, comp);
-
-            /*
-             * We need to scan the directory and look for any of the exclusion filenames.
-             *
-             * We then build a list of those excluded extensions, so that when we scan the filename list we can exclude the unwanted files.
-             */
-            List<String> exclusions = new ArrayList<>();
-            for (File file : currentFileList) {
-                if (!file.isFile()) {
-                    // First directory we find, we can stop (because we sorted the files first)
-                    break;
-                }
-                
-                final String lcFilename = file.getName().toLowerCase();
-                if (DIR_EXCLUSIONS.containsKey(lcFilename)) {
-                    if (CollectionUtils.isEmpty(DIR_EXCLUSIONS.get(lcFilename))) {
-                        // Because the value is null or empty we exclude the whole directory, so quit now.
-                        LOG.debug("Exclusion file '{}' found, skipping scanning of directory {}.", lcFilename, file.getParent());
-                        // All files to be excluded, so quit
-                        return null;
-                    }
 
-                    // We found a match, so add it to our local copy
-                    LOG.debug("Exclusion file '{}' found, will exclude all {} file types", lcFilename, DIR_EXCLUSIONS.get(lcFilename).toString());
-                    exclusions.addAll(DIR_EXCLUSIONS.get(lcFilename));
-                    // Skip to the next file, theres no need of further processing
-                }
+            List<ScanDirectoryTask> tasks = new ArrayList<>(subDirectories.size());
+            for (Map.Entry<Path, BasicFileAttributes> entry : subDirectories.entrySet()) {
+                tasks.add(new ScanDirectoryTask(library, entry.getKey(), entry.getValue()));
             }
+            invokeAll(tasks);
+        }
+    }
 
-            // Create a precompiled Matcher for use later (Doesn't matter what the values are)
-            Matcher matcher = Pattern.compile(FILE_MJBIGNORE).matcher(FILE_MJBIGNORE);
+    /**
+     * Scan a directory
+     *
+     * The entries of the directory are read with their attributes in one go.
+     *
+     * @param library
+     * @param directory
+     * @param attributes the attributes of the directory
+     * @return the sub directories to scan
+     */
+    private Map<Path, BasicFileAttributes> scanDir(Library library, Path directory, BasicFileAttributes attributes) {
+        DirectoryType dirType = DirectoryEnding.check(directory);
+        final String directoryPath = directory.toAbsolutePath().toString();
+        final Path directoryName = directory.getFileName();
 
-            // Scan the directory properly
-            for (File file : currentFileList) {
-                if (!file.isFile()) {
-                    // First directory we find, we can stop (because we sorted the files first)
-                    break;
-                }
+        LOG.info("Scanning directory '{}', detected type - {}", library.getRelativeDir(directoryPath), dirType);
 
-                boolean excluded = false;
-                String lcFilename = file.getName().toLowerCase();
-                if (exclusions.contains(FilenameUtils.getExtension(lcFilename)) || DIR_EXCLUSIONS.containsKey(lcFilename)) {
-                    LOG.debug("File name '{}' excluded because it's listed in the exlusion list for this directory", file.getName());
-                    continue;
-                }
+        if (dirType == DirectoryType.BLURAY || dirType == DirectoryType.DVD) {
+            // Don't scan BLURAY or DVD structures
+            LOG.info("Skipping directory '{}' as its a {} type", directoryPath, dirType);
+            library.getStatistics().increment(dirType == DirectoryType.BLURAY ? StatType.BLURAY : StatType.DVD);
+            return Collections.emptyMap();
+        }
+        if (directoryName != null && DIR_EXCLUSIONS.containsKey(directoryName.toString().toLowerCase())) {
+            LOG.info("Skipping directory '{}' as its in the exclusion list.", directoryPath);
+            return Collections.emptyMap();
+        }
 
-                // Process the DIR_IGNORE_FILES
-                for (Pattern pattern : DIR_IGNORE_FILES) {
-                    matcher.reset(lcFilename).usePattern(pattern);
-                    if (matcher.matches()) {
-                        // Found the file pattern, so skip the file
-                        LOG.debug("File name '{}' excluded because it matches exlusion pattern '{}'", file.getName(), pattern.pattern());
-                        excluded = true;
-                        break;
+        // read the files (sorted by name) and sub directories
+        final Map<String, BasicFileAttributes> files = new TreeMap<>();
+        final Map<Path, BasicFileAttributes> subDirectories = new LinkedHashMap<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory)) {
+            for (Path entry : stream) {
+                try {
+                    BasicFileAttributes entryAttributes = Files.readAttributes(entry, BasicFileAttributes.class);
+                    if (entryAttributes.isDirectory()) {
+                        subDirectories.put(entry, entryAttributes);
+                    } else if (entryAttributes.isRegularFile()) {
+                        files.put(entry.getFileName().toString(), entryAttributes);
                     }
+                } catch (IOException ex) {
+                    LOG.trace("Failed to read attributes of '{}'", entry, ex);
                 }
+            }
+        } catch (IOException | DirectoryIteratorException ex) {
+            LOG.warn("Failed to read directory '{}': {}", directoryPath, ex.getMessage());
+            // the directory could not be read, so don't treat the known directories as vanished
+            directoryIndex.keepDirectories(directoryPath);
+            return Collections.emptyMap();
+        }
 
-                if (!excluded) {
-                    stageDir.addStageFile(scanFile(file));
-                    library.getStatistics().increment(StatType.FILE);
+        /*
+         * We need to scan the directory and look for any of the exclusion filenames.
+         *
+         * We then build a list of those excluded extensions, so that when we scan the filename list we can exclude the unwanted files.
+         */
+        List<String> exclusions = new ArrayList<>();
+        for (String fileName : files.keySet()) {
+            final String lcFilename = fileName.toLowerCase();
+            if (DIR_EXCLUSIONS.containsKey(lcFilename)) {
+                if (CollectionUtils.isEmpty(DIR_EXCLUSIONS.get(lcFilename))) {
+                    // Because the value is null or empty we exclude the whole directory, so quit now.
+                    LOG.debug("Exclusion file '{}' found, skipping scanning of directory {}.", lcFilename, directoryPath);
+                    return Collections.emptyMap();
                 }
+
+                // We found a match, so add it to our local copy
+                LOG.debug("Exclusion file '{}' found, will exclude all {} file types", lcFilename, DIR_EXCLUSIONS.get(lcFilename).toString());
+                exclusions.addAll(DIR_EXCLUSIONS.get(lcFilename));
             }
+        }
+
+        StageDirectoryDTO stageDir = new StageDirectoryDTO();
+        stageDir.setPath(directoryPath);
+        stageDir.setDate(attributes.lastModifiedTime().toMillis());
 
-            library.addDirectory(stageDir);
-            queueForSending(library, stageDir);
+        library.getStatistics().increment(StatType.DIRECTORY);
 
-            // Resort the files with directories first
-            comp.setDirectoriesFirst(true);
-            Collections.sort(currentFileList, comp);
+        // Create a precompiled Matcher for use later (Doesn't matter what the values are)
+        Matcher matcher = Pattern.compile(FILE_MJBIGNORE).matcher(FILE_MJBIGNORE);
 
-            // Now scan the directories
-            for (File scanDir : currentFileList) {
-                if (!scanDir.isDirectory()) {
-                    // First file we find, we can stop (because we are sorted directories first)
+        // Scan the directory properly
+        for (Map.Entry<String, BasicFileAttributes> file : files.entrySet()) {
+            boolean excluded = false;
+            String lcFilename = file.getKey().toLowerCase();
+            if (exclusions.contains(FilenameUtils.getExtension(lcFilename)) || DIR_EXCLUSIONS.containsKey(lcFilename)) {
+                LOG.debug("File name '{}' excluded because it's listed in the exlusion list for this directory", file.getKey());
+                continue;
+            }
+
+            // Process the DIR_IGNORE_FILES
+            for (Pattern pattern : DIR_IGNORE_FILES) {
+                matcher.reset(lcFilename).usePattern(pattern);
+                if (matcher.matches()) {
+                    // Found the file pattern, so skip the file
+                    LOG.debug("File name '{}' excluded because it matches exlusion pattern '{}'", file.getKey(), pattern.pattern());
+                    excluded = true;
                     break;
                 }
-                
-                if (scanDir(library, scanDir) == null) {
-                    LOG.info("Not adding directory '{}', no files found or all excluded", scanDir.getAbsolutePath());
-                }
+            }
+
+            if (!excluded) {
+                stageDir.addStageFile(scanFile(file.getKey(), file.getValue()));
+                library.getStatistics().increment(StatType.FILE);
             }
         }
-        return stageDir;
+
+        // the directory must be queued before the sub directories, so that the core knows the parent
+        library.addDirectory(stageDir);
+        queueForSending(library, stageDir);
+
+        return subDirectories;
     }
 
     /**
      * Scan an individual file
      *
-     * @param library
-     * @param parentDto
-     * @param file
+     * @param fileName
+     * @param attributes
      */
-    private static StageFileDTO scanFile(File file) {
-        LOG.info("Scanning file '{}'", file.getName());
-        return new StageFileDTO(file);
+    private static StageFileDTO scanFile(String fileName, BasicFileAttributes attributes) {
+        LOG.info("Scanning file '{}'", fileName);
+        StageFileDTO stageFile = new StageFileDTO();
+        stageFile.setFileName(fileName);
+        stageFile.setFileSize(attributes.size());
+        stageFile.setFileDate(attributes.lastModifiedTime().toMillis());
+        return stageFile;
     }
 
     /**
@@ -559,11 +763,18 @@ public class ScannerManagementImpl implements ScannerManagement {
     /**
      * Add the file to the library for sending to the core
      *
+     * Directories which are unchanged since they have been sent are marked as done.
+     *
      * @param library
      * @param stageDir
      */
-    private static void queueForSending(Library library, StageDirectoryDTO stageDir) {
-        library.addDirectoryStatus(stageDir.getPath(), ConcurrentUtils.constantFuture(StatusType.NEW));
+    private void queueForSending(Library library, StageDirectoryDTO stageDir) {
+        if (directoryIndex.isUnchanged(stageDir)) {
+            LOG.debug("Directory '{}' is unchanged since last sending", stageDir.getPath());
+            library.addDirectoryStatus(stageDir.getPath(), ConcurrentUtils.constantFuture(StatusType.DONE));
+        } else {
+            library.addDirectoryStatus(stageDir.getPath(), ConcurrentUtils.constantFuture(StatusType.NEW));
+        }
     }
 	
 	/**
@@ -592,6 +803,8 @@ public class ScannerManagementImpl implements ScannerManagement {
         LOG.info("There are {} libraries to process, there have been {} consecutive failed attempts to send.", libraryCollection.size(), retryCount.get());
         LOG.info("There are {} items currently queued to be sent to core.", runningCount.get());
 
+        final LibrarySender librarySender = new LibrarySender(yamjExecutor, SEND_BATCH_SIZE, runningCount, retryCount);
+
         for (Library library : libraryCollection.getLibraries()) {
             library.getStatistics().setTime(TimeType.SENDING_START);
             LOG.info("  {} has {} directories and the file scanner has {} scanning.",
@@ -600,22 +813,8 @@ public class ScannerManagementImpl implements ScannerManagement {
                     library.isScanningComplete() ? "finished" : "not finished");
 
             try {
-                for (Map.Entry<String, Future<StatusType>> entry : library.getDirectoryStatus().entrySet()) {
-                    LOG.info("    {}: {}", entry.getKey(), entry.getValue().isDone() ? entry.getValue().get() : "Being processed");
-
-                    if (checkStatus(library, entry.getValue(), entry.getKey())) {
-                        if (retryCount.get() > 0) {
-                            LOG.debug("Successfully sent file to server, resetting retry count to 0 from {}.", retryCount.getAndSet(0));
-                        } else {
-                            LOG.debug("Successfully sent file to server.");
-                            retryCount.set(0);
-                        }
-                    } else {
-                        // Make sure this is set to false
-                        library.setSendingComplete(false);
-                        LOG.warn("Failed to send a file, this was failed attempt #{}. Waiting until next run...", retryCount.incrementAndGet());
-                        return;
-                    }
+                if (!librarySender.send(library)) {
+                    return;
                 }
 
                 // Don't stop sending until the scanning is completed and there are no running tasks
@@ -634,74 +833,5 @@ public class ScannerManagementImpl implements ScannerManagement {
             }
         }
     }
-  private boolean checkStatus(Library library, Future<StatusType> statusType, String directory) throws InterruptedException, ExecutionException {
-        boolean sendStatus;
-
-        
-        if (statusType.isDone()) {
-            StatusType processingStatus = statusType.get();
-            
-            if (processingStatus == StatusType.NEW) {
-                LOG.info("    Sending '{}' to core for processing.", directory);
-                sendStatus = sendToCore(library, directory);
-            } else if (processingStatus == StatusType.UPDATED) {
-                LOG.info("    Sending updated '{}' to core for processing.", directory);
-                sendStatus = sendToCore(library, directory);
-            } else if (processingStatus == StatusType.ERROR) {
-                LOG.info("    Resending '{}' to core for processing (was in error status).", directory);
-                sendStatus = sendToCore(library, directory);
-            } else if (processingStatus == StatusType.DONE) {
-                LOG.info("    Completed: '{}'", directory);
-                sendStatus = true;
-            } else {
-                LOG.warn("    Unknown processing status {} for {}", processingStatus, directory);
-                // Assume this is correct, so we don't get stuck
-                sendStatus = true;
-            }
-        } else {
-            LOG.warn("    Still being procesed {}", directory);
-            sendStatus = false;
-        }
-        return sendStatus;
-    }
-   /**
-     * Send the directory to the core.
-     *
-     * Will get the StageDirectoryDTO from the library for sending.
-     *
-     * @param library
-     * @param sendDir
-     */
-    private boolean sendToCore(Library library, String sendDir) {
-        StageDirectoryDTO stageDto = library.getDirectory(sendDir);
-        boolean sentOk = false;
-
-        if (stageDto == null) {
-            LOG.warn("StageDirectoryDTO for '{}' is null!", sendDir);
-            // We do not want to send this again.
-            library.addDirectoryStatus(sendDir, ConcurrentUtils.constantFuture(StatusType.INVALID));
-            return true;
-        }
-
-        LOG.info("Sending #{}: {}", runningCount.incrementAndGet(), sendDir);
-
-        ApplicationContext appContext = ApplicationContextProvider.getApplicationContext();
-        SendToCore stc = (SendToCore) appContext.getBean("sendToCore");
-        stc.setImportDto(library.getImportDTO(stageDto));
-        stc.setCounter(runningCount);
-        FutureTask<StatusType> task = new FutureTask<>(stc);
-
-        try {
-            yamjExecutor.submit(task);
-            library.addDirectoryStatus(stageDto.getPath(), task);
-            sentOk = true;
-        } catch (TaskRejectedException ex) {
-            LOG.warn("Send queue full. '{}' will be sent later.", stageDto.getPath());
-            LOG.trace("Exception: ", ex);
-            library.addDirectoryStatus(stageDto.getPath(), ConcurrentUtils.constantFuture(StatusType.NEW));
-        }
-        
-        return sentOk;
-    }
   
 }
@@ -0,0 +1,315 @@
+/*
+ *      Copyright (c) 2004-2015 YAMJ Members
+ *      https://github.com/organizations/YAMJ/teams
+ *
+ *      This file is part of the Yet Another Media Jukebox (YAMJ).
+ *
+ *      YAMJ is free software: you can redistribute it and/or modify
+ *      it under the terms of the GNU General Public License as published by
+ *      the Free Software Foundation, either version 3 of the License, or
+ *      any later version.
+ *
+ *      YAMJ is distributed in the hope that it will be useful,
+ *      but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *      MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *      GNU General Public License for more details.
+ *
+ *      You should have received a copy of the GNU General Public License
+ *      along with YAMJ.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ *      Web: https://github.com/YAMJ/yamj-v3
+ *
+ */
+package org.yamj.filescanner.model;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.zip.CRC32;
+import org.apache.commons.lang3.StringUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import org.yamj.common.dto.StageDirectoryDTO;
+import org.yamj.common.dto.StageFileDTO;
+import org.yamj.common.tools.PropertyTools;
+
+/**
+ * Persistent index of the directories which have been sent to the core.
+ *
+ * For each directory a fingerprint of the directory date and the names,
+ * sizes and dates of the scanned files is stored, so that a rescan only
+ * needs to send the directories which have been changed or vanished.
+ *
+ * The id of each library in the core is stored as well; if the core doesn't
+ * know the library with that id anymore, e.g. after a reset of the core database,
+ * the directories of the library are removed from the index and sent again.
+ */
+@Service
+public class DirectoryIndex {
+
+    private static final Logger LOG = LoggerFactory.getLogger(DirectoryIndex.class);
+    private static final boolean INDEX_ENABLED = PropertyTools.getBooleanProperty("filescanner.index.enabled", true);
+    private static final String INDEX_FILE = PropertyTools.getProperty("filescanner.index.file", "config/filescanner.index");
+    private static final String SEPARATOR = "\t";
+    // comment lines are ignored by former versions
+    private static final String LIBRARY_PREFIX = "#library ";
+
+    // the fingerprints of the directories known by the core
+    private final Map<String, String> stored = new ConcurrentHashMap<>();
+    // the fingerprints of the directories found by the current scan
+    private final Map<String, String> scanned = new ConcurrentHashMap<>();
+    // the ids of the libraries in the core
+    private final Map<String, Long> libraryIds = new ConcurrentHashMap<>();
+    private boolean loaded = false;
+
+    /**
+     * Load the index from disk, if not already done.
+     */
+    public synchronized void load() {
+        if (loaded || !INDEX_ENABLED) {
+            return;
+        }
+        loaded = true;
+
+        Path indexPath = getIndexPath();
+        if (!Files.exists(indexPath)) {
+            LOG.info("No directory index found at '{}', all directories will be sent", indexPath);
+            return;
+        }
+
+        try (BufferedReader reader = Files.newBufferedReader(indexPath, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                int pos = line.indexOf(SEPARATOR);
+                if (pos <= 0) {
+                    continue;
+                }
+                if (line.startsWith(LIBRARY_PREFIX)) {
+                    libraryIds.put(line.substring(pos + 1), Long.valueOf(line.substring(LIBRARY_PREFIX.length(), pos)));
+                } else if (!line.startsWith("#")) {
+                    stored.put(line.substring(pos + 1), line.substring(0, pos));
+                }
+            }
+            LOG.info("Loaded directory index with {} directories", stored.size());
+        } catch (IOException | NumberFormatException ex) {
+            LOG.warn("Failed to read directory index '{}', all directories will be sent: {}", indexPath, ex.getMessage());
+            LOG.trace("Exception:", ex);
+            clear();
+        }
+    }
+
+    /**
+     * Save the index to disk.
+     */
+    public synchronized void save() {
+        if (!INDEX_ENABLED) {
+            return;
+        }
+
+        Path indexPath = getIndexPath();
+        Path tempPath = indexPath.resolveSibling(indexPath.getFileName() + ".tmp");
+        try {
+            if (indexPath.getParent() != null) {
+                Files.createDirectories(indexPath.getParent());
+            }
+            try (BufferedWriter writer = Files.newBufferedWriter(tempPath, StandardCharsets.UTF_8)) {
+                writer.write("# YAMJ file scanner directory index");
+                writer.newLine();
+                for (Map.Entry<String, Long> entry : libraryIds.entrySet()) {
+                    writer.write(LIBRARY_PREFIX);
+                    writer.write(entry.getValue().toString());
+                    writer.write(SEPARATOR);
+                    writer.write(entry.getKey());
+                    writer.newLine();
+                }
+                for (Map.Entry<String, String> entry : stored.entrySet()) {
+                    writer.write(entry.getValue());
+                    writer.write(SEPARATOR);
+                    writer.write(entry.getKey());
+                    writer.newLine();
+                }
+            }
+            Files.move(tempPath, indexPath, StandardCopyOption.REPLACE_EXISTING);
+            LOG.debug("Saved directory index with {} directories", stored.size());
+        } catch (IOException ex) {
+            LOG.warn("Failed to write directory index '{}': {}", indexPath, ex.getMessage());
+            LOG.trace("Exception:", ex);
+        }
+    }
+
+    /**
+     * Forget all directories, so that all directories are sent again.
+     */
+    public synchronized void clear() {
+        stored.clear();
+        libraryIds.clear();
+    }
+
+    /**
+     * Check if the directories of the library are still known by the core.
+     *
+     * If the core knows the library with another id or not at all, the directories
+     * of the library are removed from the index, so that they are sent again.
+     *
+     * @param baseDirectory
+     * @param libraryId the id of the library in the core; null if the library is not known
+     * @return true, if the stored directories of the library are still valid
+     */
+    public synchronized boolean checkLibrary(String baseDirectory, Long libraryId) {
+        final Long storedId = libraryIds.get(baseDirectory);
+        if (storedId != null && storedId.equals(libraryId)) {
+            return true;
+        }
+
+        int removed = 0;
+        for (String path : stored.keySet()) {
+            if (isInside(path, baseDirectory)) {
+                stored.remove(path);
+                removed++;
+            }
+        }
+        if (removed > 0) {
+            LOG.info("Library '{}' has been reset in the core, {} known directories will be sent again", baseDirectory, removed);
+        }
+
+        if (libraryId == null) {
+            libraryIds.remove(baseDirectory);
+        } else {
+            libraryIds.put(baseDirectory, libraryId);
+        }
+        return removed == 0;
+    }
+
+    /**
+     * Mark the library as known by the core, if not done before.
+     *
+     * @param baseDirectory
+     * @param libraryId the id of the library in the core; null if the library is not known
+     */
+    public synchronized void markLibrary(String baseDirectory, Long libraryId) {
+        if (libraryId != null && !libraryIds.containsKey(baseDirectory)) {
+            libraryIds.put(baseDirectory, libraryId);
+        }
+    }
+
+    /**
+     * Start a new scan of the library directory.
+     *
+     * @param baseDirectory
+     */
+    public void startScan(String baseDirectory) {
+        for (String path : scanned.keySet()) {
+            if (isInside(path, baseDirectory)) {
+                scanned.remove(path);
+            }
+        }
+    }
+
+    /**
+     * Check if the scanned directory is unchanged since it has been sent to the core.
+     *
+     * @param stageDir the scanned directory
+     * @return true, if the directory doesn't need to be sent
+     */
+    public boolean isUnchanged(StageDirectoryDTO stageDir) {
+        String fingerprint = createFingerprint(stageDir);
+        scanned.put(stageDir.getPath(), fingerprint);
+        return INDEX_ENABLED && fingerprint.equals(stored.get(stageDir.getPath()));
+    }
+
+    /**
+     * Keep the known directories below the path, because they could not be scanned.
+     *
+     * @param path
+     */
+    public void keepDirectories(String path) {
+        for (Map.Entry<String, String> entry : stored.entrySet()) {
+            if (isInside(entry.getKey(), path) && !scanned.containsKey(entry.getKey())) {
+                scanned.put(entry.getKey(), entry.getValue());
+            }
+        }
+    }
+
+    /**
+     * Mark the directory as sent to the core.
+     *
+     * @param path
+     */
+    public void markSent(String path) {
+        String fingerprint = scanned.get(path);
+        if (fingerprint != null) {
+            stored.put(path, fingerprint);
+        }
+    }
+
+    /**
+     * Get the directories of the library which have been sent to the core,
+     * but were not found by the last scan.
+     *
+     * @param baseDirectory
+     * @return the paths of the vanished directories
+     */
+    public List<String> getVanishedDirectories(String baseDirectory) {
+        List<String> vanished = new ArrayList<>();
+        for (String path : stored.keySet()) {
+            if (isInside(path, baseDirectory) && !scanned.containsKey(path)) {
+                vanished.add(path);
+            }
+        }
+        return vanished;
+    }
+
+    /**
+     * Remove the directories from the index.
+     *
+     * @param paths
+     */
+    public void remove(List<String> paths) {
+        for (String path : paths) {
+            stored.remove(path);
+        }
+    }
+
+    private static Path getIndexPath() {
+        File indexFile = new File(INDEX_FILE);
+        if (!indexFile.isAbsolute()) {
+            indexFile = new File(System.getProperty("yamj3.home", "."), INDEX_FILE);
+        }
+        return indexFile.toPath();
+    }
+
+    private static boolean isInside(String path, String directory) {
+        if (path.equals(directory)) {
+            return true;
+        }
+        String prefix = StringUtils.endsWith(directory, File.separator) ? directory : directory + File.separator;
+        return path.startsWith(prefix);
+    }
+
+    private static String createFingerprint(StageDirectoryDTO stageDir) {
+        CRC32 crc = new CRC32();
+        updateCrc(crc, stageDir.getDate());
+        for (StageFileDTO stageFile : stageDir.getStageFiles()) {
+            crc.update(StringUtils.defaultString(stageFile.getFileName()).getBytes(StandardCharsets.UTF_8));
+            updateCrc(crc, stageFile.getFileSize());
+            updateCrc(crc, stageFile.getFileDate());
+        }
+        return Integer.toHexString(stageDir.getStageFiles().size()) + ":" + Long.toHexString(crc.getValue());
+    }
+
+    private static void updateCrc(CRC32 crc, long value) {
+        for (int shift = 0; shift < 64; shift += 8) {
+            crc.update((int) (value >>> shift));
+        }
+    }
+}
@@ -120,7 +120,7 @@ public class Library implements Serializable {
      *
      * @param directories
      */
-    public void setDirectories(Map<String, StageDirectoryDTO> directories) {
+    public synchronized void setDirectories(Map<String, StageDirectoryDTO> directories) {
         this.directories = directories;
 
         directoryStatus.clear();
@@ -134,7 +134,7 @@ public class Library implements Serializable {
      *
      * @param stageDir
      */
-    public void addDirectory(StageDirectoryDTO stageDir) {
+    public synchronized void addDirectory(StageDirectoryDTO stageDir) {
         this.directories.put(stageDir.getPath(), stageDir);
         addDirectoryStatus(stageDir.getPath());
     }
@@ -144,7 +144,7 @@ public class Library implements Serializable {
      *
      * @param stageDir
      */
-    public void removeDirectory(StageDirectoryDTO stageDir) {
+    public synchronized void removeDirectory(StageDirectoryDTO stageDir) {
         this.directories.remove(stageDir.getPath());
         removeDirectoryStatus(stageDir.getPath());
     }
@@ -154,7 +154,7 @@ public class Library implements Serializable {
      *
      * @param stageDirPath
      */
-    public void removeDirectory(String stageDirPath) {
+    public synchronized void removeDirectory(String stageDirPath) {
         this.directories.remove(stageDirPath);
         removeDirectoryStatus(stageDirPath);
     }
@@ -165,7 +165,7 @@ public class Library implements Serializable {
      * @param stageDirPath
      * @return
      */
-    public StageDirectoryDTO getDirectory(String stageDirPath) {
+    public synchronized StageDirectoryDTO getDirectory(String stageDirPath) {
         return directories.get(stageDirPath);
     }
 
@@ -205,10 +205,12 @@ public class Library implements Serializable {
     /**
      * Get the collection of statuses
      *
+     * Returns a copy, because the directories may be scanned concurrently
+     *
      * @return
      */
-    public Map<String, Future<StatusType>> getDirectoryStatus() {
-        return directoryStatus;
+    public synchronized Map<String, Future<StatusType>> getDirectoryStatus() {
+        return new LinkedHashMap<>(directoryStatus);
     }
 
     /**
@@ -216,7 +218,7 @@ public class Library implements Serializable {
      *
      * @param directoryStatus
      */
-    public void setDirectoryStatus(Map<String, Future<StatusType>> directoryStatus) {
+    public synchronized void setDirectoryStatus(Map<String, Future<StatusType>> directoryStatus) {
         this.directoryStatus = directoryStatus;
     }
 
@@ -226,7 +228,7 @@ public class Library implements Serializable {
      * @param path
      * @param status
      */
-    public void addDirectoryStatus(String path, Future<StatusType> status) {
+    public synchronized void addDirectoryStatus(String path, Future<StatusType> status) {
         this.directoryStatus.put(path, status);
     }
 
@@ -237,7 +239,7 @@ public class Library implements Serializable {
      *
      * @param path
      */
-    public void addDirectoryStatus(String path) {
+    public synchronized void addDirectoryStatus(String path) {
         if (directoryStatus.containsKey(path)) {
             // Set to updated
             addDirectoryStatus(path, ConcurrentUtils.constantFuture(StatusType.UPDATED));
@@ -253,7 +255,7 @@ public class Library implements Serializable {
      * @param path
      * @return
      */
-    public Future<StatusType> findDirectoryStatus(String path) {
+    public synchronized Future<StatusType> findDirectoryStatus(String path) {
         if (directoryStatus.containsKey(path)) {
             return directoryStatus.get(path);
         }
@@ -266,7 +268,7 @@ public class Library implements Serializable {
      *
      * @param path
      */
-    public void removeDirectoryStatus(String path) {
+    public synchronized void removeDirectoryStatus(String path) {
         this.directoryStatus.remove(path);
     }
 
@@ -22,28 +22,19 @@
  */
 package org.yamj.filescanner.service;
 import java.io.*;
-import java.util.Map;
 import java.util.concurrent.ExecutionException;
-import java.util.concurrent.Future;
-import java.util.concurrent.FutureTask;
 import java.util.concurrent.atomic.AtomicInteger;
 import javax.annotation.PostConstruct;
 import javax.annotation.PreDestroy;
 import javax.annotation.Resource;
-import org.apache.commons.lang3.concurrent.ConcurrentUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.context.ApplicationContext;
-import org.springframework.core.task.TaskRejectedException;
 import org.springframework.scheduling.annotation.Async;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 import org.springframework.stereotype.Service;
-import org.yamj.common.dto.StageDirectoryDTO;
 import org.yamj.common.tools.PropertyTools;
-import org.yamj.common.type.StatusType;
-import org.yamj.filescanner.ApplicationContextProvider;
 import org.yamj.filescanner.model.Library;
 import org.yamj.filescanner.model.LibraryCollection;
 import org.yamj.filescanner.model.TimeType;
@@ -53,6 +44,7 @@ public class LibrarySendScheduler {
 
     private static final Logger LOG = LoggerFactory.getLogger(LibrarySendScheduler.class);
     private static final int RETRY_MAX = PropertyTools.getIntProperty("filescanner.send.retry", 5);
+    private static final int SEND_BATCH_SIZE = Math.max(1, PropertyTools.getIntProperty("filescanner.send.batchSize", 100));
 	private static long WAIT_TIME = PropertyTools.getLongProperty("filescanner.wait.time", 600000);
     private final AtomicInteger runningCount = new AtomicInteger(0);
     private final AtomicInteger retryCount = new AtomicInteger(0);
@@ -98,6 +90,8 @@ public class LibrarySendScheduler {
         LOG.info("There are {} libraries to process, there have been {} consecutive failed attempts to send.", libraryCollection.size(), retryCount.get());
         LOG.info("There are {} items currently queued to be sent to core.", runningCount.get());
 
+        final LibrarySender librarySender = new LibrarySender(yamjExecutor, SEND_BATCH_SIZE, runningCount, retryCount);
+
         for (Library library : libraryCollection.getLibraries()) {
             library.getStatistics().setTime(TimeType.SENDING_START);
             LOG.info("  {} has {} directories and the file scanner has {} scanning.",
@@ -106,22 +100,8 @@ public class LibrarySendScheduler {
                     library.isScanningComplete() ? "finished" : "not finished");
 
             try {
-                for (Map.Entry<String, Future<StatusType>> entry : library.getDirectoryStatus().entrySet()) {
-                    LOG.info("    {}: {}", entry.getKey(), entry.getValue().isDone() ? entry.getValue().get() : "Being processed");
-
-                    if (checkStatus(library, entry.getValue(), entry.getKey())) {
-                        if (retryCount.get() > 0) {
-                            LOG.debug("Successfully sent file to server, resetting retry count to 0 from {}.", retryCount.getAndSet(0));
-                        } else {
-                            LOG.debug("Successfully sent file to server.");
-                            retryCount.set(0);
-                        }
-                    } else {
-                        // Make sure this is set to false
-                        library.setSendingComplete(false);
-                        LOG.warn("Failed to send a file, this was failed attempt #{}. Waiting until next run...", retryCount.incrementAndGet());
-                        return;
-                    }
+                if (!librarySender.send(library)) {
+                    return;
                 }
 
                 // Don't stop sending until the scanning is completed and there are no running tasks
@@ -141,74 +121,4 @@ public class LibrarySendScheduler {
         }
     }
 
-    private boolean checkStatus(Library library, Future<StatusType> statusType, String directory) throws InterruptedException, ExecutionException {
-        boolean sendStatus;
-
-        
-        if (statusType.isDone()) {
-            StatusType processingStatus = statusType.get();
-            
-            if (processingStatus == StatusType.NEW) {
-                LOG.info("    Sending '{}' to core for processing.", directory);
-                sendStatus = sendToCore(library, directory);
-            } else if (processingStatus == StatusType.UPDATED) {
-                LOG.info("    Sending updated '{}' to core for processing.", directory);
-                sendStatus = sendToCore(library, directory);
-            } else if (processingStatus == StatusType.ERROR) {
-                LOG.info("    Resending '{}' to core for processing (was in error status).", directory);
-                sendStatus = sendToCore(library, directory);
-            } else if (processingStatus == StatusType.DONE) {
-                LOG.info("    Completed: '{}'", directory);
-                sendStatus = true;
-            } else {
-                LOG.warn("    Unknown processing status {} for {}", processingStatus, directory);
-                // Assume this is correct, so we don't get stuck
-                sendStatus = true;
-            }
-        } else {
-            LOG.warn("    Still being procesed {}", directory);
-            sendStatus = false;
-        }
-        return sendStatus;
-    }
-
-    /**
-     * Send the directory to the core.
-     *
-     * Will get the StageDirectoryDTO from the library for sending.
-     *
-     * @param library
-     * @param sendDir
-     */
-    private boolean sendToCore(Library library, String sendDir) {
-        StageDirectoryDTO stageDto = library.getDirectory(sendDir);
-        boolean sentOk = false;
-
-        if (stageDto == null) {
-            LOG.warn("StageDirectoryDTO for '{}' is null!", sendDir);
-            // We do not want to send this again.
-            library.addDirectoryStatus(sendDir, ConcurrentUtils.constantFuture(StatusType.INVALID));
-            return true;
-        }
-
-        LOG.info("Sending #{}: {}", runningCount.incrementAndGet(), sendDir);
-
-        ApplicationContext appContext = ApplicationContextProvider.getApplicationContext();
-        SendToCore stc = (SendToCore) appContext.getBean("sendToCore");
-        stc.setImportDto(library.getImportDTO(stageDto));
-        stc.setCounter(runningCount);
-        FutureTask<StatusType> task = new FutureTask<>(stc);
-
-        try {
-            yamjExecutor.submit(task);
-            library.addDirectoryStatus(stageDto.getPath(), task);
-            sentOk = true;
-        } catch (TaskRejectedException ex) {
-            LOG.warn("Send queue full. '{}' will be sent later.", stageDto.getPath());
-            LOG.trace("LibrarySendScheduler sendToCore Exception: ", ex);
-            library.addDirectoryStatus(stageDto.getPath(), ConcurrentUtils.constantFuture(StatusType.NEW));
-        }
-        
-        return sentOk;
-    }
 }
@@ -0,0 +1,225 @@
+/*
+ *      Copyright (c) 2004-2015 YAMJ Members
+ *      https://github.com/organizations/YAMJ/teams
+ *
+ *      This file is part of the Yet Another Media Jukebox (YAMJ).
+ *
+ *      YAMJ is free software: you can redistribute it and/or modify
+ *      it under the terms of the GNU General Public License as published by
+ *      the Free Software Foundation, either version 3 of the License, or
+ *      any later version.
+ *
+ *      YAMJ is distributed in the hope that it will be useful,
+ *      but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *      MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *      GNU General Public License for more details.
+ *
+ *      You should have received a copy of the GNU General Public License
+ *      along with YAMJ.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ *      Web: https://github.com/YAMJ/yamj-v3
+ *
+ */
+package org.yamj.filescanner.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.apache.commons.lang3.concurrent.ConcurrentUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.ApplicationContext;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.core.task.TaskRejectedException;
+import org.yamj.common.dto.ImportDTO;
+import org.yamj.common.dto.StageDirectoryDTO;
+import org.yamj.common.type.StatusType;
+import org.yamj.filescanner.ApplicationContextProvider;
+import org.yamj.filescanner.model.Library;
+
+/**
+ * Sends the directories of a library in batches to the core.
+ *
+ * Directories which could not be sent are kept with status NEW, so that
+ * they are sent again by the next run.
+ */
+public class LibrarySender {
+
+    private static final Logger LOG = LoggerFactory.getLogger(LibrarySender.class);
+    private final AsyncTaskExecutor executor;
+    private final int batchSize;
+    private final AtomicInteger runningCount;
+    private final AtomicInteger retryCount;
+
+    /**
+     * Create a sender
+     *
+     * @param executor the executor for the send tasks
+     * @param batchSize the maximum number of directories sent in one call
+     * @param runningCount the number of directories queued for sending
+     * @param retryCount the number of consecutive failed attempts to send
+     */
+    public LibrarySender(AsyncTaskExecutor executor, int batchSize, AtomicInteger runningCount, AtomicInteger retryCount) {
+        this.executor = executor;
+        this.batchSize = Math.max(1, batchSize);
+        this.runningCount = runningCount;
+        this.retryCount = retryCount;
+    }
+
+    /**
+     * Send the new, updated and failed directories of the library to the core.
+     *
+     * @param library
+     * @return false if a directory is still in process or the send queue is full
+     * @throws InterruptedException
+     * @throws ExecutionException
+     */
+    public boolean send(Library library) throws InterruptedException, ExecutionException {
+        List<StageDirectoryDTO> batch = new ArrayList<>(batchSize);
+        for (Map.Entry<String, Future<StatusType>> entry : library.getDirectoryStatus().entrySet()) {
+            LOG.info("    {}: {}", entry.getKey(), entry.getValue().isDone() ? entry.getValue().get() : "Being processed");
+
+            if (checkStatus(library, entry.getValue(), entry.getKey(), batch)) {
+                if (retryCount.get() > 0) {
+                    LOG.debug("Successfully sent file to server, resetting retry count to 0 from {}.", retryCount.getAndSet(0));
+                } else {
+                    LOG.debug("Successfully sent file to server.");
+                    retryCount.set(0);
+                }
+            } else {
+                failed(library);
+                return false;
+            }
+        }
+
+        // send the remaining directories
+        if (!sendBatch(library, batch)) {
+            failed(library);
+            return false;
+        }
+        return true;
+    }
+
+    private void failed(Library library) {
+        // Make sure this is set to false
+        library.setSendingComplete(false);
+        LOG.warn("Failed to send a file, this was failed attempt #{}. Waiting until next run...", retryCount.incrementAndGet());
+    }
+
+    private boolean checkStatus(Library library, Future<StatusType> statusType, String directory, List<StageDirectoryDTO> batch) throws InterruptedException, ExecutionException {
+        boolean sendStatus;
+
+        if (statusType.isDone()) {
+            StatusType processingStatus = statusType.get();
+
+            if (processingStatus == StatusType.NEW) {
+                LOG.info("    Sending '{}' to core for processing.", directory);
+                sendStatus = sendToCore(library, directory, batch);
+            } else if (processingStatus == StatusType.UPDATED) {
+                LOG.info("    Sending updated '{}' to core for processing.", directory);
+                sendStatus = sendToCore(library, directory, batch);
+            } else if (processingStatus == StatusType.ERROR) {
+                LOG.info("    Resending '{}' to core for processing (was in error status).", directory);
+                sendStatus = sendToCore(library, directory, batch);
+            } else if (processingStatus == StatusType.DONE) {
+                LOG.info("    Completed: '{}'", directory);
+                sendStatus = true;
+            } else {
+                LOG.warn("    Unknown processing status {} for {}", processingStatus, directory);
+                // Assume this is correct, so we don't get stuck
+                sendStatus = true;
+            }
+        } else {
+            LOG.warn("    Still being procesed {}", directory);
+            sendStatus = false;
+        }
+        return sendStatus;
+    }
+
+    /**
+     * Add the directory to the batch for sending to the core.
+     *
+     * Will get the StageDirectoryDTO from the library for sending and sends
+     * the batch if it's full.
+     *
+     * @param library
+     * @param sendDir
+     * @param batch
+     */
+    private boolean sendToCore(Library library, String sendDir, List<StageDirectoryDTO> batch) {
+        StageDirectoryDTO stageDto = library.getDirectory(sendDir);
+
+        if (stageDto == null) {
+            LOG.warn("StageDirectoryDTO for '{}' is null!", sendDir);
+            // We do not want to send this again.
+            library.addDirectoryStatus(sendDir, ConcurrentUtils.constantFuture(StatusType.INVALID));
+            return true;
+        }
+
+        batch.add(stageDto);
+        if (batch.size() >= batchSize) {
+            return sendBatch(library, batch);
+        }
+        return true;
+    }
+
+    /**
+     * Send a batch of directories in one call to the core.
+     *
+     * @param library
+     * @param batch the directories to send; will be cleared
+     */
+    private boolean sendBatch(Library library, List<StageDirectoryDTO> batch) {
+        if (batch.isEmpty()) {
+            return true;
+        }
+
+        LOG.info("Sending batch of {} directories, #{} queued", batch.size(), runningCount.addAndGet(batch.size()));
+
+        List<ImportDTO> importDtos = new ArrayList<>(batch.size());
+        for (StageDirectoryDTO stageDto : batch) {
+            importDtos.add(library.getImportDTO(stageDto));
+        }
+        FutureTask<StatusType> task = new FutureTask<>(createTask(importDtos));
+
+        boolean sentOk = false;
+        try {
+            executor.submit(task);
+            for (StageDirectoryDTO stageDto : batch) {
+                library.addDirectoryStatus(stageDto.getPath(), task);
+            }
+            sentOk = true;
+        } catch (TaskRejectedException ex) {
+            LOG.warn("Send queue full. {} directories will be sent later.", batch.size());
+            LOG.trace("Exception: ", ex);
+            runningCount.addAndGet(-batch.size());
+            for (StageDirectoryDTO stageDto : batch) {
+                library.addDirectoryStatus(stageDto.getPath(), ConcurrentUtils.constantFuture(StatusType.NEW));
+            }
+        }
+
+        batch.clear();
+        return sentOk;
+    }
+
+    /**
+     * Create the task which sends the directories to the core.
+     *
+     * The task must decrease the running count by the number of directories after sending.
+     *
+     * @param importDtos the directories to send
+     * @return the task
+     */
+    protected Callable<StatusType> createTask(List<ImportDTO> importDtos) {
+        ApplicationContext appContext = ApplicationContextProvider.getApplicationContext();
+        SendToCore stc = (SendToCore) appContext.getBean("sendToCore");
+        stc.setImportDtos(importDtos);
+        stc.setCounter(runningCount);
+        return stc;
+    }
+}
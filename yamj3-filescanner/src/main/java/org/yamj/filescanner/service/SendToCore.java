@@ -22,7 +22,14 @@
  */
 package org.yamj.filescanner.service;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.Callable;
+import java.util.concurrent.Future;
 import java.util.concurrent.atomic.AtomicInteger;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -38,18 +45,13 @@ import org.yamj.common.type.StatusType;
 import org.yamj.filescanner.model.Library;
 import org.yamj.filescanner.model.LibraryCollection;
 import org.yamj.filescanner.model.TimeType;
-import java.util.concurrent.Future;
-import java.util.concurrent.FutureTask;
-import org.yamj.common.type.StatusType;
-import java.util.Map;
-import java.util.concurrent.ExecutionException;
 
 @Service
 @Scope(BeanDefinition.SCOPE_PROTOTYPE)
 public class SendToCore implements Callable<StatusType> {
 
     private static final Logger LOG = LoggerFactory.getLogger(SendToCore.class);
-    private ImportDTO importDto;
+    private List<ImportDTO> importDtos = Collections.emptyList();
     private AtomicInteger runningCount;
 	private int current_runningCount = 0;
     @Autowired
@@ -63,11 +65,20 @@ public class SendToCore implements Callable<StatusType> {
     }
 
     public SendToCore(ImportDTO importDto) {
-        this.importDto = importDto;
+        setImportDto(importDto);
     }
 
     public void setImportDto(ImportDTO importDto) {
-        this.importDto = importDto;
+        this.importDtos = Collections.singletonList(importDto);
+    }
+
+    /**
+     * Set a batch of directories which are sent in one call to the core.
+     *
+     * @param importDtos
+     */
+    public void setImportDtos(List<ImportDTO> importDtos) {
+        this.importDtos = new ArrayList<>(importDtos);
     }
 
     public void setCounter(AtomicInteger runningCount) {
@@ -77,13 +88,19 @@ public class SendToCore implements Callable<StatusType> {
     @Override
     public StatusType call() {
         StatusType status;
-        String displayPath = importDto.getStageDirectory().getPath();	
+        String displayPath = importDtos.get(0).getStageDirectory().getPath();
+        if (importDtos.size() > 1) {
+            displayPath = displayPath + " (+" + (importDtos.size() - 1) + " more)";
+        }
 		
         try {
             LOG.debug("Sending: {}", displayPath);
-            fileImportService.importScanned(importDto);
-			current_runningCount = runningCount.decrementAndGet();
-        //    LOG.debug("{}: Successfully queued", displayPath);
+            if (importDtos.size() == 1) {
+                fileImportService.importScanned(importDtos.get(0));
+            } else {
+                fileImportService.importScannedBatch(importDtos);
+            }
+			current_runningCount = runningCount.addAndGet(-importDtos.size());
             status = StatusType.DONE;
         } catch (RemoteConnectFailureException ex) {
             LOG.error("{}: Failed to connect to the core server: {}", displayPath, ex.getMessage());
@@ -99,18 +116,20 @@ public class SendToCore implements Callable<StatusType> {
         LOG.info("{}: Exiting with status {}, remaining threads: {}", displayPath, status, current_runningCount);
 		if (current_runningCount == 0)
 		{
+			Set<String> sentPaths = new HashSet<>();
+			for (ImportDTO importDto : importDtos) {
+				sentPaths.add(importDto.getStageDirectory().getPath());
+			}
 			for (Library library : libraryCollection.getLibraries()) 
 				{
 					for (Map.Entry<String, Future<StatusType>> entry : library.getDirectoryStatus().entrySet()) 
 						{
-						//	LOG.info("    {}: {}", entry.getKey(), entry.getValue().isDone() ? entry.getValue().get() : "Being processed");
-							String displayCurrentLib = entry.getKey();
-						//	LOG.debug ("sendToCore displayCurrentLib: {} , displayPath: {}", displayCurrentLib, displayPath);
-							if (displayCurrentLib.equals(displayPath)) 
+							if (sentPaths.contains(entry.getKey())) 
 							{
 								LOG.info ("Sending Complete");
 								library.setSendingComplete(true);
 								library.getStatistics().setTime(TimeType.SENDING_END);
+								break;
 							}
 						}
 				}		   
@@ -23,6 +23,7 @@
 package org.yamj.filescanner.tools;
 
 import java.io.File;
+import java.nio.file.Path;
 import java.util.HashMap;
 import java.util.Map;
 import org.yamj.common.type.DirectoryType;
@@ -70,4 +71,18 @@ public final class DirectoryEnding {
         }
         return DirectoryType.STANDARD;
     }
+
+    /**
+     * Return the DirectoryType of the directory
+     *
+     * @param directory
+     * @return
+     */
+    public static DirectoryType check(Path directory) {
+        Path name = directory.getFileName();
+        if (name != null && DIR_ENDINGS.containsKey(name.toString())) {
+            return DIR_ENDINGS.get(name.toString());
+        }
+        return DirectoryType.STANDARD;
+    }
 }
@@ -26,20 +26,21 @@ import static name.pachler.nio.file.StandardWatchEventKind.ENTRY_CREATE;
 import static name.pachler.nio.file.StandardWatchEventKind.ENTRY_DELETE;
 import static name.pachler.nio.file.StandardWatchEventKind.ENTRY_MODIFY;
 import static name.pachler.nio.file.ext.ExtendedWatchEventModifier.FILE_TREE;
-import org.springframework.beans.factory.annotation.Autowired;
+
+import java.io.File;
 import java.io.IOException;
-import java.util.HashMap;
-import java.util.Map;
+import java.util.*;
 import java.util.concurrent.TimeUnit;
 import name.pachler.nio.file.*;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import java.util.concurrent.Callable;
-import org.springframework.remoting.RemoteAccessException;
-import org.springframework.remoting.RemoteConnectFailureException;
-import org.springframework.stereotype.Service;
-import java.util.concurrent.ExecutionException;
 
+/**
+ * Watches directories for changes.
+ *
+ * The events are collected until the directories are quiet and returned as
+ * the set of directories which need to be rescanned.
+ */
 public class Watcher {
 
     private static final Logger LOG = LoggerFactory.getLogger(Watcher.class);
@@ -50,7 +51,9 @@ public class Watcher {
     private static final WatchEvent.Kind[] STANDARD_EVENTS = {ENTRY_CREATE, ENTRY_MODIFY, ENTRY_DELETE};
     // keep watching the directories
     private boolean watchEnabled = true;
-	
+    // recursive watching is not supported on all systems, then each directory is registered
+    private boolean fileTreeSupported = true;
+
     /**
      * Creates a WatchService
      */
@@ -111,97 +114,180 @@ public class Watcher {
      * @param dir
      */
     private void register(Path dir) {
-        WatchKey key = null;
-		
+        if (fileTreeSupported) {
+            try {
+                storeKey(dir.register(watcherService, STANDARD_EVENTS, FILE_TREE), dir);
+                return;
+            } catch (UnsupportedOperationException ex) {
+                LOG.info("Recursive file watching not supported, watching each directory: {}", ex.getMessage());
+                LOG.trace("Exception:", ex);
+                fileTreeSupported = false;
+            } catch (IOException ex) {
+                LOG.error("IO Error:", ex);
+                return;
+            }
+        }
+        registerTree(new File(dir.toString()));
+    }
+
+    /**
+     * Register the directory and all sub directories with the WatchService
+     *
+     * @param directory
+     */
+    private void registerTree(File directory) {
+        Path dir = Paths.get(directory.getAbsolutePath());
         try {
-            key = dir.register(watcherService, STANDARD_EVENTS, FILE_TREE);
+            storeKey(dir.register(watcherService, STANDARD_EVENTS), dir);
         } catch (UnsupportedOperationException ex) {
             LOG.warn("File watching not supported: {}", ex.getMessage());
             LOG.trace("Exception:", ex);
+            return;
         } catch (IOException ex) {
-            LOG.error("IO Error:", ex);
+            LOG.warn("Failed to watch directory '{}': {}", dir, ex.getMessage());
+            LOG.trace("Exception:", ex);
+            return;
         }
 
-        if (key != null) {
-            if (trace) {
-                Path prev = keys.get(key);
-                if (prev == null) {
-                    LOG.info("Register Watcher for: {}", dir);
-                } else if (!dir.equals(prev)) {
-                    LOG.info("Update Watcher for: {} -> {}", prev, dir);
+        File[] subDirectories = directory.listFiles();
+        if (subDirectories != null) {
+            for (File subDirectory : subDirectories) {
+                if (subDirectory.isDirectory()) {
+                    registerTree(subDirectory);
                 }
             }
-            keys.put(key, dir);
         }
     }
 
+    private void storeKey(WatchKey key, Path dir) {
+        if (key == null) {
+            return;
+        }
+        if (trace) {
+            Path prev = keys.get(key);
+            if (prev == null) {
+                LOG.debug("Register Watcher for: {}", dir);
+            } else if (!dir.equals(prev)) {
+                LOG.debug("Update Watcher for: {} -> {}", prev, dir);
+            }
+        }
+        keys.put(key, dir);
+    }
+
     /**
-     * Process all events for keys queued to the watcher
+     * Wait for changes of the watched directories.
+     *
+     * Blocks until the first event occurs and then collects further events
+     * until no event occurred for the quiet period or the maximum delay has
+     * been reached.
+     *
+     * @param quietPeriod the time in milliseconds without events
+     * @param maxDelay the maximum time in milliseconds to collect events
+     * @return the changes; empty if the watching has been stopped or the
+     *         thread has been interrupted before any event occurred
      */
-    public void processEvents() {
-        while (watchEnabled) {
+    public Changes waitForChanges(long quietPeriod, long maxDelay) {
+        Changes changes = new Changes();
+        long firstEvent = 0;
 
-            // wait for key to be signaled
-			 WatchKey key;
-			// just info
-			startWatching();
+        while (watchEnabled) {
+            WatchKey key;
             try {
-				key = watcherService.take();
-			//	LOG.debug("Watcher start take() key and sleep 20s: " + key);
-			// delay action for 20 seconds to let more time to change 
-				TimeUnit.MILLISECONDS.sleep(20000);
+                if (firstEvent == 0) {
+                    key = watcherService.take();
+                    firstEvent = System.currentTimeMillis();
+                } else {
+                    long remaining = firstEvent + maxDelay - System.currentTimeMillis();
+                    key = watcherService.poll(Math.max(0, Math.min(quietPeriod, remaining)), TimeUnit.MILLISECONDS);
+                    if (key == null) {
+                        // directories are quiet or waited long enough
+                        break;
+                    }
+                }
             } catch (InterruptedException ex) {
-				LOG.debug("ProcessEvents watchEnabled InterruptedException: {}", ex);
-                continue;
+                LOG.debug("Waiting for changes interrupted: {}", ex.getMessage());
+                Thread.currentThread().interrupt();
+                changes.coalesce();
+                return changes;
             } catch (ClosedWatchServiceException ex) {
                 LOG.info("Watch service closed, terminating.");
-                LOG.trace("Watcher ProcessEvents Exception:", ex);
+                LOG.trace("Watcher Exception:", ex);
                 watchEnabled = false;
                 break;
             }
 
-            Path dir = keys.get(key);
-			LOG.debug("Watcher : " + dir);
-            if (dir == null) {
-                LOG.warn("WatchKey not recognized!!");
+            processKey(key, changes);
+        }
+
+        changes.coalesce();
+        return changes;
+    }
+
+    /**
+     * Collect the changed directories of the events of the key.
+     *
+     * @param key
+     * @param changes
+     */
+    private void processKey(WatchKey key, Changes changes) {
+        Path dir = keys.get(key);
+        if (dir == null) {
+            LOG.warn("WatchKey not recognized!!");
+            key.reset();
+            return;
+        }
+
+        for (WatchEvent<?> event : key.pollEvents()) {
+            @SuppressWarnings("rawtypes")
+            WatchEvent.Kind kind = event.kind();
+
+            if (kind == StandardWatchEventKind.OVERFLOW) {
+                LOG.info("Too many watched events, rescanning '{}'", dir);
+                changes.trees.add(new File(dir.toString()).getAbsolutePath());
                 continue;
             }
-			
-            for (WatchEvent<?> event : key.pollEvents()) {
-                @SuppressWarnings("rawtypes")
-                WatchEvent.Kind kind = event.kind();
-
-                // TBD - provide example of how OVERFLOW event is handled
-                if (kind == StandardWatchEventKind.OVERFLOW) {
-                    LOG.info("Too many watched events!");
-                    continue;
-                }
 
-                // Context for directory entry event is the file name of entry
-                WatchEvent<Path> ev = cast(event);
-                Path name = ev.context();
-                Path child = dir.resolve(name);
+            // Context for directory entry event is the (relative) file name of entry
+            WatchEvent<Path> ev = cast(event);
+            File child = new File(dir.resolve(ev.context()).toString()).getAbsoluteFile();
+            LOG.info("{}: {} ", kind.name(), child);
 
-                // print out event
-                LOG.info("{}: {} ", event.kind().name(), child); // runningCount.incrementAndGet());
-				
-            }
-			
-            // reset key and remove from set if directory no longer accessible
-			boolean valid = key.reset();
-			LOG.debug("Watcher reset key.");
-            if (!valid) {
-               keys.remove(key);
-
-                // all directories are inaccessible
-                if (keys.isEmpty()) {
-					LOG.debug("Watcher keys.isEmpty()");
-                   break;
+            if (kind == ENTRY_CREATE && child.isDirectory()) {
+                // new directory, so the whole tree must be scanned and watched
+                changes.trees.add(child.getPath());
+                if (!fileTreeSupported) {
+                    registerTree(child);
                 }
+            } else if (kind == ENTRY_DELETE) {
+                // the deleted entry could have been a file or a directory tree
+                changes.trees.add(child.getPath());
+                addParent(child, changes);
+            } else if (!child.isDirectory()) {
+                // changes to a directory itself are covered by the events of its entries
+                addParent(child, changes);
             }
-			// now stop watcher to exit loop and treat what is modified
-			 stopWatching();
         }
+
+        // reset key and remove from set if directory no longer accessible
+        if (!key.reset()) {
+            keys.remove(key);
+            // all directories are inaccessible
+            if (keys.isEmpty()) {
+                LOG.info("No accessible directories left to watch");
+                stopWatching();
+            }
+        }
+    }
+
+    private static void addParent(File child, Changes changes) {
+        File parent = child.getParentFile();
+        if (parent != null) {
+            changes.directories.add(parent.getPath());
+        }
+    }
+
+    public boolean isWatching() {
+        return watchEnabled;
     }
 
     public void stopWatching() {
@@ -216,4 +302,58 @@ public class Watcher {
         LOG.info("{} the watch process", watchFlag ? "Enabling" : "Disabling");
         this.watchEnabled = watchFlag;
     }
+
+    /**
+     * The directories changed while watching
+     */
+    public static final class Changes {
+
+        // directories where only the files need to be rescanned
+        private final Set<String> directories = new TreeSet<>();
+        // directories which need to be rescanned including their sub directories
+        private final Set<String> trees = new TreeSet<>();
+
+        public Set<String> getDirectories() {
+            return directories;
+        }
+
+        public Set<String> getTrees() {
+            return trees;
+        }
+
+        public boolean isEmpty() {
+            return directories.isEmpty() && trees.isEmpty();
+        }
+
+        /**
+         * Remove the directories which are covered by a changed tree.
+         */
+        private void coalesce() {
+            Iterator<String> iter = trees.iterator();
+            while (iter.hasNext()) {
+                String path = iter.next();
+                for (String changedTree : trees) {
+                    if (!path.equals(changedTree) && isInside(path, changedTree)) {
+                        iter.remove();
+                        break;
+                    }
+                }
+            }
+
+            iter = directories.iterator();
+            while (iter.hasNext()) {
+                String path = iter.next();
+                for (String changedTree : trees) {
+                    if (isInside(path, changedTree)) {
+                        iter.remove();
+                        break;
+                    }
+                }
+            }
+        }
+
+        private static boolean isInside(String path, String directory) {
+            return path.equals(directory) || path.startsWith(directory.endsWith(File.separator) ? directory : directory + File.separator);
+        }
+    }
 }
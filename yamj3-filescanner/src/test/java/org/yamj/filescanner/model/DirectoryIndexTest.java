@@ -0,0 +1,174 @@
+/*
+ *      Copyright (c) 2004-2015 YAMJ Members
+ *      https://github.com/organizations/YAMJ/teams
+ *
+ *      This file is part of the Yet Another Media Jukebox (YAMJ).
+ *
+ *      YAMJ is free software: you can redistribute it and/or modify
+ *      it under the terms of the GNU General Public License as published by
+ *      the Free Software Foundation, either version 3 of the License, or
+ *      any later version.
+ *
+ *      YAMJ is distributed in the hope that it will be useful,
+ *      but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *      MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *      GNU General Public License for more details.
+ *
+ *      You should have received a copy of the GNU General Public License
+ *      along with YAMJ.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ *      Web: https://github.com/YAMJ/yamj-v3
+ *
+ */
+package org.yamj.filescanner.model;
+
+import static org.junit.Assert.*;
+
+import java.io.File;
+import java.util.Collections;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.yamj.common.dto.StageDirectoryDTO;
+import org.yamj.common.dto.StageFileDTO;
+
+public class DirectoryIndexTest {
+
+    private static final String LIBRARY = File.separator + "media";
+    private static final String MOVIES = LIBRARY + File.separator + "movies";
+    private static final String SERIES = LIBRARY + File.separator + "series";
+    private static final String OTHER_LIBRARY = File.separator + "other";
+    private static final String OTHER = OTHER_LIBRARY + File.separator + "movies";
+
+    @Rule
+    public TemporaryFolder home = new TemporaryFolder();
+    private String formerHome;
+
+    @Before
+    public void setUp() {
+        formerHome = System.getProperty("yamj3.home");
+        System.setProperty("yamj3.home", home.getRoot().getAbsolutePath());
+    }
+
+    @After
+    public void tearDown() {
+        if (formerHome == null) {
+            System.clearProperty("yamj3.home");
+        } else {
+            System.setProperty("yamj3.home", formerHome);
+        }
+    }
+
+    private static StageDirectoryDTO createDirectory(String path, long fileSize) {
+        StageDirectoryDTO stageDir = new StageDirectoryDTO();
+        stageDir.setPath(path);
+        stageDir.setDate(1000L);
+        StageFileDTO stageFile = new StageFileDTO();
+        stageFile.setFileName("movie.mkv");
+        stageFile.setFileSize(fileSize);
+        stageFile.setFileDate(2000L);
+        stageDir.addStageFile(stageFile);
+        return stageDir;
+    }
+
+    private static void send(DirectoryIndex index, String path) {
+        assertFalse(index.isUnchanged(createDirectory(path, 1)));
+        index.markSent(path);
+    }
+
+    @Test
+    public void testLookup() {
+        DirectoryIndex index = new DirectoryIndex();
+        index.startScan(LIBRARY);
+        send(index, MOVIES);
+
+        index.startScan(LIBRARY);
+        assertTrue(index.isUnchanged(createDirectory(MOVIES, 1)));
+        assertFalse(index.isUnchanged(createDirectory(MOVIES, 2)));
+        assertFalse(index.isUnchanged(createDirectory(SERIES, 1)));
+    }
+
+    @Test
+    public void testUpdate() {
+        DirectoryIndex index = new DirectoryIndex();
+        index.startScan(LIBRARY);
+        send(index, MOVIES);
+        send(index, SERIES);
+
+        // the changed directory is unchanged after it has been sent
+        index.startScan(LIBRARY);
+        assertFalse(index.isUnchanged(createDirectory(MOVIES, 2)));
+        index.markSent(MOVIES);
+        assertTrue(index.isUnchanged(createDirectory(MOVIES, 2)));
+
+        // the series directory was not found by the scan
+        assertEquals(Collections.singletonList(SERIES), index.getVanishedDirectories(LIBRARY));
+        index.remove(index.getVanishedDirectories(LIBRARY));
+        assertTrue(index.getVanishedDirectories(LIBRARY).isEmpty());
+
+        // directories which could not be scanned are kept
+        index.startScan(LIBRARY);
+        index.keepDirectories(MOVIES);
+        assertTrue(index.getVanishedDirectories(LIBRARY).isEmpty());
+    }
+
+    @Test
+    public void testSaveAndLoad() {
+        DirectoryIndex index = new DirectoryIndex();
+        index.load();
+        index.startScan(LIBRARY);
+        send(index, MOVIES);
+        index.markLibrary(LIBRARY, 5L);
+        index.save();
+
+        DirectoryIndex loaded = new DirectoryIndex();
+        loaded.load();
+        assertTrue(loaded.checkLibrary(LIBRARY, 5L));
+        loaded.startScan(LIBRARY);
+        assertTrue(loaded.isUnchanged(createDirectory(MOVIES, 1)));
+    }
+
+    @Test
+    public void testInvalidateLibrary() {
+        DirectoryIndex index = new DirectoryIndex();
+        index.startScan(LIBRARY);
+        send(index, MOVIES);
+        index.startScan(OTHER_LIBRARY);
+        send(index, OTHER);
+        index.markLibrary(LIBRARY, 1L);
+        index.markLibrary(OTHER_LIBRARY, 2L);
+
+        // a known library doesn't replace the id
+        index.markLibrary(LIBRARY, 3L);
+        assertTrue(index.checkLibrary(LIBRARY, 1L));
+
+        // the core database has been reset
+        assertFalse(index.checkLibrary(LIBRARY, null));
+        assertTrue(index.checkLibrary(OTHER_LIBRARY, 2L));
+        index.startScan(LIBRARY);
+        assertFalse(index.isUnchanged(createDirectory(MOVIES, 1)));
+        index.startScan(OTHER_LIBRARY);
+        assertTrue(index.isUnchanged(createDirectory(OTHER, 1)));
+
+        // the library has been imported again with another id
+        assertFalse(index.checkLibrary(OTHER_LIBRARY, 4L));
+        assertTrue(index.checkLibrary(OTHER_LIBRARY, 4L));
+        index.startScan(OTHER_LIBRARY);
+        assertFalse(index.isUnchanged(createDirectory(OTHER, 1)));
+    }
+
+    @Test
+    public void testClear() {
+        DirectoryIndex index = new DirectoryIndex();
+        index.startScan(LIBRARY);
+        send(index, MOVIES);
+        index.markLibrary(LIBRARY, 1L);
+
+        index.clear();
+        index.startScan(LIBRARY);
+        assertFalse(index.isUnchanged(createDirectory(MOVIES, 1)));
+        assertTrue(index.getVanishedDirectories(LIBRARY).isEmpty());
+    }
+}
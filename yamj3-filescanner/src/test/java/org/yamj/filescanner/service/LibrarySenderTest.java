@@ -0,0 +1,185 @@
+/*
+ *      Copyright (c) 2004-2015 YAMJ Members
+ *      https://github.com/organizations/YAMJ/teams
+ *
+ *      This file is part of the Yet Another Media Jukebox (YAMJ).
+ *
+ *      YAMJ is free software: you can redistribute it and/or modify
+ *      it under the terms of the GNU General Public License as published by
+ *      the Free Software Foundation, either version 3 of the License, or
+ *      any later version.
+ *
+ *      YAMJ is distributed in the hope that it will be useful,
+ *      but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *      MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *      GNU General Public License for more details.
+ *
+ *      You should have received a copy of the GNU General Public License
+ *      along with YAMJ.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ *      Web: https://github.com/YAMJ/yamj-v3
+ *
+ */
+package org.yamj.filescanner.service;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.core.task.TaskRejectedException;
+import org.yamj.common.dto.ImportDTO;
+import org.yamj.common.dto.StageDirectoryDTO;
+import org.yamj.common.type.StatusType;
+import org.yamj.filescanner.model.Library;
+
+public class LibrarySenderTest {
+
+    private final List<List<ImportDTO>> sent = new ArrayList<>();
+    private final AtomicInteger runningCount = new AtomicInteger(0);
+    private final AtomicInteger retryCount = new AtomicInteger(0);
+    private Library library;
+
+    @Before
+    public void setUp() {
+        library = new Library();
+        library.getImportDTO().setBaseDirectory("/media");
+    }
+
+    @Test
+    public void testSendInBatches() throws Exception {
+        addDirectories(5);
+        retryCount.set(2);
+
+        assertTrue(createSender(new TestExecutor(false), 2).send(library));
+
+        // two full batches and the remaining directory
+        assertEquals(3, sent.size());
+        assertEquals(2, sent.get(0).size());
+        assertEquals(2, sent.get(1).size());
+        assertEquals(1, sent.get(2).size());
+        assertEquals("/media/dir0", sent.get(0).get(0).getStageDirectory().getPath());
+        assertEquals("/media", sent.get(0).get(0).getBaseDirectory());
+        assertEquals(0, runningCount.get());
+        assertEquals(0, retryCount.get());
+        for (Future<StatusType> status : library.getDirectoryStatus().values()) {
+            assertEquals(StatusType.DONE, status.get());
+        }
+    }
+
+    @Test
+    public void testSendCompletedDirectories() throws Exception {
+        addDirectories(2);
+        assertTrue(createSender(new TestExecutor(false), 10).send(library));
+        assertEquals(1, sent.size());
+
+        // directories which are done are not sent again
+        assertTrue(createSender(new TestExecutor(false), 10).send(library));
+        assertEquals(1, sent.size());
+    }
+
+    @Test
+    public void testSendQueueFull() throws Exception {
+        addDirectories(3);
+
+        assertFalse(createSender(new TestExecutor(true), 2).send(library));
+
+        // directories are kept for the next run
+        assertTrue(sent.isEmpty());
+        assertEquals(0, runningCount.get());
+        assertEquals(1, retryCount.get());
+        assertFalse(library.isSendingComplete());
+        for (Future<StatusType> status : library.getDirectoryStatus().values()) {
+            assertEquals(StatusType.NEW, status.get());
+        }
+
+        // next run sends the directories
+        assertTrue(createSender(new TestExecutor(false), 2).send(library));
+        assertEquals(2, sent.size());
+        assertEquals(0, retryCount.get());
+    }
+
+    @Test
+    public void testSendInProcess() throws Exception {
+        addDirectories(1);
+        library.addDirectoryStatus("/media/dir0", new FutureTask<StatusType>(new Callable<StatusType>() {
+            @Override
+            public StatusType call() {
+                return StatusType.DONE;
+            }
+        }));
+
+        assertFalse(createSender(new TestExecutor(false), 2).send(library));
+        assertTrue(sent.isEmpty());
+        assertEquals(1, retryCount.get());
+    }
+
+    private void addDirectories(int count) {
+        for (int i = 0; i < count; i++) {
+            StageDirectoryDTO stageDir = new StageDirectoryDTO();
+            stageDir.setPath("/media/dir" + i);
+            library.addDirectory(stageDir);
+        }
+    }
+
+    private LibrarySender createSender(AsyncTaskExecutor executor, int batchSize) {
+        return new LibrarySender(executor, batchSize, runningCount, retryCount) {
+            @Override
+            protected Callable<StatusType> createTask(final List<ImportDTO> importDtos) {
+                return new Callable<StatusType>() {
+                    @Override
+                    public StatusType call() {
+                        sent.add(importDtos);
+                        runningCount.addAndGet(-importDtos.size());
+                        return StatusType.DONE;
+                    }
+                };
+            }
+        };
+    }
+
+    /**
+     * Runs the tasks in the calling thread or rejects them.
+     */
+    private static class TestExecutor implements AsyncTaskExecutor {
+
+        private final boolean reject;
+
+        TestExecutor(boolean reject) {
+            this.reject = reject;
+        }
+
+        @Override
+        public void execute(Runnable task) {
+            if (reject) {
+                throw new TaskRejectedException("Queue full");
+            }
+            task.run();
+        }
+
+        @Override
+        public void execute(Runnable task, long startTimeout) {
+            execute(task);
+        }
+
+        @Override
+        public Future<?> submit(Runnable task) {
+            FutureTask<Object> future = new FutureTask<>(task, null);
+            execute(future);
+            return future;
+        }
+
+        @Override
+        public <T> Future<T> submit(Callable<T> task) {
+            FutureTask<T> future = new FutureTask<>(task);
+            execute(future);
+            return future;
+        }
+    }
+}